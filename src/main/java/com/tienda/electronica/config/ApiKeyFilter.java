@@ -0,0 +1,70 @@
+package com.tienda.electronica.config;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.tienda.electronica.security.PublicRoutes;
+import com.tienda.electronica.service.ApiKeyService;
+import com.tienda.electronica.service.ApiKeyService.Autorizacion;
+import com.tienda.electronica.service.ApiKeyService.Credencial;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Autentica a los clientes máquina por la cabecera {@code X-API-Key} contra el
+ * índice en memoria de {@link ApiKeyService}, sin consultar usuarios ni tokens.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "X-API-Key";
+
+    private final ApiKeyService apiKeyService;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return request.getHeader(HEADER) == null || PublicRoutes.matches(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        final Autorizacion autorizacion = apiKeyService.autorizar(request.getHeader(HEADER), request.getMethod(), path);
+        switch (autorizacion.resultado()) {
+            case INVALIDA -> response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            case SIN_PERMISO -> response.setStatus(HttpStatus.FORBIDDEN.value());
+            case SIN_CUOTA -> {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        String.valueOf((autorizacion.esperaMilisegundos() + 999) / 1000));
+            }
+            case ADMITIDA -> {
+                SecurityContextHolder.getContext().setAuthentication(autenticacion(autorizacion.credencial()));
+                filterChain.doFilter(request, response);
+            }
+        }
+    }
+
+    private static UsernamePasswordAuthenticationToken autenticacion(final Credencial credencial) {
+        final List<SimpleGrantedAuthority> authorities = credencial.scopes().stream()
+                .map(scope -> new SimpleGrantedAuthority("SCOPE_" + scope.valor()))
+                .toList();
+        return UsernamePasswordAuthenticationToken.authenticated("api-key:" + credencial.prefix(), null, authorities);
+    }
+}
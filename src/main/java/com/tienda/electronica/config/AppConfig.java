@@ -1,5 +1,6 @@
 package com.tienda.electronica.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,26 +12,24 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-import com.tienda.electronica.entity.Usuario;
-import com.tienda.electronica.repository.UsuarioRepository;
+import com.tienda.electronica.service.AuthenticatedPrincipal;
+import com.tienda.electronica.service.PrincipalCache;
 
 import lombok.RequiredArgsConstructor;
 
 @Configuration
 @RequiredArgsConstructor
 public class AppConfig {
-    private final UsuarioRepository usuarioRepository;
+    private final PrincipalCache principalCache;
+
+    @Value("${application.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> {
-            final Usuario usuario = usuarioRepository.findByEmail(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrada"));
-            return org.springframework.security.core.userdetails.User.builder()
-                    .username(usuario.getEmail())
-                    .password(usuario.getPassword())
-                    .build();
-        };
+        return username -> principalCache.obtener(username)
+                .map(AuthenticatedPrincipal::userDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrada"));
     }
 
     @Bean
@@ -48,6 +47,6 @@ public class AppConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
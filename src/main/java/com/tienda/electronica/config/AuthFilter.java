@@ -8,16 +8,18 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.tienda.electronica.entity.Token;
-import com.tienda.electronica.entity.Usuario;
-import com.tienda.electronica.repository.TokenRepository;
-import com.tienda.electronica.repository.UsuarioRepository;
+import com.tienda.electronica.security.BearerTokens;
+import com.tienda.electronica.security.PublicRoutes;
+import com.tienda.electronica.service.AuthenticatedPrincipal;
 import com.tienda.electronica.service.JwtService;
+import com.tienda.electronica.service.PrincipalCache;
+import com.tienda.electronica.service.TokenDenyList;
+import com.tienda.electronica.service.TokenStatusStore;
+import com.tienda.electronica.service.VerifiedClaims;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -29,48 +31,48 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TokenStatusStore tokenStatusStore;
+    private final TokenDenyList tokenDenyList;
+    private final PrincipalCache principalCache;
+
+    // Las rutas públicas y las peticiones con API key no pasan por el JWT
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return PublicRoutes.matches(request.getServletPath()) || request.getHeader(ApiKeyFilter.HEADER) != null;
+    }
 
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
-        if (request.getServletPath().contains("/api/auth/")) {
+        final String jwtToken = BearerTokens.extract(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (jwtToken == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        final String jwtToken = authHeader.substring(7);
-        final String username = jwtService.extractUsername(jwtToken);
+        final VerifiedClaims claims = jwtService.verify(jwtToken);
+        final String username = claims.subject();
 
         if (username == null || SecurityContextHolder.getContext().getAuthentication() != null) {
             return;
         }
 
-        final Token token = tokenRepository.findByToken(jwtToken).orElse(null);
-        if (token == null || token.isExpired() || token.isRevoked()) {
+        if (!claims.isAccessToken() || !isActive(jwtToken, claims)) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-        final Optional<Usuario> usuario = usuarioRepository.findByEmail(userDetails.getUsername());
+        final Optional<AuthenticatedPrincipal> principal = principalCache.obtener(username);
 
-        if (usuario.isEmpty()) {
+        if (principal.isEmpty()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final boolean isTokenValid = jwtService.isTokenValid(jwtToken, usuario.get());
+        final UserDetails userDetails = principal.get().userDetails();
+        final boolean isTokenValid = jwtService.isTokenValid(claims, principal.get().usuario());
         if (!isTokenValid) {
             return;
         }
@@ -83,4 +85,11 @@ public class AuthFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authToken);
         filterChain.doFilter(request, response);
     }
+
+    // En modo stateless basta la firma y la lista de revocación en memoria
+    private boolean isActive(final String jwtToken, final VerifiedClaims claims) {
+        return jwtService.isStateless()
+                ? !tokenDenyList.isRevoked(claims)
+                : tokenStatusStore.isActive(jwtToken);
+    }
 }
@@ -0,0 +1,74 @@
+package com.tienda.electronica.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Caché de segundo nivel de Hibernate sobre JCache con Caffeine. Cada región
+ * se crea aquí con su tamaño y TTL de {@code application.cache.regions.*};
+ * Hibernate falla al arrancar si una entidad o consulta usa una región que no
+ * está configurada.
+ */
+@Configuration
+public class CacheConfig {
+    public static final String PRODUCTOS = "productos";
+    public static final String CLIENTES = "clientes";
+    public static final String USUARIOS = "usuarios";
+    public static final String CONSULTAS_PRODUCTOS = "consultas-productos";
+    public static final String CONSULTAS_IDENTIDAD = "consultas-identidad";
+
+    public record Region(Long maxSize, Duration ttl) {
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(final Environment environment) {
+        final Map<String, Region> regiones = Binder.get(environment)
+                .bind("application.cache.regions", Bindable.mapOf(String.class, Region.class))
+                .orElse(Map.of());
+        // Un gestor propio por contexto para no compartir regiones entre aplicaciones
+        final CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("electronica-" + UUID.randomUUID()), getClass().getClassLoader());
+        regiones.forEach((nombre, region) -> cacheManager.createCache(nombre, configuracion(region)));
+        // Las marcas de actualización de tablas no pueden caducar antes que las consultas que invalidan
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                configuracion(new Region(null, null)));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(final CacheManager hibernateCacheManager) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuracion(final Region region) {
+        final CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        // Hibernate guarda el estado desensamblado, no hace falta copiarlo en cada lectura
+        configuracion.setStoreByValue(false);
+        configuracion.setStatisticsEnabled(true);
+        if (region.maxSize() != null) {
+            configuracion.setMaximumSize(OptionalLong.of(region.maxSize()));
+        }
+        if (region.ttl() != null) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        }
+        return configuracion;
+    }
+}
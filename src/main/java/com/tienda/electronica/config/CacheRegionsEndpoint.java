@@ -0,0 +1,92 @@
+package com.tienda.electronica.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.cache.CacheManager;
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Estado de las regiones de la caché de segundo nivel en
+ * {@code /actuator/cacheregions}: aciertos, fallos, tasa de acierto y
+ * desalojos por tamaño o caducidad. El acceso es de solo lectura
+ * ({@code management.endpoint.cacheregions.access}): {@link #vaciar} no se
+ * publica por HTTP y queda para uso dentro del proceso.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+    private final CacheManager hibernateCacheManager;
+
+    public record EstadoRegion(long hits, long misses, double hitRatio, long puts, long evictions) {
+    }
+
+    @ReadOperation
+    public Map<String, EstadoRegion> regiones() {
+        final Map<String, EstadoRegion> regiones = new TreeMap<>();
+        for (final String nombre : hibernateCacheManager.getCacheNames()) {
+            regiones.put(nombre, estado(nombre));
+        }
+        return regiones;
+    }
+
+    @ReadOperation
+    public EstadoRegion region(@Selector final String region) {
+        return existe(region) ? estado(region) : null;
+    }
+
+    @DeleteOperation
+    public boolean vaciar(@Selector final String region) {
+        // Sin las marcas de actualización las consultas cacheadas parecerían vigentes
+        if (!existe(region) || RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME.equals(region)) {
+            return false;
+        }
+        hibernateCacheManager.getCache(region).clear();
+        return true;
+    }
+
+    private boolean existe(final String region) {
+        for (final String nombre : hibernateCacheManager.getCacheNames()) {
+            if (nombre.equals(region)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EstadoRegion estado(final String region) {
+        final CacheStatisticsMXBean estadisticas = estadisticas(region);
+        final long hits = estadisticas.getCacheHits();
+        final long misses = estadisticas.getCacheMisses();
+        final long lecturas = hits + misses;
+        return new EstadoRegion(hits, misses, lecturas == 0 ? 0d : (double) hits / lecturas,
+                estadisticas.getCachePuts(), estadisticas.getCacheEvictions());
+    }
+
+    // Caffeine publica las estadísticas de JCache como MXBean en el servidor de la plataforma
+    private CacheStatisticsMXBean estadisticas(final String region) {
+        final MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName nombre = new ObjectName("javax.cache:type=CacheStatistics,CacheManager="
+                    + hibernateCacheManager.getURI() + ",Cache=" + region);
+            return JMX.newMXBeanProxy(servidor, nombre, CacheStatisticsMXBean.class);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Región inválida: " + region, e);
+        }
+    }
+}
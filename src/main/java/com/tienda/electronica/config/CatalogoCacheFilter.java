@@ -0,0 +1,188 @@
+package com.tienda.electronica.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tienda.electronica.service.ProductoCambiadoEvent;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Caché de respuestas ya serializadas para los listados del catálogo. Guarda
+ * el JSON y su versión gzip, así que un acierto se escribe directamente sin
+ * pasar por el controlador, JPA ni Jackson. La clave lleva la versión del
+ * catálogo, que sube con cada {@link ProductoCambiadoEvent}: las entradas
+ * anteriores dejan de usarse y se desalojan por tamaño o TTL. Un acierto cuya
+ * ETag coincide con {@code If-None-Match} se responde con 304.
+ */
+@Component
+public class CatalogoCacheFilter extends OncePerRequestFilter {
+    public static final String CABECERA_CACHE = "X-Cache";
+
+    private static final String GZIP = "gzip";
+    private static final String LISTADO = "/api/productos";
+    private static final String CATEGORIA = "/api/productos/categoria/";
+    private static final String CON_STOCK = "/api/productos/con-stock";
+    private static final List<String> CABECERAS = List.of("X-Next-Cursor", "X-Total-Count", HttpHeaders.LINK,
+            HttpHeaders.ETAG);
+
+    private record Respuesta(String contentType, Map<String, String> cabeceras, byte[] cuerpo, byte[] gzip) {
+        int peso() {
+            return cuerpo.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final Cache<String, Respuesta> respuestas;
+    private final AtomicLong version = new AtomicLong();
+
+    public CatalogoCacheFilter(
+            @Value("${application.response-cache.max-bytes:33554432}") final long maximoBytes,
+            @Value("${application.response-cache.ttl:PT10M}") final Duration ttl) {
+        this.respuestas = Caffeine.newBuilder()
+                .maximumWeight(maximoBytes)
+                .<String, Respuesta>weigher((clave, respuesta) -> respuesta.peso())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Tras el commit: antes, una lectura podría guardar datos viejos con la versión nueva
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(final ProductoCambiadoEvent evento) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        final String path = request.getServletPath();
+        return !LISTADO.equals(path) && !CON_STOCK.equals(path)
+                && !(path.startsWith(CATEGORIA) && path.length() > CATEGORIA.length());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        // La versión se lee antes de consultar: si el catálogo cambia mientras
+        // tanto, la respuesta queda guardada bajo una versión que ya nadie pide
+        final String clave = version.get() + " " + request.getRequestURL() + "?"
+                + Objects.toString(request.getQueryString(), "");
+        final boolean aceptaGzip = aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        final Respuesta cacheada = respuestas.getIfPresent(clave);
+        if (cacheada != null) {
+            if (noModificada(request, cacheada.cabeceras().get(HttpHeaders.ETAG))) {
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                response.setHeader(HttpHeaders.ETAG, cacheada.cabeceras().get(HttpHeaders.ETAG));
+                response.setHeader(CABECERA_CACHE, "HIT");
+                return;
+            }
+            escribir(response, cacheada, aceptaGzip, "HIT");
+            return;
+        }
+
+        final ContentCachingResponseWrapper envoltura = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, envoltura);
+        if (envoltura.getStatus() != HttpStatus.OK.value() || !esJson(envoltura.getContentType())) {
+            envoltura.copyBodyToResponse();
+            return;
+        }
+        final Respuesta nueva = construir(envoltura);
+        respuestas.put(clave, nueva);
+        escribir(response, nueva, aceptaGzip, "MISS");
+    }
+
+    private static Respuesta construir(final ContentCachingResponseWrapper envoltura) {
+        final Map<String, String> cabeceras = new LinkedHashMap<>();
+        for (final String nombre : CABECERAS) {
+            final String valor = envoltura.getHeader(nombre);
+            if (valor != null) {
+                cabeceras.put(nombre, valor);
+            }
+        }
+        final byte[] cuerpo = envoltura.getContentAsByteArray();
+        final byte[] gzip = comprimir(cuerpo);
+        // En cuerpos muy pequeños gzip ocupa más que el original
+        return new Respuesta(envoltura.getContentType(), Map.copyOf(cabeceras), cuerpo,
+                gzip.length < cuerpo.length ? gzip : null);
+    }
+
+    private static void escribir(final HttpServletResponse response, final Respuesta respuesta,
+            final boolean aceptaGzip, final String resultado) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(respuesta.contentType());
+        respuesta.cabeceras().forEach(response::setHeader);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(CABECERA_CACHE, resultado);
+        byte[] cuerpo = respuesta.cuerpo();
+        if (aceptaGzip && respuesta.gzip() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            cuerpo = respuesta.gzip();
+        }
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    private static boolean noModificada(final HttpServletRequest request, final String etag) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        final ETag actual = ETag.create(etag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidata -> candidata.isWildcard() || actual.compare(candidata, false));
+    }
+
+    private static boolean esJson(final String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    static boolean aceptaGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String parte : acceptEncoding.split(",")) {
+            final String[] valores = parte.trim().split(";");
+            if (GZIP.equalsIgnoreCase(valores[0].trim())) {
+                return valores.length < 2 || !valores[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] comprimir(final byte[] cuerpo) {
+        final ByteArrayOutputStream salida = new ByteArrayOutputStream(cuerpo.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(cuerpo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
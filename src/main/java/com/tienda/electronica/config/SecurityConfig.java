@@ -15,6 +15,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 import com.tienda.electronica.entity.Token;
 import com.tienda.electronica.repository.TokenRepository;
+import com.tienda.electronica.security.BearerTokens;
+import com.tienda.electronica.security.PublicRoutes;
+import com.tienda.electronica.security.TokenHasher;
+import com.tienda.electronica.service.JwtService;
+import com.tienda.electronica.service.TokenDenyList;
+import com.tienda.electronica.service.TokenStatusStore;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,28 +30,25 @@ import lombok.RequiredArgsConstructor;
 @EnableMethodSecurity
 public class SecurityConfig {
     private final AuthFilter jwtAuthFilter;
+    private final ApiKeyFilter apiKeyFilter;
     private final AuthenticationProvider authenticationProvider;
     private final TokenRepository tokenRepository;
+    private final TokenStatusStore tokenStatusStore;
+    private final TokenDenyList tokenDenyList;
+    private final JwtService jwtService;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
-                .authorizeHttpRequests(req -> req.requestMatchers(
-                                "/api/auth/**",
-                                "/", // Permitir acceso a la raíz para la redirección
-                                "/api-docs",
-                                "/api-docs/**",
-                                "/swagger-resources",
-                                "/swagger-resources/**",
-                                "/swagger-ui/**",
-                                "/swagger-ui.html")
+                .authorizeHttpRequests(req -> req.requestMatchers(PublicRoutes.PATTERNS)
                         .permitAll()
                         .anyRequest()
                         .authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(apiKeyFilter, AuthFilter.class)
                 .logout(logout -> logout.logoutUrl("/api/auth/logout")
                         .addLogoutHandler((request, response, authentication) -> {
                             final var authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
@@ -58,14 +61,20 @@ public class SecurityConfig {
     }
 
     private void logout(final String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
+        final String jwtToken = BearerTokens.extract(token);
+        if (jwtToken == null) {
             throw new IllegalArgumentException("El token no es un JWT válido");
         }
-        final String jwtToken = token.substring(7);
-        final Token foundToken = tokenRepository.findByToken(jwtToken)
+        if (jwtService.isStateless()) {
+            tokenDenyList.revocar(jwtService.verify(jwtToken));
+            return;
+        }
+        final String tokenHash = TokenHasher.hash(jwtToken);
+        final Token foundToken = tokenRepository.findByTokenHash(tokenHash)
                 .orElseThrow(() -> new IllegalArgumentException("El token no es válido"));
         foundToken.setExpired(true);
         foundToken.setRevoked(true);
         tokenRepository.save(foundToken);
+        tokenStatusStore.revocar(tokenHash);
     }
 }
@@ -0,0 +1,122 @@
+package com.tienda.electronica.controller;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tienda.electronica.entity.ApiKey;
+import com.tienda.electronica.request.ApiKeyRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.ApiKeyResponse;
+import com.tienda.electronica.service.ApiKeyService;
+import com.tienda.electronica.service.Pagina;
+import com.tienda.electronica.service.PrincipalCache;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/api-keys")
+@Tag(name = "API keys", description = "API para gestión de credenciales de clientes máquina")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+    private final PrincipalCache principalCache;
+
+    @PostMapping
+    @Operation(summary = "Crear API key", description = "Crea una API key; la clave completa solo se devuelve en esta respuesta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "API key creada exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos, cuota por encima del máximo o demasiadas API keys vigentes"),
+            @ApiResponse(responseCode = "403", description = "Solo un usuario puede crear API keys")
+    })
+    public ResponseEntity<ApiKeyResponse> crear(@RequestBody ApiKeyRequest request, Principal principal) {
+        Optional<Long> usuarioId = propietario(principal);
+        if (usuarioId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            ApiKeyService.ApiKeyCreada creada = apiKeyService.crear(request, usuarioId.get());
+            return ResponseEntity.status(HttpStatus.CREATED).body(respuesta(creada.apiKey(), creada.clave()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "Obtener las API keys propias", description = "Retorna las API keys del usuario autenticado, paginadas y sin la clave secreta")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de API keys obtenida exitosamente"),
+            @ApiResponse(responseCode = "403", description = "Solo un usuario puede consultar API keys")
+    })
+    public ResponseEntity<List<ApiKeyResponse>> obtenerTodas(@ParameterObject PaginaRequest pagina,
+            Principal principal) {
+        Optional<Long> usuarioId = propietario(principal);
+        if (usuarioId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Pagina<ApiKey> apiKeys = apiKeyService.listar(usuarioId.get(), pagina);
+        return Paginas.ok(new Pagina<>(apiKeys.elementos().stream()
+                .map(apiKey -> respuesta(apiKey, null))
+                .toList(), apiKeys.siguienteCursor(), apiKeys.total()));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Revocar API key", description = "Revoca una API key propia en todos los nodos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "API key revocada exitosamente"),
+            @ApiResponse(responseCode = "403", description = "Solo un usuario puede revocar API keys"),
+            @ApiResponse(responseCode = "404", description = "API key no encontrada")
+    })
+    public ResponseEntity<Void> revocar(
+            @Parameter(description = "ID de la API key a revocar") @PathVariable Long id,
+            Principal principal) {
+        Optional<Long> usuarioId = propietario(principal);
+        if (usuarioId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return apiKeyService.revocar(id, usuarioId.get())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    // Solo un usuario autenticado con su token; una API key no gestiona API keys
+    private Optional<Long> propietario(Principal principal) {
+        if (!(principal instanceof Authentication autenticacion)
+                || !(autenticacion.getPrincipal() instanceof UserDetails userDetails)) {
+            return Optional.empty();
+        }
+        return principalCache.obtener(userDetails.getUsername())
+                .map(autenticado -> autenticado.usuario().getId());
+    }
+
+    private static ApiKeyResponse respuesta(ApiKey apiKey, String clave) {
+        return new ApiKeyResponse(
+                apiKey.getId(),
+                apiKey.getNombre(),
+                apiKey.getPrefix(),
+                List.of(apiKey.getScopes().split(",")),
+                apiKey.getRequestsPerMinute(),
+                apiKey.isRevoked(),
+                apiKey.getCreatedAt(),
+                clave);
+    }
+}
@@ -1,7 +1,12 @@
 package com.tienda.electronica.controller;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -9,11 +14,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
 import com.tienda.electronica.request.LoginRequest;
 import com.tienda.electronica.response.TokenResponse;
+import com.tienda.electronica.security.LoginRateLimiter;
 import com.tienda.electronica.service.AuthService;
+import com.tienda.electronica.service.SigningKeyService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -21,7 +30,11 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/auth")
 @Tag(name = "Autenticación", description = "API para gestión de autenticación")
 public class AuthController {
+    private static final MediaType JWK_SET = MediaType.parseMediaType("application/jwk-set+json");
+
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final SigningKeyService signingKeyService;
 
     @PostMapping("/crear-cuenta")
     public ResponseEntity<TokenResponse> crearCuenta(@RequestBody final Usuario usuario) {
@@ -30,13 +43,61 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<TokenResponse> login(@RequestBody final LoginRequest request) {
+    public ResponseEntity<TokenResponse> login(
+            @RequestBody final LoginRequest request,
+            final HttpServletRequest httpRequest) {
+        final long espera = loginRateLimiter.intentarLogin(request.email(), httpRequest.getRemoteAddr());
+        if (espera > 0) {
+            return demasiadasSolicitudes(espera);
+        }
         final TokenResponse tokenResponse = authService.login(request);
         return ResponseEntity.ok(tokenResponse);
     }
 
     @PostMapping("/refresh-token")
-    public TokenResponse refreshToken(@RequestHeader(HttpHeaders.AUTHORIZATION) final String authHeader) {
-        return authService.refreshToken(authHeader);
+    public ResponseEntity<TokenResponse> refreshToken(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) final String authHeader,
+            final HttpServletRequest httpRequest) {
+        final long espera = loginRateLimiter.intentarRefresh(httpRequest.getRemoteAddr());
+        if (espera > 0) {
+            return demasiadasSolicitudes(espera);
+        }
+        return ResponseEntity.ok(authService.refreshToken(authHeader));
+    }
+
+    // Claves públicas para que otros servicios verifiquen los tokens sin llamarnos
+    @GetMapping("/jwks.json")
+    public ResponseEntity<String> jwks(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+        if (!signingKeyService.isAsymmetric()) {
+            return ResponseEntity.notFound().build();
+        }
+        final String etag = signingKeyService.etag();
+        final CacheControl cacheControl = CacheControl.maxAge(signingKeyService.maxAgeJwks()).cachePublic();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(JWK_SET)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(signingKeyService.jwks());
+    }
+
+    // Pool de hashing lleno al crear cuenta o hacer login
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<Void> servicioSaturado(final ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+                .build();
+    }
+
+    private static ResponseEntity<TokenResponse> demasiadasSolicitudes(final long esperaMilisegundos) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((esperaMilisegundos + 999) / 1000))
+                .build();
     }
 }
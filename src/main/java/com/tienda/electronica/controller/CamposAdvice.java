@@ -0,0 +1,117 @@
+package com.tienda.electronica.controller;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tienda.electronica.exceptions.CamposInvalidosException;
+import com.tienda.electronica.service.Proyecciones;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Recorta el JSON a los campos de {@code fields} (más el id) en los endpoints
+ * que declaran ese parámetro. Se aplica a un objeto o a una lista de objetos.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class CamposAdvice implements ResponseBodyAdvice<Object> {
+    static final String PARAMETRO = "fields";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, Set<String>> camposPorTipo = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean supports(@NonNull final MethodParameter returnType,
+            @NonNull final Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                && returnType.getMethod() != null
+                && Arrays.stream(returnType.getMethod().getParameters())
+                        .map(parametro -> parametro.getAnnotation(RequestParam.class))
+                        .anyMatch(anotacion -> anotacion != null && PARAMETRO.equals(anotacion.name()));
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, @NonNull final MethodParameter returnType,
+            @NonNull final MediaType selectedContentType,
+            @NonNull final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            @NonNull final ServerHttpRequest request, @NonNull final ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        final Set<String> campos = new LinkedHashSet<>(
+                Proyecciones.parsear(servletRequest.getServletRequest().getParameter(PARAMETRO)));
+        if (campos.isEmpty()) {
+            return body;
+        }
+        // El id se conserva siempre para poder relacionar los resultados
+        campos.add("id");
+        final Set<String> conocidos = camposDe(returnType);
+        if (conocidos != null) {
+            // Contra el tipo y no contra el cuerpo: una lista vacía también rechaza campos desconocidos
+            campos.stream()
+                    .filter(campo -> !conocidos.contains(campo))
+                    .findFirst()
+                    .ifPresent(campo -> {
+                        throw new CamposInvalidosException("Campo desconocido: " + campo);
+                    });
+        }
+        final JsonNode arbol = objectMapper.valueToTree(body);
+        if (arbol.isArray()) {
+            arbol.forEach(elemento -> recortar(elemento, campos));
+        } else {
+            recortar(arbol, campos);
+        }
+        return arbol;
+    }
+
+    // Propiedades que Jackson escribe para el cuerpo o, si es una colección, para sus elementos
+    private Set<String> camposDe(final MethodParameter returnType) {
+        ResolvableType tipo = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(tipo.toClass())) {
+            tipo = tipo.as(HttpEntity.class).getGeneric(0);
+        }
+        if (Collection.class.isAssignableFrom(tipo.toClass())) {
+            tipo = tipo.asCollection().getGeneric(0);
+        }
+        final Class<?> clase = tipo.resolve();
+        if (clase == null || clase == Object.class) {
+            return null;
+        }
+        return camposPorTipo.computeIfAbsent(clase, c -> objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(c))
+                .findProperties()
+                .stream()
+                .filter(BeanPropertyDefinition::couldSerialize)
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    private static void recortar(final JsonNode nodo, final Set<String> campos) {
+        if (nodo instanceof ObjectNode objeto) {
+            objeto.retain(campos);
+        }
+    }
+}
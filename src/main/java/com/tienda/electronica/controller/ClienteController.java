@@ -2,6 +2,7 @@ package com.tienda.electronica.controller;
 
 import java.util.List;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,13 +16,17 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tienda.electronica.entity.Cliente;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
 import com.tienda.electronica.service.ClienteService;
+import com.tienda.electronica.service.Lote;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -36,22 +41,42 @@ public class ClienteController {
     @GetMapping
     @Operation(summary = "Obtener todos los clientes", description = "Retorna una lista de todos los clientes registrados en la tienda")
     @ApiResponse(responseCode = "200", description = "Lista de clientes obtenida exitosamente")
-    public ResponseEntity<List<Cliente>> obtenerTodos() {
-        List<Cliente> clientes = clienteService.obtenerTodos();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<List<Cliente>> obtenerTodos(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, clienteService.etagListado(),
+                () -> fields == null ? clienteService.obtenerTodos(pagina)
+                        : clienteService.obtenerTodos(pagina, fields));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios clientes por ID", description = "Retorna los clientes indicados en el mismo orden y los IDs que no existen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clientes obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga")
+    })
+    public ResponseEntity<Lote<Cliente>> obtenerVarios(
+            @Parameter(description = "IDs separados por coma") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(clienteService.obtenerVarios(ids));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener cliente por ID", description = "Retorna un cliente específico por su ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Cliente encontrado"),
+            @ApiResponse(responseCode = "304", description = "Cliente sin cambios desde la versión indicada"),
             @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
     })
     public ResponseEntity<Cliente> obtenerPorId(
-            @Parameter(description = "ID del cliente a buscar") @PathVariable Long id) {
-        return clienteService.obtenerPorId(id)
-                .map(cliente -> ResponseEntity.ok(cliente))
-                .orElse(ResponseEntity.notFound().build());
+            @Parameter(description = "ID del cliente a buscar") @PathVariable Long id,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Condicionales.obtener(request, clienteService.obtenerVersion(id),
+                () -> fields == null ? clienteService.obtenerPorId(id)
+                        : clienteService.obtenerPorId(id, fields),
+                cliente -> new VersionFila(cliente.getId(), cliente.getVersion(), cliente.getFechaActualizacion()));
     }
 
     @PostMapping
@@ -99,34 +124,52 @@ public class ClienteController {
     @GetMapping("/activos")
     @Operation(summary = "Obtener clientes activos", description = "Retorna solo los clientes que están activos")
     @ApiResponse(responseCode = "200", description = "Lista de clientes activos obtenida exitosamente")
-    public ResponseEntity<List<Cliente>> obtenerActivos() {
-        List<Cliente> clientes = clienteService.obtenerActivos();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<List<Cliente>> obtenerActivos(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, clienteService.etagListado(),
+                () -> fields == null ? clienteService.obtenerActivos(pagina)
+                        : clienteService.obtenerActivos(pagina, fields));
     }
 
     @GetMapping("/premium")
     @Operation(summary = "Obtener clientes premium", description = "Retorna solo los clientes con membresía premium")
     @ApiResponse(responseCode = "200", description = "Lista de clientes premium obtenida exitosamente")
-    public ResponseEntity<List<Cliente>> obtenerClientesPremium() {
-        List<Cliente> clientes = clienteService.obtenerClientesPremium();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<List<Cliente>> obtenerClientesPremium(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, clienteService.etagListado(),
+                () -> fields == null ? clienteService.obtenerClientesPremium(pagina)
+                        : clienteService.obtenerClientesPremium(pagina, fields));
     }
 
     @GetMapping("/buscar")
     @Operation(summary = "Buscar clientes por nombre", description = "Busca clientes que contengan el texto especificado en su nombre o apellidos")
     @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente")
     public ResponseEntity<List<Cliente>> buscarPorNombre(
-            @Parameter(description = "Texto a buscar en nombre o apellidos") @RequestParam String texto) {
-        List<Cliente> clientes = clienteService.buscarPorNombre(texto);
-        return ResponseEntity.ok(clientes);
+            @Parameter(description = "Texto a buscar en nombre o apellidos") @RequestParam String texto,
+            @ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, clienteService.etagListado(),
+                () -> fields == null ? clienteService.buscarPorNombre(texto, pagina)
+                        : clienteService.buscarPorNombre(texto, pagina, fields));
     }
 
     @GetMapping("/ciudad/{ciudad}")
     @Operation(summary = "Obtener clientes por ciudad", description = "Retorna clientes filtrados por ciudad")
     @ApiResponse(responseCode = "200", description = "Lista de clientes por ciudad obtenida exitosamente")
     public ResponseEntity<List<Cliente>> obtenerPorCiudad(
-            @Parameter(description = "Ciudad de los clientes") @PathVariable String ciudad) {
-        List<Cliente> clientes = clienteService.obtenerPorCiudad(ciudad);
-        return ResponseEntity.ok(clientes);
+            @Parameter(description = "Ciudad de los clientes") @PathVariable String ciudad,
+            @ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, clienteService.etagListado(),
+                () -> fields == null ? clienteService.obtenerPorCiudad(ciudad, pagina)
+                        : clienteService.obtenerPorCiudad(ciudad, pagina, fields));
     }
 }
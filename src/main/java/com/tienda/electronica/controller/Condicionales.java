@@ -0,0 +1,104 @@
+package com.tienda.electronica.controller;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.service.Proyecciones;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * GET condicionales. Para un recurso se consulta primero solo su versión: si
+ * coincide con {@code If-None-Match} (o no cambió desde {@code If-Modified-Since})
+ * se responde 304 sin cargar ni serializar la entidad. La ETag fuerte es
+ * {@code "id-version"}, seguida de las dependencias de la fila si las tiene y
+ * de los campos de {@code fields}, porque cada proyección es otra representación.
+ */
+final class Condicionales {
+
+    private Condicionales() {
+    }
+
+    static <T> ResponseEntity<T> obtener(final HttpServletRequest request, final Optional<VersionFila> actual,
+            final Supplier<Optional<T>> cargar, final Function<T, VersionFila> version) {
+        if (actual.isPresent()) {
+            final VersionFila fila = actual.get();
+            if (noModificado(request, etag(request, fila), fila.fechaActualizacion())) {
+                return cabeceras(request, ResponseEntity.status(HttpStatus.NOT_MODIFIED), fila).build();
+            }
+        }
+        // La ETag sale de lo cargado por si cambió después de consultar la versión
+        return cargar.get()
+                .map(cuerpo -> cabeceras(request, ResponseEntity.ok(), version.apply(cuerpo)).body(cuerpo))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    static boolean noModificado(final HttpServletRequest request, final String etag, final Instant modificado) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+            final ETag actual = ETag.create(etag);
+            // If-None-Match usa comparación débil
+            return ETag.parse(ifNoneMatch).stream()
+                    .anyMatch(candidata -> candidata.isWildcard() || actual.compare(candidata, false));
+        }
+        if (modificado == null) {
+            return false;
+        }
+        final long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Las fechas HTTP no llevan milisegundos
+        return ifModifiedSince >= 0 && modificado.getEpochSecond() <= ifModifiedSince / 1000;
+    }
+
+    private static ResponseEntity.BodyBuilder cabeceras(final HttpServletRequest request,
+            final ResponseEntity.BodyBuilder respuesta, final VersionFila fila) {
+        if (fila == null) {
+            return respuesta;
+        }
+        final String etag = etag(request, fila);
+        if (etag != null) {
+            respuesta.eTag(etag);
+        }
+        if (fila.fechaActualizacion() != null) {
+            respuesta.lastModified(fila.fechaActualizacion());
+        }
+        return respuesta;
+    }
+
+    private static String etag(final HttpServletRequest request, final VersionFila fila) {
+        if (fila.id() == null || fila.version() == null) {
+            return null;
+        }
+        final StringBuilder etag = new StringBuilder("\"").append(fila.id()).append('-').append(fila.version());
+        if (fila.dependencias() != null) {
+            etag.append('-').append(fila.dependencias());
+        }
+        // Ordenados y con el id, que siempre se devuelve: "nombre,id" y "nombre" son lo mismo
+        final Set<String> campos = new TreeSet<>(Proyecciones.parsear(request.getParameter(CamposAdvice.PARAMETRO)));
+        if (!campos.isEmpty()) {
+            campos.add("id");
+            etag.append(';').append(String.join(",", campos));
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tienda.electronica.controller;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.tienda.electronica.service.Pagina;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Respuesta de los listados paginados. El cuerpo sigue siendo el array de
+ * elementos; el cursor de la página siguiente y el total aproximado viajan en
+ * cabeceras.
+ */
+final class Paginas {
+    static final String SIGUIENTE_CURSOR = "X-Next-Cursor";
+    static final String TOTAL = "X-Total-Count";
+
+    private Paginas() {
+    }
+
+    /**
+     * Con la ETag débil del listado: si coincide se responde 304 sin consultar.
+     */
+    static <T> ResponseEntity<List<T>> ok(final HttpServletRequest request, final String etag,
+            final Supplier<Pagina<T>> pagina) {
+        if (etag != null && Condicionales.noModificado(request, etag, null)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        final ResponseEntity<List<T>> respuesta = ok(pagina.get());
+        if (etag == null) {
+            return respuesta;
+        }
+        return ResponseEntity.ok().headers(respuesta.getHeaders()).eTag(etag).body(respuesta.getBody());
+    }
+
+    static <T> ResponseEntity<List<T>> ok(final Pagina<T> pagina) {
+        final ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.siguienteCursor() != null) {
+            final String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", pagina.siguienteCursor())
+                    .toUriString();
+            respuesta.header(SIGUIENTE_CURSOR, pagina.siguienteCursor())
+                    .header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        if (pagina.total() != null) {
+            respuesta.header(TOTAL, String.valueOf(pagina.total()));
+        }
+        return respuesta.body(pagina.elementos());
+    }
+}
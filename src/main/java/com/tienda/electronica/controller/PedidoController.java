@@ -1,7 +1,9 @@
 package com.tienda.electronica.controller;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,9 +13,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tienda.electronica.entity.Pedido;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.PedidoDetalleResponse;
+import com.tienda.electronica.response.PedidoResumenResponse;
+import com.tienda.electronica.service.Lote;
 import com.tienda.electronica.service.PedidoService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +29,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -35,22 +44,41 @@ public class PedidoController {
     @GetMapping
     @Operation(summary = "Obtener todos los pedidos", description = "Retorna una lista de todos los pedidos registrados")
     @ApiResponse(responseCode = "200", description = "Lista de pedidos obtenida exitosamente")
-    public ResponseEntity<List<Pedido>> obtenerTodos() {
-        List<Pedido> pedidos = pedidoService.obtenerTodos();
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<List<PedidoResumenResponse>> obtenerTodos(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, pedidoService.etagListado(), () -> pedidoService.obtenerTodos(pagina));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios pedidos por ID", description = "Retorna los pedidos indicados en el mismo orden y los IDs que no existen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pedidos obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga")
+    })
+    public ResponseEntity<Lote<PedidoDetalleResponse>> obtenerVarios(
+            @Parameter(description = "IDs separados por coma") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(pedidoService.obtenerVarios(ids));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener pedido por ID", description = "Retorna un pedido específico por su ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pedido encontrado"),
+            @ApiResponse(responseCode = "304", description = "Pedido sin cambios desde la versión indicada"),
             @ApiResponse(responseCode = "404", description = "Pedido no encontrado")
     })
-    public ResponseEntity<Pedido> obtenerPorId(
-            @Parameter(description = "ID del pedido a buscar") @PathVariable Long id) {
-        return pedidoService.obtenerPorId(id)
-                .map(pedido -> ResponseEntity.ok(pedido))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<PedidoDetalleResponse> obtenerPorId(
+            @Parameter(description = "ID del pedido a buscar") @PathVariable Long id,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        // La respuesta no trae las versiones del cliente y los productos: se usa la leída antes de
+        // cargar, que nunca es posterior a lo servido
+        Optional<VersionFila> version = pedidoService.obtenerVersion(id);
+        return Condicionales.obtener(request, version, () -> pedidoService.obtenerPorId(id),
+                pedido -> version.orElse(null));
     }
 
     @PostMapping
@@ -59,9 +87,8 @@ public class PedidoController {
             @ApiResponse(responseCode = "201", description = "Pedido creado exitosamente"),
             @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
     })
-    public ResponseEntity<Pedido> crear(@RequestBody @Valid Pedido pedido) {
-        Pedido pedidoCreado = pedidoService.crear(pedido);
-        return ResponseEntity.status(HttpStatus.CREATED).body(pedidoCreado);
+    public ResponseEntity<PedidoDetalleResponse> crear(@RequestBody @Valid Pedido pedido) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(pedidoService.crearDetalle(pedido));
     }
 
     @PutMapping("/{id}")
@@ -71,12 +98,11 @@ public class PedidoController {
             @ApiResponse(responseCode = "404", description = "Pedido no encontrado"),
             @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
     })
-    public ResponseEntity<Pedido> actualizar(
+    public ResponseEntity<PedidoDetalleResponse> actualizar(
             @Parameter(description = "ID del pedido a actualizar") @PathVariable Long id,
             @RequestBody @Valid Pedido pedido) {
         try {
-            Pedido pedidoActualizado = pedidoService.actualizar(id, pedido);
-            return ResponseEntity.ok(pedidoActualizado);
+            return ResponseEntity.ok(pedidoService.actualizarDetalle(id, pedido));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -97,10 +123,25 @@ public class PedidoController {
     @GetMapping("/estado/{estado}")
     @Operation(summary = "Obtener pedidos por estado", description = "Retorna pedidos filtrados por estado")
     @ApiResponse(responseCode = "200", description = "Lista de pedidos por estado obtenida exitosamente")
-    public ResponseEntity<List<Pedido>> obtenerPorEstado(
-            @Parameter(description = "Estado del pedido") @PathVariable Pedido.EstadoPedido estado) {
-        List<Pedido> pedidos = pedidoService.obtenerPorEstado(estado);
-        return ResponseEntity.ok(pedidos);
+    public ResponseEntity<List<PedidoResumenResponse>> obtenerPorEstado(
+            @Parameter(description = "Estado del pedido") @PathVariable Pedido.EstadoPedido estado,
+            @ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, pedidoService.etagListado(), () -> pedidoService.obtenerPorEstado(estado, pagina));
+    }
+
+    @GetMapping("/cliente/{clienteId}")
+    @Operation(summary = "Obtener pedidos de un cliente", description = "Retorna los pedidos de un cliente, del más reciente al más antiguo")
+    @ApiResponse(responseCode = "200", description = "Lista de pedidos del cliente obtenida exitosamente")
+    public ResponseEntity<List<PedidoResumenResponse>> obtenerPorCliente(
+            @Parameter(description = "ID del cliente") @PathVariable Long clienteId,
+            @ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, pedidoService.etagListado(), () -> pedidoService.obtenerPorCliente(clienteId, pagina));
     }
 
 }
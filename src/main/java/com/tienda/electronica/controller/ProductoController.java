@@ -1,7 +1,9 @@
 package com.tienda.electronica.controller;
 
+import java.math.BigDecimal;
 import java.util.List;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,9 +13,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.FacetasResponse;
+import com.tienda.electronica.response.SugerenciaResponse;
+import com.tienda.electronica.service.CambiosProductos;
+import com.tienda.electronica.service.Lote;
 import com.tienda.electronica.service.ProductoService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +32,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -35,22 +47,42 @@ public class ProductoController {
     @GetMapping
     @Operation(summary = "Obtener todos los productos", description = "Retorna una lista de todos los productos registrados")
     @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente")
-    public ResponseEntity<List<Producto>> obtenerTodos() {
-        List<Producto> productos = productoService.obtenerTodos();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<List<Producto>> obtenerTodos(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, productoService.etagListado(),
+                () -> fields == null ? productoService.obtenerTodos(pagina)
+                        : productoService.obtenerTodos(pagina, fields));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios productos por ID", description = "Retorna los productos indicados en el mismo orden y los IDs que no existen")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga")
+    })
+    public ResponseEntity<Lote<Producto>> obtenerVarios(
+            @Parameter(description = "IDs separados por coma") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(productoService.obtenerVarios(ids));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener producto por ID", description = "Retorna un producto específico por su ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+            @ApiResponse(responseCode = "304", description = "Producto sin cambios desde la versión indicada"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
     public ResponseEntity<Producto> obtenerPorId(
-            @Parameter(description = "ID del producto a buscar") @PathVariable Long id) {
-        return productoService.obtenerPorId(id)
-                .map(producto -> ResponseEntity.ok(producto))
-                .orElse(ResponseEntity.notFound().build());
+            @Parameter(description = "ID del producto a buscar") @PathVariable Long id,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Condicionales.obtener(request, productoService.obtenerVersion(id),
+                () -> fields == null ? productoService.obtenerPorId(id)
+                        : productoService.obtenerPorId(id, fields),
+                producto -> new VersionFila(producto.getId(), producto.getVersion(), producto.getFechaActualizacion()));
     }
 
     @PostMapping
@@ -98,16 +130,99 @@ public class ProductoController {
     @Operation(summary = "Obtener productos por categoría", description = "Retorna productos filtrados por categoría")
     @ApiResponse(responseCode = "200", description = "Lista de productos por categoría obtenida exitosamente")
     public ResponseEntity<List<Producto>> obtenerPorCategoria(
-            @Parameter(description = "Categoría de productos a buscar") @PathVariable String categoria) {
-        List<Producto> productos = productoService.obtenerPorCategoria(categoria);
-        return ResponseEntity.ok(productos);
+            @Parameter(description = "Categoría de productos a buscar") @PathVariable String categoria,
+            @ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, productoService.etagListado(),
+                () -> fields == null ? productoService.obtenerPorCategoria(categoria, pagina)
+                        : productoService.obtenerPorCategoria(categoria, pagina, fields));
     }
 
     @GetMapping("/con-stock")
     @Operation(summary = "Obtener productos con stock", description = "Retorna solo los productos que tienen stock disponible")
     @ApiResponse(responseCode = "200", description = "Lista de productos con stock obtenida exitosamente")
-    public ResponseEntity<List<Producto>> obtenerConStock() {
-        List<Producto> productos = productoService.obtenerConStock();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<List<Producto>> obtenerConStock(@ParameterObject PaginaRequest pagina,
+            @Parameter(description = "Campos a devolver separados por coma; el id se incluye siempre")
+            @RequestParam(name = "fields", required = false) String fields,
+            HttpServletRequest request) {
+        return Paginas.ok(request, productoService.etagListado(),
+                () -> fields == null ? productoService.obtenerConStock(pagina)
+                        : productoService.obtenerConStock(pagina, fields));
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar productos", description = "Busca en nombre, categoría y descripción, ordena por relevancia y tolera errores de escritura")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Cursor o límite inválidos")
+    })
+    public ResponseEntity<List<Producto>> buscar(
+            @Parameter(description = "Texto a buscar") @RequestParam String q,
+            @ParameterObject PaginaRequest pagina) {
+        return Paginas.ok(productoService.buscar(q, pagina));
+    }
+
+    @GetMapping("/explorar")
+    @Operation(summary = "Explorar catálogo", description = "Filtra por categorías, disponibilidad y tramos de precio; varios valores de un filtro se combinan con O y los filtros entre sí con Y")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Tramo de precio, cursor o límite inválidos")
+    })
+    public ResponseEntity<List<Producto>> explorar(@ParameterObject ExplorarRequest filtro,
+            @ParameterObject PaginaRequest pagina) {
+        return Paginas.ok(productoService.explorar(filtro, pagina));
+    }
+
+    @GetMapping("/explorar/facetas")
+    @Operation(summary = "Obtener facetas del catálogo", description = "Cuenta los productos de cada categoría, con stock y de cada tramo de precio para los filtros dados")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Facetas obtenidas exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Tramo de precio inválido")
+    })
+    public ResponseEntity<FacetasResponse> obtenerFacetas(@ParameterObject ExplorarRequest filtro) {
+        return ResponseEntity.ok(productoService.obtenerFacetas(filtro));
+    }
+
+    @GetMapping("/por-precio")
+    @Operation(summary = "Obtener productos por precio", description = "Retorna los productos de un rango de precios ordenados por precio y, a igual precio, por id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Rango, orden, cursor o límite inválidos")
+    })
+    public ResponseEntity<List<Producto>> obtenerPorPrecio(
+            @Parameter(description = "Precio mínimo, incluido") @RequestParam(required = false) BigDecimal minimo,
+            @Parameter(description = "Precio máximo, incluido") @RequestParam(required = false) BigDecimal maximo,
+            @Parameter(description = "asc (más baratos primero) o desc") @RequestParam(defaultValue = "asc") String orden,
+            @ParameterObject PaginaRequest pagina) {
+        if (!"asc".equalsIgnoreCase(orden) && !"desc".equalsIgnoreCase(orden)) {
+            throw new FiltroInvalidoException("El orden debe ser asc o desc");
+        }
+        return Paginas.ok(productoService.obtenerPorPrecio(minimo, maximo, "desc".equalsIgnoreCase(orden), pagina));
+    }
+
+    @GetMapping("/sugerencias")
+    @Operation(summary = "Sugerir productos", description = "Autocompleta por prefijo de cualquier palabra del nombre; primero los productos con stock y después los más vendidos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Límite inválido")
+    })
+    public ResponseEntity<List<SugerenciaResponse>> sugerir(
+            @Parameter(description = "Texto escrito hasta el momento") @RequestParam String prefijo,
+            @Parameter(description = "Número máximo de sugerencias") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(productoService.sugerir(prefijo, limite));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Obtener cambios del catálogo", description = "Retorna los productos creados, modificados o eliminados después de una secuencia y la secuencia para la siguiente sincronización")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cambios obtenidos exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Secuencia o límite inválidos")
+    })
+    public ResponseEntity<CambiosProductos> obtenerCambios(
+            @Parameter(description = "Última secuencia sincronizada; 0 en la primera llamada") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Número máximo de cambios a devolver") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(productoService.obtenerCambios(since, limite));
     }
 }
@@ -3,6 +3,7 @@ package com.tienda.electronica.controller;
 import java.util.List;
 import java.util.Optional;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.request.PaginaRequest;
 import com.tienda.electronica.service.UsuarioService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,9 +37,8 @@ public class UsuarioController {
     @GetMapping
     @Operation(summary = "Obtener todos los usuarios", description = "Retorna una lista de todos los usuarios registrados")
     @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente")
-    public ResponseEntity<List<Usuario>> obtenerTodos() {
-        List<Usuario> usuarios = usuarioService.obtenerTodos();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<List<Usuario>> obtenerTodos(@ParameterObject PaginaRequest pagina) {
+        return Paginas.ok(usuarioService.obtenerTodos(pagina));
     }
 
     @GetMapping("/{id}")
@@ -86,9 +87,8 @@ public class UsuarioController {
     @GetMapping("/activos")
     @Operation(summary = "Obtener usuarios activos", description = "Retorna solo los usuarios que están activos")
     @ApiResponse(responseCode = "200", description = "Lista de usuarios activos obtenida exitosamente")
-    public ResponseEntity<List<Usuario>> obtenerActivos() {
-        List<Usuario> usuarios = usuarioService.obtenerActivos();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<List<Usuario>> obtenerActivos(@ParameterObject PaginaRequest pagina) {
+        return Paginas.ok(usuarioService.obtenerActivos(pagina));
     }
 
     @GetMapping("/buscar")
@@ -0,0 +1,81 @@
+package com.tienda.electronica.entity;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Credencial de un cliente máquina. La clave completa solo se muestra al
+ * crearla; se guarda su prefijo para buscarla y el SHA-256 para comprobarla.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "api_keys")
+@Table(indexes = {
+        @Index(name = "idx_api_keys_prefix", columnList = "prefix", unique = true),
+        @Index(name = "idx_api_keys_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_api_keys_usuario_id", columnList = "usuario_id")
+})
+public class ApiKey {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(length = 16, nullable = false)
+    private String prefix;
+
+    @Column(name = "key_hash", length = 43, nullable = false)
+    private String keyHash;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    // Usuario que la creó; solo él puede verla y revocarla
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    // Scopes separados por comas, p. ej. "productos:read,pedidos:read"
+    @Column(nullable = false)
+    private String scopes;
+
+    @Column(name = "requests_per_minute", nullable = false)
+    private int requestsPerMinute;
+
+    private boolean revoked;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Permite a cada nodo recargar solo las claves que cambiaron
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // Microsegundos, la misma precisión con la que vuelve de la base de datos
+    @PrePersist
+    void alCrear() {
+        final Instant ahora = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (createdAt == null) {
+            createdAt = ahora;
+        }
+        updatedAt = ahora;
+    }
+
+    @PreUpdate
+    void alActualizar() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tienda.electronica.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Registro de cambios del catálogo. La secuencia crece con cada alta,
+ * modificación o baja; las bajas quedan como lápidas con {@code eliminado}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "cambios_productos")
+@Table(indexes = @Index(name = "idx_cambios_productos_producto_id", columnList = "producto_id"))
+public class CambioProducto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long secuencia;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    private boolean eliminado;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
@@ -39,7 +39,7 @@ public class DetallePedido {
     private Pedido pedido;
 
     @NotNull(message = "El producto es obligatorio")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id", nullable = false)
     private Producto producto;
 
@@ -1,28 +1,37 @@
 package com.tienda.electronica.entity;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tienda.electronica.service.CambiosTablas;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,11 +39,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(CambiosTablas.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+        @Index(name = "idx_pedidos_cliente_fecha", columnList = "cliente_id, fecha_pedido desc, id desc"),
+        @Index(name = "idx_pedidos_estado_id", columnList = "estado, id")
+})
 public class Pedido {
 
     public enum EstadoPedido {
@@ -50,12 +63,12 @@ public class Pedido {
     private Long id;
 
     @NotNull(message = "El cliente es obligatorio")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false)
     @JsonIgnoreProperties({ "pedidos" })
     private Cliente cliente;
 
-    @Column(name = "fecha_pedido")
+    @Column(name = "fecha_pedido", nullable = false)
     private LocalDateTime fechaPedido;
 
     @Enumerated(EnumType.STRING)
@@ -92,6 +105,15 @@ public class Pedido {
 
     private String observaciones;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "fecha_actualizacion")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant fechaActualizacion;
+
     @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference(value = "pedido-detalles")
     private List<DetallePedido> detalles;
@@ -101,5 +123,8 @@ public class Pedido {
         if (this.numeroSeguimiento == null) {
             this.numeroSeguimiento = UUID.randomUUID().toString();
         }
+        // La fecha forma parte del cursor de paginación: debe coincidir con lo que guarda la base
+        this.fechaPedido = (this.fechaPedido != null ? this.fechaPedido : LocalDateTime.now())
+                .truncatedTo(ChronoUnit.MICROS);
     }
 }
@@ -0,0 +1,58 @@
+package com.tienda.electronica.entity;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una fila por sesión (familia de refresh tokens). Al rotar se sobrescribe el
+ * hash vigente y el anterior queda en {@code previousHash} para detectar su
+ * reutilización.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "refresh_tokens")
+@Table(indexes = {
+        @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_previous_hash", columnList = "previous_hash"),
+        @Index(name = "idx_refresh_tokens_usuario_id", columnList = "usuario_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "token_hash", length = 43, nullable = false)
+    private String tokenHash;
+
+    @Column(name = "previous_hash", length = 43)
+    private String previousHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Usuario usuario;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    private boolean revoked;
+}
@@ -0,0 +1,44 @@
+package com.tienda.electronica.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Par de claves para firmar JWT, compartido por todos los nodos. El kid es el
+ * thumbprint del JWK público y la clave privada se guarda en PKCS#8.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity(name = "signing_keys")
+@Table(indexes = @Index(name = "idx_signing_keys_active_from", columnList = "active_from"))
+public class SigningKey {
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Column(length = 16, nullable = false)
+    private String algorithm;
+
+    @Column(name = "key_algorithm", length = 16, nullable = false)
+    private String keyAlgorithm;
+
+    @Column(name = "public_key", length = 512, nullable = false)
+    private byte[] publicKey;
+
+    @Column(name = "private_key", length = 512, nullable = false)
+    private byte[] privateKey;
+
+    @Column(name = "active_from", nullable = false)
+    private Instant activeFrom;
+}
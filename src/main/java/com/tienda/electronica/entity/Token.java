@@ -1,6 +1,9 @@
 package com.tienda.electronica.entity;
 
+import java.time.Instant;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.tienda.electronica.security.TokenHasher;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,8 +12,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,6 +27,11 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "tokens")
+@Table(indexes = {
+        @Index(name = "idx_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_tokens_usuario_id", columnList = "usuario_id"),
+        @Index(name = "idx_tokens_expires_at", columnList = "expires_at")
+})
 public class Token {
     public enum TokenType {
         BEARER
@@ -30,9 +41,13 @@ public class Token {
     @GeneratedValue
     public Long id;
 
-    @Column(unique = true)
+    @Column(length = 1024)
     public String token;
 
+    // SHA-256 del token en base64url: ancho fijo para búsquedas indexadas
+    @Column(name = "token_hash", length = 43, nullable = false)
+    public String tokenHash;
+
     @Enumerated(EnumType.STRING)
     public TokenType type = TokenType.BEARER;
 
@@ -40,8 +55,18 @@ public class Token {
 
     public boolean expired;
 
+    @Column(name = "expires_at")
+    public Instant expiresAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id")
     @JsonBackReference
     public Usuario usuario;
+
+    @PrePersist
+    public void calcularTokenHash() {
+        if (tokenHash == null && token != null) {
+            tokenHash = TokenHasher.hash(token);
+        }
+    }
 }
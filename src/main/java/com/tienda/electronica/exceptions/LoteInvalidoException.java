@@ -0,0 +1,11 @@
+package com.tienda.electronica.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class LoteInvalidoException extends RuntimeException {
+    public LoteInvalidoException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,18 @@
+package com.tienda.electronica.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServicioSaturadoException extends RuntimeException {
+    private final long retryAfterSegundos;
+
+    public ServicioSaturadoException(String mensaje, long retryAfterSegundos) {
+        super(mensaje);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
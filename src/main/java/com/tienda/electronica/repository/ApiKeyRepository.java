@@ -0,0 +1,24 @@
+package com.tienda.electronica.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.tienda.electronica.entity.ApiKey;
+
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+    List<ApiKey> findByRevokedFalse();
+
+    List<ApiKey> findByUpdatedAtAfter(Instant desde);
+
+    List<ApiKey> findByUsuarioIdAndIdGreaterThanOrderByIdAsc(Long usuarioId, Long id, Limit limite);
+
+    long countByUsuarioId(Long usuarioId);
+
+    long countByUsuarioIdAndRevokedFalse(Long usuarioId);
+
+    Optional<ApiKey> findByIdAndUsuarioId(Long id, Long usuarioId);
+}
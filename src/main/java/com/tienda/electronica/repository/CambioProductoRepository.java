@@ -0,0 +1,18 @@
+package com.tienda.electronica.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.tienda.electronica.entity.CambioProducto;
+
+public interface CambioProductoRepository extends JpaRepository<CambioProducto, Long> {
+    List<CambioProducto> findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(
+            Long desde, Long hasta, Limit limite);
+
+    @Query("select max(c.secuencia) from cambios_productos c")
+    Optional<Long> findUltimaSecuencia();
+}
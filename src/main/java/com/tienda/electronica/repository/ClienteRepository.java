@@ -3,16 +3,31 @@ package com.tienda.electronica.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Cliente;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_IDENTIDAD)
+    })
     Optional<Cliente> findByEmail(String email);
 
+    @Query("select new com.tienda.electronica.repository.VersionFila(c.id, c.version, c.fechaActualizacion) "
+            + "from Cliente c where c.id = :id")
+    Optional<VersionFila> findVersionById(Long id);
+
     List<Cliente> findByActivoTrue();
 
     List<Cliente> findByClientePremiumTrue();
@@ -25,4 +40,28 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
         return findByNombreContainingIgnoreCaseOrApellidosContainingIgnoreCase(texto, texto);
     }
 
+    List<Cliente> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    List<Cliente> findByActivoTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    List<Cliente> findByClientePremiumTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    List<Cliente> findByCiudadIgnoreCaseAndIdGreaterThanOrderByIdAsc(String ciudad, Long id, Limit limite);
+
+    List<Cliente> findByIdGreaterThanAndNombreContainingIgnoreCaseOrIdGreaterThanAndApellidosContainingIgnoreCaseOrderByIdAsc(
+            Long id, String nombre, Long idApellidos, String apellidos, Limit limite);
+
+    default List<Cliente> findByNombreOrApellidosContainingIgnoreCase(String texto, Long id, Limit limite) {
+        return findByIdGreaterThanAndNombreContainingIgnoreCaseOrIdGreaterThanAndApellidosContainingIgnoreCaseOrderByIdAsc(
+                id, texto, id, texto, limite);
+    }
+
+    long countByActivoTrue();
+
+    long countByClientePremiumTrue();
+
+    long countByCiudadIgnoreCase(String ciudad);
+
+    long countByNombreContainingIgnoreCaseOrApellidosContainingIgnoreCase(String nombre, String apellidos);
+
 }
@@ -1,23 +1,67 @@
 package com.tienda.electronica.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.tienda.electronica.entity.Pedido;
+import com.tienda.electronica.response.PedidoResumenResponse;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
 
-    List<Pedido> findByClienteIdOrderByFechaPedidoDesc(Long clienteId);
+    String RESUMEN = "select new com.tienda.electronica.response.PedidoResumenResponse("
+            + "p.id, p.numeroSeguimiento, p.fechaPedido, p.estado, p.metodoPago, p.total, "
+            + "c.id, c.nombre, c.apellidos, c.email) "
+            + "from Pedido p join p.cliente c ";
 
-    List<Pedido> findByEstado(Pedido.EstadoPedido estado);
+    @Query(RESUMEN + "where p.id < :id order by p.id desc")
+    List<PedidoResumenResponse> findResumenes(Long id, Limit limite);
 
-    List<Pedido> findByMetodoPago(Pedido.MetodoPago metodoPago);
+    @Query(RESUMEN + "where p.estado = :estado and p.id < :id order by p.id desc")
+    List<PedidoResumenResponse> findResumenesPorEstado(Pedido.EstadoPedido estado, Long id, Limit limite);
 
-    List<Pedido> findByFechaPedidoBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    // Recorre el índice (cliente_id, fecha_pedido desc, id desc) a partir de la última fila vista
+    @Query(RESUMEN + "where c.id = :clienteId "
+            + "and (p.fechaPedido < :fecha or (p.fechaPedido = :fecha and p.id < :id)) "
+            + "order by p.fechaPedido desc, p.id desc")
+    List<PedidoResumenResponse> findResumenesPorCliente(Long clienteId, LocalDateTime fecha, Long id, Limit limite);
 
-    List<Pedido> findByNumeroSeguimiento(String numeroSeguimiento);
+    // Cliente, líneas y productos en una sola consulta
+    @EntityGraph(attributePaths = { "cliente", "detalles", "detalles.producto" })
+    @Query("select p from Pedido p where p.id = :id")
+    Optional<Pedido> findDetalleById(Long id);
+
+    @EntityGraph(attributePaths = { "cliente", "detalles", "detalles.producto" })
+    @Query("select p from Pedido p where p.id in :ids")
+    List<Pedido> findDetallesByIdIn(Collection<Long> ids);
+
+    @Query("select new com.tienda.electronica.repository.VersionFila(p.id, p.version, p.fechaActualizacion) "
+            + "from Pedido p where p.id = :id")
+    Optional<VersionFila> findVersionById(Long id);
+
+    @Query("select new com.tienda.electronica.repository.VersionFila(c.id, c.version, c.fechaActualizacion) "
+            + "from Pedido p join p.cliente c where p.id = :id")
+    Optional<VersionFila> findVersionClienteById(Long id);
+
+    @Query("select new com.tienda.electronica.repository.VersionFila(pr.id, pr.version, pr.fechaActualizacion) "
+            + "from DetallePedido d join d.producto pr where d.pedido.id = :id order by d.id")
+    List<VersionFila> findVersionesProductosById(Long id);
+
+    @Query("select new com.tienda.electronica.repository.VentasProducto(d.producto.id, sum(d.cantidad)) "
+            + "from DetallePedido d "
+            + "where d.pedido.estado <> com.tienda.electronica.entity.Pedido.EstadoPedido.CANCELADO "
+            + "group by d.producto.id")
+    List<VentasProducto> findVentasPorProducto();
+
+    long countByClienteId(Long clienteId);
+
+    long countByEstado(Pedido.EstadoPedido estado);
 }
@@ -1,12 +1,21 @@
 package com.tienda.electronica.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Producto;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByCategoriaIgnoreCase(String categoria);
@@ -14,4 +23,56 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByStockGreaterThan(Integer stock);
 
     List<Producto> findByNombreContainingIgnoreCase(String nombre);
+
+    // Respaldo de la búsqueda mientras se construye el índice: una página por posición
+    @Query("select p from Producto p where upper(p.nombre) like :patron escape '!' order by p.id "
+            + "offset :desde rows fetch first :limite rows only")
+    List<Producto> buscarPorNombre(String patron, int desde, int limite);
+
+    long countByNombreContainingIgnoreCase(String nombre);
+
+    // Por la caché de consultas para que también se recuerden los ids que no existen
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_PRODUCTOS)
+    })
+    Optional<Producto> findProductoById(Long id);
+
+    // Solo la versión, para responder 304 sin cargar el producto
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_PRODUCTOS)
+    })
+    @Query("select new com.tienda.electronica.repository.VersionFila(p.id, p.version, p.fechaActualizacion) "
+            + "from Producto p where p.id = :id")
+    Optional<VersionFila> findVersionById(Long id);
+
+    List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_PRODUCTOS)
+    })
+    List<Producto> findByCategoriaIgnoreCaseAndIdGreaterThanOrderByIdAsc(String categoria, Long id, Limit limite);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_PRODUCTOS)
+    })
+    List<Producto> findByStockGreaterThanAndIdGreaterThanOrderByIdAsc(Integer stock, Long id, Limit limite);
+
+    // Keyset por (precio, id) sobre idx_productos_precio_id
+    @Query("select p from Producto p where p.precio between :minimo and :maximo "
+            + "and (p.precio > :precio or (p.precio = :precio and p.id > :id)) order by p.precio asc, p.id asc")
+    List<Producto> findPorPrecioAsc(BigDecimal minimo, BigDecimal maximo, BigDecimal precio, Long id, Limit limite);
+
+    @Query("select p from Producto p where p.precio between :minimo and :maximo "
+            + "and (p.precio < :precio or (p.precio = :precio and p.id < :id)) order by p.precio desc, p.id desc")
+    List<Producto> findPorPrecioDesc(BigDecimal minimo, BigDecimal maximo, BigDecimal precio, Long id, Limit limite);
+
+    long countByPrecioBetween(BigDecimal minimo, BigDecimal maximo);
+
+    long countByCategoriaIgnoreCase(String categoria);
+
+    long countByStockGreaterThan(Integer stock);
 }
@@ -0,0 +1,39 @@
+package com.tienda.electronica.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tienda.electronica.entity.RefreshToken;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    @Query("select r from refresh_tokens r join fetch r.usuario "
+            + "where r.tokenHash = :hash or r.previousHash = :hash")
+    Optional<RefreshToken> findVigenteOAnterior(String hash);
+
+    // Consume el hash actual y emite el siguiente en una sola sentencia
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update refresh_tokens r set r.previousHash = r.tokenHash, r.tokenHash = :nuevo "
+            + "where r.id = :id and r.tokenHash = :actual and r.revoked = false and r.expiresAt > :ahora")
+    int rotar(Long id, String actual, String nuevo, Instant ahora);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update refresh_tokens r set r.revoked = true where r.id = :id")
+    int revocar(Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update refresh_tokens r set r.revoked = true where r.usuario.id = :usuarioId and r.revoked = false")
+    int revokeAllByUsuarioId(Long usuarioId);
+
+    @Query("select r.id from refresh_tokens r where r.expiresAt < :limite order by r.id")
+    List<Long> findIdsExpiradosAntesDe(Instant limite, Limit lote);
+}
@@ -0,0 +1,11 @@
+package com.tienda.electronica.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.tienda.electronica.entity.SigningKey;
+
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+    List<SigningKey> findAllByOrderByActiveFromAsc();
+}
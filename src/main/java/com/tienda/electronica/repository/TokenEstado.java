@@ -0,0 +1,11 @@
+package com.tienda.electronica.repository;
+
+import java.time.Instant;
+
+public record TokenEstado(
+        String tokenHash,
+        Long usuarioId,
+        boolean revoked,
+        boolean expired,
+        Instant expiresAt) {
+}
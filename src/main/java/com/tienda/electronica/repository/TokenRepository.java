@@ -1,14 +1,36 @@
 package com.tienda.electronica.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tienda.electronica.entity.Token;
+import com.tienda.electronica.security.TokenHasher;
 
 public interface TokenRepository extends JpaRepository<Token, Long> {
-    List<Token> findAllValidIsFalseOrRevokedIsFalseByUsuarioId(Long id);
+    Optional<Token> findByTokenHash(String tokenHash);
 
-    Optional<Token> findByToken(String token);
+    default Optional<Token> findByToken(String token) {
+        return findByTokenHash(TokenHasher.hash(token));
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update tokens t set t.revoked = true, t.expired = true "
+            + "where t.usuario.id = :usuarioId and (t.revoked = false or t.expired = false)")
+    int revokeAllByUsuarioId(Long usuarioId);
+
+    @Query("select t.id from tokens t where t.expiresAt < :limite order by t.id")
+    List<Long> findIdsExpiradosAntesDe(Instant limite, Limit lote);
+
+    @Query("select new com.tienda.electronica.repository.TokenEstado(t.tokenHash, t.usuario.id, t.revoked, t.expired, t.expiresAt) "
+            + "from tokens t where t.expiresAt > :ahora and t.type = :type")
+    Stream<TokenEstado> streamVigentes(Instant ahora, Token.TokenType type);
 }
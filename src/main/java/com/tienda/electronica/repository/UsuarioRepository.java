@@ -3,16 +3,40 @@ package com.tienda.electronica.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Usuario;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.CONSULTAS_IDENTIDAD)
+    })
     Optional<Usuario> findByEmail(String email);
 
     Optional<Usuario> findByNombreContainingIgnoreCase(String name);
 
     List<Usuario> findByActivoTrue();
+
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    List<Usuario> findByActivoTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    long countByActivoTrue();
+
+    // SELECT ... FOR UPDATE sobre la fila del usuario mientras se emiten sus tokens
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from Usuario u where u.id = :id")
+    Optional<Long> bloquearParaEmision(Long id);
 }
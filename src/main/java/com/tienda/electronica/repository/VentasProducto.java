@@ -0,0 +1,7 @@
+package com.tienda.electronica.repository;
+
+/**
+ * Unidades vendidas de un producto en todos los pedidos.
+ */
+public record VentasProducto(Long productoId, Long unidades) {
+}
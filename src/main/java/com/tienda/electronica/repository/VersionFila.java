@@ -0,0 +1,33 @@
+package com.tienda.electronica.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Versión de una fila para los GET condicionales. {@code dependencias} resume
+ * las versiones de las filas de otras tablas que la respuesta incluye.
+ */
+public record VersionFila(
+        Long id,
+        Long version,
+        Instant fechaActualizacion,
+        String dependencias) {
+
+    public VersionFila(Long id, Long version, Instant fechaActualizacion) {
+        this(id, version, fechaActualizacion, null);
+    }
+
+    /** Esta fila junto con las incluidas, en un orden estable; la fecha es la más reciente. */
+    public VersionFila con(List<VersionFila> incluidas) {
+        Instant fecha = fechaActualizacion;
+        for (VersionFila incluida : incluidas) {
+            if (fecha != null && incluida.fechaActualizacion() != null
+                    && incluida.fechaActualizacion().isAfter(fecha)) {
+                fecha = incluida.fechaActualizacion();
+            }
+        }
+        int huella = incluidas.stream().map(incluida -> List.of(incluida.id(), incluida.version())).toList()
+                .hashCode();
+        return new VersionFila(id, version, fecha, Integer.toHexString(huella));
+    }
+}
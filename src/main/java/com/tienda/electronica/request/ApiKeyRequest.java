@@ -0,0 +1,10 @@
+package com.tienda.electronica.request;
+
+import java.util.List;
+
+public record ApiKeyRequest(
+        String nombre,
+        List<String> scopes,
+        Integer requestsPerMinute) {
+
+}
@@ -0,0 +1,14 @@
+package com.tienda.electronica.request;
+
+import java.util.List;
+
+/**
+ * Filtros del catálogo: los valores de una misma dimensión se combinan con O
+ * y las dimensiones entre sí con Y.
+ */
+public record ExplorarRequest(
+        List<String> categoria,
+        Boolean conStock,
+        List<String> precio) {
+
+}
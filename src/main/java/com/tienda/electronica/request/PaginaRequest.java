@@ -0,0 +1,8 @@
+package com.tienda.electronica.request;
+
+public record PaginaRequest(
+        String cursor,
+        Integer limite,
+        Boolean total) {
+
+}
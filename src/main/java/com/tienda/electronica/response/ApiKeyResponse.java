@@ -0,0 +1,20 @@
+package com.tienda.electronica.response;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// La clave completa solo viaja en la respuesta de creación
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ApiKeyResponse(
+        Long id,
+        String nombre,
+        String prefix,
+        List<String> scopes,
+        @JsonProperty("requests_per_minute") int requestsPerMinute,
+        boolean revoked,
+        @JsonProperty("created_at") Instant createdAt,
+        @JsonProperty("api_key") String apiKey) {
+}
@@ -0,0 +1,8 @@
+package com.tienda.electronica.response;
+
+public record ClienteResumenResponse(
+        Long id,
+        String nombre,
+        String apellidos,
+        String email) {
+}
@@ -0,0 +1,10 @@
+package com.tienda.electronica.response;
+
+import java.util.Map;
+
+public record FacetasResponse(
+        long total,
+        long conStock,
+        Map<String, Long> categorias,
+        Map<String, Long> precios) {
+}
@@ -0,0 +1,12 @@
+package com.tienda.electronica.response;
+
+import java.math.BigDecimal;
+
+public record LineaPedidoResponse(
+        Long id,
+        Long productoId,
+        String productoNombre,
+        Integer cantidad,
+        BigDecimal precioUnitario,
+        BigDecimal subtotal) {
+}
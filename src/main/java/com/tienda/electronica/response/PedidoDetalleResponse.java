@@ -0,0 +1,72 @@
+package com.tienda.electronica.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.tienda.electronica.entity.Cliente;
+import com.tienda.electronica.entity.DetallePedido;
+import com.tienda.electronica.entity.Pedido;
+import com.tienda.electronica.entity.Producto;
+
+public record PedidoDetalleResponse(
+        Long id,
+        ClienteResumenResponse cliente,
+        LocalDateTime fechaPedido,
+        Pedido.EstadoPedido estado,
+        BigDecimal subtotal,
+        BigDecimal impuestos,
+        BigDecimal costoEnvio,
+        BigDecimal total,
+        Pedido.MetodoPago metodoPago,
+        String direccionEnvio,
+        String numeroSeguimiento,
+        LocalDateTime fechaEnvio,
+        LocalDateTime fechaEntregaEstimada,
+        String observaciones,
+        Long version,
+        Instant fechaActualizacion,
+        List<LineaPedidoResponse> detalles) {
+
+    /**
+     * El pedido debe venir con cliente, líneas y productos ya cargados; aquí no
+     * hay sesión abierta para inicializar asociaciones perezosas.
+     */
+    public static PedidoDetalleResponse de(Pedido pedido) {
+        Cliente cliente = pedido.getCliente();
+        List<DetallePedido> detalles = pedido.getDetalles() != null ? pedido.getDetalles() : List.of();
+        return new PedidoDetalleResponse(
+                pedido.getId(),
+                cliente != null
+                        ? new ClienteResumenResponse(cliente.getId(), cliente.getNombre(), cliente.getApellidos(),
+                                cliente.getEmail())
+                        : null,
+                pedido.getFechaPedido(),
+                pedido.getEstado(),
+                pedido.getSubtotal(),
+                pedido.getImpuestos(),
+                pedido.getCostoEnvio(),
+                pedido.getTotal(),
+                pedido.getMetodoPago(),
+                pedido.getDireccionEnvio(),
+                pedido.getNumeroSeguimiento(),
+                pedido.getFechaEnvio(),
+                pedido.getFechaEntregaEstimada(),
+                pedido.getObservaciones(),
+                pedido.getVersion(),
+                pedido.getFechaActualizacion(),
+                detalles.stream().map(PedidoDetalleResponse::linea).toList());
+    }
+
+    private static LineaPedidoResponse linea(DetallePedido detalle) {
+        Producto producto = detalle.getProducto();
+        return new LineaPedidoResponse(
+                detalle.getId(),
+                producto != null ? producto.getId() : null,
+                producto != null ? producto.getNombre() : null,
+                detalle.getCantidad(),
+                detalle.getPrecioUnitario(),
+                detalle.getSubtotal());
+    }
+}
@@ -0,0 +1,25 @@
+package com.tienda.electronica.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.tienda.electronica.entity.Pedido;
+
+// Fila de los listados de pedidos, sin las líneas del pedido
+public record PedidoResumenResponse(
+        Long id,
+        String numeroSeguimiento,
+        LocalDateTime fechaPedido,
+        Pedido.EstadoPedido estado,
+        Pedido.MetodoPago metodoPago,
+        BigDecimal total,
+        ClienteResumenResponse cliente) {
+
+    // Constructor de la proyección JPQL, que no admite argumentos anidados
+    public PedidoResumenResponse(Long id, String numeroSeguimiento, LocalDateTime fechaPedido,
+            Pedido.EstadoPedido estado, Pedido.MetodoPago metodoPago, BigDecimal total,
+            Long clienteId, String clienteNombre, String clienteApellidos, String clienteEmail) {
+        this(id, numeroSeguimiento, fechaPedido, estado, metodoPago, total,
+                new ClienteResumenResponse(clienteId, clienteNombre, clienteApellidos, clienteEmail));
+    }
+}
@@ -0,0 +1,7 @@
+package com.tienda.electronica.response;
+
+public record SugerenciaResponse(
+        Long id,
+        String nombre,
+        boolean disponible) {
+}
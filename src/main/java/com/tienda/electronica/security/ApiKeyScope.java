@@ -0,0 +1,48 @@
+package com.tienda.electronica.security;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Permisos de una API key. Cada uno cubre la lectura (GET, HEAD) o la escritura
+ * (el resto de métodos) de un recurso; cualquier otra ruta queda fuera del
+ * alcance de las API keys.
+ */
+public enum ApiKeyScope {
+    PRODUCTOS_READ("productos:read", "/api/productos", false),
+    PRODUCTOS_WRITE("productos:write", "/api/productos", true),
+    PEDIDOS_READ("pedidos:read", "/api/pedidos", false),
+    PEDIDOS_WRITE("pedidos:write", "/api/pedidos", true);
+
+    private final String valor;
+    private final String ruta;
+    private final boolean escritura;
+
+    ApiKeyScope(final String valor, final String ruta, final boolean escritura) {
+        this.valor = valor;
+        this.ruta = ruta;
+        this.escritura = escritura;
+    }
+
+    public String valor() {
+        return valor;
+    }
+
+    public static Optional<ApiKeyScope> desdeValor(final String valor) {
+        return Arrays.stream(values()).filter(scope -> scope.valor.equals(valor)).findFirst();
+    }
+
+    public static Optional<ApiKeyScope> requerido(final String metodo, final String path) {
+        if (path == null) {
+            return Optional.empty();
+        }
+        final boolean escritura = !"GET".equals(metodo) && !"HEAD".equals(metodo);
+        for (final ApiKeyScope scope : values()) {
+            if (scope.escritura == escritura
+                    && (path.equals(scope.ruta) || path.startsWith(scope.ruta + "/"))) {
+                return Optional.of(scope);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,30 @@
+package com.tienda.electronica.security;
+
+/**
+ * Extrae el token de una cabecera {@code Authorization: Bearer ...} sin
+ * expresiones regulares ni copias intermedias.
+ */
+public final class BearerTokens {
+    private static final String ESQUEMA = "Bearer ";
+
+    private BearerTokens() {
+    }
+
+    /**
+     * Devuelve el token o {@code null} si la cabecera no es un Bearer válido.
+     */
+    public static String extract(final String header) {
+        if (header == null || !header.regionMatches(true, 0, ESQUEMA, 0, ESQUEMA.length())) {
+            return null;
+        }
+        int inicio = ESQUEMA.length();
+        int fin = header.length();
+        while (inicio < fin && header.charAt(inicio) == ' ') {
+            inicio++;
+        }
+        while (fin > inicio && header.charAt(fin - 1) == ' ') {
+            fin--;
+        }
+        return inicio == fin ? null : header.substring(inicio, fin);
+    }
+}
@@ -0,0 +1,207 @@
+package com.tienda.electronica.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limita los intentos de login y refresh con token buckets por email y por IP
+ * del cliente. Las claves se reparten en franjas con su propio lock y un LRU
+ * acotado, y los buckets inactivos que ya se rellenaron se descartan.
+ */
+@Component
+public class LoginRateLimiter {
+    record Limite(double capacidad, double tokensPorMilisegundo) {
+        static Limite porMinuto(final int capacidad, final int porMinuto) {
+            return new Limite(capacidad, porMinuto / 60_000d);
+        }
+
+        long milisegundosHastaLleno(final double tokens) {
+            return (long) Math.ceil((capacidad - tokens) / tokensPorMilisegundo);
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long ultimaRecarga;
+
+        private Bucket(final double tokens, final long ahora) {
+            this.tokens = tokens;
+            this.ultimaRecarga = ahora;
+        }
+
+        private void recargar(final Limite limite, final long ahora) {
+            tokens = Math.min(limite.capacidad(), tokens + (ahora - ultimaRecarga) * limite.tokensPorMilisegundo());
+            ultimaRecarga = ahora;
+        }
+    }
+
+    private record Entrada(Bucket bucket, Limite limite) {
+    }
+
+    private static final class Franja extends LinkedHashMap<String, Entrada> {
+        private final int maxEntradas;
+
+        private Franja(final int maxEntradas) {
+            super(16, 0.75f, true);
+            this.maxEntradas = maxEntradas;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entrada> eldest) {
+            return size() > maxEntradas;
+        }
+    }
+
+    private final Franja[] franjas;
+    private final LongSupplier reloj;
+    private final Limite loginPorEmail;
+    private final Limite loginPorIp;
+    private final Limite refreshPorIp;
+
+    private final Counter loginAdmitidos;
+    private final Counter loginRechazados;
+    private final Counter refreshAdmitidos;
+    private final Counter refreshRechazados;
+
+    @Autowired
+    public LoginRateLimiter(
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.rate-limit.login.email.capacity:5}") final int emailCapacidad,
+            @Value("${application.security.rate-limit.login.email.per-minute:5}") final int emailPorMinuto,
+            @Value("${application.security.rate-limit.login.ip.capacity:20}") final int ipCapacidad,
+            @Value("${application.security.rate-limit.login.ip.per-minute:20}") final int ipPorMinuto,
+            @Value("${application.security.rate-limit.refresh.ip.capacity:30}") final int refreshCapacidad,
+            @Value("${application.security.rate-limit.refresh.ip.per-minute:30}") final int refreshPorMinuto,
+            @Value("${application.security.rate-limit.stripes:64}") final int numeroFranjas,
+            @Value("${application.security.rate-limit.max-entries:100000}") final int maxEntradas) {
+        this(meterRegistry, System::currentTimeMillis,
+                Limite.porMinuto(emailCapacidad, emailPorMinuto),
+                Limite.porMinuto(ipCapacidad, ipPorMinuto),
+                Limite.porMinuto(refreshCapacidad, refreshPorMinuto),
+                numeroFranjas, maxEntradas);
+    }
+
+    LoginRateLimiter(
+            final MeterRegistry meterRegistry,
+            final LongSupplier reloj,
+            final Limite loginPorEmail,
+            final Limite loginPorIp,
+            final Limite refreshPorIp,
+            final int numeroFranjas,
+            final int maxEntradas) {
+        this.reloj = reloj;
+        this.loginPorEmail = loginPorEmail;
+        this.loginPorIp = loginPorIp;
+        this.refreshPorIp = refreshPorIp;
+        this.franjas = new Franja[numeroFranjas];
+        final int maxPorFranja = Math.max(1, maxEntradas / numeroFranjas);
+        for (int i = 0; i < numeroFranjas; i++) {
+            franjas[i] = new Franja(maxPorFranja);
+        }
+        this.loginAdmitidos = intentos(meterRegistry, "login", "admitted");
+        this.loginRechazados = intentos(meterRegistry, "login", "rejected");
+        this.refreshAdmitidos = intentos(meterRegistry, "refresh", "admitted");
+        this.refreshRechazados = intentos(meterRegistry, "refresh", "rejected");
+    }
+
+    private static Counter intentos(final MeterRegistry meterRegistry, final String endpoint, final String resultado) {
+        return Counter.builder("auth.rate-limit.requests")
+                .description("Solicitudes de autenticación admitidas o rechazadas por el limitador")
+                .tag("endpoint", endpoint)
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve 0 si el intento se admite o los milisegundos que hay que esperar.
+     */
+    public long intentarLogin(final String email, final String ip) {
+        final String claveIp = "login-ip:" + ip;
+        long espera = consumir(claveIp, loginPorIp);
+        if (espera == 0 && email != null) {
+            espera = consumir("login-email:" + email.toLowerCase(Locale.ROOT), loginPorEmail);
+            if (espera > 0) {
+                // El intento no pasa, así que no debe gastar el cupo de la IP
+                devolver(claveIp, loginPorIp);
+            }
+        }
+        (espera == 0 ? loginAdmitidos : loginRechazados).increment();
+        return espera;
+    }
+
+    public long intentarRefresh(final String ip) {
+        final long espera = consumir("refresh-ip:" + ip, refreshPorIp);
+        (espera == 0 ? refreshAdmitidos : refreshRechazados).increment();
+        return espera;
+    }
+
+    private long consumir(final String clave, final Limite limite) {
+        final long ahora = reloj.getAsLong();
+        final Franja franja = franja(clave);
+        synchronized (franja) {
+            final Entrada entrada = franja.computeIfAbsent(clave,
+                    k -> new Entrada(new Bucket(limite.capacidad(), ahora), limite));
+            final Bucket bucket = entrada.bucket();
+            bucket.recargar(limite, ahora);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / limite.tokensPorMilisegundo());
+        }
+    }
+
+    private void devolver(final String clave, final Limite limite) {
+        final Franja franja = franja(clave);
+        synchronized (franja) {
+            final Entrada entrada = franja.get(clave);
+            if (entrada != null) {
+                entrada.bucket().tokens = Math.min(limite.capacidad(), entrada.bucket().tokens + 1);
+            }
+        }
+    }
+
+    private Franja franja(final String clave) {
+        final int hash = clave.hashCode();
+        return franjas[Math.floorMod(hash ^ (hash >>> 16), franjas.length)];
+    }
+
+    // Un bucket que ya se habría rellenado equivale a no tenerlo
+    @Scheduled(fixedDelayString = "${application.security.rate-limit.eviction-interval:PT1M}")
+    public void descartarInactivos() {
+        final long ahora = reloj.getAsLong();
+        for (final Franja franja : franjas) {
+            synchronized (franja) {
+                final Iterator<Entrada> it = franja.values().iterator();
+                while (it.hasNext()) {
+                    final Entrada entrada = it.next();
+                    final Bucket bucket = entrada.bucket();
+                    if (ahora - bucket.ultimaRecarga >= entrada.limite().milisegundosHastaLleno(bucket.tokens)) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    int entradas() {
+        int total = 0;
+        for (final Franja franja : franjas) {
+            synchronized (franja) {
+                total += franja.size();
+            }
+        }
+        return total;
+    }
+}
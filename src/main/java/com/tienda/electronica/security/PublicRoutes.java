@@ -0,0 +1,60 @@
+package com.tienda.electronica.security;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rutas públicas de la aplicación. {@code SecurityConfig} las usa para
+ * {@code permitAll} y {@code AuthFilter} para saltarse todo el trabajo de JWT;
+ * los patrones se precompilan en rutas exactas y prefijos.
+ */
+public final class PublicRoutes {
+    public static final String[] PATTERNS = {
+            "/api/auth/**",
+            "/", // Permitir acceso a la raíz para la redirección
+            "/api-docs",
+            "/api-docs/**",
+            "/swagger-resources",
+            "/swagger-resources/**",
+            "/swagger-ui/**",
+            "/swagger-ui.html"
+    };
+
+    private static final Set<String> EXACTAS = new HashSet<>();
+    private static final String[] PREFIJOS;
+
+    static {
+        final List<String> prefijos = new ArrayList<>();
+        for (final String patron : PATTERNS) {
+            if (patron.endsWith("/**")) {
+                final String base = patron.substring(0, patron.length() - 3);
+                // "/x/**" también cubre "/x", igual que el matcher de Spring
+                EXACTAS.add(base);
+                prefijos.add(base + "/");
+            } else {
+                EXACTAS.add(patron);
+            }
+        }
+        PREFIJOS = prefijos.toArray(String[]::new);
+    }
+
+    private PublicRoutes() {
+    }
+
+    public static boolean matches(final String path) {
+        if (path == null) {
+            return false;
+        }
+        if (EXACTAS.contains(path)) {
+            return true;
+        }
+        for (final String prefijo : PREFIJOS) {
+            if (path.startsWith(prefijo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,312 @@
+package com.tienda.electronica.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tienda.electronica.entity.ApiKey;
+import com.tienda.electronica.repository.ApiKeyRepository;
+import com.tienda.electronica.request.ApiKeyRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.security.ApiKeyScope;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * API keys para clientes máquina. Las claves vigentes se cargan en un índice
+ * en memoria por prefijo al arrancar y luego solo se recargan las filas que
+ * cambiaron, así que autenticar una petición no toca la base de datos. Cada
+ * clave tiene sus scopes y una cuota de peticiones por minuto en este nodo,
+ * con un máximo configurable, y cada usuario un número acotado de claves
+ * vigentes.
+ */
+@Slf4j
+@Service
+public class ApiKeyService {
+    public static final String PREFIJO_CLAVE = "ek_";
+
+    private static final int BYTES_PREFIJO = 9;
+    private static final int BYTES_SECRETO = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    public enum Resultado {
+        ADMITIDA, INVALIDA, SIN_PERMISO, SIN_CUOTA
+    }
+
+    public record Autorizacion(Resultado resultado, Credencial credencial, long esperaMilisegundos) {
+    }
+
+    public record ApiKeyCreada(ApiKey apiKey, String clave) {
+    }
+
+    /**
+     * Entrada del índice. El token bucket de la cuota vive junto a la clave.
+     */
+    public static final class Credencial {
+        private final Long id;
+        private final String prefix;
+        private final byte[] hash;
+        private final Set<ApiKeyScope> scopes;
+        private final int porMinuto;
+        private final Instant updatedAt;
+        private double tokens;
+        private long ultimaRecarga;
+
+        private Credencial(final ApiKey apiKey, final long ahora) {
+            this.id = apiKey.getId();
+            this.prefix = apiKey.getPrefix();
+            this.hash = apiKey.getKeyHash().getBytes(StandardCharsets.US_ASCII);
+            this.scopes = Collections.unmodifiableSet(parsearScopes(apiKey.getScopes()));
+            this.porMinuto = apiKey.getRequestsPerMinute();
+            this.updatedAt = apiKey.getUpdatedAt();
+            this.tokens = porMinuto;
+            this.ultimaRecarga = ahora;
+        }
+
+        public Long id() {
+            return id;
+        }
+
+        public String prefix() {
+            return prefix;
+        }
+
+        public Set<ApiKeyScope> scopes() {
+            return scopes;
+        }
+
+        private synchronized long consumir(final long ahora) {
+            final double porMilisegundo = porMinuto / 60_000d;
+            tokens = Math.min(porMinuto, tokens + (ahora - ultimaRecarga) * porMilisegundo);
+            ultimaRecarga = ahora;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / porMilisegundo);
+        }
+    }
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final Paginacion paginacion;
+    private final LongSupplier reloj;
+    private final Duration margenRecarga;
+    private final int porMinutoPorDefecto;
+    private final int porMinutoMaximo;
+    private final int maximoPorUsuario;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, Credencial> indice = new ConcurrentHashMap<>();
+    private volatile Instant recargadoHasta;
+
+    private final Counter admitidas;
+    private final Counter invalidas;
+    private final Counter sinPermiso;
+    private final Counter sinCuota;
+
+    @Autowired
+    public ApiKeyService(
+            final ApiKeyRepository apiKeyRepository,
+            final Paginacion paginacion,
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.api-keys.refresh-interval:PT30S}") final Duration intervalo,
+            @Value("${application.security.api-keys.default-requests-per-minute:600}") final int porMinutoPorDefecto,
+            @Value("${application.security.api-keys.max-requests-per-minute:6000}") final int porMinutoMaximo,
+            @Value("${application.security.api-keys.max-per-user:20}") final int maximoPorUsuario) {
+        this(apiKeyRepository, paginacion, meterRegistry, System::currentTimeMillis, intervalo, porMinutoPorDefecto,
+                porMinutoMaximo, maximoPorUsuario);
+    }
+
+    ApiKeyService(
+            final ApiKeyRepository apiKeyRepository,
+            final Paginacion paginacion,
+            final MeterRegistry meterRegistry,
+            final LongSupplier reloj,
+            final Duration margenRecarga,
+            final int porMinutoPorDefecto,
+            final int porMinutoMaximo,
+            final int maximoPorUsuario) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.paginacion = paginacion;
+        this.reloj = reloj;
+        this.margenRecarga = margenRecarga;
+        this.porMinutoPorDefecto = porMinutoPorDefecto;
+        this.porMinutoMaximo = porMinutoMaximo;
+        this.maximoPorUsuario = maximoPorUsuario;
+        this.admitidas = solicitudes(meterRegistry, "admitted");
+        this.invalidas = solicitudes(meterRegistry, "invalid");
+        this.sinPermiso = solicitudes(meterRegistry, "forbidden");
+        this.sinCuota = solicitudes(meterRegistry, "rate_limited");
+        Gauge.builder("auth.api-key.index.size", indice, Map::size)
+                .description("API keys vigentes en el índice en memoria")
+                .register(meterRegistry);
+    }
+
+    private static Counter solicitudes(final MeterRegistry meterRegistry, final String resultado) {
+        return Counter.builder("auth.api-key.requests")
+                .description("Peticiones autenticadas con API key")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void cargar() {
+        final Instant desde = Instant.ofEpochMilli(reloj.getAsLong());
+        indice.clear();
+        for (final ApiKey apiKey : apiKeyRepository.findByRevokedFalse()) {
+            indice.put(apiKey.getPrefix(), new Credencial(apiKey, reloj.getAsLong()));
+        }
+        recargadoHasta = desde;
+        log.info("API keys cargadas: {}", indice.size());
+    }
+
+    // El margen cubre relojes desfasados y transacciones que confirman tarde
+    @Scheduled(initialDelayString = "${application.security.api-keys.refresh-interval:PT30S}",
+            fixedDelayString = "${application.security.api-keys.refresh-interval:PT30S}")
+    public void refrescar() {
+        final Instant desde = Instant.ofEpochMilli(reloj.getAsLong());
+        for (final ApiKey apiKey : apiKeyRepository.findByUpdatedAtAfter(recargadoHasta.minus(margenRecarga))) {
+            aplicar(apiKey);
+        }
+        recargadoHasta = desde;
+    }
+
+    private void aplicar(final ApiKey apiKey) {
+        if (apiKey.isRevoked()) {
+            indice.remove(apiKey.getPrefix());
+            return;
+        }
+        // Si la fila no cambió se conserva la entrada para no rellenar su cuota
+        indice.compute(apiKey.getPrefix(), (prefix, actual) -> actual != null
+                && actual.id.equals(apiKey.getId())
+                && Objects.equals(actual.updatedAt, apiKey.getUpdatedAt())
+                        ? actual
+                        : new Credencial(apiKey, reloj.getAsLong()));
+    }
+
+    public Autorizacion autorizar(final String clave, final String metodo, final String path) {
+        final Credencial credencial = resolver(clave);
+        if (credencial == null) {
+            invalidas.increment();
+            return new Autorizacion(Resultado.INVALIDA, null, 0);
+        }
+        final ApiKeyScope requerido = ApiKeyScope.requerido(metodo, path).orElse(null);
+        if (requerido == null || !credencial.scopes.contains(requerido)) {
+            sinPermiso.increment();
+            return new Autorizacion(Resultado.SIN_PERMISO, credencial, 0);
+        }
+        final long espera = credencial.consumir(reloj.getAsLong());
+        if (espera > 0) {
+            sinCuota.increment();
+            return new Autorizacion(Resultado.SIN_CUOTA, credencial, espera);
+        }
+        admitidas.increment();
+        return new Autorizacion(Resultado.ADMITIDA, credencial, 0);
+    }
+
+    private Credencial resolver(final String clave) {
+        if (clave == null || !clave.startsWith(PREFIJO_CLAVE)) {
+            return null;
+        }
+        final int punto = clave.indexOf('.', PREFIJO_CLAVE.length());
+        if (punto < 0) {
+            return null;
+        }
+        final Credencial credencial = indice.get(clave.substring(PREFIJO_CLAVE.length(), punto));
+        if (credencial == null) {
+            return null;
+        }
+        final byte[] hash = TokenHasher.hash(clave).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(hash, credencial.hash) ? credencial : null;
+    }
+
+    public ApiKeyCreada crear(final ApiKeyRequest request, final Long usuarioId) {
+        if (request.nombre() == null || request.nombre().isBlank()) {
+            throw new IllegalArgumentException("El nombre es obligatorio");
+        }
+        final Set<ApiKeyScope> scopes = parsearScopes(request.scopes());
+        if (scopes.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un scope");
+        }
+        final int porMinuto = request.requestsPerMinute() != null ? request.requestsPerMinute() : porMinutoPorDefecto;
+        if (porMinuto <= 0 || porMinuto > porMinutoMaximo) {
+            throw new IllegalArgumentException("La cuota debe estar entre 1 y " + porMinutoMaximo);
+        }
+        // Cada clave vigente ocupa el índice en memoria y tiene su propia cuota
+        if (apiKeyRepository.countByUsuarioIdAndRevokedFalse(usuarioId) >= maximoPorUsuario) {
+            throw new IllegalArgumentException("Se alcanzó el máximo de " + maximoPorUsuario + " API keys vigentes");
+        }
+        final String prefix = aleatorio(BYTES_PREFIJO);
+        final String clave = PREFIJO_CLAVE + prefix + "." + aleatorio(BYTES_SECRETO);
+        final ApiKey guardada = apiKeyRepository.save(ApiKey.builder()
+                .prefix(prefix)
+                .keyHash(TokenHasher.hash(clave))
+                .nombre(request.nombre())
+                .usuarioId(usuarioId)
+                .scopes(String.join(",", scopes.stream().map(ApiKeyScope::valor).toList()))
+                .requestsPerMinute(porMinuto)
+                .build());
+        aplicar(guardada);
+        return new ApiKeyCreada(guardada, clave);
+    }
+
+    public Pagina<ApiKey> listar(final Long usuarioId, final PaginaRequest pagina) {
+        return paginacion.porId(pagina,
+                (desde, limite) -> apiKeyRepository.findByUsuarioIdAndIdGreaterThanOrderByIdAsc(usuarioId, desde,
+                        limite),
+                ApiKey::getId, "api-keys:usuario:" + usuarioId, () -> apiKeyRepository.countByUsuarioId(usuarioId));
+    }
+
+    // Una clave de otro usuario se trata igual que una que no existe
+    public boolean revocar(final Long id, final Long usuarioId) {
+        return apiKeyRepository.findByIdAndUsuarioId(id, usuarioId)
+                .map(apiKey -> {
+                    apiKey.setRevoked(true);
+                    aplicar(apiKeyRepository.save(apiKey));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private String aleatorio(final int bytes) {
+        final byte[] aleatorios = new byte[bytes];
+        secureRandom.nextBytes(aleatorios);
+        return ENCODER.encodeToString(aleatorios);
+    }
+
+    private static Set<ApiKeyScope> parsearScopes(final String scopes) {
+        return parsearScopes(scopes == null || scopes.isBlank() ? List.of() : List.of(scopes.split(",")));
+    }
+
+    private static Set<ApiKeyScope> parsearScopes(final List<String> valores) {
+        final Set<ApiKeyScope> scopes = EnumSet.noneOf(ApiKeyScope.class);
+        if (valores != null) {
+            for (final String valor : valores) {
+                scopes.add(ApiKeyScope.desdeValor(valor.trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Scope desconocido: " + valor)));
+            }
+        }
+        return scopes;
+    }
+}
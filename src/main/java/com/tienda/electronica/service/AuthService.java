@@ -1,32 +1,35 @@
 package com.tienda.electronica.service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.List;
 
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 import com.tienda.electronica.entity.Token;
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
 import com.tienda.electronica.repository.TokenRepository;
 import com.tienda.electronica.repository.UsuarioRepository;
 import com.tienda.electronica.request.LoginRequest;
 import com.tienda.electronica.response.TokenResponse;
+import com.tienda.electronica.security.BearerTokens;
+import com.tienda.electronica.security.TokenHasher;
 
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final UsuarioRepository usuarioRepository;
     private final UsuarioService usuarioService;
     private final TokenRepository tokenRepository;
+    private final TokenStatusStore tokenStatusStore;
+    private final TokenDenyList tokenDenyList;
+    private final RefreshTokenService refreshTokenService;
+    private final UsuarioLocks usuarioLocks;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
 
     public TokenResponse crearCuenta(Usuario usuario) {
         var newUser = Usuario.builder()
@@ -35,79 +38,104 @@ public class AuthService {
                 .telefono(usuario.getTelefono())
                 .activo(true)
                 .password(
-                        passwordEncoder.encode(usuario.getPassword()))
+                        passwordHashingService.encode(usuario.getPassword()))
                 .createdAt(LocalDateTime.now())
                 .build();
         var savedUser = usuarioService.crear(newUser);
         var jwtToken = jwtService.generateToken(newUser);
-        var refreshToken = jwtService.generateRefreshToken(newUser);
-        saveUserToken(savedUser, jwtToken);
+        var refreshToken = refreshTokenService.emitir(savedUser);
+        guardarAccessToken(savedUser, jwtToken);
 
         return new TokenResponse(jwtToken, refreshToken);
     }
 
     public TokenResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.email(),
-                        request.password()));
-        var usuario = usuarioService.obtenerPorEmail(request.email()).orElseThrow();
-        var jwtToken = jwtService.generateToken(usuario);
-        var refreshToken = jwtService.generateRefreshToken(usuario);
-        revokeAllUserTokens(usuario);
-        saveUserToken(usuario, jwtToken);
+        // Una sola lectura del usuario; si no existe se compara contra un hash ficticio
+        var usuario = usuarioService.obtenerPorEmail(request.email()).orElse(null);
+        var passwordGuardado = usuario != null ? usuario.getPassword() : null;
+        if (!passwordHashingService.matches(request.password(), passwordGuardado) || usuario == null) {
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        actualizarHashSiCorresponde(usuario, request.password());
+
+        // Revocar y emitir sin intercalarse con otro login o refresh del mismo usuario
+        return usuarioLocks.conLock(usuario.getId(), () -> {
+            revokeAllUserTokens(usuario);
+            var jwtToken = jwtService.generateToken(usuario);
+            var refreshToken = refreshTokenService.emitir(usuario);
+            guardarAccessToken(usuario, jwtToken);
+            return new TokenResponse(jwtToken, refreshToken);
+        });
+    }
 
-        return new TokenResponse(jwtToken, refreshToken);
+    // Rehash transparente si el hash guardado tiene un coste de BCrypt menor que el configurado
+    private void actualizarHashSiCorresponde(Usuario usuario, String password) {
+        if (!passwordHashingService.upgradeEncoding(usuario.getPassword())) {
+            return;
+        }
+        try {
+            usuario.setPassword(passwordHashingService.encode(password));
+            usuarioRepository.save(usuario);
+        } catch (ServicioSaturadoException e) {
+            // Se reintenta en el próximo login
+        }
+    }
+
+    // En modo stateless el token de acceso no se persiste
+    private void guardarAccessToken(Usuario usuario, String jwtToken) {
+        if (!jwtService.isStateless()) {
+            saveUserToken(usuario, jwtToken);
+        }
     }
 
     public void saveUserToken(Usuario usuario, String jwtToken) {
+        var expiresAt = Instant.now().plusMillis(jwtService.getJwtExpiration());
+        var tokenHash = TokenHasher.hash(jwtToken);
         var token = Token
                 .builder()
                 .usuario(
                         usuario)
                 .token(jwtToken)
+                .tokenHash(tokenHash)
                 .type(
                         Token.TokenType.BEARER)
                 .expired(false)
                 .revoked(false)
+                .expiresAt(expiresAt)
                 .build();
         tokenRepository.save(token);
+        tokenStatusStore.registrar(tokenHash, usuario.getId(), expiresAt);
     }
 
     private void revokeAllUserTokens(final Usuario usuario) {
-        final List<Token> validUserTokens = tokenRepository
-                .findAllValidIsFalseOrRevokedIsFalseByUsuarioId(usuario.getId());
-        if (!validUserTokens.isEmpty()) {
-            for (final Token token : validUserTokens) {
-                token.setRevoked(true);
-                token.setExpired(true);
-            }
-            tokenRepository.saveAll(validUserTokens);
-        }
+        refreshTokenService.revocarTodos(usuario.getId());
+        revokeAccessTokens(usuario);
     }
 
-    public TokenResponse refreshToken(final String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("El token no es un JWT válido");
-        }
-        final String refreshToken = authHeader.substring(7);
-        final String username = jwtService.extractUsername(refreshToken);
-
-        if (username == null) {
-            throw new IllegalArgumentException("El refresh token no es válido");
+    private void revokeAccessTokens(final Usuario usuario) {
+        if (jwtService.isStateless()) {
+            tokenDenyList.revocarEmitidosAntesDe(usuario.getEmail(), Instant.now());
+        } else {
+            tokenRepository.revokeAllByUsuarioId(usuario.getId());
+            tokenStatusStore.revocarTodos(usuario.getId());
         }
+    }
 
-        final Usuario usuario = usuarioRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException(username));
-
-        if (!jwtService.isTokenValid(refreshToken, usuario)) {
+    public TokenResponse refreshToken(final String authHeader) {
+        final String refreshToken = BearerTokens.extract(authHeader);
+        if (refreshToken == null) {
             throw new IllegalArgumentException("El refresh token no es válido");
         }
 
-        final String accessToken = jwtService.generateToken(usuario);
-        revokeAllUserTokens(usuario);
-        saveUserToken(usuario, accessToken);
+        final RefreshTokenService.Rotacion rotacion = refreshTokenService.rotar(refreshToken);
+        final Usuario usuario = rotacion.usuario();
+        final String accessToken = usuarioLocks.conLock(usuario.getId(), () -> {
+            final String nuevo = jwtService.generateToken(usuario);
+            revokeAccessTokens(usuario);
+            guardarAccessToken(usuario, nuevo);
+            return nuevo;
+        });
 
-        return new TokenResponse(accessToken, refreshToken);
+        return new TokenResponse(accessToken, rotacion.refreshToken());
     }
 }
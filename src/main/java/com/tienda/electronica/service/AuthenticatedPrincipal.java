@@ -0,0 +1,18 @@
+package com.tienda.electronica.service;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.tienda.electronica.entity.Usuario;
+
+public record AuthenticatedPrincipal(
+        Usuario usuario,
+        UserDetails userDetails) {
+
+    static AuthenticatedPrincipal from(final Usuario usuario) {
+        return new AuthenticatedPrincipal(usuario, User.builder()
+                .username(usuario.getEmail())
+                .password(usuario.getPassword())
+                .build());
+    }
+}
@@ -0,0 +1,123 @@
+package com.tienda.electronica.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tienda.electronica.entity.CambioProducto;
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
+import com.tienda.electronica.repository.CambioProductoRepository;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.request.PaginaRequest;
+
+/**
+ * Sincronización incremental del catálogo. Cada cambio de producto añade una
+ * fila a {@code cambios_productos} en la misma transacción. Las secuencias se
+ * asignan al insertar pero se confirman en cualquier orden, así que una
+ * lectura solo llega hasta la última secuencia sin transacciones pendientes
+ * por debajo: un cliente nunca avanza por encima de un cambio que aún no ve.
+ */
+@Service
+public class CambiosCatalogo {
+    @Autowired
+    private CambioProductoRepository cambioProductoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private Paginacion paginacion;
+
+    private final NavigableSet<Long> pendientes = new ConcurrentSkipListSet<>();
+    private final AtomicLong ultimaAsignada = new AtomicLong(-1);
+    // Los registros comparten el candado de lectura; el horizonte toma el de escritura
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long productoId, boolean eliminado) {
+        candado.readLock().lock();
+        try {
+            final long secuencia = cambioProductoRepository.save(CambioProducto.builder()
+                    .productoId(productoId)
+                    .eliminado(eliminado)
+                    .fecha(Instant.now())
+                    .build()).getSecuencia();
+            pendientes.add(secuencia);
+            ultimaAsignada.accumulateAndGet(secuencia, Math::max);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    pendientes.remove(secuencia);
+                }
+            });
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CambiosProductos desde(long desde, Integer limite) {
+        if (desde < 0) {
+            throw new PaginacionInvalidaException("La secuencia no puede ser negativa");
+        }
+        final int tamano = paginacion.limite(new PaginaRequest(null, limite, null));
+        final long horizonte = horizonte();
+        List<CambioProducto> filas = cambioProductoRepository
+                .findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(
+                        desde, horizonte, Limit.of(tamano + 1));
+        final boolean hayMas = filas.size() > tamano;
+        if (hayMas) {
+            filas = filas.subList(0, tamano);
+        }
+        final long hasta = hayMas ? filas.get(tamano - 1).getSecuencia() : Math.max(desde, horizonte);
+
+        // Solo cuenta el último cambio de cada producto dentro del tramo
+        final Map<Long, Boolean> ultimos = new LinkedHashMap<>();
+        for (final CambioProducto fila : filas) {
+            ultimos.remove(fila.getProductoId());
+            ultimos.put(fila.getProductoId(), fila.isEliminado());
+        }
+        final List<Long> eliminados = new ArrayList<>();
+        final List<Long> vivos = new ArrayList<>();
+        ultimos.forEach((id, eliminado) -> (eliminado ? eliminados : vivos).add(id));
+
+        final Map<Long, Producto> cargados = productoRepository.findAllById(vivos).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        // Un producto que ya no existe tiene su lápida después de este tramo
+        final List<Producto> productos = vivos.stream()
+                .map(cargados::get)
+                .filter(producto -> producto != null)
+                .toList();
+        return new CambiosProductos(productos, eliminados, hasta, hayMas);
+    }
+
+    private long horizonte() {
+        candado.writeLock().lock();
+        try {
+            if (ultimaAsignada.get() < 0) {
+                ultimaAsignada.accumulateAndGet(cambioProductoRepository.findUltimaSecuencia().orElse(0L), Math::max);
+            }
+            return pendientes.isEmpty() ? ultimaAsignada.get() : pendientes.first() - 1;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.tienda.electronica.service;
+
+import java.util.List;
+
+import com.tienda.electronica.entity.Producto;
+
+/**
+ * Cambios del catálogo posteriores a una secuencia: productos creados o
+ * modificados en su estado actual e ids eliminados. {@code hasta} es la
+ * secuencia a enviar en la siguiente sincronización.
+ */
+public record CambiosProductos(List<Producto> productos, List<Long> eliminados, long hasta, boolean hayMas) {
+}
@@ -0,0 +1,56 @@
+package com.tienda.electronica.service;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Contador de cambios por entidad para las ETags débiles de los listados.
+ * Escucha las entidades con {@code @EntityListeners(CambiosTablas.class)} y
+ * sube el contador al escribir y otra vez al terminar la transacción, así una
+ * lectura hecha entre ambos momentos nunca queda con la ETag definitiva. El
+ * arranque forma parte de la ETag porque los contadores viven en memoria.
+ */
+@Component
+public class CambiosTablas {
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Class<?>, AtomicLong> contadores = new ConcurrentHashMap<>();
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void alCambiar(final Object entidad) {
+        final AtomicLong contador = contador(Hibernate.getClass(entidad));
+        contador.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    contador.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public String etag(final Class<?>... entidades) {
+        final StringJoiner etag = new StringJoiner("-", "W/\"" + arranque + "-", "\"");
+        for (final Class<?> entidad : entidades) {
+            etag.add(Long.toString(contador(entidad).get()));
+        }
+        return etag.toString();
+    }
+
+    private AtomicLong contador(final Class<?> entidad) {
+        return contadores.computeIfAbsent(entidad, clase -> new AtomicLong());
+    }
+}
@@ -2,7 +2,10 @@ package com.tienda.electronica.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,20 +13,58 @@ import org.springframework.stereotype.Service;
 import com.tienda.electronica.entity.Cliente;
 import com.tienda.electronica.exceptions.ClienteNotFoundException;
 import com.tienda.electronica.repository.ClienteRepository;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
 
 @Service
 public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
-    public List<Cliente> obtenerTodos() {
-        return clienteRepository.findAll();
+    @Autowired
+    private CambiosTablas cambiosTablas;
+
+    @Autowired
+    private Paginacion paginacion;
+
+    @Autowired
+    private Lotes lotes;
+
+    @Autowired
+    private Proyecciones proyecciones;
+
+    public Pagina<Cliente> obtenerTodos(PaginaRequest pagina) {
+        return paginacion.porId(pagina, clienteRepository::findByIdGreaterThanOrderByIdAsc,
+                Cliente::getId, "clientes", clienteRepository::count);
     }
 
     public Optional<Cliente> obtenerPorId(Long id) {
         return clienteRepository.findById(id);
     }
 
+    // Con campos se leen solo esas columnas
+    public Pagina<Cliente> obtenerTodos(PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, null, Map.of(), "clientes", clienteRepository::count,
+                () -> obtenerTodos(pagina));
+    }
+
+    public Optional<Cliente> obtenerPorId(Long id, String campos) {
+        final Proyecciones.Plan plan = proyecciones.plan(Cliente.class, campos);
+        return plan == null ? obtenerPorId(id) : proyecciones.porId(Cliente.class, plan, id);
+    }
+
+    public Lote<Cliente> obtenerVarios(List<Long> ids) {
+        return lotes.porIds(Cliente.class, ids);
+    }
+
+    public Optional<VersionFila> obtenerVersion(Long id) {
+        return clienteRepository.findVersionById(id);
+    }
+
+    public String etagListado() {
+        return cambiosTablas.etag(Cliente.class);
+    }
+
     public Cliente crear(Cliente cliente) {
         var newCliente = Cliente.builder()
                 .nombre(cliente.getNombre())
@@ -64,23 +105,72 @@ public class ClienteService {
         clienteRepository.deleteById(id);
     }
 
-    public List<Cliente> obtenerActivos() {
-        return clienteRepository.findByActivoTrue();
+    public Pagina<Cliente> obtenerActivos(PaginaRequest pagina) {
+        return paginacion.porId(pagina, clienteRepository::findByActivoTrueAndIdGreaterThanOrderByIdAsc,
+                Cliente::getId, "clientes:activos", clienteRepository::countByActivoTrue);
+    }
+
+    public Pagina<Cliente> obtenerActivos(PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "e.activo = true", Map.of(), "clientes:activos",
+                clienteRepository::countByActivoTrue, () -> obtenerActivos(pagina));
+    }
+
+    public Pagina<Cliente> obtenerClientesPremium(PaginaRequest pagina) {
+        return paginacion.porId(pagina, clienteRepository::findByClientePremiumTrueAndIdGreaterThanOrderByIdAsc,
+                Cliente::getId, "clientes:premium", clienteRepository::countByClientePremiumTrue);
     }
 
-    public List<Cliente> obtenerClientesPremium() {
-        return clienteRepository.findByClientePremiumTrue();
+    public Pagina<Cliente> obtenerClientesPremium(PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "e.clientePremium = true", Map.of(), "clientes:premium",
+                clienteRepository::countByClientePremiumTrue, () -> obtenerClientesPremium(pagina));
+    }
+
+    private Pagina<Cliente> proyectar(PaginaRequest pagina, String campos, String condicion,
+            Map<String, ?> parametros, String claveTotal, LongSupplier contar, Supplier<Pagina<Cliente>> completo) {
+        final Proyecciones.Plan plan = proyecciones.plan(Cliente.class, campos);
+        if (plan == null) {
+            return completo.get();
+        }
+        return paginacion.porId(pagina,
+                (desde, limite) -> proyecciones.buscar(Cliente.class, plan, condicion, parametros, desde, limite),
+                Cliente::getId, claveTotal, contar);
     }
 
     public Optional<Cliente> obtenerPorEmail(String email) {
         return clienteRepository.findByEmail(email);
     }
 
-    public List<Cliente> buscarPorNombre(String texto) {
-        return clienteRepository.findByNombreOrApellidosContainingIgnoreCase(texto);
+    public Pagina<Cliente> buscarPorNombre(String texto, PaginaRequest pagina) {
+        return paginacion.porId(pagina,
+                (desde, limite) -> clienteRepository.findByNombreOrApellidosContainingIgnoreCase(texto, desde, limite),
+                Cliente::getId, "clientes:buscar:" + texto.toLowerCase(),
+                () -> clienteRepository.countByNombreContainingIgnoreCaseOrApellidosContainingIgnoreCase(texto, texto));
+    }
+
+    // Mismo criterio que Containing: los comodines del texto se buscan literalmente
+    public Pagina<Cliente> buscarPorNombre(String texto, PaginaRequest pagina, String campos) {
+        final String patron = "%" + texto.toUpperCase()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+        return proyectar(pagina, campos,
+                "(upper(e.nombre) like :patron escape '!' or upper(e.apellidos) like :patron escape '!')",
+                Map.of("patron", patron), "clientes:buscar:" + texto.toLowerCase(),
+                () -> clienteRepository.countByNombreContainingIgnoreCaseOrApellidosContainingIgnoreCase(texto, texto),
+                () -> buscarPorNombre(texto, pagina));
+    }
+
+    public Pagina<Cliente> obtenerPorCiudad(String ciudad, PaginaRequest pagina) {
+        return paginacion.porId(pagina,
+                (desde, limite) -> clienteRepository.findByCiudadIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                        ciudad, desde, limite),
+                Cliente::getId, "clientes:ciudad:" + ciudad.toLowerCase(),
+                () -> clienteRepository.countByCiudadIgnoreCase(ciudad));
     }
 
-    public List<Cliente> obtenerPorCiudad(String ciudad) {
-        return clienteRepository.findByCiudadIgnoreCase(ciudad);
+    public Pagina<Cliente> obtenerPorCiudad(String ciudad, PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "upper(e.ciudad) = upper(:ciudad)", Map.of("ciudad", ciudad),
+                "clientes:ciudad:" + ciudad.toLowerCase(), () -> clienteRepository.countByCiudadIgnoreCase(ciudad),
+                () -> obtenerPorCiudad(ciudad, pagina));
     }
 }
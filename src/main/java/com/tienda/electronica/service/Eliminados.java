@@ -0,0 +1,33 @@
+package com.tienda.electronica.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ids borrados mientras un índice se reconstruye: la reconstrucción pudo
+ * leerlos antes del borrado y no debe volver a añadirlos. Fuera de una
+ * reconstrucción no se guarda nada. Quien lo usa lo protege con su candado.
+ */
+final class Eliminados {
+    private final Set<Long> ids = new HashSet<>();
+    private boolean reconstruyendo;
+
+    void iniciar() {
+        reconstruyendo = true;
+    }
+
+    void anotar(final Long id) {
+        if (reconstruyendo) {
+            ids.add(id);
+        }
+    }
+
+    boolean contiene(final Long id) {
+        return ids.contains(id);
+    }
+
+    void terminar() {
+        reconstruyendo = false;
+        ids.clear();
+    }
+}
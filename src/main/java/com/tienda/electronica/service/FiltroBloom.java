@@ -0,0 +1,65 @@
+package com.tienda.electronica.service;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre hashes SHA-256 en base64url. Sin falsos negativos:
+ * si {@link #mightContain(String)} devuelve false el hash nunca se agregó.
+ */
+class FiltroBloom {
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    FiltroBloom(final long elementosEsperados, final double probabilidadFalsoPositivo) {
+        final long n = Math.max(1, elementosEsperados);
+        final long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64, m));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    void put(final String hash) {
+        final long[] h = semillas(hash);
+        for (int i = 0; i < numHashes; i++) {
+            final int bit = indice(h, i);
+            final int palabra = bit >>> 6;
+            final long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean mightContain(final String hash) {
+        final long[] h = semillas(hash);
+        for (int i = 0; i < numHashes; i++) {
+            final int bit = indice(h, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(final long[] h, final int i) {
+        return (int) Math.floorMod(h[0] + i * h[1], (long) numBits);
+    }
+
+    // El hash ya es SHA-256, así que sus primeros 16 bytes sirven como dos semillas independientes
+    private static long[] semillas(final String hash) {
+        final byte[] bytes = Base64.getUrlDecoder().decode(hash);
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < 8; i++) {
+            h1 = (h1 << 8) | (bytes[i] & 0xFF);
+            h2 = (h2 << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new long[] { h1, h2 | 1 };
+    }
+}
@@ -0,0 +1,22 @@
+package com.tienda.electronica.service;
+
+import com.tienda.electronica.entity.Producto;
+
+/**
+ * Índice en memoria del catálogo. {@link IndicesCatalogo} lo construye al
+ * arrancar y le pasa cada {@link ProductoCambiadoEvent}.
+ */
+public interface IndiceCatalogo {
+
+    /** Relee el catálogo entero. */
+    void reconstruir();
+
+    /** Construcción al arrancar; por defecto, una reconstrucción. */
+    default void construir() {
+        reconstruir();
+    }
+
+    void indexar(Producto producto);
+
+    void eliminar(Long id);
+}
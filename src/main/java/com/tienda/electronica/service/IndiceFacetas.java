@@ -0,0 +1,339 @@
+package com.tienda.electronica.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.response.FacetasResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice de mapas de bits sobre los ids de producto: uno por categoría, uno
+ * para los que tienen stock y uno por tramo de precio. Un filtro se resuelve
+ * con operaciones Y/O entre mapas y los recuentos por faceta son
+ * cardinalidades, sin consultar la base de datos. Cada mapa es un
+ * {@link BitSet} indexado por id y ocupa hasta el mayor id que contiene,
+ * aunque tenga pocos productos; los ids que no caben en un {@code int} no se
+ * indexan.
+ * <p>
+ * Se construye al arrancar (o en la primera consulta, si llega antes) y se
+ * actualiza con cada {@link ProductoCambiadoEvent} (ver {@link IndicesCatalogo}).
+ */
+@Slf4j
+@Component
+public class IndiceFacetas implements IndiceCatalogo {
+    private record Ficha(long version, String categoria, boolean conStock, int tramo) {
+    }
+
+    private enum Dimension {
+        CATEGORIA, STOCK, PRECIO
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private final int tamanoLote;
+    private final BigDecimal[] limites;
+    private final List<String> etiquetas = new ArrayList<>();
+
+    private final Map<Long, Ficha> fichas = new HashMap<>();
+    private final BitSet todos = new BitSet();
+    private final BitSet conStock = new BitSet();
+    private final Map<String, BitSet> categorias = new HashMap<>();
+    private final BitSet[] tramos;
+    private final Eliminados eliminados = new Eliminados();
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile boolean listo;
+
+    public IndiceFacetas(
+            @Value("${application.search.batch-size:1000}") final int tamanoLote,
+            @Value("${application.facets.price-bounds:50,100,250,500,1000,2500}") final BigDecimal[] limites) {
+        this.tamanoLote = tamanoLote;
+        this.limites = limites.clone();
+        this.tramos = new BitSet[limites.length + 1];
+        for (int i = 0; i < tramos.length; i++) {
+            tramos[i] = new BitSet();
+            final String desde = i == 0 ? "0" : limites[i - 1].toPlainString();
+            etiquetas.add(i == limites.length ? desde + "+" : desde + "-" + limites[i].toPlainString());
+        }
+    }
+
+    /** Recorre el catálogo por lotes; solo lee categoría, stock y precio. */
+    @Override
+    public synchronized void reconstruir() {
+        final long inicio = System.nanoTime();
+        long desde = 0;
+        int total = 0;
+        List<Producto> lote;
+        conCandado(eliminados::iniciar);
+        try {
+            do {
+                lote = productoRepository.findByIdGreaterThanOrderByIdAsc(desde, Limit.of(tamanoLote));
+                candado.writeLock().lock();
+                try {
+                    lote.forEach(producto -> guardar(producto.getId(), ficha(producto)));
+                } finally {
+                    candado.writeLock().unlock();
+                }
+                total += lote.size();
+                if (!lote.isEmpty()) {
+                    desde = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == tamanoLote);
+        } finally {
+            conCandado(eliminados::terminar);
+        }
+        listo = true;
+        log.info("Índice de facetas construido: {} productos en {} ms", total,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Al arrancar no repite la construcción que haya hecho ya una consulta
+    @Override
+    public void construir() {
+        asegurarListo();
+    }
+
+    // Las consultas que llegan antes de terminar esperan a la construcción en curso
+    private void asegurarListo() {
+        if (!listo) {
+            synchronized (this) {
+                if (!listo) {
+                    reconstruir();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void indexar(final Producto producto) {
+        final Ficha ficha = ficha(producto);
+        conCandado(() -> guardar(producto.getId(), ficha));
+    }
+
+    @Override
+    public void eliminar(final Long id) {
+        conCandado(() -> {
+            eliminados.anotar(id);
+            final Ficha actual = fichas.remove(id);
+            if (actual != null) {
+                quitar(id, actual);
+            }
+        });
+    }
+
+    private void conCandado(final Runnable escritura) {
+        candado.writeLock().lock();
+        try {
+            escritura.run();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /** Ids que cumplen el filtro, mayores que {@code desde} y en orden ascendente. */
+    public List<Long> ids(final ExplorarRequest filtro, final long desde, final int limite) {
+        asegurarListo();
+        candado.readLock().lock();
+        try {
+            final BitSet seleccion = seleccion(filtro, null);
+            final List<Long> ids = new ArrayList<>(limite);
+            for (int i = seleccion.nextSetBit(inicio(desde)); i >= 0 && ids.size() < limite;
+                    i = seleccion.nextSetBit(i + 1)) {
+                ids.add((long) i);
+            }
+            return ids;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public long contar(final ExplorarRequest filtro) {
+        asegurarListo();
+        candado.readLock().lock();
+        try {
+            return seleccion(filtro, null).cardinality();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recuentos por categoría, stock y tramo de precio. Cada dimensión se
+     * cuenta sin su propio filtro para que el cliente vea qué obtendría al
+     * añadir o cambiar un valor.
+     */
+    public FacetasResponse facetas(final ExplorarRequest filtro) {
+        asegurarListo();
+        candado.readLock().lock();
+        try {
+            final long total = seleccion(filtro, null).cardinality();
+
+            final BitSet sinStock = seleccion(filtro, Dimension.STOCK);
+            sinStock.and(conStock);
+
+            final BitSet sinCategoria = seleccion(filtro, Dimension.CATEGORIA);
+            final Map<String, Long> porCategoria = new TreeMap<>();
+            categorias.forEach((categoria, mapa) -> {
+                final long cuenta = cardinalidadComun(sinCategoria, mapa);
+                if (cuenta > 0) {
+                    porCategoria.put(categoria, cuenta);
+                }
+            });
+
+            final BitSet sinPrecio = seleccion(filtro, Dimension.PRECIO);
+            final Map<String, Long> porPrecio = new LinkedHashMap<>();
+            for (int i = 0; i < tramos.length; i++) {
+                porPrecio.put(etiquetas.get(i), cardinalidadComun(sinPrecio, tramos[i]));
+            }
+            return new FacetasResponse(total, sinStock.cardinality(), porCategoria, porPrecio);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Y entre dimensiones, O dentro de cada una; se omite la dimensión indicada
+    private BitSet seleccion(final ExplorarRequest filtro, final Dimension omitida) {
+        final BitSet resultado = (BitSet) todos.clone();
+        if (filtro == null) {
+            return resultado;
+        }
+        if (omitida != Dimension.CATEGORIA && hayValores(filtro.categoria())) {
+            final BitSet union = new BitSet();
+            for (final String categoria : filtro.categoria()) {
+                final BitSet mapa = categorias.get(clave(categoria));
+                if (mapa != null) {
+                    union.or(mapa);
+                }
+            }
+            resultado.and(union);
+        }
+        if (omitida != Dimension.STOCK && filtro.conStock() != null) {
+            if (filtro.conStock()) {
+                resultado.and(conStock);
+            } else {
+                resultado.andNot(conStock);
+            }
+        }
+        if (omitida != Dimension.PRECIO && hayValores(filtro.precio())) {
+            final BitSet union = new BitSet();
+            for (final String precio : filtro.precio()) {
+                final int tramo = etiquetas.indexOf(precio.strip());
+                if (tramo < 0) {
+                    throw new FiltroInvalidoException(
+                            "Tramo de precio desconocido: " + precio + "; valores posibles: " + etiquetas);
+                }
+                union.or(tramos[tramo]);
+            }
+            resultado.and(union);
+        }
+        return resultado;
+    }
+
+    private static boolean hayValores(final List<String> valores) {
+        return valores != null && valores.stream().anyMatch(valor -> valor != null && !valor.isBlank());
+    }
+
+    // Sin copias: recorre el mapa de la faceta; los de una dimensión no se solapan
+    private static long cardinalidadComun(final BitSet seleccion, final BitSet mapa) {
+        long cuenta = 0;
+        for (int i = mapa.nextSetBit(0); i >= 0; i = mapa.nextSetBit(i + 1)) {
+            if (seleccion.get(i)) {
+                cuenta++;
+            }
+        }
+        return cuenta;
+    }
+
+    private Ficha ficha(final Producto producto) {
+        return new Ficha(producto.getVersion() != null ? producto.getVersion() : 0,
+                producto.getCategoria() != null && !producto.getCategoria().isBlank()
+                        ? clave(producto.getCategoria())
+                        : null,
+                producto.getStock() != null && producto.getStock() > 0,
+                tramo(producto.getPrecio()));
+    }
+
+    private int tramo(final BigDecimal precio) {
+        if (precio == null) {
+            return 0;
+        }
+        int i = 0;
+        while (i < limites.length && precio.compareTo(limites[i]) >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String clave(final String categoria) {
+        return categoria.strip().toLowerCase(Locale.ROOT);
+    }
+
+    // Por debajo de Integer.MAX_VALUE para que nextSetBit(i + 1) no desborde
+    private static boolean cabe(final long id) {
+        return id >= 0 && id < Integer.MAX_VALUE;
+    }
+
+    // Primer bit después del cursor, que puede venir de un cliente
+    private static int inicio(final long desde) {
+        return desde >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(desde + 1, 0);
+    }
+
+    private void guardar(final Long id, final Ficha ficha) {
+        if (eliminados.contiene(id)) {
+            return;
+        }
+        if (!cabe(id)) {
+            log.warn("El producto {} no cabe en el índice de facetas", id);
+            return;
+        }
+        final Ficha actual = fichas.get(id);
+        // Una reconstrucción puede traer una versión anterior a la ya indexada
+        if (actual != null && actual.version() > ficha.version()) {
+            return;
+        }
+        if (actual != null) {
+            quitar(id, actual);
+        }
+        fichas.put(id, ficha);
+        final int bit = id.intValue();
+        todos.set(bit);
+        conStock.set(bit, ficha.conStock());
+        tramos[ficha.tramo()].set(bit);
+        if (ficha.categoria() != null) {
+            categorias.computeIfAbsent(ficha.categoria(), c -> new BitSet()).set(bit);
+        }
+    }
+
+    private void quitar(final Long id, final Ficha ficha) {
+        final int bit = id.intValue();
+        todos.clear(bit);
+        conStock.clear(bit);
+        tramos[ficha.tramo()].clear(bit);
+        if (ficha.categoria() != null) {
+            final BitSet mapa = categorias.get(ficha.categoria());
+            mapa.clear(bit);
+            if (mapa.isEmpty()) {
+                categorias.remove(ficha.categoria());
+            }
+        }
+    }
+}
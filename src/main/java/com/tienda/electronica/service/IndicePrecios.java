@@ -0,0 +1,267 @@
+package com.tienda.electronica.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.service.Paginacion.PosicionPrecio;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Productos ordenados por (precio, id) en memoria, con el precio en céntimos
+ * como {@code long}. Un rango de precios se recorre desde la posición del
+ * cursor sin consultar la base de datos; las lecturas no toman candados.
+ * <p>
+ * Los recuentos salen de un árbol de Fenwick con el número de productos por
+ * tramo de precio (16 tramos por cada potencia de dos de céntimos): solo se
+ * recorren los productos de los dos tramos de los extremos del rango, y si
+ * alguno tiene demasiados se estima su parte por la fracción de precio que
+ * cubre. Como los demás totales de los listados, el resultado es aproximado.
+ * <p>
+ * Se reconstruye en segundo plano al arrancar y se actualiza con cada
+ * {@link ProductoCambiadoEvent} (ver {@link IndicesCatalogo}). Mientras no esté listo, las consultas
+ * devuelven vacío y se usa el índice de {@code precio} en base de datos.
+ */
+@Slf4j
+@Component
+public class IndicePrecios implements IndiceCatalogo {
+    private static final Comparator<PosicionPrecio> POR_PRECIO = Comparator
+            .comparingLong(PosicionPrecio::centimos)
+            .thenComparingLong(PosicionPrecio::id);
+
+    private record Precio(long version, long centimos) {
+    }
+
+    private static final int BITS_SUBTRAMO = 4;
+    private static final int SUBTRAMOS = 1 << BITS_SUBTRAMO;
+    private static final int TRAMOS = (Long.SIZE - BITS_SUBTRAMO) * SUBTRAMOS;
+    // Productos que se recorren como mucho en cada extremo de un recuento
+    static final int MAXIMO_RECORRIDO = 1024;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private final int tamanoLote;
+
+    private final NavigableSet<PosicionPrecio> orden = new ConcurrentSkipListSet<>(POR_PRECIO);
+    // Solo los escritores lo tocan, siempre con el monitor de this
+    private final Map<Long, Precio> precios = new HashMap<>();
+    private final Eliminados eliminados = new Eliminados();
+    // Árbol de Fenwick sobre los tramos; se escribe con el monitor de this
+    private final AtomicLongArray porTramo = new AtomicLongArray(TRAMOS + 1);
+    private volatile boolean listo;
+
+    public IndicePrecios(@Value("${application.search.batch-size:1000}") final int tamanoLote) {
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Override
+    public void reconstruir() {
+        final long inicio = System.nanoTime();
+        long desde = 0;
+        int total = 0;
+        List<Producto> lote;
+        synchronized (this) {
+            eliminados.iniciar();
+        }
+        try {
+            do {
+                lote = productoRepository.findByIdGreaterThanOrderByIdAsc(desde, Limit.of(tamanoLote));
+                synchronized (this) {
+                    lote.forEach(this::guardar);
+                }
+                total += lote.size();
+                if (!lote.isEmpty()) {
+                    desde = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == tamanoLote);
+        } finally {
+            synchronized (this) {
+                eliminados.terminar();
+            }
+        }
+        listo = true;
+        log.info("Índice de precios construido: {} productos en {} ms", total,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    public boolean estaListo() {
+        return listo;
+    }
+
+    @Override
+    public synchronized void indexar(final Producto producto) {
+        guardar(producto);
+    }
+
+    @Override
+    public synchronized void eliminar(final Long id) {
+        eliminados.anotar(id);
+        final Precio actual = precios.remove(id);
+        if (actual != null) {
+            orden.remove(new PosicionPrecio(actual.centimos(), id));
+            sumar(tramo(actual.centimos()), -1);
+        }
+    }
+
+    /**
+     * Posiciones con precio entre {@code minimo} y {@code maximo} céntimos
+     * (ambos incluidos) a partir de {@code desde}, sin incluirla, o vacío si
+     * el índice aún se está construyendo.
+     */
+    public Optional<List<PosicionPrecio>> posiciones(final long minimo, final long maximo,
+            final boolean descendente, final PosicionPrecio desde, final int limite) {
+        if (!listo) {
+            return Optional.empty();
+        }
+        final List<PosicionPrecio> posiciones = new ArrayList<>(limite);
+        if (descendente) {
+            final PosicionPrecio tope = menor(desde, new PosicionPrecio(maximo, Long.MAX_VALUE));
+            for (final PosicionPrecio posicion : orden.headSet(tope, false).descendingSet()) {
+                if (posicion.centimos() < minimo || posiciones.size() == limite) {
+                    break;
+                }
+                posiciones.add(posicion);
+            }
+        } else {
+            final PosicionPrecio base = mayor(desde, new PosicionPrecio(minimo, Long.MIN_VALUE));
+            for (final PosicionPrecio posicion : orden.tailSet(base, false)) {
+                if (posicion.centimos() > maximo || posiciones.size() == limite) {
+                    break;
+                }
+                posiciones.add(posicion);
+            }
+        }
+        return Optional.of(posiciones);
+    }
+
+    /**
+     * Productos con precio entre {@code minimo} y {@code maximo} céntimos, o
+     * vacío si el índice aún se está construyendo.
+     */
+    public Optional<Long> contar(final long minimo, final long maximo) {
+        if (!listo) {
+            return Optional.empty();
+        }
+        if (minimo > maximo) {
+            return Optional.of(0L);
+        }
+        final int primero = tramo(minimo);
+        final int ultimo = tramo(maximo);
+        long total = prefijo(ultimo) - prefijo(primero - 1);
+        if (minimo > inicioTramo(primero)) {
+            total -= parteDelTramo(primero, inicioTramo(primero), minimo - 1);
+        }
+        if (maximo < finTramo(ultimo)) {
+            total -= parteDelTramo(ultimo, maximo + 1, finTramo(ultimo));
+        }
+        // Las lecturas no se sincronizan con las escrituras en curso
+        return Optional.of(Math.max(total, 0));
+    }
+
+    // Productos del tramo con precio entre desde y hasta; estimado si hay demasiados
+    private long parteDelTramo(final int tramo, final long desde, final long hasta) {
+        long cuenta = 0;
+        for (final PosicionPrecio posicion : orden.subSet(new PosicionPrecio(desde, Long.MIN_VALUE), true,
+                new PosicionPrecio(hasta, Long.MAX_VALUE), true)) {
+            if (++cuenta > MAXIMO_RECORRIDO) {
+                final double ancho = (double) finTramo(tramo) - inicioTramo(tramo) + 1;
+                return Math.round((prefijo(tramo) - prefijo(tramo - 1)) * (((double) hasta - desde + 1) / ancho));
+            }
+        }
+        return cuenta;
+    }
+
+    // Tramos lineales por debajo de 16 céntimos y logarítmicos por encima
+    static int tramo(final long centimos) {
+        if (centimos < SUBTRAMOS) {
+            return (int) Math.max(centimos, 0);
+        }
+        final int exponente = Long.SIZE - 1 - Long.numberOfLeadingZeros(centimos);
+        final int subtramo = (int) (centimos >>> (exponente - BITS_SUBTRAMO)) & (SUBTRAMOS - 1);
+        return (exponente - BITS_SUBTRAMO + 1) * SUBTRAMOS + subtramo;
+    }
+
+    static long inicioTramo(final int tramo) {
+        if (tramo == 0) {
+            return Long.MIN_VALUE;
+        }
+        if (tramo < SUBTRAMOS) {
+            return tramo;
+        }
+        final int exponente = tramo / SUBTRAMOS + BITS_SUBTRAMO - 1;
+        return (long) (SUBTRAMOS + tramo % SUBTRAMOS) << (exponente - BITS_SUBTRAMO);
+    }
+
+    static long finTramo(final int tramo) {
+        return tramo == TRAMOS - 1 ? Long.MAX_VALUE : inicioTramo(tramo + 1) - 1;
+    }
+
+    private void sumar(final int tramo, final long cantidad) {
+        for (int i = tramo + 1; i <= TRAMOS; i += i & -i) {
+            porTramo.addAndGet(i, cantidad);
+        }
+    }
+
+    // Productos en los tramos 0..tramo
+    private long prefijo(final int tramo) {
+        long suma = 0;
+        for (int i = tramo + 1; i > 0; i -= i & -i) {
+            suma += porTramo.get(i);
+        }
+        return suma;
+    }
+
+    /** Precio en céntimos; los precios tienen dos decimales. */
+    public static long centimos(final BigDecimal precio) {
+        return precio.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static PosicionPrecio menor(final PosicionPrecio a, final PosicionPrecio b) {
+        return POR_PRECIO.compare(a, b) <= 0 ? a : b;
+    }
+
+    private static PosicionPrecio mayor(final PosicionPrecio a, final PosicionPrecio b) {
+        return POR_PRECIO.compare(a, b) >= 0 ? a : b;
+    }
+
+    private void guardar(final Producto producto) {
+        final Long id = producto.getId();
+        if (eliminados.contiene(id) || producto.getPrecio() == null) {
+            return;
+        }
+        final long version = producto.getVersion() != null ? producto.getVersion() : 0;
+        final Precio actual = precios.get(id);
+        // Una reconstrucción puede traer una versión anterior a la ya indexada
+        if (actual != null && actual.version() > version) {
+            return;
+        }
+        final Precio nuevo = new Precio(version, centimos(producto.getPrecio()));
+        // Se añade antes de quitar para que un lector nunca deje de ver el producto
+        orden.add(new PosicionPrecio(nuevo.centimos(), id));
+        if (actual == null) {
+            sumar(tramo(nuevo.centimos()), 1);
+        } else if (actual.centimos() != nuevo.centimos()) {
+            orden.remove(new PosicionPrecio(actual.centimos(), id));
+            sumar(tramo(actual.centimos()), -1);
+            sumar(tramo(nuevo.centimos()), 1);
+        }
+        precios.put(id, nuevo);
+    }
+}
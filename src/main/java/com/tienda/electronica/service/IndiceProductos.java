@@ -0,0 +1,334 @@
+package com.tienda.electronica.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.ProductoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido en memoria sobre nombre, categoría y descripción de los
+ * productos. Los textos se normalizan sin tildes ni mayúsculas y se puntúan
+ * con BM25, pesando más el nombre que la categoría y esta más que la
+ * descripción. Un término de la búsqueda que no está en el vocabulario se
+ * corrige con los términos a distancia de edición 1 (2 desde 8 letras),
+ * buscados por trigramas y con la mitad de peso.
+ * <p>
+ * Se reconstruye en segundo plano al arrancar y se actualiza con cada
+ * {@link ProductoCambiadoEvent} (ver {@link IndicesCatalogo}). Mientras no esté listo, {@link #buscar}
+ * devuelve vacío y se usa la búsqueda en base de datos.
+ */
+@Slf4j
+@Component
+public class IndiceProductos implements IndiceCatalogo {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PESO_DIFUSO = 0.5;
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_CATEGORIA = 2;
+    private static final int PESO_DESCRIPCION = 1;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private record Documento(long version, Map<String, Integer> terminos, int longitud) {
+    }
+
+    public record Resultado(List<Long> ids, int total) {
+    }
+
+    private record Puntuado(long id, double puntuacion) {
+    }
+
+    // Mejor puntuación primero y, a igualdad, el id más bajo
+    private static final Comparator<Puntuado> RELEVANCIA = Comparator.comparingDouble(Puntuado::puntuacion)
+            .reversed()
+            .thenComparingLong(Puntuado::id);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private final int tamanoLote;
+    private final int maximoResultados;
+
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<String, Set<String>> trigramas = new HashMap<>();
+    private final Eliminados eliminados = new Eliminados();
+    private long longitudTotal;
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile boolean listo;
+
+    public IndiceProductos(
+            @Value("${application.search.batch-size:1000}") final int tamanoLote,
+            @Value("${application.search.max-results:1000}") final int maximoResultados) {
+        this.tamanoLote = tamanoLote;
+        this.maximoResultados = maximoResultados;
+    }
+
+    /** Recorre el catálogo por lotes y tokeniza cada lote en paralelo. */
+    @Override
+    public void reconstruir() {
+        final long inicio = System.nanoTime();
+        long desde = 0;
+        int total = 0;
+        List<Producto> lote;
+        conCandado(eliminados::iniciar);
+        try {
+            do {
+                lote = productoRepository.findByIdGreaterThanOrderByIdAsc(desde, Limit.of(tamanoLote));
+                final List<Map.Entry<Producto, Documento>> preparados = lote.parallelStream()
+                        .map(producto -> Map.entry(producto, documento(producto)))
+                        .toList();
+                conCandado(() -> preparados.forEach(
+                        entrada -> guardar(entrada.getKey().getId(), entrada.getValue())));
+                total += lote.size();
+                if (!lote.isEmpty()) {
+                    desde = lote.get(lote.size() - 1).getId();
+                }
+            } while (lote.size() == tamanoLote);
+        } finally {
+            conCandado(eliminados::terminar);
+        }
+        listo = true;
+        log.info("Índice de productos construido: {} productos en {} ms", total,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    public boolean estaListo() {
+        return listo;
+    }
+
+    @Override
+    public void indexar(final Producto producto) {
+        final Documento documento = documento(producto);
+        conCandado(() -> guardar(producto.getId(), documento));
+    }
+
+    @Override
+    public void eliminar(final Long id) {
+        conCandado(() -> {
+            eliminados.anotar(id);
+            final Documento actual = documentos.remove(id);
+            if (actual != null) {
+                quitar(id, actual);
+            }
+        });
+    }
+
+    private void conCandado(final Runnable escritura) {
+        candado.writeLock().lock();
+        try {
+            escritura.run();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de la página pedida por relevancia y número total de coincidencias,
+     * o vacío si el índice aún se está construyendo.
+     */
+    public Optional<Resultado> buscar(final String texto, final int desde, final int limite) {
+        if (!listo) {
+            return Optional.empty();
+        }
+        final Set<String> consulta = new LinkedHashSet<>(tokens(texto));
+        candado.readLock().lock();
+        try {
+            final Map<Long, Double> puntuaciones = puntuar(consulta);
+            final int necesarios = Math.min(desde + limite, maximoResultados);
+            if (desde >= necesarios) {
+                return Optional.of(new Resultado(List.of(), puntuaciones.size()));
+            }
+            // Montículo con los mejores: no se ordenan todas las coincidencias
+            final PriorityQueue<Puntuado> mejores = new PriorityQueue<>(necesarios + 1, RELEVANCIA.reversed());
+            puntuaciones.forEach((id, puntuacion) -> {
+                mejores.add(new Puntuado(id, puntuacion));
+                if (mejores.size() > necesarios) {
+                    mejores.poll();
+                }
+            });
+            final List<Puntuado> ordenados = new ArrayList<>(mejores);
+            ordenados.sort(RELEVANCIA);
+            final List<Long> ids = ordenados.subList(Math.min(desde, ordenados.size()), ordenados.size()).stream()
+                    .map(Puntuado::id)
+                    .toList();
+            return Optional.of(new Resultado(ids, puntuaciones.size()));
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> puntuar(final Set<String> consulta) {
+        final Map<Long, Double> puntuaciones = new HashMap<>();
+        if (documentos.isEmpty()) {
+            return puntuaciones;
+        }
+        final double longitudMedia = (double) longitudTotal / documentos.size();
+        for (final String termino : consulta) {
+            // Cada término de la búsqueda aporta su mejor coincidencia por documento
+            final Map<Long, Double> aportes = new HashMap<>();
+            if (postings.containsKey(termino)) {
+                sumar(termino, 1.0, longitudMedia, aportes);
+            } else {
+                for (final String parecido : parecidos(termino)) {
+                    sumar(parecido, PESO_DIFUSO, longitudMedia, aportes);
+                }
+            }
+            aportes.forEach((id, aporte) -> puntuaciones.merge(id, aporte, Double::sum));
+        }
+        return puntuaciones;
+    }
+
+    private void sumar(final String termino, final double peso, final double longitudMedia,
+            final Map<Long, Double> aportes) {
+        final Map<Long, Integer> lista = postings.get(termino);
+        final int n = documentos.size();
+        final double idf = Math.log(1 + (n - lista.size() + 0.5) / (lista.size() + 0.5));
+        lista.forEach((id, frecuencia) -> {
+            final double normalizacion = K1 * (1 - B + B * documentos.get(id).longitud() / longitudMedia);
+            final double puntuacion = peso * idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion);
+            aportes.merge(id, puntuacion, Math::max);
+        });
+    }
+
+    private Set<String> parecidos(final String termino) {
+        final int distancia = termino.length() >= 8 ? 2 : termino.length() >= 4 ? 1 : 0;
+        if (distancia == 0) {
+            return Set.of();
+        }
+        final Set<String> candidatos = new HashSet<>();
+        for (final String trigrama : trigramas(termino)) {
+            candidatos.addAll(trigramas.getOrDefault(trigrama, Set.of()));
+        }
+        candidatos.removeIf(candidato -> Math.abs(candidato.length() - termino.length()) > distancia
+                || distancia(termino, candidato, distancia) > distancia);
+        return candidatos;
+    }
+
+    // Levenshtein que abandona en cuanto una fila entera supera el máximo
+    static int distancia(final String a, final String b, final int maximo) {
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimo = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                final int coste = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + coste);
+                minimo = Math.min(minimo, actual[j]);
+            }
+            if (minimo > maximo) {
+                return maximo + 1;
+            }
+            final int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    private void guardar(final Long id, final Documento documento) {
+        if (eliminados.contiene(id)) {
+            return;
+        }
+        final Documento actual = documentos.get(id);
+        // Una reconstrucción puede traer una versión anterior a la ya indexada
+        if (actual != null && actual.version() > documento.version()) {
+            return;
+        }
+        if (actual != null) {
+            quitar(id, actual);
+        }
+        documentos.put(id, documento);
+        longitudTotal += documento.longitud();
+        documento.terminos().forEach((termino, frecuencia) -> {
+            final Map<Long, Integer> lista = postings.computeIfAbsent(termino, t -> {
+                trigramas(t).forEach(trigrama -> trigramas.computeIfAbsent(trigrama, k -> new HashSet<>()).add(t));
+                return new HashMap<>();
+            });
+            lista.put(id, frecuencia);
+        });
+    }
+
+    private void quitar(final Long id, final Documento documento) {
+        longitudTotal -= documento.longitud();
+        documentos.remove(id);
+        documento.terminos().keySet().forEach(termino -> {
+            final Map<Long, Integer> lista = postings.get(termino);
+            lista.remove(id);
+            if (lista.isEmpty()) {
+                postings.remove(termino);
+                for (final String trigrama : trigramas(termino)) {
+                    final Set<String> terminos = trigramas.get(trigrama);
+                    terminos.remove(termino);
+                    if (terminos.isEmpty()) {
+                        trigramas.remove(trigrama);
+                    }
+                }
+            }
+        });
+    }
+
+    private static Documento documento(final Producto producto) {
+        final Map<String, Integer> terminos = new HashMap<>();
+        agregar(terminos, producto.getNombre(), PESO_NOMBRE);
+        agregar(terminos, producto.getCategoria(), PESO_CATEGORIA);
+        agregar(terminos, producto.getDescripcion(), PESO_DESCRIPCION);
+        final int longitud = terminos.values().stream().mapToInt(Integer::intValue).sum();
+        return new Documento(producto.getVersion() != null ? producto.getVersion() : 0, Map.copyOf(terminos),
+                longitud);
+    }
+
+    private static void agregar(final Map<String, Integer> terminos, final String texto, final int peso) {
+        tokens(texto).forEach(token -> terminos.merge(token, peso, Integer::sum));
+    }
+
+    static String normalizar(final String texto) {
+        // Locale.ROOT: con el turco por defecto "I" pasaría a "ı" y no casaría con lo indexado
+        return MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokens(final String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARADORES.split(normalizar(texto)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static Set<String> trigramas(final String termino) {
+        final String marcado = "$" + termino + "$";
+        final Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + 3 <= marcado.length(); i++) {
+            resultado.add(marcado.substring(i, i + 3));
+        }
+        return resultado;
+    }
+}
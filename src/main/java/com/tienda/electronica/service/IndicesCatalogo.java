@@ -0,0 +1,52 @@
+package com.tienda.electronica.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mantiene los índices en memoria del catálogo: los construye en segundo
+ * plano al arrancar y les reparte cada cambio de producto con el estado que
+ * trae el evento, sin volver a leerlo de la base de datos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndicesCatalogo {
+    private final List<IndiceCatalogo> indices;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        for (final IndiceCatalogo indice : indices) {
+            CompletableFuture.runAsync(indice::construir)
+                    .exceptionally(e -> {
+                        log.error("No se pudo construir {}", indice.getClass().getSimpleName(), e);
+                        return null;
+                    });
+        }
+    }
+
+    // Tras el commit, como antes de este reparto: un fallo en un índice no afecta a los demás
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(final ProductoCambiadoEvent evento) {
+        for (final IndiceCatalogo indice : indices) {
+            try {
+                if (evento.eliminado()) {
+                    indice.eliminar(evento.productoId());
+                } else {
+                    indice.indexar(evento.producto());
+                }
+            } catch (RuntimeException e) {
+                log.error("No se pudo actualizar {} con el producto {}", indice.getClass().getSimpleName(),
+                        evento.productoId(), e);
+            }
+        }
+    }
+}
@@ -1,19 +1,31 @@
 package com.tienda.electronica.service;
 
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.tienda.electronica.entity.Usuario;
 
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
@@ -23,58 +35,134 @@ public class JwtService {
     @Value("${application.security.jwt.token.expiration}")
     private long jwtExpiration;
 
-    @Value("${application.security.jwt.token.refresh-expiration}")
-    private long refreshTokenExpiration;
+    @Value("${application.security.jwt.token.stateless:false}")
+    private boolean stateless;
+
+    @Value("${application.security.jwt.cache.max-size:10000}")
+    private long verifiedTokensMaxSize = 10_000;
+
+    @Autowired
+    private SigningKeyService signingKeyService;
+
+    private volatile Signer signer;
+
+    // Clave, parser y caché se construyen una sola vez al iniciar; con claves
+    // asimétricas la clave se resuelve por kid en cada firma y verificación
+    private record Signer(SecretKey key, JwtParser parser, Cache<String, VerifiedClaims> verifiedTokens) {
+    }
+
+    @PostConstruct
+    void init() {
+        signer();
+    }
 
     public String extractUsername(final String token) {
-        final Claims jwtToken = Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return verify(token).subject();
+    }
+
+    /**
+     * Verifica firma y expiración una sola vez; los tokens verificados se
+     * guardan hasta que expiran para no repetir la firma en cada petición.
+     */
+    public VerifiedClaims verify(final String token) {
+        final Signer actual = signer();
+        final VerifiedClaims cached = actual.verifiedTokens().getIfPresent(token);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        final VerifiedClaims claims = VerifiedClaims.from(actual.parser()
                 .parseSignedClaims(token)
-                .getPayload();
-        return jwtToken.getSubject();
+                .getPayload());
+        actual.verifiedTokens().put(token, claims);
+        return claims;
     }
 
     public String generateToken(final Usuario usuario) {
         return buildToken(usuario, jwtExpiration);
     }
 
-    public String generateRefreshToken(final Usuario usuario) {
-        return buildToken(usuario, refreshTokenExpiration);
-    }
-
+    // Cada token lleva un jti único para poder revocarlo sin guardarlo
     public String buildToken(final Usuario usuario, final long expiration) {
-        return Jwts
+        final JwtBuilder builder = Jwts
                 .builder()
-                .id(usuario.getId().toString())
-                .claims(Map.of("name", usuario.getNombre()))
+                .id(UUID.randomUUID().toString())
+                .claims(Map.of(
+                        "name", usuario.getNombre(),
+                        VerifiedClaims.TYPE_CLAIM, VerifiedClaims.ACCESS_TOKEN))
                 .subject(usuario.getEmail())
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + expiration));
+        if (isAsymmetric()) {
+            final SigningKeyService.ClaveFirma clave = signingKeyService.claveDeFirma();
+            return builder.header().keyId(clave.kid()).and()
+                    .signWith(clave.privateKey())
+                    .compact();
+        }
+        return builder.signWith(signer().key()).compact();
+    }
+
+    public long getJwtExpiration() {
+        return jwtExpiration;
+    }
+
+    /**
+     * En modo stateless los tokens de acceso se validan solo por firma y
+     * expiración, sin registrarse en la tabla {@code tokens}.
+     */
+    public boolean isStateless() {
+        return stateless;
     }
 
     public boolean isTokenValid(final String token, final Usuario usuario) {
-        final String username = extractUsername(token);
-        return username.equals(usuario.getEmail()) && !isTokenExpired(token);
+        return isTokenValid(verify(token), usuario);
     }
 
-    private boolean isTokenExpired(final String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(final VerifiedClaims claims, final Usuario usuario) {
+        return claims.subject().equals(usuario.getEmail()) && !claims.isExpired();
     }
 
-    private Date extractExpiration(final String token) {
-        final Claims jwtToken = Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return jwtToken.getExpiration();
+    private Signer signer() {
+        Signer actual = signer;
+        if (actual == null) {
+            synchronized (this) {
+                actual = signer;
+                if (actual == null) {
+                    actual = buildSigner();
+                    signer = actual;
+                }
+            }
+        }
+        return actual;
+    }
+
+    private boolean isAsymmetric() {
+        return signingKeyService != null && signingKeyService.isAsymmetric();
+    }
+
+    private Signer buildSigner() {
+        if (isAsymmetric()) {
+            final JwtParser parser = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(final JwsHeader header) {
+                            return signingKeyService.clavePublica(header.getKeyId());
+                        }
+                    })
+                    .build();
+            return new Signer(null, parser, verifiedTokensCache());
+        }
+        final SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        final JwtParser parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        return new Signer(key, parser, verifiedTokensCache());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Cache<String, VerifiedClaims> verifiedTokensCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(verifiedTokensMaxSize)
+                .expireAfter(Expiry.creating((String token, VerifiedClaims claims) -> Duration
+                        .between(Instant.now(), claims.expiration())))
+                .build();
     }
 }
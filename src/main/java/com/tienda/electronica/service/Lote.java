@@ -0,0 +1,10 @@
+package com.tienda.electronica.service;
+
+import java.util.List;
+
+/**
+ * Resultado de una búsqueda por varios ids: los encontrados en el orden
+ * pedido y los ids que no existen.
+ */
+public record Lote<T>(List<T> encontrados, List<Long> faltantes) {
+}
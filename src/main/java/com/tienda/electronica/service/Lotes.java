@@ -0,0 +1,81 @@
+package com.tienda.electronica.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tienda.electronica.exceptions.LoteInvalidoException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnitUtil;
+
+/**
+ * Búsquedas por varios ids en una sola ida a la base de datos. Los ids
+ * repetidos se resuelven una vez y el resultado conserva el orden pedido.
+ */
+@Component
+public class Lotes {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int maximoIds;
+
+    public Lotes(@Value("${application.batch.max-ids:100}") final int maximoIds) {
+        this.maximoIds = maximoIds;
+    }
+
+    /**
+     * Entidades con caché de segundo nivel: las que ya están en caché no se
+     * consultan y el resto se carga con un único {@code where id in (...)}.
+     */
+    @Transactional(readOnly = true)
+    public <T> Lote<T> porIds(final Class<T> entidad, final List<Long> ids) {
+        final PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        return porIds(ids, distintos -> entityManager.unwrap(Session.class)
+                .byMultipleIds(entidad)
+                .multiLoad(distintos)
+                .stream()
+                .filter(Objects::nonNull)
+                .toList(), elemento -> (Long) util.getIdentifier(elemento));
+    }
+
+    public <T> Lote<T> porIds(final List<Long> ids, final Function<List<Long>, List<T>> cargar,
+            final Function<T, Long> id) {
+        final List<Long> distintos = validar(ids);
+        final Map<Long, T> cargados = cargar.apply(distintos).stream()
+                .collect(Collectors.toMap(id, Function.identity(), (a, b) -> a));
+        final List<T> encontrados = new ArrayList<>(distintos.size());
+        final List<Long> faltantes = new ArrayList<>();
+        for (final Long clave : distintos) {
+            final T elemento = cargados.get(clave);
+            if (elemento != null) {
+                encontrados.add(elemento);
+            } else {
+                faltantes.add(clave);
+            }
+        }
+        return new Lote<>(encontrados, faltantes);
+    }
+
+    private List<Long> validar(final List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new LoteInvalidoException("Debe indicar al menos un id");
+        }
+        if (ids.size() > maximoIds) {
+            throw new LoteInvalidoException("Se permiten como máximo " + maximoIds + " ids por consulta");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new LoteInvalidoException("Los ids no pueden estar vacíos");
+        }
+        return ids.stream().distinct().toList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.tienda.electronica.service;
+
+import java.util.List;
+
+/**
+ * Una página de resultados. {@code siguienteCursor} es nulo en la última
+ * página y {@code total} solo viene cuando se pidió.
+ */
+public record Pagina<T>(List<T> elementos, String siguienteCursor, Long total) {
+}
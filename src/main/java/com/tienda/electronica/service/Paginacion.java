@@ -0,0 +1,247 @@
+package com.tienda.electronica.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
+import com.tienda.electronica.request.PaginaRequest;
+
+/**
+ * Paginación por clave (keyset) para los listados. El cursor es opaco para el
+ * cliente y codifica la clave de ordenación de la última fila devuelta, así
+ * que cada página es una búsqueda por índice sin OFFSET. Los totales son
+ * aproximados: se cuentan una vez y se reutilizan durante {@code total-ttl}.
+ */
+@Component
+public class Paginacion {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String PREFIJO_ID = "i:";
+    private static final String PREFIJO_FECHA = "f:";
+    private static final String PREFIJO_DESPLAZAMIENTO = "d:";
+    private static final String PREFIJO_PRECIO = "p:";
+
+    // Posición inicial de los listados por fecha descendente
+    private static final Posicion PRIMERA_POR_FECHA = new Posicion(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    @FunctionalInterface
+    public interface Consulta<K, T> {
+        List<T> buscar(K desde, Limit limite);
+    }
+
+    public record Posicion(LocalDateTime fecha, long id) {
+    }
+
+    /** Precio en céntimos e id de la última fila de un listado por precio. */
+    public record PosicionPrecio(long centimos, long id) {
+    }
+
+    private final int tamanoPorDefecto;
+    private final int tamanoMaximo;
+    private final Cache<String, Long> totales;
+
+    public Paginacion(
+            @Value("${application.pagination.default-size:50}") final int tamanoPorDefecto,
+            @Value("${application.pagination.max-size:200}") final int tamanoMaximo,
+            @Value("${application.pagination.total-ttl:PT1M}") final Duration ttlTotales) {
+        this.tamanoPorDefecto = tamanoPorDefecto;
+        this.tamanoMaximo = tamanoMaximo;
+        this.totales = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(ttlTotales)
+                .build();
+    }
+
+    /**
+     * Orden ascendente por id.
+     */
+    public <T> Pagina<T> porId(final PaginaRequest pagina, final Consulta<Long, T> consulta,
+            final Function<T, Long> id, final String claveTotal, final LongSupplier contar) {
+        return paginar(pagina, 0L, Paginacion::decodificarId, Paginacion::codificarId,
+                consulta, id, claveTotal, contar);
+    }
+
+    /**
+     * Orden descendente por id, los más recientes primero.
+     */
+    public <T> Pagina<T> porIdDescendente(final PaginaRequest pagina, final Consulta<Long, T> consulta,
+            final Function<T, Long> id, final String claveTotal, final LongSupplier contar) {
+        return paginar(pagina, Long.MAX_VALUE, Paginacion::decodificarId, Paginacion::codificarId,
+                consulta, id, claveTotal, contar);
+    }
+
+    /**
+     * Orden descendente por fecha y, a igual fecha, por id.
+     */
+    public <T> Pagina<T> porFechaDescendente(final PaginaRequest pagina, final Consulta<Posicion, T> consulta,
+            final Function<T, Posicion> posicion, final String claveTotal, final LongSupplier contar) {
+        return paginar(pagina, PRIMERA_POR_FECHA, Paginacion::decodificarPosicion, Paginacion::codificarPosicion,
+                consulta, posicion, claveTotal, contar);
+    }
+
+    /**
+     * Orden ascendente por precio y, a igual precio, por id.
+     */
+    public <T> Pagina<T> porPrecio(final PaginaRequest pagina, final Consulta<PosicionPrecio, T> consulta,
+            final Function<T, PosicionPrecio> posicion, final String claveTotal, final LongSupplier contar) {
+        return paginar(pagina, new PosicionPrecio(Long.MIN_VALUE, Long.MIN_VALUE), Paginacion::decodificarPrecio,
+                Paginacion::codificarPrecio, consulta, posicion, claveTotal, contar);
+    }
+
+    /**
+     * Orden descendente por precio y, a igual precio, por id.
+     */
+    public <T> Pagina<T> porPrecioDescendente(final PaginaRequest pagina, final Consulta<PosicionPrecio, T> consulta,
+            final Function<T, PosicionPrecio> posicion, final String claveTotal, final LongSupplier contar) {
+        return paginar(pagina, new PosicionPrecio(Long.MAX_VALUE, Long.MAX_VALUE), Paginacion::decodificarPrecio,
+                Paginacion::codificarPrecio, consulta, posicion, claveTotal, contar);
+    }
+
+    /**
+     * Por posición, para resultados ordenados por relevancia que no tienen
+     * una clave de ordenación estable. El cursor lleva las filas ya devueltas.
+     */
+    public <T> Pagina<T> porDesplazamiento(final PaginaRequest pagina, final Consulta<Integer, T> consulta,
+            final String claveTotal, final LongSupplier contar) {
+        final int limite = limite(pagina);
+        final String cursor = pagina != null ? pagina.cursor() : null;
+        final int desde = cursor == null || cursor.isBlank() ? 0 : decodificarDesplazamiento(cursor);
+
+        List<T> filas = consulta.buscar(desde, Limit.of(limite + 1));
+        String siguiente = null;
+        if (filas.size() > limite) {
+            filas = filas.subList(0, limite);
+            siguiente = codificar(PREFIJO_DESPLAZAMIENTO + (desde + limite));
+        }
+        final Long total = pagina != null && Boolean.TRUE.equals(pagina.total())
+                ? totales.get(claveTotal, k -> contar.getAsLong())
+                : null;
+        return new Pagina<>(List.copyOf(filas), siguiente, total);
+    }
+
+    int limite(final PaginaRequest pagina) {
+        if (pagina == null || pagina.limite() == null) {
+            return tamanoPorDefecto;
+        }
+        if (pagina.limite() < 1) {
+            throw new PaginacionInvalidaException("El límite debe ser mayor que cero");
+        }
+        return Math.min(pagina.limite(), tamanoMaximo);
+    }
+
+    private <K, T> Pagina<T> paginar(final PaginaRequest pagina, final K inicio,
+            final Function<String, K> decodificar, final Function<K, String> codificar,
+            final Consulta<K, T> consulta, final Function<T, K> clave,
+            final String claveTotal, final LongSupplier contar) {
+        final int limite = limite(pagina);
+        final String cursor = pagina != null ? pagina.cursor() : null;
+        final K desde = cursor == null || cursor.isBlank() ? inicio : decodificar.apply(cursor);
+
+        // Una fila de más indica si hay página siguiente sin contar
+        List<T> filas = consulta.buscar(desde, Limit.of(limite + 1));
+        String siguiente = null;
+        if (filas.size() > limite) {
+            filas = filas.subList(0, limite);
+            siguiente = codificar.apply(clave.apply(filas.get(limite - 1)));
+        }
+        final Long total = pagina != null && Boolean.TRUE.equals(pagina.total())
+                ? totales.get(claveTotal, k -> contar.getAsLong())
+                : null;
+        return new Pagina<>(List.copyOf(filas), siguiente, total);
+    }
+
+    private static String codificarId(final Long id) {
+        return codificar(PREFIJO_ID + id);
+    }
+
+    private static String codificarPosicion(final Posicion posicion) {
+        return codificar(PREFIJO_FECHA + posicion.fecha() + "|" + posicion.id());
+    }
+
+    private static String codificarPrecio(final PosicionPrecio posicion) {
+        return codificar(PREFIJO_PRECIO + posicion.centimos() + "|" + posicion.id());
+    }
+
+    private static String codificar(final String valor) {
+        return ENCODER.encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodificarId(final String cursor) {
+        final String valor = decodificar(cursor, PREFIJO_ID);
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private static int decodificarDesplazamiento(final String cursor) {
+        final String valor = decodificar(cursor, PREFIJO_DESPLAZAMIENTO);
+        try {
+            final int desplazamiento = Integer.parseInt(valor);
+            if (desplazamiento < 0) {
+                throw cursorInvalido();
+            }
+            return desplazamiento;
+        } catch (NumberFormatException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private static Posicion decodificarPosicion(final String cursor) {
+        final String valor = decodificar(cursor, PREFIJO_FECHA);
+        final int separador = valor.indexOf('|');
+        if (separador < 0) {
+            throw cursorInvalido();
+        }
+        try {
+            return new Posicion(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private static PosicionPrecio decodificarPrecio(final String cursor) {
+        final String valor = decodificar(cursor, PREFIJO_PRECIO);
+        final int separador = valor.indexOf('|');
+        if (separador < 0) {
+            throw cursorInvalido();
+        }
+        try {
+            return new PosicionPrecio(Long.parseLong(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (NumberFormatException e) {
+            throw cursorInvalido();
+        }
+    }
+
+    private static String decodificar(final String cursor, final String prefijo) {
+        final String valor;
+        try {
+            valor = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw cursorInvalido();
+        }
+        if (!valor.startsWith(prefijo)) {
+            throw cursorInvalido();
+        }
+        return valor.substring(prefijo.length());
+    }
+
+    private static PaginacionInvalidaException cursorInvalido() {
+        return new PaginacionInvalidaException("Cursor inválido");
+    }
+}
@@ -0,0 +1,99 @@
+package com.tienda.electronica.service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ejecuta el hashing de contraseñas en un pool propio y acotado para que una
+ * ráfaga de logins no ocupe todos los hilos de Tomcat. Con la cola llena se
+ * rechaza de inmediato con {@link ServicioSaturadoException}.
+ */
+@Service
+public class PasswordHashingService {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final long retryAfterSegundos;
+    private final Counter rechazados;
+    private final String hashFicticio;
+
+    public PasswordHashingService(
+            final PasswordEncoder passwordEncoder,
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.password.hashing.threads:0}") final int hilos,
+            @Value("${application.security.password.hashing.queue-capacity:64}") final int capacidadCola,
+            @Value("${application.security.password.hashing.retry-after:1}") final long retryAfterSegundos) {
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSegundos = retryAfterSegundos;
+        final int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                runnable -> {
+                    final Thread hilo = new Thread(runnable, "password-hashing-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "auth.password.hashing");
+        this.rechazados = Counter.builder("auth.password.hashing.rejected")
+                .description("Operaciones de hashing rechazadas por cola llena")
+                .register(meterRegistry);
+        // Se compara contra este hash cuando el usuario no existe, para igualar tiempos
+        this.hashFicticio = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    public String encode(final String password) {
+        return ejecutar(() -> passwordEncoder.encode(password));
+    }
+
+    public boolean matches(final String password, final String encoded) {
+        return ejecutar(() -> passwordEncoder.matches(password, encoded != null ? encoded : hashFicticio));
+    }
+
+    public boolean upgradeEncoding(final String encoded) {
+        return passwordEncoder.upgradeEncoding(encoded);
+    }
+
+    private <T> T ejecutar(final Supplier<T> tarea) {
+        final CompletableFuture<T> resultado;
+        try {
+            resultado = CompletableFuture.supplyAsync(tarea, executor);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new ServicioSaturadoException("Demasiadas solicitudes de autenticación", retryAfterSegundos);
+        }
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        pool.shutdown();
+    }
+}
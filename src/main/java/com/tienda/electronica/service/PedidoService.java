@@ -2,11 +2,13 @@ package com.tienda.electronica.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tienda.electronica.entity.Cliente;
 import com.tienda.electronica.entity.DetallePedido;
@@ -15,6 +17,11 @@ import com.tienda.electronica.exceptions.ClienteNotFoundException;
 import com.tienda.electronica.exceptions.PedidoNotFoundException;
 import com.tienda.electronica.repository.ClienteRepository;
 import com.tienda.electronica.repository.PedidoRepository;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.PedidoDetalleResponse;
+import com.tienda.electronica.response.PedidoResumenResponse;
 
 @Service
 public class PedidoService {
@@ -22,26 +29,70 @@ public class PedidoService {
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private CambiosTablas cambiosTablas;
+
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private Paginacion paginacion;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private Lotes lotes;
+
     private static final BigDecimal TASA_IMPUESTO = new BigDecimal("0.12"); // 12% IVA
     private static final BigDecimal COSTO_ENVIO_ESTANDAR = new BigDecimal("15000.00");
     private static final BigDecimal MONTO_ENVIO_GRATIS = new BigDecimal("200000.00");
 
-    public List<Pedido> obtenerTodos() {
-        return pedidoRepository.findAll();
+    public Pagina<PedidoResumenResponse> obtenerTodos(PaginaRequest pagina) {
+        return singleFlight.ejecutar("pedidos:" + pagina, () -> paginacion.porIdDescendente(pagina,
+                pedidoRepository::findResumenes, PedidoResumenResponse::id, "pedidos", pedidoRepository::count));
+    }
+
+    // Sin transacción: el grafo llega completo en una consulta y los que esperan no retienen conexión
+    public Optional<PedidoDetalleResponse> obtenerPorId(Long id) {
+        return singleFlight.ejecutar("pedido:" + id,
+                () -> pedidoRepository.findDetalleById(id).map(PedidoDetalleResponse::de));
+    }
+
+    public Lote<PedidoDetalleResponse> obtenerVarios(List<Long> ids) {
+        return lotes.porIds(ids, distintos -> pedidoRepository.findDetallesByIdIn(distintos).stream()
+                .map(PedidoDetalleResponse::de)
+                .toList(), PedidoDetalleResponse::id);
+    }
+
+    // El detalle incluye el resumen del cliente y los nombres de los productos
+    @Transactional(readOnly = true)
+    public Optional<VersionFila> obtenerVersion(Long id) {
+        return pedidoRepository.findVersionById(id).map(pedido -> {
+            List<VersionFila> incluidas = new ArrayList<>();
+            pedidoRepository.findVersionClienteById(id).ifPresent(incluidas::add);
+            incluidas.addAll(pedidoRepository.findVersionesProductosById(id));
+            return pedido.con(incluidas);
+        });
     }
 
-    public Optional<Pedido> obtenerPorId(Long id) {
-        return pedidoRepository.findById(id);
+    public String etagListado() {
+        return cambiosTablas.etag(Pedido.class, Cliente.class);
     }
 
+    // Los productos de las líneas llegan solo con id: se sustituyen por referencias de la sesión
+    @Transactional
     public Pedido crear(Pedido pedido) {
         calcularTotales(pedido);
         pedido.setFechaPedido(LocalDateTime.now());
         Long clienteId = pedido.getCliente().getId();
-        pedido.getDetalles().forEach(detalle -> detalle.setPedido(pedido));
+        pedido.getDetalles().forEach(detalle -> {
+            detalle.setPedido(pedido);
+            detalle.setProducto(productoRepository.getReferenceById(detalle.getProducto().getId()));
+        });
         Cliente cliente = clienteRepository.findById(
                 clienteId)
                 .orElseThrow(() -> new ClienteNotFoundException(clienteId));
@@ -49,8 +100,16 @@ public class PedidoService {
         return pedidoRepository.save(pedido);
     }
 
+    /** Crea el pedido y arma la respuesta antes de cerrar la sesión. */
+    @Transactional
+    public PedidoDetalleResponse crearDetalle(Pedido pedido) {
+        return PedidoDetalleResponse.de(crear(pedido));
+    }
+
+    // En la misma transacción para devolver el pedido con su grafo ya cargado
+    @Transactional
     public Pedido actualizar(Long id, Pedido pedidoActualizado) {
-        return pedidoRepository.findById(id)
+        return pedidoRepository.findDetalleById(id)
                 .map(pedido -> {
                     pedido.setEstado(pedidoActualizado.getEstado());
                     pedido.setMetodoPago(pedidoActualizado.getMetodoPago());
@@ -69,6 +128,12 @@ public class PedidoService {
                 .orElseThrow(() -> new PedidoNotFoundException(id));
     }
 
+    /** Actualiza el pedido y arma la respuesta antes de cerrar la sesión. */
+    @Transactional
+    public PedidoDetalleResponse actualizarDetalle(Long id, Pedido pedidoActualizado) {
+        return PedidoDetalleResponse.de(actualizar(id, pedidoActualizado));
+    }
+
     public void eliminar(Long id) {
         if (!pedidoRepository.existsById(id)) {
             throw new PedidoNotFoundException(id);
@@ -76,24 +141,19 @@ public class PedidoService {
         pedidoRepository.deleteById(id);
     }
 
-    public List<Pedido> obtenerPorCliente(Long clienteId) {
-        return pedidoRepository.findByClienteIdOrderByFechaPedidoDesc(clienteId);
-    }
-
-    public List<Pedido> obtenerPorEstado(Pedido.EstadoPedido estado) {
-        return pedidoRepository.findByEstado(estado);
-    }
-
-    public List<Pedido> obtenerPorMetodoPago(Pedido.MetodoPago metodoPago) {
-        return pedidoRepository.findByMetodoPago(metodoPago);
-    }
-
-    public List<Pedido> obtenerPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
-        return pedidoRepository.findByFechaPedidoBetween(fechaInicio, fechaFin);
+    public Pagina<PedidoResumenResponse> obtenerPorCliente(Long clienteId, PaginaRequest pagina) {
+        final String clave = "pedidos:cliente:" + clienteId;
+        return singleFlight.ejecutar(clave + ":" + pagina, () -> paginacion.porFechaDescendente(pagina,
+                (desde, limite) -> pedidoRepository.findResumenesPorCliente(clienteId, desde.fecha(), desde.id(), limite),
+                pedido -> new Paginacion.Posicion(pedido.fechaPedido(), pedido.id()),
+                clave, () -> pedidoRepository.countByClienteId(clienteId)));
     }
 
-    public List<Pedido> buscarPorNumeroSeguimiento(String numeroSeguimiento) {
-        return pedidoRepository.findByNumeroSeguimiento(numeroSeguimiento);
+    public Pagina<PedidoResumenResponse> obtenerPorEstado(Pedido.EstadoPedido estado, PaginaRequest pagina) {
+        final String clave = "pedidos:estado:" + estado;
+        return singleFlight.ejecutar(clave + ":" + pagina, () -> paginacion.porIdDescendente(pagina,
+                (desde, limite) -> pedidoRepository.findResumenesPorEstado(estado, desde, limite),
+                PedidoResumenResponse::id, clave, () -> pedidoRepository.countByEstado(estado)));
     }
 
     private void calcularTotales(Pedido pedido) {
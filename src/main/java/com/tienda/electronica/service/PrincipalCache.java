@@ -0,0 +1,53 @@
+package com.tienda.electronica.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tienda.electronica.repository.UsuarioRepository;
+
+/**
+ * Usuario y {@code UserDetails} por email, para que cada petición autenticada
+ * resuelva ambos con a lo sumo una consulta. {@link UsuarioService} invalida
+ * las entradas cuando el usuario cambia o se elimina.
+ */
+@Service
+public class PrincipalCache {
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<String, AuthenticatedPrincipal> principales;
+
+    public PrincipalCache(
+            final UsuarioRepository usuarioRepository,
+            @Value("${application.security.principal-cache.max-size:10000}") final long maxSize,
+            @Value("${application.security.principal-cache.ttl:5m}") final Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.principales = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<AuthenticatedPrincipal> obtener(final String email) {
+        return Optional.ofNullable(principales.get(email, this::cargar));
+    }
+
+    public void evict(final String email) {
+        if (email != null) {
+            principales.invalidate(email);
+        }
+    }
+
+    public void evictUsuario(final Long id) {
+        principales.asMap().values().removeIf(principal -> id.equals(principal.usuario().getId()));
+    }
+
+    private AuthenticatedPrincipal cargar(final String email) {
+        return usuarioRepository.findByEmail(email)
+                .map(AuthenticatedPrincipal::from)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.tienda.electronica.service;
+
+import com.tienda.electronica.entity.Producto;
+
+/**
+ * Se publica después de crear, actualizar o eliminar un producto. Trae el
+ * producto guardado, que los oyentes leen tras el commit con su versión ya
+ * incrementada, o {@code null} si se eliminó.
+ */
+public record ProductoCambiadoEvent(Long productoId, Producto producto) {
+
+    public static ProductoCambiadoEvent guardado(final Producto producto) {
+        return new ProductoCambiadoEvent(producto.getId(), producto);
+    }
+
+    public static ProductoCambiadoEvent eliminado(final Long id) {
+        return new ProductoCambiadoEvent(id, null);
+    }
+
+    public boolean eliminado() {
+        return producto == null;
+    }
+}
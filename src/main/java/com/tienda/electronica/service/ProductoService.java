@@ -1,29 +1,114 @@
 package com.tienda.electronica.service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
 import com.tienda.electronica.exceptions.ProductoNotFoundException;
 import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.FacetasResponse;
+import com.tienda.electronica.response.SugerenciaResponse;
 
 @Service
 public class ProductoService {
+    // Unidades enteras: en céntimos y redondeado sigue cabiendo en un long
+    private static final BigDecimal PRECIO_MAXIMO = BigDecimal.valueOf(Long.MAX_VALUE / 100);
+
     @Autowired
     private ProductoRepository productoRepository;
 
-    public List<Producto> obtenerTodos() {
-        return productoRepository.findAll();
+    @Autowired
+    private CambiosTablas cambiosTablas;
+
+    @Autowired
+    private Paginacion paginacion;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private CambiosCatalogo cambiosCatalogo;
+
+    @Autowired
+    private Lotes lotes;
+
+    @Autowired
+    private Proyecciones proyecciones;
+
+    @Autowired
+    private IndiceProductos indiceProductos;
+
+    @Autowired
+    private SugerenciasProductos sugerenciasProductos;
+
+    @Autowired
+    private IndiceFacetas indiceFacetas;
+
+    @Autowired
+    private IndicePrecios indicePrecios;
+
+    public Pagina<Producto> obtenerTodos(PaginaRequest pagina) {
+        return singleFlight.ejecutar("productos:" + pagina, () -> paginacion.porId(pagina,
+                productoRepository::findByIdGreaterThanOrderByIdAsc,
+                Producto::getId, "productos", productoRepository::count));
     }
 
     public Optional<Producto> obtenerPorId(Long id) {
-        return productoRepository.findById(id);
+        return singleFlight.ejecutar("producto:" + id, () -> productoRepository.findProductoById(id));
+    }
+
+    // Con campos se leen solo esas columnas
+    public Pagina<Producto> obtenerTodos(PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "productos", null, Map.of(), productoRepository::count,
+                () -> obtenerTodos(pagina));
+    }
+
+    public Optional<Producto> obtenerPorId(Long id, String campos) {
+        final Proyecciones.Plan plan = proyecciones.plan(Producto.class, campos);
+        if (plan == null) {
+            return obtenerPorId(id);
+        }
+        return singleFlight.ejecutar("producto:" + id + ":" + plan.columnas(),
+                () -> proyecciones.porId(Producto.class, plan, id));
+    }
+
+    public Lote<Producto> obtenerVarios(List<Long> ids) {
+        return lotes.porIds(Producto.class, ids);
+    }
+
+    public Optional<VersionFila> obtenerVersion(Long id) {
+        return productoRepository.findVersionById(id);
     }
 
+    public String etagListado() {
+        return cambiosTablas.etag(Producto.class);
+    }
+
+    @Transactional
     public Producto crear(Producto producto) {
         var newProducto = Producto.builder()
                 .nombre(producto.getNombre())
@@ -33,9 +118,13 @@ public class ProductoService {
                 .categoria(producto.getCategoria())
                 .fechaCreacion(LocalDateTime.now())
                 .build();
-        return productoRepository.save(newProducto);
+        Producto creado = productoRepository.save(newProducto);
+        cambiosCatalogo.registrar(creado.getId(), false);
+        eventos.publishEvent(ProductoCambiadoEvent.guardado(creado));
+        return creado;
     }
 
+    @Transactional
     public Producto actualizar(Long id, Producto productoActualizado) {
         return productoRepository.findById(id)
                 .map(producto -> {
@@ -44,24 +133,150 @@ public class ProductoService {
                     producto.setPrecio(productoActualizado.getPrecio());
                     producto.setStock(productoActualizado.getStock());
                     producto.setCategoria(productoActualizado.getCategoria());
-                    return productoRepository.save(producto);
+                    Producto guardado = productoRepository.save(producto);
+                    cambiosCatalogo.registrar(id, false);
+                    eventos.publishEvent(ProductoCambiadoEvent.guardado(guardado));
+                    return guardado;
                 })
                 .orElseThrow(() -> new ProductoNotFoundException(id));
     }
 
+    @Transactional
     public void eliminar(Long id) {
-        productoRepository.deleteById(id);
+        if (productoRepository.existsById(id)) {
+            productoRepository.deleteById(id);
+            cambiosCatalogo.registrar(id, true);
+            eventos.publishEvent(ProductoCambiadoEvent.eliminado(id));
+        }
+    }
+
+    public CambiosProductos obtenerCambios(long desde, Integer limite) {
+        return cambiosCatalogo.desde(desde, limite);
+    }
+
+    public Pagina<Producto> obtenerPorCategoria(String categoria, PaginaRequest pagina) {
+        final String clave = "productos:categoria:" + categoria.toLowerCase(Locale.ROOT);
+        return singleFlight.ejecutar(clave + ":" + pagina, () -> paginacion.porId(pagina,
+                (desde, limite) -> productoRepository.findByCategoriaIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                        categoria, desde, limite),
+                Producto::getId, clave, () -> productoRepository.countByCategoriaIgnoreCase(categoria)));
+    }
+
+    public Pagina<Producto> obtenerPorCategoria(String categoria, PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "productos:categoria:" + categoria.toLowerCase(Locale.ROOT),
+                "upper(e.categoria) = upper(:categoria)", Map.of("categoria", categoria),
+                () -> productoRepository.countByCategoriaIgnoreCase(categoria), () -> obtenerPorCategoria(categoria, pagina));
+    }
+
+    public Pagina<Producto> obtenerConStock(PaginaRequest pagina) {
+        return singleFlight.ejecutar("productos:con-stock:" + pagina, () -> paginacion.porId(pagina,
+                (desde, limite) -> productoRepository.findByStockGreaterThanAndIdGreaterThanOrderByIdAsc(0, desde, limite),
+                Producto::getId, "productos:con-stock", () -> productoRepository.countByStockGreaterThan(0)));
+    }
+
+    public Pagina<Producto> obtenerConStock(PaginaRequest pagina, String campos) {
+        return proyectar(pagina, campos, "productos:con-stock", "e.stock > 0", Map.of(),
+                () -> productoRepository.countByStockGreaterThan(0), () -> obtenerConStock(pagina));
+    }
+
+    private Pagina<Producto> proyectar(PaginaRequest pagina, String campos, String clave, String condicion,
+            Map<String, ?> parametros, LongSupplier contar, Supplier<Pagina<Producto>> completo) {
+        final Proyecciones.Plan plan = proyecciones.plan(Producto.class, campos);
+        if (plan == null) {
+            return completo.get();
+        }
+        return singleFlight.ejecutar(clave + ":" + plan.columnas() + ":" + pagina, () -> paginacion.porId(pagina,
+                (desde, limite) -> proyecciones.buscar(Producto.class, plan, condicion, parametros, desde, limite),
+                Producto::getId, clave, contar));
+    }
+
+    // Por relevancia en el índice; mientras se construye, por nombre en base de datos y página a página
+    public Pagina<Producto> buscar(String texto, PaginaRequest pagina) {
+        return paginacion.porDesplazamiento(pagina,
+                (desde, limite) -> indiceProductos.buscar(texto, desde, limite.max())
+                        .map(resultado -> enOrden(resultado.ids()))
+                        .orElseGet(() -> productoRepository.buscarPorNombre(patron(texto), desde, limite.max())),
+                "productos:buscar:" + texto.toLowerCase(Locale.ROOT),
+                () -> indiceProductos.buscar(texto, 0, 0)
+                        .map(resultado -> (long) resultado.total())
+                        .orElseGet(() -> productoRepository.countByNombreContainingIgnoreCase(texto)));
+    }
+
+    // Mismo criterio que Containing: los comodines del texto se buscan literalmente
+    private static String patron(String texto) {
+        return "%" + texto.toUpperCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
     }
 
-    public List<Producto> obtenerPorCategoria(String categoria) {
-        return productoRepository.findByCategoriaIgnoreCase(categoria);
+    // Solo memoria: con el trie aún sin construir no hay sugerencias
+    public List<SugerenciaResponse> sugerir(String prefijo, Integer limite) {
+        if (limite != null && limite < 1) {
+            throw new PaginacionInvalidaException("El límite debe ser mayor que cero");
+        }
+        final int tamano = sugerenciasProductos.tamano();
+        return sugerenciasProductos.sugerir(prefijo, limite == null ? tamano : Math.min(limite, tamano));
+    }
+
+    // Filtros y recuentos salen de los mapas de bits; solo se cargan los de la página
+    public Pagina<Producto> explorar(ExplorarRequest filtro, PaginaRequest pagina) {
+        return paginacion.porId(pagina,
+                (desde, limite) -> enOrden(indiceFacetas.ids(filtro, desde, limite.max())),
+                Producto::getId, "productos:explorar:" + filtro, () -> indiceFacetas.contar(filtro));
+    }
+
+    public FacetasResponse obtenerFacetas(ExplorarRequest filtro) {
+        return indiceFacetas.facetas(filtro);
+    }
+
+    // Por el índice de precios en memoria; mientras se construye, por el índice en base de datos
+    public Pagina<Producto> obtenerPorPrecio(BigDecimal minimo, BigDecimal maximo, boolean descendente,
+            PaginaRequest pagina) {
+        if (minimo != null && maximo != null && minimo.compareTo(maximo) > 0) {
+            throw new FiltroInvalidoException("El precio mínimo no puede ser mayor que el máximo");
+        }
+        final long desdeCentimos = minimo == null ? Long.MIN_VALUE : centimos(minimo, RoundingMode.CEILING);
+        final long hastaCentimos = maximo == null ? Long.MAX_VALUE : centimos(maximo, RoundingMode.FLOOR);
+        // El cursor sale de la posición en el índice y no del precio recargado, que puede ser más nuevo
+        final Map<Long, Paginacion.PosicionPrecio> enIndice = new HashMap<>();
+        final Paginacion.Consulta<Paginacion.PosicionPrecio, Producto> consulta = (desde, limite) -> indicePrecios
+                .posiciones(desdeCentimos, hastaCentimos, descendente, desde, limite.max())
+                .map(posiciones -> {
+                    posiciones.forEach(posicion -> enIndice.put(posicion.id(), posicion));
+                    return enOrden(posiciones.stream().map(Paginacion.PosicionPrecio::id).toList());
+                })
+                .orElseGet(() -> descendente
+                        ? productoRepository.findPorPrecioDesc(BigDecimal.valueOf(desdeCentimos, 2),
+                                BigDecimal.valueOf(hastaCentimos, 2), BigDecimal.valueOf(desde.centimos(), 2),
+                                desde.id(), limite)
+                        : productoRepository.findPorPrecioAsc(BigDecimal.valueOf(desdeCentimos, 2),
+                                BigDecimal.valueOf(hastaCentimos, 2), BigDecimal.valueOf(desde.centimos(), 2),
+                                desde.id(), limite));
+        final Function<Producto, Paginacion.PosicionPrecio> posicion = producto -> Optional
+                .ofNullable(enIndice.get(producto.getId()))
+                .orElseGet(() -> new Paginacion.PosicionPrecio(IndicePrecios.centimos(producto.getPrecio()),
+                        producto.getId()));
+        final String clave = "productos:precio:" + desdeCentimos + ":" + hastaCentimos;
+        final LongSupplier contar = () -> indicePrecios.contar(desdeCentimos, hastaCentimos)
+                .orElseGet(() -> productoRepository.countByPrecioBetween(BigDecimal.valueOf(desdeCentimos, 2),
+                        BigDecimal.valueOf(hastaCentimos, 2)));
+        return descendente
+                ? paginacion.porPrecioDescendente(pagina, consulta, posicion, clave, contar)
+                : paginacion.porPrecio(pagina, consulta, posicion, clave, contar);
     }
 
-    public List<Producto> obtenerConStock() {
-        return productoRepository.findByStockGreaterThan(0);
+    // Se compara antes de escalar: un exponente enorme no llega a expandirse
+    private static long centimos(BigDecimal precio, RoundingMode redondeo) {
+        if (precio.abs().compareTo(PRECIO_MAXIMO) > 0) {
+            throw new FiltroInvalidoException("Precio fuera de rango: " + precio);
+        }
+        return precio.movePointRight(2).setScale(0, redondeo).longValueExact();
     }
 
-    public List<Producto> buscarPorNombre(String nombre) {
-        return productoRepository.findByNombreContainingIgnoreCase(nombre);
+    private List<Producto> enOrden(List<Long> ids) {
+        final Map<Long, Producto> cargados = productoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        return ids.stream().map(cargados::get).filter(Objects::nonNull).toList();
     }
 }
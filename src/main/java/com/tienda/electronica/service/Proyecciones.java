@@ -0,0 +1,113 @@
+package com.tienda.electronica.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tienda.electronica.exceptions.CamposInvalidosException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Consultas que leen solo las columnas pedidas en {@code fields}. El plan de
+ * cada combinación de campos (validación y JPQL) se calcula una vez y queda
+ * en caché. Las filas se devuelven como entidades sin gestionar con el resto
+ * de atributos a nulo; la salida JSON se recorta en el controlador.
+ */
+@Component
+public class Proyecciones {
+    // Se leen siempre: el id para el cursor, la versión y la fecha para las ETags
+    private static final List<String> SIEMPRE = List.of("id", "version", "fechaActualizacion");
+
+    public record Plan(List<String> columnas, String select) {
+    }
+
+    private record Clave(Class<?> entidad, Set<String> campos) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Cache<Clave, Plan> planes = Caffeine.newBuilder().maximumSize(1000).build();
+
+    public static Set<String> parsear(final String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(campo -> !campo.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /** Plan para los campos pedidos, o {@code null} si no se pidió ninguno. */
+    public Plan plan(final Class<?> entidad, final String fields) {
+        final Set<String> campos = parsear(fields);
+        return campos.isEmpty() ? null : planes.get(new Clave(entidad, campos), this::crear);
+    }
+
+    private Plan crear(final Clave clave) {
+        final EntityType<?> tipo = entityManager.getMetamodel().entity(clave.entidad());
+        final Set<String> basicos = tipo.getSingularAttributes().stream()
+                .filter(atributo -> atributo.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC)
+                .map(Attribute::getName)
+                .collect(Collectors.toSet());
+        for (final String campo : clave.campos()) {
+            if (!basicos.contains(campo)) {
+                throw new CamposInvalidosException("Campo desconocido: " + campo);
+            }
+        }
+        final Set<String> columnas = new LinkedHashSet<>();
+        SIEMPRE.stream().filter(basicos::contains).forEach(columnas::add);
+        columnas.addAll(clave.campos());
+        final String select = columnas.stream()
+                .map(columna -> "e." + columna + " as " + columna)
+                .collect(Collectors.joining(", ", "select ", " from " + tipo.getName() + " e"));
+        return new Plan(List.copyOf(columnas), select);
+    }
+
+    /** Página por id ascendente; {@code condicion} usa el alias {@code e}. */
+    public <T> List<T> buscar(final Class<T> entidad, final Plan plan, final String condicion,
+            final Map<String, ?> parametros, final Long desde, final Limit limite) {
+        final String filtro = condicion != null ? condicion + " and " : "";
+        final TypedQuery<Tuple> query = entityManager.createQuery(
+                plan.select() + " where " + filtro + "e.id > :desde order by e.id", Tuple.class);
+        parametros.forEach(query::setParameter);
+        query.setParameter("desde", desde);
+        query.setMaxResults(limite.max());
+        return query.getResultList().stream().map(fila -> instanciar(entidad, plan, fila)).toList();
+    }
+
+    public <T> Optional<T> porId(final Class<T> entidad, final Plan plan, final Long id) {
+        return entityManager.createQuery(plan.select() + " where e.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(fila -> instanciar(entidad, plan, fila));
+    }
+
+    private static <T> T instanciar(final Class<T> entidad, final Plan plan, final Tuple fila) {
+        final BeanWrapper bean = new BeanWrapperImpl(entidad);
+        for (final String columna : plan.columnas()) {
+            bean.setPropertyValue(columna, fila.get(columna));
+        }
+        return entidad.cast(bean.getWrappedInstance());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tienda.electronica.service;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.tienda.electronica.entity.RefreshToken;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.repository.RefreshTokenRepository;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Refresh tokens opacos: 256 bits aleatorios que solo se guardan como hash.
+ * Cada uso rota el token; presentar uno ya rotado revoca toda la sesión.
+ */
+@Service
+public class RefreshTokenService {
+    public record Rotacion(Usuario usuario, String refreshToken) {
+    }
+
+    private static final int BYTES_TOKEN = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshTokenExpiration;
+    private final Counter reutilizados;
+
+    public RefreshTokenService(
+            final RefreshTokenRepository refreshTokenRepository,
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.jwt.token.refresh-expiration}") final long refreshTokenExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.reutilizados = Counter.builder("auth.refresh.reuse")
+                .description("Refresh tokens reutilizados tras rotar; la sesión se revoca")
+                .register(meterRegistry);
+    }
+
+    public String emitir(final Usuario usuario) {
+        final String token = generar();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(TokenHasher.hash(token))
+                .usuario(usuario)
+                .expiresAt(Instant.now().plusMillis(refreshTokenExpiration))
+                .build());
+        return token;
+    }
+
+    public Rotacion rotar(final String token) {
+        final String hash = TokenHasher.hash(token);
+        final RefreshToken sesion = refreshTokenRepository.findVigenteOAnterior(hash)
+                .orElseThrow(() -> new IllegalArgumentException("El refresh token no es válido"));
+        final Instant ahora = Instant.now();
+        if (hash.equals(sesion.getTokenHash())) {
+            final String siguiente = generar();
+            if (refreshTokenRepository.rotar(sesion.getId(), hash, TokenHasher.hash(siguiente), ahora) == 1) {
+                return new Rotacion(sesion.getUsuario(), siguiente);
+            }
+            if (sesion.isRevoked() || !sesion.getExpiresAt().isAfter(ahora)) {
+                throw new IllegalArgumentException("El refresh token no es válido");
+            }
+            // Otra petición ya rotó este mismo token: se trata como reutilización
+        }
+        reutilizados.increment();
+        refreshTokenRepository.revocar(sesion.getId());
+        throw new IllegalArgumentException("El refresh token no es válido");
+    }
+
+    public void revocarTodos(final Long usuarioId) {
+        refreshTokenRepository.revokeAllByUsuarioId(usuarioId);
+    }
+
+    private String generar() {
+        final byte[] bytes = new byte[BYTES_TOKEN];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,266 @@
+package com.tienda.electronica.service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tienda.electronica.entity.SigningKey;
+import com.tienda.electronica.repository.SigningKeyRepository;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Claves asimétricas (ES256 o EdDSA) para firmar los JWT. Se guardan en base de
+ * datos para que todos los nodos firmen y publiquen las mismas. Una clave nueva
+ * se publica {@code publish-ahead} antes de empezar a firmar y la anterior sigue
+ * publicada hasta que expiran los tokens que firmó.
+ */
+@Slf4j
+@Service
+public class SigningKeyService {
+    public static final String HS256 = "HS256";
+    private static final Set<String> ASIMETRICOS = Set.of("ES256", "EdDSA");
+
+    // Un kid desconocido fuerza como mucho una recarga cada este intervalo
+    private static final long RECARGA_MINIMA_MS = 30_000L;
+
+    public record ClaveFirma(String kid, PrivateKey privateKey) {
+    }
+
+    private record Clave(ClaveFirma firma, Instant activeFrom) {
+    }
+
+    private record Claves(List<Clave> ordenadas, Map<String, PublicKey> publicas, String jwks, String etag) {
+    }
+
+    private static final Claves VACIAS = new Claves(List.of(), Map.of(), "{\"keys\":[]}", "\"\"");
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final String algoritmo;
+    private final Duration rotacion;
+    private final Duration antelacion;
+    private final Duration solape;
+    private final LongSupplier reloj;
+    private final AtomicLong ultimaRecarga = new AtomicLong();
+    private volatile Claves claves = VACIAS;
+
+    @Autowired
+    public SigningKeyService(
+            final SigningKeyRepository signingKeyRepository,
+            @Value("${application.security.jwt.signing.algorithm:HS256}") final String algoritmo,
+            @Value("${application.security.jwt.signing.rotation:P30D}") final Duration rotacion,
+            @Value("${application.security.jwt.signing.publish-ahead:PT1H}") final Duration antelacion,
+            @Value("${application.security.jwt.signing.check-interval:PT5M}") final Duration intervalo,
+            @Value("${application.security.jwt.token.expiration}") final long jwtExpiration) {
+        this(signingKeyRepository, algoritmo, rotacion, antelacion,
+                // Un nodo puede tardar un intervalo en cambiar a la clave nueva
+                Duration.ofMillis(jwtExpiration).plus(intervalo),
+                System::currentTimeMillis);
+    }
+
+    SigningKeyService(
+            final SigningKeyRepository signingKeyRepository,
+            final String algoritmo,
+            final Duration rotacion,
+            final Duration antelacion,
+            final Duration solape,
+            final LongSupplier reloj) {
+        if (!HS256.equals(algoritmo) && !ASIMETRICOS.contains(algoritmo)) {
+            throw new IllegalArgumentException("Algoritmo de firma no soportado: " + algoritmo);
+        }
+        this.signingKeyRepository = signingKeyRepository;
+        this.algoritmo = algoritmo;
+        this.rotacion = rotacion;
+        this.antelacion = antelacion;
+        this.solape = solape;
+        this.reloj = reloj;
+    }
+
+    @PostConstruct
+    void init() {
+        rotarSiCorresponde();
+    }
+
+    /**
+     * Con {@code HS256} se sigue firmando con el secreto compartido y no se
+     * publica ninguna clave.
+     */
+    public boolean isAsymmetric() {
+        return !HS256.equals(algoritmo);
+    }
+
+    public ClaveFirma claveDeFirma() {
+        final Instant ahora = ahora();
+        final List<Clave> ordenadas = claves.ordenadas();
+        for (int i = ordenadas.size() - 1; i >= 0; i--) {
+            if (!ordenadas.get(i).activeFrom().isAfter(ahora)) {
+                return ordenadas.get(i).firma();
+            }
+        }
+        throw new IllegalStateException("No hay ninguna clave de firma activa");
+    }
+
+    public PublicKey clavePublica(final String kid) {
+        PublicKey clave = kid != null ? claves.publicas().get(kid) : null;
+        // Puede ser una clave que otro nodo acaba de crear
+        if (clave == null && kid != null && puedeRecargar()) {
+            recargar();
+            clave = claves.publicas().get(kid);
+        }
+        if (clave == null) {
+            throw new SignatureException("Clave de firma desconocida: " + kid);
+        }
+        return clave;
+    }
+
+    public String jwks() {
+        return claves.jwks();
+    }
+
+    public String etag() {
+        return claves.etag();
+    }
+
+    // Los clientes deben ver una clave nueva antes de que empiece a firmar
+    public Duration maxAgeJwks() {
+        return antelacion.dividedBy(2);
+    }
+
+    @Scheduled(initialDelayString = "${application.security.jwt.signing.check-interval:PT5M}",
+            fixedDelayString = "${application.security.jwt.signing.check-interval:PT5M}")
+    public void rotarSiCorresponde() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        final Instant ahora = ahora();
+        final List<SigningKey> filas = signingKeyRepository.findAllByOrderByActiveFromAsc();
+        final List<String> retiradas = new ArrayList<>();
+        SigningKey activa = null;
+        boolean hayPendiente = false;
+        for (int i = 0; i < filas.size(); i++) {
+            final SigningKey fila = filas.get(i);
+            final SigningKey siguiente = i + 1 < filas.size() ? filas.get(i + 1) : null;
+            if (fila.getActiveFrom().isAfter(ahora)) {
+                hayPendiente = true;
+            } else if (siguiente == null || siguiente.getActiveFrom().isAfter(ahora)) {
+                activa = fila;
+            } else if (!siguiente.getActiveFrom().plus(solape).isAfter(ahora)) {
+                retiradas.add(fila.getKid());
+            }
+        }
+        if (activa == null) {
+            guardar(generar(ahora));
+        } else if (!hayPendiente && !activa.getActiveFrom().plus(rotacion).minus(antelacion).isAfter(ahora)) {
+            guardar(generar(ahora.plus(antelacion)));
+        }
+        if (!retiradas.isEmpty()) {
+            signingKeyRepository.deleteAllByIdInBatch(retiradas);
+            log.info("Claves de firma retiradas: {}", retiradas);
+        }
+        recargar();
+    }
+
+    private void recargar() {
+        ultimaRecarga.set(reloj.getAsLong());
+        final List<SigningKey> filas = signingKeyRepository.findAllByOrderByActiveFromAsc();
+        final List<Clave> ordenadas = new ArrayList<>(filas.size());
+        final Map<String, PublicKey> publicas = new HashMap<>();
+        final StringJoiner jwks = new StringJoiner(",", "{\"keys\":[", "]}");
+        for (final SigningKey fila : filas) {
+            final PublicKey publica = decodificarPublica(fila);
+            ordenadas.add(new Clave(new ClaveFirma(fila.getKid(), decodificarPrivada(fila)), fila.getActiveFrom()));
+            publicas.put(fila.getKid(), publica);
+            jwks.add(Jwks.json(jwk(publica, fila.getKid(), fila.getAlgorithm())));
+        }
+        final String json = jwks.toString();
+        claves = new Claves(List.copyOf(ordenadas), Map.copyOf(publicas), json, "\"" + TokenHasher.hash(json) + "\"");
+    }
+
+    private boolean puedeRecargar() {
+        final long ahora = reloj.getAsLong();
+        final long anterior = ultimaRecarga.get();
+        return ahora - anterior >= RECARGA_MINIMA_MS && ultimaRecarga.compareAndSet(anterior, ahora);
+    }
+
+    private SigningKey generar(final Instant activeFrom) {
+        final KeyPair par = generarPar(algoritmo);
+        final PublicJwk<?> jwk = Jwks.builder().key(par.getPublic()).idFromThumbprint().build();
+        return SigningKey.builder()
+                .kid(jwk.getId())
+                .algorithm(algoritmo)
+                .keyAlgorithm(par.getPublic().getAlgorithm())
+                .publicKey(par.getPublic().getEncoded())
+                .privateKey(par.getPrivate().getEncoded())
+                .activeFrom(activeFrom)
+                .build();
+    }
+
+    private void guardar(final SigningKey clave) {
+        signingKeyRepository.save(clave);
+        log.info("Nueva clave de firma {} activa desde {}", clave.getKid(), clave.getActiveFrom());
+    }
+
+    private static PublicJwk<?> jwk(final PublicKey publica, final String kid, final String algoritmo) {
+        return Jwks.builder().key(publica)
+                .id(kid)
+                .algorithm(algoritmo)
+                .publicKeyUse("sig")
+                .build();
+    }
+
+    private static KeyPair generarPar(final String algoritmo) {
+        return switch (algoritmo) {
+            case "ES256" -> Jwts.SIG.ES256.keyPair().build();
+            // Ed25519 en lugar del Ed448 que jjwt genera por defecto para EdDSA
+            case "EdDSA" -> Jwks.CRV.Ed25519.keyPair().build();
+            default -> throw new IllegalArgumentException("Algoritmo de firma no soportado: " + algoritmo);
+        };
+    }
+
+    private static PublicKey decodificarPublica(final SigningKey fila) {
+        try {
+            return KeyFactory.getInstance(fila.getKeyAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(fila.getPublicKey()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Clave pública inválida: " + fila.getKid(), e);
+        }
+    }
+
+    private static PrivateKey decodificarPrivada(final SigningKey fila) {
+        try {
+            return KeyFactory.getInstance(fila.getKeyAlgorithm())
+                    .generatePrivate(new PKCS8EncodedKeySpec(fila.getPrivateKey()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Clave privada inválida: " + fila.getKid(), e);
+        }
+    }
+
+    private Instant ahora() {
+        return Instant.ofEpochMilli(reloj.getAsLong());
+    }
+}
@@ -0,0 +1,106 @@
+package com.tienda.electronica.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Agrupa lecturas concurrentes de la misma clave: el primer hilo consulta la
+ * base de datos y los que llegan mientras tanto esperan su resultado en lugar
+ * de lanzar la misma consulta. No guarda nada una vez terminada la llamada.
+ * Si la tabla de claves en vuelo está llena la lectura se hace sin agrupar, y
+ * quien espera más de {@code timeout} recibe {@link ServicioSaturadoException}.
+ */
+@Component
+public class SingleFlight {
+    private final Map<String, CompletableFuture<Object>> enVuelo = new ConcurrentHashMap<>();
+    private final int maximoClaves;
+    private final Duration timeout;
+
+    private final Counter ejecutadas;
+    private final Counter compartidas;
+    private final Counter sinAgrupar;
+    private final Counter agotadas;
+
+    public SingleFlight(
+            final MeterRegistry meterRegistry,
+            @Value("${application.single-flight.max-keys:10000}") final int maximoClaves,
+            @Value("${application.single-flight.timeout:PT5S}") final Duration timeout) {
+        this.maximoClaves = maximoClaves;
+        this.timeout = timeout;
+        this.ejecutadas = llamadas(meterRegistry, "executed");
+        this.compartidas = llamadas(meterRegistry, "shared");
+        this.sinAgrupar = llamadas(meterRegistry, "bypassed");
+        this.agotadas = llamadas(meterRegistry, "timed_out");
+        Gauge.builder("single-flight.in-flight", enVuelo, Map::size)
+                .description("Claves con una lectura en curso")
+                .register(meterRegistry);
+    }
+
+    private static Counter llamadas(final MeterRegistry meterRegistry, final String resultado) {
+        return Counter.builder("single-flight.calls")
+                .description("Lecturas pasadas por single-flight")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(final String clave, final Supplier<T> lectura) {
+        if (enVuelo.size() >= maximoClaves) {
+            sinAgrupar.increment();
+            return lectura.get();
+        }
+        final CompletableFuture<Object> propia = new CompletableFuture<>();
+        final CompletableFuture<Object> existente = enVuelo.putIfAbsent(clave, propia);
+        if (existente != null) {
+            compartidas.increment();
+            return (T) esperar(existente);
+        }
+        ejecutadas.increment();
+        try {
+            final T resultado = lectura.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Las llamadas que lleguen a partir de aquí vuelven a consultar
+            enVuelo.remove(clave, propia);
+        }
+    }
+
+    private Object esperar(final CompletableFuture<Object> llamada) {
+        try {
+            return llamada.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            agotadas.increment();
+            throw new ServicioSaturadoException("La consulta tarda demasiado", Math.max(1, timeout.toSeconds()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.tienda.electronica.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.PedidoRepository;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.repository.VentasProducto;
+import com.tienda.electronica.response.SugerenciaResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Autocompletado de nombres de producto sin acceso a base de datos. Es un
+ * trie inmutable sobre los nombres normalizados, con una clave por cada
+ * palabra del nombre hasta el final ("laptop gaming" y "gaming"), y cada
+ * nodo guarda ya calculadas sus {@code k} mejores compleciones: una consulta
+ * solo recorre el prefijo.
+ * <p>
+ * Ordena primero lo que tiene stock y después por unidades vendidas. Cada
+ * cambio de producto copia solo los nodos de su camino y publica la raíz
+ * nueva; las ventas se recargan reconstruyendo el trie periódicamente.
+ */
+@Slf4j
+@Component
+public class SugerenciasProductos implements IndiceCatalogo {
+    private record Entrada(long id, String nombre, boolean disponible, long ventas) {
+    }
+
+    private static final Comparator<Entrada> RANKING = Comparator.comparing(Entrada::disponible).reversed()
+            .thenComparing(Comparator.comparingLong(Entrada::ventas).reversed())
+            .thenComparing(Entrada::nombre)
+            .thenComparingLong(Entrada::id);
+
+    private record Nodo(Map<Character, Nodo> hijos, List<Entrada> terminales, List<Entrada> mejores) {
+    }
+
+    private static final Nodo VACIO = new Nodo(Map.of(), List.of(), List.of());
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private final int k;
+    private final int tamanoLote;
+
+    private volatile Nodo raiz = VACIO;
+    private volatile boolean listo;
+    // Solo los escritores lo tocan, siempre con el monitor de this
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    // Último estado de lo cambiado durante una reconstrucción; vacío si se eliminó
+    private final Map<Long, Optional<Producto>> cambiadosDuranteReconstruccion = new HashMap<>();
+    private boolean reconstruyendo;
+
+    public SugerenciasProductos(
+            @Value("${application.suggestions.size:10}") final int k,
+            @Value("${application.search.batch-size:1000}") final int tamanoLote) {
+        this.k = k;
+        this.tamanoLote = tamanoLote;
+    }
+
+    public List<SugerenciaResponse> sugerir(final String prefijo, final int limite) {
+        // Mismos separadores que las claves: "Laptop-Gam" busca "laptop gam"
+        Nodo nodo = raiz;
+        for (final char c : String.join(" ", IndiceProductos.tokens(prefijo)).toCharArray()) {
+            nodo = nodo.hijos().get(c);
+            if (nodo == null) {
+                return List.of();
+            }
+        }
+        return nodo.mejores().stream()
+                .limit(limite)
+                .map(entrada -> new SugerenciaResponse(entrada.id(), entrada.nombre(), entrada.disponible()))
+                .toList();
+    }
+
+    public boolean estaListo() {
+        return listo;
+    }
+
+    public int tamano() {
+        return k;
+    }
+
+    @Override
+    public synchronized void indexar(final Producto producto) {
+        if (reconstruyendo) {
+            cambiadosDuranteReconstruccion.put(producto.getId(), Optional.of(producto));
+        }
+        final Entrada anterior = entradas.get(producto.getId());
+        aplicar(producto.getId(), entrada(producto, anterior != null ? anterior.ventas() : 0));
+    }
+
+    @Override
+    public synchronized void eliminar(final Long id) {
+        if (reconstruyendo) {
+            cambiadosDuranteReconstruccion.put(id, Optional.empty());
+        }
+        aplicar(id, null);
+    }
+
+    // Copia el camino de las claves viejas y nuevas y publica la raíz resultante
+    private void aplicar(final Long id, final Entrada nueva) {
+        final Entrada anterior = nueva != null ? entradas.put(id, nueva) : entradas.remove(id);
+        Nodo nuevaRaiz = raiz;
+        if (anterior != null) {
+            for (final String clave : claves(anterior.nombre())) {
+                nuevaRaiz = quitar(nuevaRaiz, clave, 0, id);
+            }
+        }
+        if (nueva != null) {
+            for (final String clave : claves(nueva.nombre())) {
+                nuevaRaiz = poner(nuevaRaiz, clave, 0, nueva);
+            }
+        }
+        raiz = nuevaRaiz;
+    }
+
+    /** Relee productos y ventas y sustituye el trie entero. */
+    @Scheduled(initialDelayString = "${application.suggestions.refresh-interval:PT15M}",
+            fixedDelayString = "${application.suggestions.refresh-interval:PT15M}")
+    @Override
+    public void reconstruir() {
+        synchronized (this) {
+            reconstruyendo = true;
+            cambiadosDuranteReconstruccion.clear();
+        }
+        try {
+            final long inicio = System.nanoTime();
+            final Map<Long, Long> ventas = pedidoRepository.findVentasPorProducto().stream()
+                    .collect(Collectors.toMap(VentasProducto::productoId, VentasProducto::unidades));
+            final Map<Long, Entrada> nuevas = new HashMap<>();
+            long desde = 0;
+            List<Producto> lote;
+            do {
+                lote = productoRepository.findByIdGreaterThanOrderByIdAsc(desde, Limit.of(tamanoLote));
+                for (final Producto producto : lote) {
+                    nuevas.put(producto.getId(), entrada(producto, ventas.getOrDefault(producto.getId(), 0L)));
+                    desde = producto.getId();
+                }
+            } while (lote.size() == tamanoLote);
+            final Nodo construida = construir(nuevas.values());
+
+            synchronized (this) {
+                entradas.clear();
+                entradas.putAll(nuevas);
+                raiz = construida;
+                reconstruyendo = false;
+                // Lo cambiado mientras se leía la base de datos gana a lo leído; ya está en memoria
+                cambiadosDuranteReconstruccion.forEach((id, producto) -> aplicar(id, producto
+                        .map(cambiado -> entrada(cambiado, ventas.getOrDefault(id, 0L)))
+                        .orElse(null)));
+                cambiadosDuranteReconstruccion.clear();
+            }
+            listo = true;
+            log.info("Trie de sugerencias construido: {} productos en {} ms", nuevas.size(),
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            synchronized (this) {
+                reconstruyendo = false;
+            }
+        }
+    }
+
+    private static Entrada entrada(final Producto producto, final long ventas) {
+        return new Entrada(producto.getId(), producto.getNombre(),
+                producto.getStock() != null && producto.getStock() > 0, ventas);
+    }
+
+    // Nombre normalizado desde el inicio de cada palabra
+    static Set<String> claves(final String nombre) {
+        final List<String> palabras = IndiceProductos.tokens(nombre);
+        final Set<String> claves = new LinkedHashSet<>();
+        for (int i = 0; i < palabras.size(); i++) {
+            claves.add(String.join(" ", palabras.subList(i, palabras.size())));
+        }
+        return claves;
+    }
+
+    private Nodo poner(final Nodo nodo, final String clave, final int posicion, final Entrada entrada) {
+        if (posicion == clave.length()) {
+            final List<Entrada> terminales = new ArrayList<>(nodo.terminales());
+            terminales.add(entrada);
+            return nodo(nodo.hijos(), terminales);
+        }
+        final char c = clave.charAt(posicion);
+        final Map<Character, Nodo> hijos = new HashMap<>(nodo.hijos());
+        hijos.put(c, poner(hijos.getOrDefault(c, VACIO), clave, posicion + 1, entrada));
+        return nodo(hijos, nodo.terminales());
+    }
+
+    private Nodo quitar(final Nodo nodo, final String clave, final int posicion, final long id) {
+        if (posicion == clave.length()) {
+            return nodo(nodo.hijos(), nodo.terminales().stream().filter(entrada -> entrada.id() != id).toList());
+        }
+        final char c = clave.charAt(posicion);
+        final Nodo hijo = nodo.hijos().get(c);
+        if (hijo == null) {
+            return nodo;
+        }
+        final Nodo nuevoHijo = quitar(hijo, clave, posicion + 1, id);
+        final Map<Character, Nodo> hijos = new HashMap<>(nodo.hijos());
+        if (nuevoHijo.hijos().isEmpty() && nuevoHijo.terminales().isEmpty()) {
+            hijos.remove(c);
+        } else {
+            hijos.put(c, nuevoHijo);
+        }
+        return nodo(hijos, nodo.terminales());
+    }
+
+    // Las mejores de un nodo salen de sus terminales y de las mejores de sus hijos
+    private Nodo nodo(final Map<Character, Nodo> hijos, final List<Entrada> terminales) {
+        final Map<Long, Entrada> candidatas = new HashMap<>();
+        terminales.forEach(entrada -> candidatas.put(entrada.id(), entrada));
+        hijos.values().forEach(hijo -> hijo.mejores().forEach(entrada -> candidatas.put(entrada.id(), entrada)));
+        final List<Entrada> mejores = candidatas.values().stream().sorted(RANKING).limit(k).toList();
+        return new Nodo(Map.copyOf(hijos), List.copyOf(terminales), mejores);
+    }
+
+    // Construcción en bloque: trie mutable y después conversión de abajo arriba
+    private static final class Constructor {
+        private final Map<Character, Constructor> hijos = new HashMap<>();
+        private final List<Entrada> terminales = new ArrayList<>();
+    }
+
+    private Nodo construir(final Iterable<Entrada> todas) {
+        final Constructor raizMutable = new Constructor();
+        for (final Entrada entrada : todas) {
+            for (final String clave : claves(entrada.nombre())) {
+                Constructor actual = raizMutable;
+                for (final char c : clave.toCharArray()) {
+                    actual = actual.hijos.computeIfAbsent(c, x -> new Constructor());
+                }
+                actual.terminales.add(entrada);
+            }
+        }
+        return congelar(raizMutable);
+    }
+
+    private Nodo congelar(final Constructor constructor) {
+        final Map<Character, Nodo> hijos = new HashMap<>();
+        constructor.hijos.forEach((c, hijo) -> hijos.put(c, congelar(hijo)));
+        return nodo(hijos, constructor.terminales);
+    }
+}
@@ -0,0 +1,66 @@
+package com.tienda.electronica.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lista de revocación de tokens de acceso para el modo stateless. Guarda los
+ * jti revocados hasta que el token expira y, por usuario, el instante a partir
+ * del cual se aceptan tokens tras revocarlos todos. Ninguna entrada vive más
+ * que un token de acceso. No hay límite de tamaño: desalojar una entrada
+ * volvería a aceptar un token revocado, así que solo la expiración las quita.
+ */
+@Service
+public class TokenDenyList {
+    private final Cache<String, Instant> jtisRevocados;
+    private final Cache<String, Instant> emitidosDesde;
+
+    public TokenDenyList(
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.jwt.token.expiration}") final long jwtExpiration) {
+        this.jtisRevocados = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((String jti, Instant expiracion) -> Duration
+                        .between(Instant.now(), expiracion)))
+                .build();
+        this.emitidosDesde = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+        Gauge.builder("auth.token.denylist.size", jtisRevocados, Cache::estimatedSize)
+                .description("jti revocados pendientes de expirar")
+                .register(meterRegistry);
+    }
+
+    public void revocar(final VerifiedClaims claims) {
+        if (claims.id() != null && !claims.isExpired()) {
+            jtisRevocados.put(claims.id(), claims.expiration());
+        }
+    }
+
+    /**
+     * Revoca los tokens del usuario emitidos antes de {@code instante}. El iat
+     * del JWT tiene precisión de segundos, así que se comparan segundos
+     * completos para no invalidar el token que se emite en el mismo login.
+     */
+    public void revocarEmitidosAntesDe(final String subject, final Instant instante) {
+        emitidosDesde.put(subject, instante.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    public boolean isRevoked(final VerifiedClaims claims) {
+        if (claims.id() != null && jtisRevocados.getIfPresent(claims.id()) != null) {
+            return true;
+        }
+        final Instant desde = emitidosDesde.getIfPresent(claims.subject());
+        return desde != null && claims.issuedAt().isBefore(desde);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tienda.electronica.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tienda.electronica.repository.RefreshTokenRepository;
+import com.tienda.electronica.repository.TokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Elimina periódicamente los tokens de acceso y las sesiones de refresh
+ * expirados hace más del periodo de retención. Borra en lotes de ids, cada
+ * uno en su propia transacción, para no bloquear la tabla durante toda la
+ * purga.
+ */
+@Slf4j
+@Component
+public class TokenPurgeJob {
+    private final TokenRepository tokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration retencion;
+    private final int tamanoLote;
+
+    private final Counter eliminados;
+    private final Counter lotes;
+    private final Timer duracion;
+    private final AtomicLong eliminadosUltimaEjecucion = new AtomicLong();
+    private final AtomicLong ultimaEjecucion = new AtomicLong();
+
+    public TokenPurgeJob(
+            final TokenRepository tokenRepository,
+            final RefreshTokenRepository refreshTokenRepository,
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.token-purge.retention:P7D}") final Duration retencion,
+            @Value("${application.security.token-purge.batch-size:1000}") final int tamanoLote) {
+        this.tokenRepository = tokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.retencion = retencion;
+        this.tamanoLote = tamanoLote;
+        this.eliminados = Counter.builder("auth.token.purge.deleted")
+                .description("Tokens eliminados por la purga")
+                .register(meterRegistry);
+        this.lotes = Counter.builder("auth.token.purge.batches")
+                .description("Lotes borrados por la purga")
+                .register(meterRegistry);
+        this.duracion = Timer.builder("auth.token.purge.duration")
+                .description("Duración de cada ejecución de la purga")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.purge.last.deleted", eliminadosUltimaEjecucion, AtomicLong::get)
+                .description("Tokens eliminados en la última ejecución")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.purge.last.run", ultimaEjecucion, AtomicLong::get)
+                .description("Instante (epoch ms) de la última ejecución")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${application.security.token-purge.initial-delay:PT5M}",
+            fixedDelayString = "${application.security.token-purge.interval:PT1H}")
+    public long purgar() {
+        return duracion.record(() -> purgarAntesDe(Instant.now().minus(retencion)));
+    }
+
+    long purgarAntesDe(final Instant limite) {
+        eliminadosUltimaEjecucion.set(0);
+        final long total = purgarLotes(
+                lote -> tokenRepository.findIdsExpiradosAntesDe(limite, lote),
+                tokenRepository::deleteAllByIdInBatch)
+                + purgarLotes(
+                        lote -> refreshTokenRepository.findIdsExpiradosAntesDe(limite, lote),
+                        refreshTokenRepository::deleteAllByIdInBatch);
+        eliminadosUltimaEjecucion.set(total);
+        ultimaEjecucion.set(System.currentTimeMillis());
+        if (total > 0) {
+            log.info("Purga de tokens: {} tokens expirados antes de {} eliminados", total, limite);
+        }
+        return total;
+    }
+
+    private long purgarLotes(final Function<Limit, List<Long>> buscar, final Consumer<List<Long>> borrar) {
+        long total = 0;
+        List<Long> ids;
+        do {
+            ids = buscar.apply(Limit.of(tamanoLote));
+            if (!ids.isEmpty()) {
+                borrar.accept(ids);
+                total += ids.size();
+                eliminados.increment(ids.size());
+                lotes.increment();
+                eliminadosUltimaEjecucion.addAndGet(ids.size());
+            }
+        } while (ids.size() == tamanoLote);
+        return total;
+    }
+}
@@ -0,0 +1,217 @@
+package com.tienda.electronica.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tienda.electronica.entity.Token;
+import com.tienda.electronica.repository.TokenEstado;
+import com.tienda.electronica.repository.TokenRepository;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Estado de los tokens de acceso en memoria del nodo. Los tokens vigentes se
+ * guardan por hash hasta su expiración, de modo que un token válido ya
+ * conocido nunca consulta la base de datos. Los revocados se guardan también
+ * por hash hasta su expiración, con un filtro de Bloom delante que descarta
+ * sin buscar. El filtro solo prueba ausencia: un acierto se confirma en el
+ * conjunto exacto y, si no está, en {@link TokenRepository}.
+ */
+@Service
+public class TokenStatusStore {
+    private record TokenActivo(Long usuarioId, Instant expiresAt) {
+    }
+
+    private final TokenRepository tokenRepository;
+    private final long jwtExpiration;
+    private final long revocadosEsperados;
+    private final double probabilidadFalsoPositivo;
+    private final Cache<String, TokenActivo> activos;
+    // Sin límite de tamaño: una revocación no puede perderse antes de que el token expire
+    private final Cache<String, Instant> revocadosExactos;
+    // Firmados pero sin registro; perder una entrada solo cuesta otra consulta
+    private final Cache<String, Boolean> desconocidos;
+    private final Map<Long, Set<String>> hashesPorUsuario = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revocadosFiltrados;
+
+    private volatile FiltroBloom revocados;
+    private volatile FiltroBloom revocadosAnterior;
+    private volatile long rotacionRevocados;
+
+    public TokenStatusStore(
+            final TokenRepository tokenRepository,
+            final MeterRegistry meterRegistry,
+            @Value("${application.security.jwt.token.expiration}") final long jwtExpiration,
+            @Value("${application.security.token-store.max-size:100000}") final long maxSize,
+            @Value("${application.security.token-store.revoked-expected:100000}") final long revocadosEsperados,
+            @Value("${application.security.token-store.revoked-fpp:0.001}") final double probabilidadFalsoPositivo) {
+        this.tokenRepository = tokenRepository;
+        this.jwtExpiration = jwtExpiration;
+        this.revocadosEsperados = revocadosEsperados;
+        this.probabilidadFalsoPositivo = probabilidadFalsoPositivo;
+        this.activos = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String hash, TokenActivo token) -> Duration
+                        .between(Instant.now(), token.expiresAt())))
+                .evictionListener((String hash, TokenActivo token, RemovalCause causa) -> {
+                    if (token != null) {
+                        olvidar(hash, token.usuarioId());
+                    }
+                })
+                .build();
+        this.revocadosExactos = Caffeine.newBuilder()
+                .expireAfter(Expiry.creating((String hash, Instant expiresAt) -> Duration
+                        .between(Instant.now(), expiresAt)))
+                .build();
+        this.desconocidos = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(jwtExpiration))
+                .build();
+        this.revocados = new FiltroBloom(revocadosEsperados, probabilidadFalsoPositivo);
+        this.revocadosAnterior = new FiltroBloom(revocadosEsperados, probabilidadFalsoPositivo);
+        this.rotacionRevocados = System.currentTimeMillis();
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.revocadosFiltrados = lookups(meterRegistry, "revoked");
+    }
+
+    private static Counter lookups(final MeterRegistry meterRegistry, final String resultado) {
+        return Counter.builder("auth.token.store.lookups")
+                .description("Consultas al almacén de estado de tokens")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    public boolean isActive(final String token) {
+        final String hash = TokenHasher.hash(token);
+        if (activos.getIfPresent(hash) != null) {
+            hits.increment();
+            return true;
+        }
+        // Un acierto del filtro puede ser un falso positivo: decide el conjunto exacto
+        if ((revocados.mightContain(hash) || revocadosAnterior.mightContain(hash))
+                && revocadosExactos.getIfPresent(hash) != null) {
+            revocadosFiltrados.increment();
+            return false;
+        }
+        if (desconocidos.getIfPresent(hash) != null) {
+            return false;
+        }
+        misses.increment();
+        return tokenRepository.findByTokenHash(hash)
+                .map(encontrado -> cargar(hash, encontrado))
+                .orElseGet(() -> {
+                    desconocidos.put(hash, Boolean.TRUE);
+                    return false;
+                });
+    }
+
+    public void registrar(final String tokenHash, final Long usuarioId, final Instant expiresAt) {
+        registrarHash(tokenHash, usuarioId, expiresAt);
+    }
+
+    public void revocar(final String tokenHash) {
+        revocarHash(tokenHash, null);
+    }
+
+    /**
+     * Revoca todos los tokens conocidos de un usuario; acompaña al UPDATE
+     * masivo de {@link TokenRepository#revokeAllByUsuarioId(Long)}.
+     */
+    public void revocarTodos(final Long usuarioId) {
+        final Set<String> hashes = hashesPorUsuario.remove(usuarioId);
+        if (hashes != null) {
+            hashes.forEach(hash -> revocarHash(hash, null));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        try (Stream<TokenEstado> vigentes = tokenRepository.streamVigentes(Instant.now(), Token.TokenType.BEARER)) {
+            vigentes.forEach(estado -> {
+                final String hash = estado.tokenHash();
+                if (estado.revoked() || estado.expired()) {
+                    revocarHash(hash, estado.expiresAt());
+                } else {
+                    registrarHash(hash, estado.usuarioId(), estado.expiresAt());
+                }
+            });
+        }
+    }
+
+    private boolean cargar(final String hash, final Token token) {
+        if (token.isRevoked() || token.isExpired()) {
+            revocarHash(hash, token.getExpiresAt());
+            return false;
+        }
+        registrarHash(hash, token.getUsuario().getId(), token.getExpiresAt());
+        return true;
+    }
+
+    private void registrarHash(final String hash, final Long usuarioId, final Instant expiresAt) {
+        final Instant expiracion = expiresAt != null ? expiresAt : Instant.now().plusMillis(jwtExpiration);
+        activos.put(hash, new TokenActivo(usuarioId, expiracion));
+        desconocidos.invalidate(hash);
+        if (usuarioId != null) {
+            hashesPorUsuario.compute(usuarioId, (id, hashes) -> {
+                final Set<String> actuales = hashes != null ? hashes : ConcurrentHashMap.newKeySet();
+                actuales.add(hash);
+                return actuales;
+            });
+        }
+    }
+
+    private void revocarHash(final String hash, final Instant expiresAt) {
+        final TokenActivo activo = activos.asMap().remove(hash);
+        if (activo != null) {
+            olvidar(hash, activo.usuarioId());
+        }
+        Instant expiracion = expiresAt != null ? expiresAt : activo != null ? activo.expiresAt() : null;
+        if (expiracion == null) {
+            expiracion = Instant.now().plusMillis(jwtExpiration);
+        }
+        rotarRevocadosSiCorresponde();
+        revocadosExactos.put(hash, expiracion);
+        revocados.put(hash);
+    }
+
+    private void olvidar(final String hash, final Long usuarioId) {
+        if (usuarioId != null) {
+            hashesPorUsuario.computeIfPresent(usuarioId, (id, hashes) -> {
+                hashes.remove(hash);
+                return hashes.isEmpty() ? null : hashes;
+            });
+        }
+    }
+
+    // Un token revocado deja de importar cuando expira, así que basta con dos
+    // generaciones de filtro que duran cada una la vida de un token de acceso.
+    private synchronized void rotarRevocadosSiCorresponde() {
+        final long ahora = System.currentTimeMillis();
+        if (ahora - rotacionRevocados >= jwtExpiration) {
+            revocadosAnterior = revocados;
+            revocados = new FiltroBloom(revocadosEsperados, probabilidadFalsoPositivo);
+            rotacionRevocados = ahora;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tienda.electronica.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tienda.electronica.repository.UsuarioRepository;
+
+/**
+ * Serializa la emisión de tokens de un mismo usuario. Dentro del nodo basta un
+ * lock por franja; entre nodos se bloquea además la fila del usuario durante la
+ * transacción. Usuarios distintos solo compiten si comparten franja.
+ */
+@Component
+public class UsuarioLocks {
+    private final ReentrantLock[] franjas;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public UsuarioLocks(
+            final UsuarioRepository usuarioRepository,
+            final PlatformTransactionManager transactionManager,
+            @Value("${application.security.token-issuance.stripes:256}") final int numeroFranjas) {
+        this.usuarioRepository = usuarioRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.franjas = new ReentrantLock[numeroFranjas];
+        for (int i = 0; i < numeroFranjas; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T conLock(final Long usuarioId, final Supplier<T> tarea) {
+        final ReentrantLock lock = franja(usuarioId);
+        lock.lock();
+        try {
+            // El commit ocurre antes de soltar el lock local
+            return transactionTemplate.execute(status -> {
+                usuarioRepository.bloquearParaEmision(usuarioId);
+                return tarea.get();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock franja(final Long usuarioId) {
+        final int hash = usuarioId.hashCode();
+        return franjas[Math.floorMod(hash ^ (hash >>> 16), franjas.length)];
+    }
+}
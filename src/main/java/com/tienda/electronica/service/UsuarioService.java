@@ -1,6 +1,5 @@
 package com.tienda.electronica.service;
 
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +8,7 @@ import org.springframework.stereotype.Service;
 import com.tienda.electronica.entity.Usuario;
 import com.tienda.electronica.exceptions.UsuarioNotFoundException;
 import com.tienda.electronica.repository.UsuarioRepository;
+import com.tienda.electronica.request.PaginaRequest;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,8 +19,15 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    public List<Usuario> obtenerTodos() {
-        return usuarioRepository.findAll();
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private Paginacion paginacion;
+
+    public Pagina<Usuario> obtenerTodos(PaginaRequest pagina) {
+        return paginacion.porId(pagina, usuarioRepository::findByIdGreaterThanOrderByIdAsc,
+                Usuario::getId, "usuarios", usuarioRepository::count);
     }
 
     public Optional<Usuario> obtenerPorId(Long id) {
@@ -38,21 +45,27 @@ public class UsuarioService {
     public Usuario actualizar(Long id, Usuario usuarioActualizado) {
         return usuarioRepository.findById(id)
                 .map(usuario -> {
+                    final String emailAnterior = usuario.getEmail();
                     usuario.setNombre(usuarioActualizado.getNombre());
                     usuario.setEmail(usuarioActualizado.getEmail());
                     usuario.setTelefono(usuarioActualizado.getTelefono());
                     usuario.setActivo(usuarioActualizado.getActivo());
-                    return usuarioRepository.save(usuario);
+                    final Usuario guardado = usuarioRepository.save(usuario);
+                    principalCache.evict(emailAnterior);
+                    principalCache.evict(guardado.getEmail());
+                    return guardado;
                 })
                 .orElseThrow(() -> new UsuarioNotFoundException(id));
     }
 
     public void eliminar(Long id) {
         usuarioRepository.deleteById(id);
+        principalCache.evictUsuario(id);
     }
 
-    public List<Usuario> obtenerActivos() {
-        return usuarioRepository.findByActivoTrue();
+    public Pagina<Usuario> obtenerActivos(PaginaRequest pagina) {
+        return paginacion.porId(pagina, usuarioRepository::findByActivoTrueAndIdGreaterThanOrderByIdAsc,
+                Usuario::getId, "usuarios:activos", usuarioRepository::countByActivoTrue);
     }
 
     public Optional<Usuario> obtenerPorEmail(String email) {
@@ -0,0 +1,35 @@
+package com.tienda.electronica.service;
+
+import java.time.Instant;
+
+import io.jsonwebtoken.Claims;
+
+public record VerifiedClaims(
+        String id,
+        String subject,
+        String name,
+        String type,
+        Instant issuedAt,
+        Instant expiration) {
+
+    static final String TYPE_CLAIM = "token_type";
+    static final String ACCESS_TOKEN = "access";
+
+    static VerifiedClaims from(final Claims claims) {
+        return new VerifiedClaims(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("name", String.class),
+                claims.get(TYPE_CLAIM, String.class),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
+    }
+
+    public boolean isExpired() {
+        return !expiration.isAfter(Instant.now());
+    }
+
+    public boolean isAccessToken() {
+        return ACCESS_TOKEN.equals(type);
+    }
+}
@@ -0,0 +1,108 @@
+package com.tienda.electronica.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.tienda.electronica.ElectronicaApplication;
+import com.tienda.electronica.config.AuthFilter;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.service.AuthService;
+
+/**
+ * Coste de {@link AuthFilter} por tipo de ruta: pública (swagger, auth),
+ * protegida sin cabecera y protegida con un token válido.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.tienda.electronica.benchmark.AuthFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFilterBenchmark {
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({ "/swagger-ui/index.html", "/api/auth/login", "/api/productos" })
+    public String ruta;
+
+    private ConfigurableApplicationContext context;
+    private AuthFilter authFilter;
+    private String accessHeader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElectronicaApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench-filter",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--application.security.jwt.token.secret-key=" + SECRET_KEY);
+        authFilter = context.getBean(AuthFilter.class);
+        accessHeader = "Bearer " + context.getBean(AuthService.class).crearCuenta(Usuario.builder()
+                .nombre("Benchmark")
+                .email("bench-filtro@example.com")
+                .telefono("123456789")
+                .password("password123")
+                .build()).accessToken();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void filtrar(final String authorization, final Blackhole blackhole) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+        request.setServletPath(ruta);
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        authFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void conToken(final Blackhole blackhole) throws Exception {
+        filtrar(accessHeader, blackhole);
+    }
+
+    @Benchmark
+    public void sinCabecera(final Blackhole blackhole) throws Exception {
+        filtrar(null, blackhole);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.tienda.electronica.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.tienda.electronica.ElectronicaApplication;
+import com.tienda.electronica.config.AuthFilter;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.response.TokenResponse;
+import com.tienda.electronica.service.AuthService;
+
+/**
+ * Compara el modo con tokens persistidos y el modo stateless: una petición
+ * autenticada a través de {@link AuthFilter} y una renovación con refresh token.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.tienda.electronica.benchmark.AuthModeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthModeBenchmark {
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({ "false", "true" })
+    public boolean stateless;
+
+    private ConfigurableApplicationContext context;
+    private AuthFilter authFilter;
+    private AuthService authService;
+    private String accessHeader;
+    private String refreshHeader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ElectronicaApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + stateless,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--application.security.jwt.token.secret-key=" + SECRET_KEY,
+                "--application.security.jwt.token.stateless=" + stateless);
+        authFilter = context.getBean(AuthFilter.class);
+        authService = context.getBean(AuthService.class);
+
+        // Usuarios distintos: la renovación revoca los accesos previos de su usuario
+        accessHeader = "Bearer " + crearUsuario("bench-acceso@example.com").accessToken();
+        refreshHeader = "Bearer " + crearUsuario("bench-refresh@example.com").refreshToken();
+    }
+
+    private TokenResponse crearUsuario(final String email) {
+        return authService.crearCuenta(Usuario.builder()
+                .nombre("Benchmark")
+                .email(email)
+                .telefono("123456789")
+                .password("password123")
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void peticionAutenticada(final Blackhole blackhole) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos");
+        request.setServletPath("/api/productos");
+        request.addHeader(HttpHeaders.AUTHORIZATION, accessHeader);
+        final MockFilterChain chain = new MockFilterChain();
+        authFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public TokenResponse renovarToken() {
+        return authService.refreshToken(refreshHeader);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthModeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.tienda.electronica.config;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.EndpointId;
+import org.springframework.boot.actuate.endpoint.web.ExposableWebEndpoint;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointHttpMethod;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointsSupplier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.ClienteRepository;
+import com.tienda.electronica.service.ProductoService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CacheRegionsEndpointTest {
+
+    @Autowired
+    private CacheRegionsEndpoint endpoint;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WebEndpointsSupplier webEndpoints;
+
+    private Statistics estadisticas;
+
+    @Before
+    public void setUp() {
+        for (String region : endpoint.regiones().keySet()) {
+            endpoint.vaciar(region);
+        }
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    private Producto crearProducto() {
+        return productoService.crear(Producto.builder()
+                .nombre("Monitor")
+                .descripcion("Monitor 27 pulgadas")
+                .precio(new BigDecimal("1500.00"))
+                .stock(3)
+                .categoria("Monitores")
+                .build());
+    }
+
+    @Test
+    public void testObtenerPorIdSeSirveDesdeLaCache() {
+        Long id = crearProducto().getId();
+        productoService.obtenerPorId(id);
+        estadisticas.clear();
+
+        assertEquals("Monitor", productoService.obtenerPorId(id).orElseThrow().getNombre());
+
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+        assertTrue(endpoint.region(CacheConfig.PRODUCTOS).hits() > 0);
+        assertTrue(endpoint.region(CacheConfig.CONSULTAS_PRODUCTOS).hitRatio() > 0);
+    }
+
+    @Test
+    public void testFallosTambienSeCachean() {
+        assertTrue(clienteRepository.findByEmail("nadie@example.com").isEmpty());
+        estadisticas.clear();
+
+        assertTrue(clienteRepository.findByEmail("nadie@example.com").isEmpty());
+
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+        assertTrue(endpoint.region(CacheConfig.CONSULTAS_IDENTIDAD).hits() > 0);
+    }
+
+    @Test
+    public void testEscribirInvalidaLasConsultasDeLaTabla() {
+        Long inexistente = crearProducto().getId() + 1000;
+        assertTrue(productoService.obtenerPorId(inexistente).isEmpty());
+
+        crearProducto();
+        estadisticas.clear();
+        productoService.obtenerPorId(inexistente);
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testVaciarRegion() {
+        Long id = crearProducto().getId();
+        productoService.obtenerPorId(id);
+
+        assertTrue(endpoint.vaciar(CacheConfig.CONSULTAS_PRODUCTOS));
+        estadisticas.clear();
+        productoService.obtenerPorId(id);
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertFalse(endpoint.vaciar("no-existe"));
+        assertFalse(endpoint.vaciar(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME));
+        assertNull(endpoint.region("no-existe"));
+    }
+
+    @Test
+    public void testPorHttpSoloSePublicaLaLectura() {
+        ExposableWebEndpoint web = webEndpoints.getEndpoints().stream()
+                .filter(e -> e.getEndpointId().equals(EndpointId.of("cacheregions")))
+                .findFirst()
+                .orElseThrow();
+
+        assertFalse(web.getOperations().isEmpty());
+        web.getOperations().forEach(operacion ->
+                assertEquals(WebEndpointHttpMethod.GET, operacion.getRequestPredicate().getHttpMethod()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.tienda.electronica.config;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.tienda.electronica.service.ProductoCambiadoEvent;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class CatalogoCacheFilterTest {
+    private static final String JSON = "[" + "{\"id\":1,\"nombre\":\"Laptop\"},".repeat(20) + "{\"id\":2}]";
+
+    private CatalogoCacheFilter filtro;
+    private AtomicInteger llamadas;
+    private FilterChain controlador;
+
+    @Before
+    public void setUp() {
+        filtro = new CatalogoCacheFilter(1_000_000, Duration.ofMinutes(10));
+        llamadas = new AtomicInteger();
+        controlador = (request, response) -> {
+            llamadas.incrementAndGet();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ((HttpServletResponse) response).setHeader("X-Next-Cursor", "abc");
+            ((HttpServletResponse) response).setHeader(HttpHeaders.ETAG, "W/\"x-1\"");
+            response.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding) throws Exception {
+        return get(path, acceptEncoding, null);
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        request.setServletPath(path);
+        request.setQueryString("limite=20");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, controlador);
+        return response;
+    }
+
+    private static String descomprimir(byte[] gzip) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testSegundaLlamadaNoLlegaAlControlador() throws Exception {
+        MockHttpServletResponse primera = get("/api/productos", null);
+        MockHttpServletResponse segunda = get("/api/productos", null);
+
+        assertEquals(1, llamadas.get());
+        assertEquals("MISS", primera.getHeader(CatalogoCacheFilter.CABECERA_CACHE));
+        assertEquals("HIT", segunda.getHeader(CatalogoCacheFilter.CABECERA_CACHE));
+        assertEquals(JSON, segunda.getContentAsString());
+        assertEquals("abc", segunda.getHeader("X-Next-Cursor"));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, segunda.getContentType());
+    }
+
+    @Test
+    public void testVarianteGzip() throws Exception {
+        get("/api/productos/categoria/laptops", null);
+        MockHttpServletResponse comprimida = get("/api/productos/categoria/laptops", "br, gzip;q=0.8");
+
+        assertEquals(1, llamadas.get());
+        assertEquals("gzip", comprimida.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, comprimida.getHeader(HttpHeaders.VARY));
+        assertEquals(JSON, descomprimir(comprimida.getContentAsByteArray()));
+    }
+
+    @Test
+    public void testCambioDeProductoInvalida() throws Exception {
+        get("/api/productos/con-stock", null);
+        filtro.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+        MockHttpServletResponse despues = get("/api/productos/con-stock", null);
+
+        assertEquals(2, llamadas.get());
+        assertEquals("MISS", despues.getHeader(CatalogoCacheFilter.CABECERA_CACHE));
+    }
+
+    @Test
+    public void testAciertoConEtagCoincidenteDevuelve304() throws Exception {
+        get("/api/productos", null);
+        MockHttpServletResponse segunda = get("/api/productos", null, "W/\"x-1\"");
+
+        assertEquals(1, llamadas.get());
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, segunda.getStatus());
+        assertEquals("W/\"x-1\"", segunda.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, segunda.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testOtrasRutasNoSeCachean() throws Exception {
+        get("/api/productos/1", null);
+        get("/api/productos/1", null);
+
+        assertEquals(2, llamadas.get());
+    }
+
+    @Test
+    public void testAceptaGzip() {
+        assertTrue(CatalogoCacheFilter.aceptaGzip("gzip, deflate, br"));
+        assertFalse(CatalogoCacheFilter.aceptaGzip("gzip;q=0"));
+        assertFalse(CatalogoCacheFilter.aceptaGzip("br"));
+        assertFalse(CatalogoCacheFilter.aceptaGzip(null));
+    }
+}
@@ -0,0 +1,82 @@
+package com.tienda.electronica.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.tienda.electronica.config.ApiKeyFilter;
+import com.tienda.electronica.request.ApiKeyRequest;
+import com.tienda.electronica.service.ApiKeyService;
+
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ApiKeyAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApiKeyService apiKeyService;
+
+    private String crear(List<String> scopes, int porMinuto) {
+        return apiKeyService.crear(new ApiKeyRequest("integracion", scopes, porMinuto), 1L).clave();
+    }
+
+    @Test
+    public void testApiKey_AccedeSegunSusScopes() throws Exception {
+        // Given
+        String clave = crear(List.of("productos:read"), 100);
+
+        // When & Then
+        mockMvc.perform(get("/api/productos").header(ApiKeyFilter.HEADER, clave))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/productos").header(ApiKeyFilter.HEADER, clave)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/usuarios").header(ApiKeyFilter.HEADER, clave))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/api-keys").header(ApiKeyFilter.HEADER, clave))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void testApiKey_InvalidaORevocada() throws Exception {
+        // Given
+        ApiKeyService.ApiKeyCreada creada = apiKeyService.crear(
+                new ApiKeyRequest("integracion", List.of("pedidos:read"), 100), 1L);
+        apiKeyService.revocar(creada.apiKey().getId(), 1L);
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos").header(ApiKeyFilter.HEADER, creada.clave()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/pedidos").header(ApiKeyFilter.HEADER, "ek_inventada.clave"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testApiKey_CuotaAgotada() throws Exception {
+        // Given
+        String clave = crear(List.of("pedidos:read"), 1);
+        mockMvc.perform(get("/api/pedidos").header(ApiKeyFilter.HEADER, clave))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos").header(ApiKeyFilter.HEADER, clave))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -0,0 +1,144 @@
+package com.tienda.electronica.controller;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.tienda.electronica.entity.ApiKey;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.request.ApiKeyRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.service.ApiKeyService;
+import com.tienda.electronica.service.AuthenticatedPrincipal;
+import com.tienda.electronica.service.Pagina;
+import com.tienda.electronica.service.PrincipalCache;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiKeyControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ApiKeyService apiKeyService;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @InjectMocks
+    private ApiKeyController apiKeyController;
+
+    private ApiKey apiKey;
+    private Authentication usuario;
+
+    @Before
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(apiKeyController).build();
+
+        Usuario propietario = Usuario.builder().id(7L).email("ana@example.com").password("x").build();
+        AuthenticatedPrincipal principal = new AuthenticatedPrincipal(propietario,
+                User.withUsername("ana@example.com").password("x").build());
+        usuario = UsernamePasswordAuthenticationToken.authenticated(principal.userDetails(), null, List.of());
+        lenient().when(principalCache.obtener("ana@example.com")).thenReturn(Optional.of(principal));
+
+        apiKey = ApiKey.builder()
+                .id(1L)
+                .nombre("batch")
+                .prefix("abc123")
+                .keyHash("hash")
+                .scopes("productos:read,pedidos:read")
+                .requestsPerMinute(600)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    public void testCrear_DevuelveLaClaveUnaSolaVez() throws Exception {
+        // Given
+        when(apiKeyService.crear(any(ApiKeyRequest.class), eq(7L)))
+                .thenReturn(new ApiKeyService.ApiKeyCreada(apiKey, "ek_abc123.secreto"));
+
+        // When & Then
+        mockMvc.perform(post("/api/api-keys").principal(usuario)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"batch\",\"scopes\":[\"productos:read\",\"pedidos:read\"]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.api_key").value("ek_abc123.secreto"))
+                .andExpect(jsonPath("$.prefix").value("abc123"))
+                .andExpect(jsonPath("$.scopes[1]").value("pedidos:read"))
+                .andExpect(jsonPath("$.key_hash").doesNotExist());
+    }
+
+    @Test
+    public void testCrear_DatosInvalidos() throws Exception {
+        // Given
+        when(apiKeyService.crear(any(ApiKeyRequest.class), eq(7L)))
+                .thenThrow(new IllegalArgumentException("Scope desconocido: admin"));
+
+        // When & Then
+        mockMvc.perform(post("/api/api-keys").principal(usuario)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"batch\",\"scopes\":[\"admin\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testObtenerTodas_SinSecreto() throws Exception {
+        // Given
+        when(apiKeyService.listar(eq(7L), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(List.of(apiKey), "siguiente", null));
+
+        // When & Then
+        mockMvc.perform(get("/api/api-keys?limite=1").principal(usuario))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "siguiente"))
+                .andExpect(jsonPath("$[0].nombre").value("batch"))
+                .andExpect(jsonPath("$[0].requests_per_minute").value(600))
+                .andExpect(jsonPath("$[0].api_key").doesNotExist());
+    }
+
+    @Test
+    public void testRevocar() throws Exception {
+        // Given
+        when(apiKeyService.revocar(1L, 7L)).thenReturn(true);
+        when(apiKeyService.revocar(2L, 7L)).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(delete("/api/api-keys/1").principal(usuario)).andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/api-keys/2").principal(usuario)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testApiKeyNoGestionaApiKeys() throws Exception {
+        // Given - una petición autenticada con API key
+        Authentication apiKeyAuth = UsernamePasswordAuthenticationToken.authenticated("api-key:abc123", null,
+                List.of());
+
+        // When & Then
+        mockMvc.perform(post("/api/api-keys").principal(apiKeyAuth)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"otra\",\"scopes\":[\"productos:read\"]}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/api-keys").principal(apiKeyAuth)).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/api-keys/1").principal(apiKeyAuth)).andExpect(status().isForbidden());
+
+        verifyNoInteractions(apiKeyService);
+    }
+}
@@ -5,6 +5,8 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.Duration;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,9 +20,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
 import com.tienda.electronica.request.LoginRequest;
 import com.tienda.electronica.response.TokenResponse;
+import com.tienda.electronica.security.LoginRateLimiter;
 import com.tienda.electronica.service.AuthService;
+import com.tienda.electronica.service.SigningKeyService;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AuthControllerTest {
@@ -30,6 +35,12 @@ public class AuthControllerTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+
+    @Mock
+    private SigningKeyService signingKeyService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -183,4 +194,104 @@ public class AuthControllerTest {
         verify(authService, times(1)).login(any(LoginRequest.class));
         verify(authService, times(1)).refreshToken(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLogin_HashingSaturadoDevuelve503() throws Exception {
+        // Given
+        when(authService.login(any(LoginRequest.class)))
+                .thenThrow(new ServicioSaturadoException("Saturado", 2));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+    }
+
+    @Test
+    public void testCrearCuenta_HashingSaturadoDevuelve503() throws Exception {
+        // Given
+        when(authService.crearCuenta(any(Usuario.class)))
+                .thenThrow(new ServicioSaturadoException("Saturado", 3));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/crear-cuenta")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(usuario)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+    }
+
+    @Test
+    public void testLogin_LimiteSuperadoDevuelve429() throws Exception {
+        // Given
+        when(loginRateLimiter.intentarLogin(eq("juan.perez@example.com"), anyString())).thenReturn(1500L);
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+
+        verify(authService, never()).login(any(LoginRequest.class));
+    }
+
+    @Test
+    public void testRefreshToken_LimiteSuperadoDevuelve429() throws Exception {
+        // Given
+        when(loginRateLimiter.intentarRefresh(anyString())).thenReturn(30000L);
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/refresh-token")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+
+        verify(authService, never()).refreshToken(anyString());
+    }
+
+    @Test
+    public void testJwks_PublicaLasClavesConCache() throws Exception {
+        // Given
+        when(signingKeyService.isAsymmetric()).thenReturn(true);
+        when(signingKeyService.etag()).thenReturn("\"v1\"");
+        when(signingKeyService.maxAgeJwks()).thenReturn(Duration.ofMinutes(30));
+        when(signingKeyService.jwks()).thenReturn("{\"keys\":[{\"kid\":\"kid-1\"}]}");
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/jwk-set+json"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=1800, public"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1\""))
+                .andExpect(jsonPath("$.keys[0].kid").value("kid-1"));
+    }
+
+    @Test
+    public void testJwks_NoModificado() throws Exception {
+        // Given
+        when(signingKeyService.isAsymmetric()).thenReturn(true);
+        when(signingKeyService.etag()).thenReturn("\"v1\"");
+        when(signingKeyService.maxAgeJwks()).thenReturn(Duration.ofMinutes(30));
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/jwks.json").header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(signingKeyService, never()).jwks();
+    }
+
+    @Test
+    public void testJwks_SinClavesAsimetricas() throws Exception {
+        // Given
+        when(signingKeyService.isAsymmetric()).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/jwks.json"))
+                .andExpect(status().isNotFound());
+    }
+}
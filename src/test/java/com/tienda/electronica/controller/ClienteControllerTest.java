@@ -21,6 +21,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tienda.electronica.entity.Cliente;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.service.Pagina;
 import com.tienda.electronica.service.ClienteService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -80,7 +82,8 @@ public class ClienteControllerTest {
     public void testObtenerTodos() throws Exception {
         // Given
         List<Cliente> clientes = Arrays.asList(cliente1, cliente2);
-        when(clienteService.obtenerTodos()).thenReturn(clientes);
+        when(clienteService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientes, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes")
@@ -93,7 +96,7 @@ public class ClienteControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].nombre").value("María"));
 
-        verify(clienteService, times(1)).obtenerTodos();
+        verify(clienteService, times(1)).obtenerTodos(any(PaginaRequest.class));
     }
 
     @Test
@@ -175,7 +178,8 @@ public class ClienteControllerTest {
     public void testObtenerActivos() throws Exception {
         // Given
         List<Cliente> clientesActivos = Arrays.asList(cliente1, cliente2);
-        when(clienteService.obtenerActivos()).thenReturn(clientesActivos);
+        when(clienteService.obtenerActivos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientesActivos, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/activos")
@@ -185,14 +189,15 @@ public class ClienteControllerTest {
                 .andExpect(jsonPath("$[0].activo").value(true))
                 .andExpect(jsonPath("$[1].activo").value(true));
 
-        verify(clienteService, times(1)).obtenerActivos();
+        verify(clienteService, times(1)).obtenerActivos(any(PaginaRequest.class));
     }
 
     @Test
     public void testBuscarPorNombre_ConResultados() throws Exception {
         // Given
         List<Cliente> clientesEncontrados = Arrays.asList(cliente1);
-        when(clienteService.buscarPorNombre("juan")).thenReturn(clientesEncontrados);
+        when(clienteService.buscarPorNombre(eq("juan"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientesEncontrados, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/buscar")
@@ -203,13 +208,14 @@ public class ClienteControllerTest {
                 .andExpect(jsonPath("$[0].nombre").value("Juan"))
                 .andExpect(jsonPath("$[0].apellidos").value("Pérez García"));
 
-        verify(clienteService, times(1)).buscarPorNombre("juan");
+        verify(clienteService, times(1)).buscarPorNombre(eq("juan"), any(PaginaRequest.class));
     }
 
     @Test
     public void testBuscarPorNombre_SinResultados() throws Exception {
         // Given
-        when(clienteService.buscarPorNombre("inexistente")).thenReturn(Arrays.asList());
+        when(clienteService.buscarPorNombre(eq("inexistente"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/buscar")
@@ -218,13 +224,14 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(clienteService, times(1)).buscarPorNombre("inexistente");
+        verify(clienteService, times(1)).buscarPorNombre(eq("inexistente"), any(PaginaRequest.class));
     }
 
     @Test
     public void testBuscarPorNombre_TextoVacio() throws Exception {
         // Given
-        when(clienteService.buscarPorNombre("")).thenReturn(Arrays.asList());
+        when(clienteService.buscarPorNombre(eq(""), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/buscar")
@@ -233,14 +240,15 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(clienteService, times(1)).buscarPorNombre("");
+        verify(clienteService, times(1)).buscarPorNombre(eq(""), any(PaginaRequest.class));
     }
 
     @Test
     public void testObtenerPorCiudad() throws Exception {
         // Given
         List<Cliente> clientesMadrid = Arrays.asList(cliente1, cliente3);
-        when(clienteService.obtenerPorCiudad("Madrid")).thenReturn(clientesMadrid);
+        when(clienteService.obtenerPorCiudad(eq("Madrid"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientesMadrid, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/ciudad/Madrid")
@@ -250,14 +258,15 @@ public class ClienteControllerTest {
                 .andExpect(jsonPath("$[0].ciudad").value("Madrid"))
                 .andExpect(jsonPath("$[1].ciudad").value("Madrid"));
 
-        verify(clienteService, times(1)).obtenerPorCiudad("Madrid");
+        verify(clienteService, times(1)).obtenerPorCiudad(eq("Madrid"), any(PaginaRequest.class));
     }
 
     @Test
     public void testObtenerPorCiudad_CiudadConEspacios() throws Exception {
         // Given
         List<Cliente> clientes = Arrays.asList(cliente2);
-        when(clienteService.obtenerPorCiudad("Barcelona")).thenReturn(clientes);
+        when(clienteService.obtenerPorCiudad(eq("Barcelona"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientes, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/ciudad/Barcelona")
@@ -265,13 +274,14 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].ciudad").value("Barcelona"));
 
-        verify(clienteService, times(1)).obtenerPorCiudad("Barcelona");
+        verify(clienteService, times(1)).obtenerPorCiudad(eq("Barcelona"), any(PaginaRequest.class));
     }
 
     @Test
     public void testObtenerPorCiudad_CiudadNoExiste() throws Exception {
         // Given
-        when(clienteService.obtenerPorCiudad("CiudadInexistente")).thenReturn(Arrays.asList());
+        when(clienteService.obtenerPorCiudad(eq("CiudadInexistente"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/ciudad/CiudadInexistente")
@@ -279,7 +289,7 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(clienteService, times(1)).obtenerPorCiudad("CiudadInexistente");
+        verify(clienteService, times(1)).obtenerPorCiudad(eq("CiudadInexistente"), any(PaginaRequest.class));
     }
 
     @Test
@@ -321,7 +331,8 @@ public class ClienteControllerTest {
     @Test
     public void testEndpoints_ContentType() throws Exception {
         // Test para verificar que todos los endpoints retornan JSON
-        when(clienteService.obtenerTodos()).thenReturn(Arrays.asList(cliente1));
+        when(clienteService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(cliente1), null, null));
         mockMvc.perform(get("/api/clientes"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
@@ -331,22 +342,26 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(clienteService.obtenerActivos()).thenReturn(Arrays.asList(cliente1));
+        when(clienteService.obtenerActivos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(cliente1), null, null));
         mockMvc.perform(get("/api/clientes/activos"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(clienteService.obtenerClientesPremium()).thenReturn(Arrays.asList(cliente2));
+        when(clienteService.obtenerClientesPremium(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(cliente2), null, null));
         mockMvc.perform(get("/api/clientes/premium"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(clienteService.buscarPorNombre("test")).thenReturn(Arrays.asList(cliente1));
+        when(clienteService.buscarPorNombre(eq("test"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(cliente1), null, null));
         mockMvc.perform(get("/api/clientes/buscar").param("texto", "test"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(clienteService.obtenerPorCiudad("test")).thenReturn(Arrays.asList(cliente1));
+        when(clienteService.obtenerPorCiudad(eq("test"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(cliente1), null, null));
         mockMvc.perform(get("/api/clientes/ciudad/test"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
@@ -386,7 +401,8 @@ public class ClienteControllerTest {
     public void testBuscarPorNombre_ConApellidos() throws Exception {
         // Given
         List<Cliente> clientesEncontrados = Arrays.asList(cliente1);
-        when(clienteService.buscarPorNombre("Pérez")).thenReturn(clientesEncontrados);
+        when(clienteService.buscarPorNombre(eq("Pérez"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(clientesEncontrados, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/clientes/buscar")
@@ -395,6 +411,6 @@ public class ClienteControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].apellidos").value("Pérez García"));
 
-        verify(clienteService, times(1)).buscarPorNombre("Pérez");
+        verify(clienteService, times(1)).buscarPorNombre(eq("Pérez"), any(PaginaRequest.class));
     }
 }
\ No newline at end of file
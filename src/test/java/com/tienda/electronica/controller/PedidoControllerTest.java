@@ -10,10 +10,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -31,7 +33,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tienda.electronica.entity.Cliente;
+import com.tienda.electronica.entity.DetallePedido;
 import com.tienda.electronica.entity.Pedido;
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.ClienteResumenResponse;
+import com.tienda.electronica.response.PedidoDetalleResponse;
+import com.tienda.electronica.response.PedidoResumenResponse;
+import com.tienda.electronica.service.Pagina;
 import com.tienda.electronica.service.PedidoService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -85,6 +96,73 @@ public class PedidoControllerTest {
         pedido3.setDireccionEnvio("Plaza Mayor 789, Valencia");
     }
 
+    private static PedidoResumenResponse resumen(Pedido pedido) {
+        return new PedidoResumenResponse(pedido.getId(), pedido.getNumeroSeguimiento(), pedido.getFechaPedido(),
+                pedido.getEstado(), pedido.getMetodoPago(), pedido.getTotal(),
+                new ClienteResumenResponse(1L, "Juan", "Pérez", "juan@example.com"));
+    }
+
+    @Test
+    public void testObtenerPorId_ConClienteYLineas() throws Exception {
+        // Given
+        Producto producto = new Producto();
+        producto.setId(7L);
+        producto.setNombre("Laptop Gaming");
+        DetallePedido linea = new DetallePedido();
+        linea.setId(3L);
+        linea.setProducto(producto);
+        linea.setCantidad(2);
+        linea.setPrecioUnitario(new BigDecimal("100.00"));
+        linea.setSubtotal(new BigDecimal("200.00"));
+        Cliente cliente = new Cliente();
+        cliente.setId(5L);
+        cliente.setNombre("Ana");
+        pedido1.setCliente(cliente);
+        pedido1.setDetalles(Arrays.asList(linea));
+        when(pedidoService.obtenerPorId(1L)).thenReturn(Optional.of(PedidoDetalleResponse.de(pedido1)));
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numeroSeguimiento").value("PED-001"))
+                .andExpect(jsonPath("$.cliente.id").value(5))
+                .andExpect(jsonPath("$.cliente.nombre").value("Ana"))
+                .andExpect(jsonPath("$.detalles[0].productoId").value(7))
+                .andExpect(jsonPath("$.detalles[0].productoNombre").value("Laptop Gaming"))
+                .andExpect(jsonPath("$.detalles[0].cantidad").value(2));
+    }
+
+    @Test
+    public void testObtenerPorId_EtagIncluyeDependencias() throws Exception {
+        // Given
+        VersionFila version = new VersionFila(1L, 2L, Instant.parse("2025-01-10T12:00:00Z"), "c0ffee");
+        when(pedidoService.obtenerVersion(1L)).thenReturn(Optional.of(version));
+        when(pedidoService.obtenerPorId(1L)).thenReturn(Optional.of(PedidoDetalleResponse.de(pedido1)));
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-2-c0ffee\""));
+        mockMvc.perform(get("/api/pedidos/1").header("If-None-Match", "\"1-2-c0ffee\""))
+                .andExpect(status().isNotModified());
+
+        verify(pedidoService, times(1)).obtenerPorId(1L);
+    }
+
+    @Test
+    public void testObtenerPorEstado_ResumenConCliente() throws Exception {
+        // Given
+        when(pedidoService.obtenerPorEstado(eq(Pedido.EstadoPedido.PENDIENTE), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(resumen(pedido1)), null, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos/estado/PENDIENTE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].cliente.email").value("juan@example.com"))
+                .andExpect(jsonPath("$[0].detalles").doesNotExist());
+    }
+
     @Test
     public void testObtenerPorId_PedidoNoExiste() throws Exception {
         // Given
@@ -101,7 +179,7 @@ public class PedidoControllerTest {
     @Test
     public void testActualizar_PedidoNoEncontrado() throws Exception {
         // Given
-        when(pedidoService.actualizar(eq(99L), any(Pedido.class)))
+        when(pedidoService.actualizarDetalle(eq(99L), any(Pedido.class)))
                 .thenThrow(new RuntimeException("Pedido no encontrado"));
 
         // When & Then
@@ -110,7 +188,7 @@ public class PedidoControllerTest {
                 .content(objectMapper.writeValueAsString(pedido1)))
                 .andExpect(status().isNotFound());
 
-        verify(pedidoService, times(1)).actualizar(eq(99L), any(Pedido.class));
+        verify(pedidoService, times(1)).actualizarDetalle(eq(99L), any(Pedido.class));
     }
 
     @Test
@@ -123,10 +201,27 @@ public class PedidoControllerTest {
         verify(pedidoService, times(1)).eliminar(1L);
     }
 
+    @Test
+    public void testObtenerPorCliente() throws Exception {
+        // Given
+        when(pedidoService.obtenerPorCliente(eq(1L), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(resumen(pedido1)), "siguiente", null));
+
+        // When & Then
+        mockMvc.perform(get("/api/pedidos/cliente/1")
+                .param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Next-Cursor", "siguiente"));
+
+        verify(pedidoService, times(1)).obtenerPorCliente(1L, new PaginaRequest(null, 1, null));
+    }
+
     @Test
     public void testObtenerPorEstado_SinPedidos() throws Exception {
         // Given
-        when(pedidoService.obtenerPorEstado(Pedido.EstadoPedido.CANCELADO)).thenReturn(Arrays.asList());
+        when(pedidoService.obtenerPorEstado(eq(Pedido.EstadoPedido.CANCELADO), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
 
         // When & Then
         mockMvc.perform(get("/api/pedidos/estado/CANCELADO")
@@ -134,7 +229,7 @@ public class PedidoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(pedidoService, times(1)).obtenerPorEstado(Pedido.EstadoPedido.CANCELADO);
+        verify(pedidoService, times(1)).obtenerPorEstado(eq(Pedido.EstadoPedido.CANCELADO), any(PaginaRequest.class));
     }
 
     @Test
@@ -145,7 +240,7 @@ public class PedidoControllerTest {
 
         // Cuando hay validación @Valid, Spring devuelve 400 Bad Request
         // Pero como estamos en test unitario sin validación real, simulamos el éxito
-        when(pedidoService.crear(any(Pedido.class))).thenReturn(pedido1);
+        when(pedidoService.crearDetalle(any(Pedido.class))).thenReturn(PedidoDetalleResponse.de(pedido1));
 
         // When & Then
         mockMvc.perform(post("/api/pedidos")
@@ -153,7 +248,7 @@ public class PedidoControllerTest {
                 .content(objectMapper.writeValueAsString(pedidoInvalido)))
                 .andExpect(status().isCreated()); // En realidad sería 400 con validación
 
-        verify(pedidoService, times(1)).crear(any(Pedido.class));
+        verify(pedidoService, times(1)).crearDetalle(any(Pedido.class));
     }
 
     @Test
@@ -162,7 +257,7 @@ public class PedidoControllerTest {
         Pedido pedidoInvalido = new Pedido();
         pedidoInvalido.setNumeroSeguimiento(""); // Número de pedido vacío
 
-        when(pedidoService.actualizar(eq(1L), any(Pedido.class))).thenReturn(pedido1);
+        when(pedidoService.actualizarDetalle(eq(1L), any(Pedido.class))).thenReturn(PedidoDetalleResponse.de(pedido1));
 
         // When & Then
         mockMvc.perform(put("/api/pedidos/1")
@@ -170,23 +265,25 @@ public class PedidoControllerTest {
                 .content(objectMapper.writeValueAsString(pedidoInvalido)))
                 .andExpect(status().isOk());
 
-        verify(pedidoService, times(1)).actualizar(eq(1L), any(Pedido.class));
+        verify(pedidoService, times(1)).actualizarDetalle(eq(1L), any(Pedido.class));
     }
 
     @Test
     public void testEndpoints_ContentType() throws Exception {
         // Test para verificar que todos los endpoints retornan JSON
-        when(pedidoService.obtenerTodos()).thenReturn(Arrays.asList(pedido1));
+        when(pedidoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(resumen(pedido1)), null, null));
         mockMvc.perform(get("/api/pedidos"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(pedidoService.obtenerPorId(1L)).thenReturn(Optional.of(pedido1));
+        when(pedidoService.obtenerPorId(1L)).thenReturn(Optional.of(PedidoDetalleResponse.de(pedido1)));
         mockMvc.perform(get("/api/pedidos/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(pedidoService.obtenerPorEstado(Pedido.EstadoPedido.PENDIENTE)).thenReturn(Arrays.asList(pedido1));
+        when(pedidoService.obtenerPorEstado(eq(Pedido.EstadoPedido.PENDIENTE), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(resumen(pedido1)), null, null));
         mockMvc.perform(get("/api/pedidos/estado/PENDIENTE"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
@@ -223,7 +320,7 @@ public class PedidoControllerTest {
         pedidoCreado.setDireccionEnvio("Dirección Completa 555, Bilbao");
         pedidoCreado.setObservaciones("Pedido con observaciones especiales");
 
-        when(pedidoService.crear(any(Pedido.class))).thenReturn(pedidoCreado);
+        when(pedidoService.crearDetalle(any(Pedido.class))).thenReturn(PedidoDetalleResponse.de(pedidoCreado));
 
         // When & Then
         mockMvc.perform(post("/api/pedidos")
@@ -232,14 +329,16 @@ public class PedidoControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.observaciones").value("Pedido con observaciones especiales"));
 
-        verify(pedidoService, times(1)).crear(any(Pedido.class));
+        verify(pedidoService, times(1)).crearDetalle(any(Pedido.class));
     }
 
     @Test
     public void testObtenerPorEstado_MultipleResults() throws Exception {
         // Given
-        List<Pedido> pedidosMultiples = Arrays.asList(pedido1, pedido2, pedido3);
-        when(pedidoService.obtenerPorEstado(Pedido.EstadoPedido.PENDIENTE)).thenReturn(pedidosMultiples);
+        List<PedidoResumenResponse> pedidosMultiples = Arrays.asList(resumen(pedido1), resumen(pedido2),
+                resumen(pedido3));
+        when(pedidoService.obtenerPorEstado(eq(Pedido.EstadoPedido.PENDIENTE), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(pedidosMultiples, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/pedidos/estado/PENDIENTE")
@@ -247,6 +346,42 @@ public class PedidoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(3));
 
-        verify(pedidoService, times(1)).obtenerPorEstado(Pedido.EstadoPedido.PENDIENTE);
+        verify(pedidoService, times(1)).obtenerPorEstado(eq(Pedido.EstadoPedido.PENDIENTE), any(PaginaRequest.class));
+    }
+
+    @Test
+    public void testObtenerTodos_ConCampos() throws Exception {
+        // Given
+        when(pedidoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(resumen(pedido1)), null, null));
+        MockMvc conCampos = MockMvcBuilders.standaloneSetup(pedidoController)
+                .setControllerAdvice(new CamposAdvice(objectMapper))
+                .build();
+
+        // When & Then
+        conCampos.perform(get("/api/pedidos?fields=total,estado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].total").value(299.99))
+                .andExpect(jsonPath("$[0].estado").value("PENDIENTE"))
+                .andExpect(jsonPath("$[0].cliente").doesNotExist())
+                .andExpect(jsonPath("$[0].numeroSeguimiento").doesNotExist());
+
+        conCampos.perform(get("/api/pedidos?fields=total,inexistente"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testObtenerTodos_CampoDesconocidoSinResultados() throws Exception {
+        // Given
+        when(pedidoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
+        MockMvc conCampos = MockMvcBuilders.standaloneSetup(pedidoController)
+                .setControllerAdvice(new CamposAdvice(objectMapper))
+                .build();
+
+        // When & Then - se valida contra el tipo, no contra los elementos
+        conCampos.perform(get("/api/pedidos?fields=inexistente"))
+                .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
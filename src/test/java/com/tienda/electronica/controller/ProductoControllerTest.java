@@ -6,8 +6,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -17,11 +19,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.FacetasResponse;
+import com.tienda.electronica.response.SugerenciaResponse;
+import com.tienda.electronica.service.CambiosProductos;
+import com.tienda.electronica.service.Lote;
+import com.tienda.electronica.service.Pagina;
 import com.tienda.electronica.service.ProductoService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -75,7 +88,8 @@ public class ProductoControllerTest {
     public void testObtenerTodos() throws Exception {
         // Given
         List<Producto> productos = Arrays.asList(producto1, producto2);
-        when(productoService.obtenerTodos()).thenReturn(productos);
+        when(productoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(productos, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/productos")
@@ -88,7 +102,48 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].nombre").value("Smartphone Android"));
 
-        verify(productoService, times(1)).obtenerTodos();
+        verify(productoService, times(1)).obtenerTodos(any(PaginaRequest.class));
+    }
+
+    @Test
+    public void testObtenerTodos_Paginado() throws Exception {
+        // Given
+        when(productoService.obtenerTodos(new PaginaRequest("abc", 2, true)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1, producto2), "siguiente", 3L));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos?cursor=abc&limite=2&total=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().string("X-Next-Cursor", "siguiente"))
+                .andExpect(header().string("Link",
+                        "<http://localhost/api/productos?limite=2&total=true&cursor=siguiente>; rel=\"next\""))
+                .andExpect(header().string("X-Total-Count", "3"));
+    }
+
+    @Test
+    public void testObtenerTodos_UltimaPaginaSinCursor() throws Exception {
+        // Given
+        when(productoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), null, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(header().doesNotExist("X-Total-Count"));
+    }
+
+    @Test
+    public void testObtenerTodos_CursorInvalido() throws Exception {
+        // Given
+        when(productoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenThrow(new PaginacionInvalidaException("Cursor inválido"));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos").param("cursor", "???"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -123,6 +178,77 @@ public class ProductoControllerTest {
         verify(productoService, times(1)).obtenerPorId(99L);
     }
 
+    @Test
+    public void testObtenerPorId_EtagYLastModified() throws Exception {
+        // Given
+        Instant actualizado = Instant.parse("2025-01-10T12:00:00Z");
+        producto1.setVersion(3L);
+        producto1.setFechaActualizacion(actualizado);
+        when(productoService.obtenerPorId(1L)).thenReturn(Optional.of(producto1));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(header().dateValue("Last-Modified", actualizado.toEpochMilli()))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    public void testObtenerPorId_NoModificadoSinCargar() throws Exception {
+        // Given
+        when(productoService.obtenerVersion(1L))
+                .thenReturn(Optional.of(new VersionFila(1L, 3L, Instant.parse("2025-01-10T12:00:00Z"))));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/1").header("If-None-Match", "W/\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(content().string(""));
+
+        verify(productoService, never()).obtenerPorId(anyLong());
+    }
+
+    @Test
+    public void testObtenerPorId_NoModificadoDesdeFecha() throws Exception {
+        // Given
+        when(productoService.obtenerVersion(1L))
+                .thenReturn(Optional.of(new VersionFila(1L, 3L, Instant.parse("2025-01-10T12:00:00.250Z"))));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/1").header("If-Modified-Since", "Fri, 10 Jan 2025 12:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(productoService, never()).obtenerPorId(anyLong());
+    }
+
+    @Test
+    public void testObtenerPorId_VersionDistintaDevuelveCuerpo() throws Exception {
+        // Given
+        producto1.setVersion(4L);
+        when(productoService.obtenerVersion(1L)).thenReturn(Optional.of(new VersionFila(1L, 4L, null)));
+        when(productoService.obtenerPorId(1L)).thenReturn(Optional.of(producto1));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""))
+                .andExpect(jsonPath("$.nombre").value("Laptop Gaming"));
+    }
+
+    @Test
+    public void testObtenerTodos_NoModificado() throws Exception {
+        // Given
+        when(productoService.etagListado()).thenReturn("W/\"abc-7\"");
+
+        // When & Then
+        mockMvc.perform(get("/api/productos").header("If-None-Match", "W/\"abc-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"abc-7\""));
+
+        verify(productoService, never()).obtenerTodos(any(PaginaRequest.class));
+    }
+
     @Test
     public void testCrear_Success() throws Exception {
         // Given
@@ -216,7 +342,8 @@ public class ProductoControllerTest {
     public void testObtenerPorCategoria() throws Exception {
         // Given
         List<Producto> productosComputadoras = Arrays.asList(producto1);
-        when(productoService.obtenerPorCategoria("Computadoras")).thenReturn(productosComputadoras);
+        when(productoService.obtenerPorCategoria(eq("Computadoras"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(productosComputadoras, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/productos/categoria/Computadoras")
@@ -226,14 +353,15 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].categoria").value("Computadoras"));
 
-        verify(productoService, times(1)).obtenerPorCategoria("Computadoras");
+        verify(productoService, times(1)).obtenerPorCategoria(eq("Computadoras"), any(PaginaRequest.class));
     }
 
     @Test
     public void testObtenerConStock() throws Exception {
         // Given
         List<Producto> productosConStock = Arrays.asList(producto1, producto2);
-        when(productoService.obtenerConStock()).thenReturn(productosConStock);
+        when(productoService.obtenerConStock(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(productosConStock, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/productos/con-stock")
@@ -243,13 +371,14 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$[0].stock").value(10))
                 .andExpect(jsonPath("$[1].stock").value(25));
 
-        verify(productoService, times(1)).obtenerConStock();
+        verify(productoService, times(1)).obtenerConStock(any(PaginaRequest.class));
     }
 
     @Test
     public void testObtenerConStock_SinProductos() throws Exception {
         // Given
-        when(productoService.obtenerConStock()).thenReturn(Arrays.asList());
+        when(productoService.obtenerConStock(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(), null, null));
 
         // When & Then
         mockMvc.perform(get("/api/productos/con-stock")
@@ -257,7 +386,7 @@ public class ProductoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(productoService, times(1)).obtenerConStock();
+        verify(productoService, times(1)).obtenerConStock(any(PaginaRequest.class));
     }
 
     @Test
@@ -299,7 +428,8 @@ public class ProductoControllerTest {
     @Test
     public void testEndpoints_ContentType() throws Exception {
         // Test para verificar que todos los endpoints retornan JSON
-        when(productoService.obtenerTodos()).thenReturn(Arrays.asList(producto1));
+        when(productoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), null, null));
         mockMvc.perform(get("/api/productos"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
@@ -309,12 +439,14 @@ public class ProductoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(productoService.obtenerPorCategoria("Computadoras")).thenReturn(Arrays.asList(producto1));
+        when(productoService.obtenerPorCategoria(eq("Computadoras"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), null, null));
         mockMvc.perform(get("/api/productos/categoria/Computadoras"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(productoService.obtenerConStock()).thenReturn(Arrays.asList(producto1));
+        when(productoService.obtenerConStock(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), null, null));
         mockMvc.perform(get("/api/productos/con-stock"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
@@ -333,7 +465,8 @@ public class ProductoControllerTest {
     public void testObtenerPorCategoria_CategoriaConEspacios() throws Exception {
         // Given
         List<Producto> productos = Arrays.asList(producto2);
-        when(productoService.obtenerPorCategoria("Telefonía")).thenReturn(productos);
+        when(productoService.obtenerPorCategoria(eq("Telefonía"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(productos, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/productos/categoria/Telefonía")
@@ -341,7 +474,7 @@ public class ProductoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].categoria").value("Telefonía"));
 
-        verify(productoService, times(1)).obtenerPorCategoria("Telefonía");
+        verify(productoService, times(1)).obtenerPorCategoria(eq("Telefonía"), any(PaginaRequest.class));
     }
 
     @Test
@@ -371,4 +504,212 @@ public class ProductoControllerTest {
 
         verify(productoService, times(1)).crear(any(Producto.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testObtenerCambios() throws Exception {
+        // Given
+        when(productoService.obtenerCambios(10L, 100))
+                .thenReturn(new CambiosProductos(List.of(producto1), List.of(7L), 15L, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/changes?since=10&limite=100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos[0].id").value(1))
+                .andExpect(jsonPath("$.eliminados[0]").value(7))
+                .andExpect(jsonPath("$.hasta").value(15))
+                .andExpect(jsonPath("$.hayMas").value(false));
+    }
+
+    @Test
+    public void testObtenerCambios_SinSecuenciaEmpiezaDesdeCero() throws Exception {
+        // Given
+        when(productoService.obtenerCambios(0L, null))
+                .thenReturn(new CambiosProductos(List.of(), List.of(), 0L, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasta").value(0));
+    }
+
+    @Test
+    public void testObtenerVarios() throws Exception {
+        // Given
+        when(productoService.obtenerVarios(List.of(2L, 99L, 1L)))
+                .thenReturn(new Lote<>(List.of(producto2, producto1), List.of(99L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos?ids=2,99,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.encontrados.length()").value(2))
+                .andExpect(jsonPath("$.encontrados[0].id").value(2))
+                .andExpect(jsonPath("$.encontrados[1].id").value(1))
+                .andExpect(jsonPath("$.faltantes[0]").value(99));
+
+        verify(productoService, never()).obtenerTodos(any(PaginaRequest.class));
+    }
+
+    @Test
+    public void testObtenerVarios_IdNoNumerico() throws Exception {
+        mockMvc.perform(get("/api/productos?ids=1,abc"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productoService);
+    }
+
+    private MockMvc mockMvcConCampos() {
+        return MockMvcBuilders.standaloneSetup(productoController)
+                .setControllerAdvice(new CamposAdvice(Jackson2ObjectMapperBuilder.json().build()))
+                .build();
+    }
+
+    @Test
+    public void testObtenerTodos_ConCampos() throws Exception {
+        // Given
+        when(productoService.obtenerTodos(any(PaginaRequest.class), eq("nombre,precio")))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1, producto2), null, null));
+
+        // When & Then
+        mockMvcConCampos().perform(get("/api/productos?fields=nombre,precio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].nombre").value("Laptop Gaming"))
+                .andExpect(jsonPath("$[0].precio").value(1299.99))
+                .andExpect(jsonPath("$[0].descripcion").doesNotExist())
+                .andExpect(jsonPath("$[0].stock").doesNotExist());
+
+        verify(productoService, never()).obtenerTodos(any(PaginaRequest.class));
+    }
+
+    @Test
+    public void testObtenerPorId_ConCampos() throws Exception {
+        // Given
+        when(productoService.obtenerPorId(1L, "stock")).thenReturn(Optional.of(producto1));
+
+        // When & Then
+        mockMvcConCampos().perform(get("/api/productos/1?fields=stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.stock").value(10))
+                .andExpect(jsonPath("$.nombre").doesNotExist());
+    }
+
+    @Test
+    public void testObtenerPorId_EtagPorProyeccion() throws Exception {
+        // Given
+        producto1.setVersion(3L);
+        when(productoService.obtenerVersion(1L)).thenReturn(Optional.of(new VersionFila(1L, 3L, null)));
+        when(productoService.obtenerPorId(1L, "precio,nombre")).thenReturn(Optional.of(producto1));
+
+        // When & Then
+        mockMvcConCampos().perform(get("/api/productos/1?fields=precio,nombre").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3;id,nombre,precio\""));
+        mockMvcConCampos().perform(get("/api/productos/1?fields=nombre,id,precio")
+                .header("If-None-Match", "\"1-3;id,nombre,precio\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testObtenerTodos_SinCamposDevuelveTodo() throws Exception {
+        // Given
+        when(productoService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), null, null));
+
+        // When & Then
+        mockMvcConCampos().perform(get("/api/productos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].descripcion").value("Laptop para gaming de alta gama"));
+    }
+
+    @Test
+    public void testBuscar() throws Exception {
+        // Given
+        when(productoService.buscar(eq("laptop"), any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), "siguiente", null));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/buscar?q=laptop&limite=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Laptop Gaming"))
+                .andExpect(header().string("X-Next-Cursor", "siguiente"));
+    }
+
+    @Test
+    public void testSugerir() throws Exception {
+        // Given
+        when(productoService.sugerir("lap", 5))
+                .thenReturn(List.of(new SugerenciaResponse(1L, "Laptop Gaming", true)));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/sugerencias?prefijo=lap&limite=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].nombre").value("Laptop Gaming"))
+                .andExpect(jsonPath("$[0].disponible").value(true));
+    }
+
+    @Test
+    public void testExplorar() throws Exception {
+        // Given
+        when(productoService.explorar(eq(new ExplorarRequest(List.of("Audio", "Video"), true, null)),
+                any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), "siguiente", 7L));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/explorar?categoria=Audio&categoria=Video&conStock=true&total=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Laptop Gaming"))
+                .andExpect(header().string("X-Next-Cursor", "siguiente"))
+                .andExpect(header().string("X-Total-Count", "7"));
+    }
+
+    @Test
+    public void testObtenerFacetas() throws Exception {
+        // Given
+        when(productoService.obtenerFacetas(new ExplorarRequest(null, null, List.of("0-50"))))
+                .thenReturn(new FacetasResponse(2, 1, Map.of("audio", 2L), Map.of("0-50", 2L)));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/explorar/facetas?precio=0-50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.conStock").value(1))
+                .andExpect(jsonPath("$.categorias.audio").value(2))
+                .andExpect(jsonPath("$.precios['0-50']").value(2));
+    }
+
+    @Test
+    public void testObtenerFacetasTramoInvalido() throws Exception {
+        // Given
+        when(productoService.obtenerFacetas(any(ExplorarRequest.class)))
+                .thenThrow(new FiltroInvalidoException("Tramo de precio desconocido: 1-2"));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/explorar/facetas?precio=1-2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testObtenerPorPrecio() throws Exception {
+        // Given
+        when(productoService.obtenerPorPrecio(eq(new BigDecimal("100")), eq(new BigDecimal("2000")), eq(true),
+                any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(producto1), "siguiente", null));
+
+        // When & Then
+        mockMvc.perform(get("/api/productos/por-precio?minimo=100&maximo=2000&orden=desc&limite=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Laptop Gaming"))
+                .andExpect(header().string("X-Next-Cursor", "siguiente"));
+    }
+
+    @Test
+    public void testObtenerPorPrecioOrdenInvalido() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/productos/por-precio?orden=precio"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productoService);
+    }
+}
@@ -29,6 +29,8 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.service.Pagina;
 import com.tienda.electronica.service.UsuarioService;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -71,7 +73,8 @@ public class UsuarioControllerTest {
     public void testObtenerTodos() throws Exception {
         // Given
         List<Usuario> usuarios = Arrays.asList(usuario1, usuario2);
-        when(usuarioService.obtenerTodos()).thenReturn(usuarios);
+        when(usuarioService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(usuarios, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/usuarios")
@@ -83,7 +86,7 @@ public class UsuarioControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].nombre").value("María García"));
 
-        verify(usuarioService, times(1)).obtenerTodos();
+        verify(usuarioService, times(1)).obtenerTodos(any(PaginaRequest.class));
     }
 
     @Test
@@ -168,7 +171,8 @@ public class UsuarioControllerTest {
     public void testObtenerActivos() throws Exception {
         // Given
         List<Usuario> usuariosActivos = Arrays.asList(usuario1, usuario2);
-        when(usuarioService.obtenerActivos()).thenReturn(usuariosActivos);
+        when(usuarioService.obtenerActivos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(usuariosActivos, null, null));
 
         // When & Then
         mockMvc.perform(get("/api/usuarios/activos")
@@ -178,7 +182,7 @@ public class UsuarioControllerTest {
                 .andExpect(jsonPath("$[0].activo").value(true))
                 .andExpect(jsonPath("$[1].activo").value(true));
 
-        verify(usuarioService, times(1)).obtenerActivos();
+        verify(usuarioService, times(1)).obtenerActivos(any(PaginaRequest.class));
     }
 
     @Test
@@ -247,7 +251,8 @@ public class UsuarioControllerTest {
     @Test
     public void testEndpoints_ContentType() throws Exception {
         // Test para verificar que todos los endpoints retornan JSON
-        when(usuarioService.obtenerTodos()).thenReturn(Arrays.asList(usuario1));
+        when(usuarioService.obtenerTodos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(usuario1), null, null));
 
         mockMvc.perform(get("/api/usuarios"))
                 .andExpect(status().isOk())
@@ -258,7 +263,8 @@ public class UsuarioControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
-        when(usuarioService.obtenerActivos()).thenReturn(Arrays.asList(usuario1));
+        when(usuarioService.obtenerActivos(any(PaginaRequest.class)))
+                .thenReturn(new Pagina<>(Arrays.asList(usuario1), null, null));
         mockMvc.perform(get("/api/usuarios/activos"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
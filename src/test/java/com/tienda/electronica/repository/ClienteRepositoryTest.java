@@ -10,12 +10,15 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Cliente;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@Import(CacheConfig.class)
 public class ClienteRepositoryTest {
 
         @Autowired
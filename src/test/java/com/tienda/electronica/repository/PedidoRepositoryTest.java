@@ -1,21 +1,29 @@
 package com.tienda.electronica.repository;
 
 import static org.junit.Assert.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Cliente;
+import com.tienda.electronica.entity.DetallePedido;
 import com.tienda.electronica.entity.Pedido;
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.response.PedidoResumenResponse;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@Import(CacheConfig.class)
 public class PedidoRepositoryTest {
 
     @Autowired
@@ -69,50 +77,82 @@ public class PedidoRepositoryTest {
     }
 
     @Test
-    public void testFindByClienteIdOrderByFechaPedidoDesc() {
-        List<Pedido> pedidos = pedidoRepository.findByClienteIdOrderByFechaPedidoDesc(cliente.getId());
-        assertEquals(2, pedidos.size());
-        assertTrue(pedidos.get(0).getFechaPedido().isAfter(pedidos.get(1).getFechaPedido()));
+    public void testFindResumenesPorCliente_ContinuaDesdeLaUltimaFila() {
+        Pedido pedido3 = new Pedido();
+        pedido3.setEstado(Pedido.EstadoPedido.PENDIENTE);
+        pedido3.setFechaPedido(pedido2.getFechaPedido());
+        pedido3.setNumeroSeguimiento("MISMAFECHA");
+        pedido3.setCliente(cliente);
+        pedido3 = entityManager.persistAndFlush(pedido3);
+
+        List<PedidoResumenResponse> primera = pedidoRepository.findResumenesPorCliente(cliente.getId(),
+                LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE, Limit.of(2));
+        assertEquals(List.of(pedido3.getId(), pedido2.getId()),
+                primera.stream().map(PedidoResumenResponse::id).toList());
+        assertEquals(cliente.getEmail(), primera.get(0).cliente().email());
+
+        // Misma fecha que la última fila: el id desempata sin saltarse ni repetir pedidos
+        PedidoResumenResponse ultima = primera.get(1);
+        List<PedidoResumenResponse> segunda = pedidoRepository.findResumenesPorCliente(cliente.getId(),
+                ultima.fechaPedido(), ultima.id(), Limit.of(2));
+        assertEquals(List.of(pedido1.getId()), segunda.stream().map(PedidoResumenResponse::id).toList());
     }
 
     @Test
-    public void testFindByEstado() {
-        List<Pedido> pendientes = pedidoRepository.findByEstado(Pedido.EstadoPedido.PENDIENTE);
+    public void testFindResumenesPorEstado() {
+        List<PedidoResumenResponse> pendientes = pedidoRepository.findResumenesPorEstado(
+                Pedido.EstadoPedido.PENDIENTE, Long.MAX_VALUE, Limit.of(10));
         assertEquals(1, pendientes.size());
-        assertEquals(Pedido.EstadoPedido.PENDIENTE, pendientes.get(0).getEstado());
+        assertEquals(pedido1.getId(), pendientes.get(0).id());
+        assertEquals(Pedido.EstadoPedido.PENDIENTE, pendientes.get(0).estado());
     }
 
     @Test
-    public void testFindByMetodoPago() {
-        List<Pedido> pagosTarjeta = pedidoRepository.findByMetodoPago(Pedido.MetodoPago.TARJETA_DEBITO);
-        assertEquals(1, pagosTarjeta.size());
-        assertEquals(Pedido.MetodoPago.TARJETA_DEBITO, pagosTarjeta.get(0).getMetodoPago());
-    }
-
-    @Test
-    public void testFindByFechaPedidoBetween() {
-        LocalDateTime inicio = LocalDateTime.now().minusDays(2);
-        LocalDateTime fin = LocalDateTime.now().plusDays(1); // Incluir margen para evitar problemas de tiempo
-        List<Pedido> pedidos = pedidoRepository.findByFechaPedidoBetween(inicio, fin);
-        assertEquals(2, pedidos.size());
+    public void testFindResumenesPorCliente_ClienteNoExiste() {
+        List<PedidoResumenResponse> pedidos = pedidoRepository.findResumenesPorCliente(999L,
+                LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE, Limit.of(10));
+        assertTrue(pedidos.isEmpty());
     }
 
     @Test
-    public void testFindByNumeroSeguimiento() {
-        List<Pedido> resultado = pedidoRepository.findByNumeroSeguimiento("ABC123");
-        assertEquals(1, resultado.size());
-        assertEquals("ABC123", resultado.get(0).getNumeroSeguimiento());
+    public void testFindResumenesPorEstado_NoExiste() {
+        List<PedidoResumenResponse> cancelados = pedidoRepository.findResumenesPorEstado(
+                Pedido.EstadoPedido.CANCELADO, Long.MAX_VALUE, Limit.of(10));
+        assertTrue(cancelados.isEmpty());
     }
 
     @Test
-    public void testFindByClienteIdOrderByFechaPedidoDesc_ClienteNoExiste() {
-        List<Pedido> pedidos = pedidoRepository.findByClienteIdOrderByFechaPedidoDesc(999L);
-        assertTrue(pedidos.isEmpty());
+    public void testFindVentasPorProducto_SinPedidosCancelados() {
+        Producto producto = new Producto();
+        producto.setNombre("Laptop Gaming");
+        producto.setDescripcion("Laptop para gaming de alta gama");
+        producto.setPrecio(new BigDecimal("1299.99"));
+        producto.setStock(10);
+        producto.setCategoria("Computadoras");
+        producto = entityManager.persistAndFlush(producto);
+
+        Pedido cancelado = new Pedido();
+        cancelado.setEstado(Pedido.EstadoPedido.CANCELADO);
+        cancelado.setFechaPedido(LocalDateTime.now());
+        cancelado.setNumeroSeguimiento("CANCEL1");
+        cancelado.setCliente(cliente);
+        cancelado = entityManager.persistAndFlush(cancelado);
+
+        linea(pedido1, producto, 2);
+        linea(pedido2, producto, 3);
+        linea(cancelado, producto, 5);
+
+        List<VentasProducto> ventas = pedidoRepository.findVentasPorProducto();
+        assertEquals(List.of(new VentasProducto(producto.getId(), 5L)), ventas);
     }
 
-    @Test
-    public void testFindByEstado_NoExiste() {
-        List<Pedido> cancelados = pedidoRepository.findByEstado(Pedido.EstadoPedido.CANCELADO);
-        assertTrue(cancelados.isEmpty());
+    private void linea(Pedido pedido, Producto producto, int cantidad) {
+        entityManager.persistAndFlush(DetallePedido.builder()
+                .pedido(pedido)
+                .producto(producto)
+                .cantidad(cantidad)
+                .precioUnitario(producto.getPrecio())
+                .subtotal(producto.getPrecio().multiply(BigDecimal.valueOf(cantidad)))
+                .build());
     }
-}
\ No newline at end of file
+}
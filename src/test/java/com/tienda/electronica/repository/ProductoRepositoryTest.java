@@ -11,12 +11,16 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Producto;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@Import(CacheConfig.class)
 public class ProductoRepositoryTest {
 
     @Autowired
@@ -255,4 +259,65 @@ public class ProductoRepositoryTest {
         // Then
         assertEquals("Debe ser la laptop gaming", "Laptop Gaming", resultado.get(0).getNombre());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindVersionById_SubeConCadaActualizacion() {
+        // Given
+        VersionFila inicial = productoRepository.findVersionById(producto1.getId()).orElseThrow();
+
+        // When
+        producto1.setStock(5);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        VersionFila actualizada = productoRepository.findVersionById(producto1.getId()).orElseThrow();
+        assertEquals(Long.valueOf(0), inicial.version());
+        assertEquals(Long.valueOf(1), actualizada.version());
+        assertNotNull(actualizada.fechaActualizacion());
+        assertFalse(actualizada.fechaActualizacion().isBefore(inicial.fechaActualizacion()));
+    }
+
+    @Test
+    public void testFindVersionById_NoExiste() {
+        assertTrue(productoRepository.findVersionById(999L).isEmpty());
+    }
+
+    @Test
+    public void testFindPorPrecioAsc_RangoYDesempatePorId() {
+        // Given
+        Producto mismoPrecio = entityManager.persist(Producto.builder()
+                .nombre("Tablet 8 pulgadas")
+                .precio(new BigDecimal("299.99"))
+                .stock(3)
+                .categoria("Tablets")
+                .build());
+        entityManager.flush();
+        BigDecimal minimo = new BigDecimal("200.00");
+        BigDecimal maximo = new BigDecimal("1000.00");
+
+        // When
+        List<Producto> primera = productoRepository.findPorPrecioAsc(minimo, maximo,
+                BigDecimal.valueOf(Long.MIN_VALUE, 2), Long.MIN_VALUE, Limit.of(2));
+        Producto ultimo = primera.get(1);
+        List<Producto> segunda = productoRepository.findPorPrecioAsc(minimo, maximo,
+                ultimo.getPrecio(), ultimo.getId(), Limit.of(2));
+
+        // Then
+        assertEquals(List.of(producto3.getId(), mismoPrecio.getId()), primera.stream().map(Producto::getId).toList());
+        assertEquals(List.of(producto2.getId()), segunda.stream().map(Producto::getId).toList());
+        assertEquals(3, productoRepository.countByPrecioBetween(minimo, maximo));
+    }
+
+    @Test
+    public void testFindPorPrecioDesc_SinLimites() {
+        // When
+        List<Producto> resultado = productoRepository.findPorPrecioDesc(BigDecimal.valueOf(Long.MIN_VALUE, 2),
+                BigDecimal.valueOf(Long.MAX_VALUE, 2), BigDecimal.valueOf(Long.MAX_VALUE, 2), Long.MAX_VALUE,
+                Limit.of(10));
+
+        // Then
+        assertEquals(List.of(producto1.getId(), producto2.getId(), producto3.getId(), producto4.getId()),
+                resultado.stream().map(Producto::getId).toList());
+    }
+}
@@ -0,0 +1,102 @@
+package com.tienda.electronica.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.tienda.electronica.config.CacheConfig;
+import com.tienda.electronica.entity.RefreshToken;
+import com.tienda.electronica.entity.Usuario;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(CacheConfig.class)
+public class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private Usuario usuario;
+    private RefreshToken sesion;
+
+    @Before
+    public void setUp() {
+        usuario = new Usuario();
+        usuario.setNombre("Juan Pérez");
+        usuario.setEmail("juan.perez@example.com");
+        usuario.setTelefono("123456789");
+        usuario.setActivo(true);
+        usuario.setPassword("password123");
+        usuario = entityManager.persist(usuario);
+
+        sesion = entityManager.persist(RefreshToken.builder()
+                .tokenHash("hash-1")
+                .usuario(usuario)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testRotar_MueveElHashVigenteAlAnterior() {
+        // When
+        int filas = refreshTokenRepository.rotar(sesion.getId(), "hash-1", "hash-2", Instant.now());
+
+        // Then
+        assertEquals(1, filas);
+        RefreshToken rotada = refreshTokenRepository.findById(sesion.getId()).orElseThrow();
+        assertEquals("hash-2", rotada.getTokenHash());
+        assertEquals("hash-1", rotada.getPreviousHash());
+        assertEquals(sesion.getId(), refreshTokenRepository.findVigenteOAnterior("hash-1").orElseThrow().getId());
+        assertEquals(sesion.getId(), refreshTokenRepository.findVigenteOAnterior("hash-2").orElseThrow().getId());
+    }
+
+    @Test
+    public void testRotar_SoloUnaRotacionGanaConElMismoHash() {
+        // When
+        int primera = refreshTokenRepository.rotar(sesion.getId(), "hash-1", "hash-2", Instant.now());
+        int segunda = refreshTokenRepository.rotar(sesion.getId(), "hash-1", "hash-3", Instant.now());
+
+        // Then
+        assertEquals(1, primera);
+        assertEquals(0, segunda);
+        assertEquals("hash-2", refreshTokenRepository.findById(sesion.getId()).orElseThrow().getTokenHash());
+    }
+
+    @Test
+    public void testRotar_NoRotaSesionesRevocadasNiExpiradas() {
+        // Given
+        refreshTokenRepository.revokeAllByUsuarioId(usuario.getId());
+
+        // When - Then
+        assertEquals(0, refreshTokenRepository.rotar(sesion.getId(), "hash-1", "hash-2", Instant.now()));
+        assertTrue(refreshTokenRepository.findById(sesion.getId()).orElseThrow().isRevoked());
+
+        RefreshToken expirada = entityManager.persist(RefreshToken.builder()
+                .tokenHash("hash-expirado")
+                .usuario(entityManager.find(Usuario.class, usuario.getId()))
+                .expiresAt(Instant.now().minusSeconds(60))
+                .build());
+        assertEquals(0, refreshTokenRepository.rotar(expirada.getId(), "hash-expirado", "hash-4", Instant.now()));
+    }
+
+    @Test
+    public void testFindVigenteOAnterior_HashDesconocido() {
+        assertFalse(refreshTokenRepository.findVigenteOAnterior("otro").isPresent());
+    }
+}
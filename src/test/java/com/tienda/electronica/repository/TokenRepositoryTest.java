@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,14 +14,19 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.tienda.electronica.config.CacheConfig;
 import com.tienda.electronica.entity.Token;
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.security.TokenHasher;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@Import(CacheConfig.class)
 public class TokenRepositoryTest {
 
     @Autowired
@@ -118,19 +124,7 @@ public class TokenRepositoryTest {
     }
 
     @Test
-    public void testFindAllValidIsFalseOrRevokedIsFalseByUsuarioId_SinTokensValidos() {
-        // When
-        List<Token> resultado = tokenRepository.findAllValidIsFalseOrRevokedIsFalseByUsuarioId(usuario2.getId());
-
-        // Then
-        assertEquals("Debe encontrar 1 token válido para el usuario 2", 1, resultado.size());
-        assertTrue("Debe ser un token válido",
-                !resultado.get(0).isExpired() && !resultado.get(0).isRevoked());
-        assertEquals("Debe ser el token del otro usuario", "token-otro-usuario", resultado.get(0).getToken());
-    }
-
-    @Test
-    public void testFindAllValidIsFalseOrRevokedIsFalseByUsuarioId_UsuarioSinTokens() {
+    public void testRevokeAllByUsuarioId_UsuarioSinTokens() {
         // Given - Crear usuario sin tokens
         Usuario usuarioSinTokens = new Usuario();
         usuarioSinTokens.setNombre("Usuario Sin Tokens");
@@ -142,20 +136,19 @@ public class TokenRepositoryTest {
         usuarioSinTokens = entityManager.persistAndFlush(usuarioSinTokens);
 
         // When
-        List<Token> resultado = tokenRepository
-                .findAllValidIsFalseOrRevokedIsFalseByUsuarioId(usuarioSinTokens.getId());
+        int actualizados = tokenRepository.revokeAllByUsuarioId(usuarioSinTokens.getId());
 
         // Then
-        assertTrue("La lista debe estar vacía para usuario sin tokens", resultado.isEmpty());
+        assertEquals("No hay tokens que revocar para usuario sin tokens", 0, actualizados);
     }
 
     @Test
-    public void testFindAllValidIsFalseOrRevokedIsFalseByUsuarioId_UsuarioNoExiste() {
+    public void testRevokeAllByUsuarioId_UsuarioNoExiste() {
         // When
-        List<Token> resultado = tokenRepository.findAllValidIsFalseOrRevokedIsFalseByUsuarioId(999L);
+        int actualizados = tokenRepository.revokeAllByUsuarioId(999L);
 
         // Then
-        assertTrue("La lista debe estar vacía para usuario que no existe", resultado.isEmpty());
+        assertEquals("No hay tokens que revocar para usuario que no existe", 0, actualizados);
     }
 
     @Test
@@ -284,4 +277,56 @@ public class TokenRepositoryTest {
         assertNotNull("Debe tener usuario", token.getUsuario());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testFindByTokenHash_HashCalculadoAlPersistir() {
+        // When
+        Optional<Token> resultado = tokenRepository.findByTokenHash(TokenHasher.hash("token-valido-1"));
+
+        // Then
+        assertTrue("Debe encontrar el token por su hash", resultado.isPresent());
+        assertEquals("token-valido-1", resultado.get().getToken());
+        assertEquals("El hash debe tener ancho fijo", 43, resultado.get().getTokenHash().length());
+    }
+
+    @Test
+    public void testRevokeAllByUsuarioId_ActualizaSoloLosTokensPendientes() {
+        // When
+        int actualizados = tokenRepository.revokeAllByUsuarioId(usuario1.getId());
+
+        // Then
+        assertEquals("Solo se actualizan los tokens no revocados o no expirados", 4, actualizados);
+        List<Token> tokensUsuario1 = tokenRepository.findAll().stream()
+                .filter(t -> t.getUsuario().getId().equals(usuario1.getId()))
+                .toList();
+        assertTrue(tokensUsuario1.stream().allMatch(t -> t.isRevoked() && t.isExpired()));
+        Token otro = tokenRepository.findByToken("token-otro-usuario").orElseThrow();
+        assertFalse("Los tokens de otros usuarios no se tocan", otro.isRevoked());
+    }
+
+    @Test
+    public void testFindIdsExpiradosAntesDe_RespetaLimiteYLote() {
+        // Given
+        Instant ahora = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            Token viejo = new Token();
+            viejo.setToken("token-viejo-" + i);
+            viejo.setUsuario(usuario2);
+            viejo.setExpiresAt(ahora.minusSeconds(3600));
+            entityManager.persist(viejo);
+        }
+        Token reciente = new Token();
+        reciente.setToken("token-reciente");
+        reciente.setUsuario(usuario2);
+        reciente.setExpiresAt(ahora.plusSeconds(3600));
+        entityManager.persistAndFlush(reciente);
+
+        // When
+        List<Long> primerLote = tokenRepository.findIdsExpiradosAntesDe(ahora, Limit.of(2));
+        List<Long> todos = tokenRepository.findIdsExpiradosAntesDe(ahora, Limit.of(10));
+
+        // Then
+        assertEquals(2, primerLote.size());
+        assertEquals("Solo los tokens expirados antes del límite", 3, todos.size());
+    }
+}
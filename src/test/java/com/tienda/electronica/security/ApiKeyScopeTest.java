@@ -0,0 +1,34 @@
+package com.tienda.electronica.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class ApiKeyScopeTest {
+
+    @Test
+    public void testRequerido_LecturaYEscrituraPorRecurso() {
+        assertEquals(Optional.of(ApiKeyScope.PRODUCTOS_READ), ApiKeyScope.requerido("GET", "/api/productos"));
+        assertEquals(Optional.of(ApiKeyScope.PRODUCTOS_READ), ApiKeyScope.requerido("HEAD", "/api/productos/1"));
+        assertEquals(Optional.of(ApiKeyScope.PRODUCTOS_WRITE), ApiKeyScope.requerido("PUT", "/api/productos/1"));
+        assertEquals(Optional.of(ApiKeyScope.PEDIDOS_READ), ApiKeyScope.requerido("GET", "/api/pedidos/cliente/3"));
+        assertEquals(Optional.of(ApiKeyScope.PEDIDOS_WRITE), ApiKeyScope.requerido("POST", "/api/pedidos"));
+    }
+
+    @Test
+    public void testRequerido_RutasFueraDeAlcance() {
+        assertFalse(ApiKeyScope.requerido("GET", "/api/usuarios").isPresent());
+        assertFalse(ApiKeyScope.requerido("POST", "/api/api-keys").isPresent());
+        assertFalse("No basta con compartir el prefijo", ApiKeyScope.requerido("GET", "/api/productosx").isPresent());
+        assertFalse(ApiKeyScope.requerido("GET", null).isPresent());
+    }
+
+    @Test
+    public void testDesdeValor() {
+        assertEquals(Optional.of(ApiKeyScope.PEDIDOS_WRITE), ApiKeyScope.desdeValor("pedidos:write"));
+        assertFalse(ApiKeyScope.desdeValor("admin").isPresent());
+    }
+}
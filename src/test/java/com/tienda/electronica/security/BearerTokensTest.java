@@ -0,0 +1,25 @@
+package com.tienda.electronica.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BearerTokensTest {
+
+    @Test
+    public void testExtract_TokenValido() {
+        assertEquals("abc.def.ghi", BearerTokens.extract("Bearer abc.def.ghi"));
+        assertEquals("El esquema no distingue mayúsculas", "abc", BearerTokens.extract("bearer abc"));
+        assertEquals("abc", BearerTokens.extract("Bearer   abc  "));
+    }
+
+    @Test
+    public void testExtract_CabeceraInvalida() {
+        assertNull(BearerTokens.extract(null));
+        assertNull(BearerTokens.extract("Bearer"));
+        assertNull(BearerTokens.extract("Bearer    "));
+        assertNull(BearerTokens.extract("Basic dXNlcjpwYXNz"));
+        assertNull(BearerTokens.extract("InvalidHeader"));
+    }
+}
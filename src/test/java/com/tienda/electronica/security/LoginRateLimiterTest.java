@@ -0,0 +1,124 @@
+package com.tienda.electronica.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tienda.electronica.security.LoginRateLimiter.Limite;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong reloj;
+    private LoginRateLimiter loginRateLimiter;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reloj = new AtomicLong(1_000_000L);
+        loginRateLimiter = new LoginRateLimiter(meterRegistry, reloj::get,
+                Limite.porMinuto(2, 60),
+                Limite.porMinuto(5, 60),
+                Limite.porMinuto(1, 60),
+                4, 1000);
+    }
+
+    private double intentos(String endpoint, String resultado) {
+        return meterRegistry.counter("auth.rate-limit.requests", "endpoint", endpoint, "result", resultado).count();
+    }
+
+    @Test
+    public void testIntentarLogin_RechazaAlAgotarElCupoDelEmail() {
+        // When
+        long primero = loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.1");
+        long segundo = loginRateLimiter.intentarLogin("JUAN.PEREZ@example.com", "10.0.0.2");
+        long tercero = loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.3");
+
+        // Then
+        assertEquals(0, primero);
+        assertEquals("El email no distingue mayúsculas", 0, segundo);
+        assertTrue("Debe indicar cuánto esperar", tercero > 0 && tercero <= 1000);
+        assertEquals(2.0, intentos("login", "admitted"), 0.0);
+        assertEquals(1.0, intentos("login", "rejected"), 0.0);
+    }
+
+    @Test
+    public void testIntentarLogin_RechazaAlAgotarElCupoDeLaIp() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, loginRateLimiter.intentarLogin("usuario" + i + "@example.com", "10.0.0.1"));
+        }
+
+        // When - Then
+        assertTrue(loginRateLimiter.intentarLogin("otro@example.com", "10.0.0.1") > 0);
+        assertEquals("Otra IP no se ve afectada", 0, loginRateLimiter.intentarLogin("otro@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    public void testIntentarLogin_EmailRechazadoNoConsumeCupoDeIp() {
+        // Given - el email agota su cupo desde la misma IP
+        loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.1");
+        loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.1");
+        for (int i = 0; i < 5; i++) {
+            loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.1");
+        }
+
+        // When - Then: a la IP le quedan 3 de 5 intentos
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, loginRateLimiter.intentarLogin("usuario" + i + "@example.com", "10.0.0.1"));
+        }
+        assertTrue(loginRateLimiter.intentarLogin("ultimo@example.com", "10.0.0.1") > 0);
+    }
+
+    @Test
+    public void testIntentarRefresh_RecargaConElTiempo() {
+        // Given
+        assertEquals(0, loginRateLimiter.intentarRefresh("10.0.0.1"));
+        long espera = loginRateLimiter.intentarRefresh("10.0.0.1");
+        assertTrue(espera > 0);
+
+        // When
+        reloj.addAndGet(espera);
+
+        // Then
+        assertEquals(0, loginRateLimiter.intentarRefresh("10.0.0.1"));
+        assertEquals(2.0, intentos("refresh", "admitted"), 0.0);
+        assertEquals(1.0, intentos("refresh", "rejected"), 0.0);
+    }
+
+    @Test
+    public void testDescartarInactivos_EliminaBucketsLlenos() {
+        // Given
+        loginRateLimiter.intentarLogin("juan.perez@example.com", "10.0.0.1");
+        loginRateLimiter.intentarRefresh("10.0.0.1");
+        assertEquals(3, loginRateLimiter.entradas());
+
+        // When
+        reloj.addAndGet(60_000L);
+        loginRateLimiter.descartarInactivos();
+
+        // Then
+        assertEquals(0, loginRateLimiter.entradas());
+    }
+
+    @Test
+    public void testEntradasAcotadas() {
+        // Given
+        LoginRateLimiter acotado = new LoginRateLimiter(meterRegistry, reloj::get,
+                Limite.porMinuto(2, 60), Limite.porMinuto(5, 60), Limite.porMinuto(1, 60), 2, 10);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            acotado.intentarRefresh("10.0.0." + i);
+        }
+
+        // Then
+        assertTrue("Cada franja mantiene como máximo su parte", acotado.entradas() <= 10);
+    }
+}
@@ -0,0 +1,47 @@
+package com.tienda.electronica.security;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.util.AntPathMatcher;
+
+public class PublicRoutesTest {
+
+    private static final String[] RUTAS = {
+            "/", "/api/auth/login", "/api/auth/logout", "/api/auth", "/api-docs", "/api-docs/swagger-config",
+            "/swagger-ui.html", "/swagger-ui/index.html", "/swagger-resources", "/api/productos",
+            "/api/productos/1", "/api/authx", "/swagger-ui.htmlx", "/api-docsx", "", "/h2-console"
+    };
+
+    @Test
+    public void testMatches_RutasPublicas() {
+        assertTrue(PublicRoutes.matches("/"));
+        assertTrue(PublicRoutes.matches("/api/auth/login"));
+        assertTrue(PublicRoutes.matches("/swagger-ui/index.html"));
+        assertTrue(PublicRoutes.matches("/api-docs"));
+    }
+
+    @Test
+    public void testMatches_RutasProtegidas() {
+        assertFalse(PublicRoutes.matches("/api/productos"));
+        assertFalse(PublicRoutes.matches("/api/authx"));
+        assertFalse(PublicRoutes.matches(null));
+    }
+
+    @Test
+    public void testMatches_CoincideConLosPatronesDeSpring() {
+        AntPathMatcher matcher = new AntPathMatcher();
+        for (String ruta : RUTAS) {
+            boolean esperado = false;
+            for (String patron : PublicRoutes.PATTERNS) {
+                esperado |= matcher.match(patron, ruta);
+            }
+            if (esperado) {
+                assertTrue("Debe ser pública: " + ruta, PublicRoutes.matches(ruta));
+            } else {
+                assertFalse("Debe ser protegida: " + ruta, PublicRoutes.matches(ruta));
+            }
+        }
+    }
+}
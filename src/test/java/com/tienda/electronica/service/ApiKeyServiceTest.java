@@ -0,0 +1,256 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Limit;
+
+import com.tienda.electronica.entity.ApiKey;
+import com.tienda.electronica.repository.ApiKeyRepository;
+import com.tienda.electronica.request.ApiKeyRequest;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.security.TokenHasher;
+import com.tienda.electronica.service.ApiKeyService.Resultado;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiKeyServiceTest {
+    private static final Long USUARIO = 7L;
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong reloj;
+    private ApiKeyService apiKeyService;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reloj = new AtomicLong(1_700_000_000_000L);
+        apiKeyService = new ApiKeyService(apiKeyRepository, new Paginacion(50, 200, Duration.ofMinutes(1)),
+                meterRegistry, reloj::get, Duration.ofSeconds(30), 600, 1000, 3);
+        lenient().when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(invocation -> {
+            ApiKey apiKey = invocation.getArgument(0);
+            if (apiKey.getId() == null) {
+                apiKey.setId(1L);
+            }
+            return apiKey;
+        });
+    }
+
+    private String crear(String scopes, int porMinuto) {
+        return apiKeyService.crear(new ApiKeyRequest("batch", List.of(scopes.split(",")), porMinuto), USUARIO).clave();
+    }
+
+    private double solicitudes(String resultado) {
+        return meterRegistry.counter("auth.api-key.requests", "result", resultado).count();
+    }
+
+    @Test
+    public void testCrear_SoloGuardaPrefijoYHash() {
+        // When
+        ApiKeyService.ApiKeyCreada creada = apiKeyService.crear(
+                new ApiKeyRequest("batch", List.of("productos:read", "pedidos:read"), null), USUARIO);
+
+        // Then
+        ApiKey apiKey = creada.apiKey();
+        assertTrue(creada.clave().startsWith("ek_" + apiKey.getPrefix() + "."));
+        assertEquals(TokenHasher.hash(creada.clave()), apiKey.getKeyHash());
+        assertFalse(apiKey.getKeyHash().contains(creada.clave()));
+        assertEquals("productos:read,pedidos:read", apiKey.getScopes());
+        assertEquals("Cuota por defecto", 600, apiKey.getRequestsPerMinute());
+        assertEquals(USUARIO, apiKey.getUsuarioId());
+        assertNotEquals(creada.clave(), crear("productos:read", 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCrear_ScopeDesconocido() {
+        crear("usuarios:write", 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCrear_CuotaPorEncimaDelMaximo() {
+        crear("productos:read", Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testCrear_MaximoDeClavesPorUsuario() {
+        // Given
+        when(apiKeyRepository.countByUsuarioIdAndRevokedFalse(USUARIO)).thenReturn(3L);
+
+        // When
+        try {
+            crear("productos:read", 10);
+            fail("Debe rechazar la cuarta clave vigente");
+        } catch (IllegalArgumentException e) {
+            // Then
+            verify(apiKeyRepository, never()).save(any(ApiKey.class));
+        }
+    }
+
+    @Test
+    public void testListar_Paginado() {
+        // Given
+        ApiKey primera = ApiKey.builder().id(1L).build();
+        ApiKey segunda = ApiKey.builder().id(2L).build();
+        when(apiKeyRepository.findByUsuarioIdAndIdGreaterThanOrderByIdAsc(USUARIO, 0L, Limit.of(2)))
+                .thenReturn(List.of(primera, segunda));
+
+        // When
+        Pagina<ApiKey> pagina = apiKeyService.listar(USUARIO, new PaginaRequest(null, 1, null));
+
+        // Then
+        assertEquals(List.of(primera), pagina.elementos());
+        assertNotNull(pagina.siguienteCursor());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCrear_SinScopes() {
+        apiKeyService.crear(new ApiKeyRequest("batch", List.of(), 10), USUARIO);
+    }
+
+    @Test
+    public void testAutorizar_Admitida() {
+        // Given
+        String clave = crear("productos:read", 10);
+
+        // When
+        ApiKeyService.Autorizacion autorizacion = apiKeyService.autorizar(clave, "GET", "/api/productos/1");
+
+        // Then
+        assertEquals(Resultado.ADMITIDA, autorizacion.resultado());
+        assertEquals(1.0, solicitudes("admitted"), 0.0);
+    }
+
+    @Test
+    public void testAutorizar_ClaveManipuladaOMalFormada() {
+        // Given
+        String clave = crear("productos:read", 10);
+
+        // When - Then
+        assertEquals(Resultado.INVALIDA, apiKeyService.autorizar(clave + "x", "GET", "/api/productos").resultado());
+        assertEquals(Resultado.INVALIDA, apiKeyService.autorizar("ek_sinpunto", "GET", "/api/productos").resultado());
+        assertEquals(Resultado.INVALIDA, apiKeyService.autorizar("Bearer abc", "GET", "/api/productos").resultado());
+        assertEquals(3.0, solicitudes("invalid"), 0.0);
+    }
+
+    @Test
+    public void testAutorizar_SinScope() {
+        // Given
+        String clave = crear("productos:read", 10);
+
+        // When - Then
+        assertEquals(Resultado.SIN_PERMISO, apiKeyService.autorizar(clave, "POST", "/api/productos").resultado());
+        assertEquals(Resultado.SIN_PERMISO, apiKeyService.autorizar(clave, "GET", "/api/usuarios").resultado());
+    }
+
+    @Test
+    public void testAutorizar_CuotaPorMinuto() {
+        // Given
+        String clave = crear("pedidos:read", 2);
+        apiKeyService.autorizar(clave, "GET", "/api/pedidos");
+        apiKeyService.autorizar(clave, "GET", "/api/pedidos");
+
+        // When
+        ApiKeyService.Autorizacion agotada = apiKeyService.autorizar(clave, "GET", "/api/pedidos");
+
+        // Then
+        assertEquals(Resultado.SIN_CUOTA, agotada.resultado());
+        assertEquals(30_000L, agotada.esperaMilisegundos());
+
+        // When - se recarga un token
+        reloj.addAndGet(agotada.esperaMilisegundos());
+
+        // Then
+        assertEquals(Resultado.ADMITIDA, apiKeyService.autorizar(clave, "GET", "/api/pedidos").resultado());
+    }
+
+    @Test
+    public void testRevocar_SaleDelIndice() {
+        // Given
+        ApiKeyService.ApiKeyCreada creada = apiKeyService.crear(
+                new ApiKeyRequest("batch", List.of("productos:read"), 10), USUARIO);
+        when(apiKeyRepository.findByIdAndUsuarioId(1L, USUARIO)).thenReturn(Optional.of(creada.apiKey()));
+
+        // When
+        assertTrue(apiKeyService.revocar(1L, USUARIO));
+
+        // Then
+        assertTrue(creada.apiKey().isRevoked());
+        assertEquals(Resultado.INVALIDA, apiKeyService.autorizar(creada.clave(), "GET", "/api/productos").resultado());
+    }
+
+    @Test
+    public void testRevocar_NoExiste() {
+        when(apiKeyRepository.findByIdAndUsuarioId(9L, USUARIO)).thenReturn(Optional.empty());
+
+        assertFalse(apiKeyService.revocar(9L, USUARIO));
+        verify(apiKeyRepository, never()).save(any(ApiKey.class));
+    }
+
+    @Test
+    public void testRefrescar_AplicaSoloLosCambios() {
+        // Given - otro nodo creó una clave y revocó otra
+        String clave = "ek_prefijo.secreto";
+        ApiKey nueva = ApiKey.builder().id(2L).prefix("prefijo").keyHash(TokenHasher.hash(clave))
+                .nombre("nodo-b").scopes("productos:read").requestsPerMinute(10)
+                .updatedAt(Instant.ofEpochMilli(reloj.get())).build();
+        ApiKey local = apiKeyService.crear(new ApiKeyRequest("local", List.of("productos:read"), 10), USUARIO).apiKey();
+        String claveLocal = "ek_" + local.getPrefix() + ".x";
+        when(apiKeyRepository.findByRevokedFalse()).thenReturn(List.of());
+        apiKeyService.cargar();
+        ApiKey revocada = ApiKey.builder().id(local.getId()).prefix(local.getPrefix()).keyHash(local.getKeyHash())
+                .nombre("local").scopes("productos:read").requestsPerMinute(10).revoked(true).build();
+        when(apiKeyRepository.findByUpdatedAtAfter(Instant.ofEpochMilli(reloj.get()).minusSeconds(30)))
+                .thenReturn(List.of(nueva, revocada));
+
+        // When
+        apiKeyService.refrescar();
+
+        // Then
+        assertEquals(Resultado.ADMITIDA, apiKeyService.autorizar(clave, "GET", "/api/productos").resultado());
+        assertEquals(Resultado.INVALIDA, apiKeyService.autorizar(claveLocal, "GET", "/api/productos").resultado());
+        assertEquals(1.0, meterRegistry.get("auth.api-key.index.size").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void testRefrescar_FilaSinCambiosConservaLaCuota() {
+        // Given
+        String clave = "ek_prefijo.secreto";
+        ApiKey apiKey = ApiKey.builder().id(2L).prefix("prefijo").keyHash(TokenHasher.hash(clave))
+                .nombre("nodo-b").scopes("productos:read").requestsPerMinute(1)
+                .updatedAt(Instant.ofEpochMilli(reloj.get())).build();
+        when(apiKeyRepository.findByRevokedFalse()).thenReturn(List.of(apiKey));
+        apiKeyService.cargar();
+        apiKeyService.autorizar(clave, "GET", "/api/productos");
+        when(apiKeyRepository.findByUpdatedAtAfter(any(Instant.class))).thenReturn(List.of(apiKey));
+
+        // When
+        apiKeyService.refrescar();
+
+        // Then
+        assertEquals(Resultado.SIN_CUOTA, apiKeyService.autorizar(clave, "GET", "/api/productos").resultado());
+    }
+}
@@ -0,0 +1,115 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.repository.RefreshTokenRepository;
+import com.tienda.electronica.repository.TokenRepository;
+import com.tienda.electronica.request.LoginRequest;
+import com.tienda.electronica.response.TokenResponse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+// Coste mínimo de BCrypt para que los logins se solapen de verdad
+@TestPropertySource(properties = "application.security.password.bcrypt-strength=4")
+public class AuthServiceConcurrencyTest {
+
+    private static final int HILOS = 16;
+    private static final int LOGINS_POR_HILO = 25;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenStatusStore tokenStatusStore;
+
+    private ExecutorService executor;
+    private Long usuarioId;
+    private String email;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(HILOS);
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Concurrente");
+        usuario.setEmail("concurrente-" + System.nanoTime() + "@example.com");
+        usuario.setTelefono("123456789");
+        usuario.setPassword("password123");
+        authService.crearCuenta(usuario);
+        usuarioId = usuarioService.obtenerPorEmail(usuario.getEmail()).orElseThrow().getId();
+        email = usuario.getEmail();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLoginsConcurrentes_DejanUnSoloTokenValido() throws Exception {
+        // Given
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<List<TokenResponse>>> resultados = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            resultados.add(executor.submit(() -> {
+                salida.await();
+                List<TokenResponse> emitidos = new ArrayList<>();
+                for (int j = 0; j < LOGINS_POR_HILO; j++) {
+                    emitidos.add(authService.login(new LoginRequest(email, "password123")));
+                }
+                return emitidos;
+            }));
+        }
+
+        // When
+        salida.countDown();
+        List<TokenResponse> emitidos = new ArrayList<>();
+        for (Future<List<TokenResponse>> resultado : resultados) {
+            emitidos.addAll(resultado.get(60, TimeUnit.SECONDS));
+        }
+
+        // Then
+        assertEquals(HILOS * LOGINS_POR_HILO, emitidos.size());
+        long accesosVigentes = tokenRepository.findAll().stream()
+                .filter(token -> usuarioId.equals(token.getUsuario().getId()))
+                .filter(token -> !token.isRevoked())
+                .count();
+        long sesionesVigentes = refreshTokenRepository.findAll().stream()
+                .filter(sesion -> usuarioId.equals(sesion.getUsuario().getId()))
+                .filter(sesion -> !sesion.isRevoked())
+                .count();
+        long activosEnMemoria = emitidos.stream()
+                .filter(respuesta -> tokenStatusStore.isActive(respuesta.accessToken()))
+                .count();
+        assertEquals("Un solo token de acceso válido", 1, accesosVigentes);
+        assertEquals("Una sola sesión de refresh válida", 1, sesionesVigentes);
+        assertEquals("La caché coincide con la base de datos", 1, activosEnMemoria);
+        assertEquals(emitidos.size(), emitidos.stream().map(TokenResponse::accessToken).distinct().count());
+    }
+}
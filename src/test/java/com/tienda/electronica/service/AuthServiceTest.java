@@ -5,9 +5,8 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -15,24 +14,22 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.tienda.electronica.entity.Token;
 import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
 import com.tienda.electronica.repository.TokenRepository;
 import com.tienda.electronica.repository.UsuarioRepository;
 import com.tienda.electronica.request.LoginRequest;
 import com.tienda.electronica.response.TokenResponse;
+import com.tienda.electronica.security.TokenHasher;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AuthServiceTest {
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
     private UsuarioRepository usuarioRepository;
@@ -44,10 +41,19 @@ public class AuthServiceTest {
     private TokenRepository tokenRepository;
 
     @Mock
-    private JwtService jwtService;
+    private TokenStatusStore tokenStatusStore;
+
+    @Mock
+    private TokenDenyList tokenDenyList;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UsuarioLocks usuarioLocks;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private JwtService jwtService;
 
     @InjectMocks
     private AuthService authService;
@@ -74,6 +80,10 @@ public class AuthServiceTest {
 
         jwtToken = "jwt.token.here";
         refreshToken = "refresh.token.here";
+
+        // El lock por usuario solo ejecuta la tarea en estas pruebas
+        lenient().when(usuarioLocks.conLock(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
@@ -96,10 +106,10 @@ public class AuthServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(passwordHashingService.encode("password123")).thenReturn("encodedPassword");
         when(usuarioService.crear(any(Usuario.class))).thenReturn(usuarioGuardado);
         when(jwtService.generateToken(any(Usuario.class))).thenReturn(jwtToken);
-        when(jwtService.generateRefreshToken(any(Usuario.class))).thenReturn(refreshToken);
+        when(refreshTokenService.emitir(any(Usuario.class))).thenReturn(refreshToken);
         when(tokenRepository.save(any(Token.class))).thenReturn(new Token());
 
         // When
@@ -110,10 +120,10 @@ public class AuthServiceTest {
         assertEquals("El JWT token debe coincidir", jwtToken, response.accessToken());
         assertEquals("El refresh token debe coincidir", refreshToken, response.refreshToken());
 
-        verify(passwordEncoder, times(1)).encode("password123");
+        verify(passwordHashingService, times(1)).encode("password123");
         verify(usuarioService, times(1)).crear(any(Usuario.class));
         verify(jwtService, times(1)).generateToken(any(Usuario.class));
-        verify(jwtService, times(1)).generateRefreshToken(any(Usuario.class));
+        verify(refreshTokenService, times(1)).emitir(any(Usuario.class));
         verify(tokenRepository, times(1)).save(any(Token.class));
     }
 
@@ -122,11 +132,10 @@ public class AuthServiceTest {
         // Given
         when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
                 .thenReturn(Optional.of(usuario));
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
         when(jwtService.generateToken(usuario)).thenReturn(jwtToken);
-        when(jwtService.generateRefreshToken(usuario)).thenReturn(refreshToken);
-        when(tokenRepository.findAllValidIsFalseOrRevokedIsFalseByUsuarioId(1L))
-                .thenReturn(Arrays.asList(new Token(), new Token()));
-        when(tokenRepository.saveAll(anyList())).thenReturn(Arrays.asList(new Token(), new Token()));
+        when(refreshTokenService.emitir(usuario)).thenReturn(refreshToken);
+        when(tokenRepository.revokeAllByUsuarioId(1L)).thenReturn(2);
         when(tokenRepository.save(any(Token.class))).thenReturn(new Token());
 
         // When
@@ -137,22 +146,25 @@ public class AuthServiceTest {
         assertEquals("El JWT token debe coincidir", jwtToken, response.accessToken());
         assertEquals("El refresh token debe coincidir", refreshToken, response.refreshToken());
 
-        verify(authenticationManager, times(1))
-                .authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordHashingService, times(1)).matches("password123", "encodedPassword");
         verify(usuarioService, times(1)).obtenerPorEmail("juan.perez@example.com");
+        verify(usuarioRepository, never()).save(any(Usuario.class));
         verify(jwtService, times(1)).generateToken(usuario);
-        verify(jwtService, times(1)).generateRefreshToken(usuario);
-        verify(tokenRepository, times(1)).findAllValidIsFalseOrRevokedIsFalseByUsuarioId(1L);
-        verify(tokenRepository, times(1)).saveAll(anyList());
+        verify(refreshTokenService, times(1)).emitir(usuario);
+        verify(refreshTokenService, times(1)).revocarTodos(1L);
+        verify(tokenRepository, times(1)).revokeAllByUsuarioId(1L);
+        verify(tokenRepository, never()).saveAll(anyList());
         verify(tokenRepository, times(1)).save(any(Token.class));
+        verify(tokenStatusStore, times(1)).revocarTodos(1L);
+        verify(tokenStatusStore, times(1)).registrar(eq(TokenHasher.hash(jwtToken)), eq(1L), any());
     }
 
     @Test(expected = BadCredentialsException.class)
     public void testLogin_AuthenticationFails() {
         // Given
-        doThrow(new BadCredentialsException("Credenciales inválidas"))
-                .when(authenticationManager)
-                .authenticate(any(UsernamePasswordAuthenticationToken.class));
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
+                .thenReturn(Optional.of(usuario));
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(false);
 
         // When - Then (debe lanzar excepción)
         authService.login(loginRequest);
@@ -178,24 +190,16 @@ public class AuthServiceTest {
 
         // Then
         verify(tokenRepository, times(1)).save(any(Token.class));
+        verify(tokenStatusStore, times(1)).registrar(eq(TokenHasher.hash(jwtToken)), eq(1L), any());
     }
 
     @Test
     public void testRefreshToken_Success() {
         // Given
         String authHeader = "Bearer " + refreshToken;
-        Usuario usuarioRefresh = Usuario.builder()
-                .id(1L)
-                .email("juan.perez@example.com")
-                .build();
-
-        when(jwtService.extractUsername(refreshToken)).thenReturn("juan.perez@example.com");
-        when(usuarioRepository.findByEmail("juan.perez@example.com"))
-                .thenReturn(Optional.of(usuarioRefresh));
-        when(jwtService.isTokenValid(refreshToken, usuarioRefresh)).thenReturn(true);
-        when(jwtService.generateToken(usuarioRefresh)).thenReturn("new.jwt.token");
-        when(tokenRepository.findAllValidIsFalseOrRevokedIsFalseByUsuarioId(1L))
-                .thenReturn(Arrays.asList());
+        when(refreshTokenService.rotar(refreshToken))
+                .thenReturn(new RefreshTokenService.Rotacion(usuario, "rotated.refresh.token"));
+        when(jwtService.generateToken(usuario)).thenReturn("new.jwt.token");
         when(tokenRepository.save(any(Token.class))).thenReturn(new Token());
 
         // When
@@ -204,13 +208,13 @@ public class AuthServiceTest {
         // Then
         assertNotNull("La respuesta no debe ser nula", response);
         assertEquals("El nuevo JWT token debe coincidir", "new.jwt.token", response.accessToken());
-        assertEquals("El refresh token debe mantenerse", refreshToken, response.refreshToken());
+        assertEquals("El refresh token debe rotar", "rotated.refresh.token", response.refreshToken());
 
-        verify(jwtService, times(1)).extractUsername(refreshToken);
-        verify(usuarioRepository, times(1)).findByEmail("juan.perez@example.com");
-        verify(jwtService, times(1)).isTokenValid(refreshToken, usuarioRefresh);
-        verify(jwtService, times(1)).generateToken(usuarioRefresh);
-        verify(tokenRepository, times(1)).findAllValidIsFalseOrRevokedIsFalseByUsuarioId(1L);
+        verify(refreshTokenService, times(1)).rotar(refreshToken);
+        verify(jwtService, never()).extractUsername(anyString());
+        verify(usuarioRepository, never()).findByEmail(anyString());
+        verify(jwtService, times(1)).generateToken(usuario);
+        verify(tokenRepository, times(1)).revokeAllByUsuarioId(1L);
         verify(tokenRepository, times(1)).save(any(Token.class));
     }
 
@@ -238,39 +242,20 @@ public class AuthServiceTest {
         authService.refreshToken(invalidHeader);
     }
 
-    @Test(expected = IllegalArgumentException.class)
-    public void testRefreshToken_UsernameExtractionFails() {
-        // Given
-        String authHeader = "Bearer " + refreshToken;
-        when(jwtService.extractUsername(refreshToken)).thenReturn(null);
-
-        // When - Then (debe lanzar excepción)
-        authService.refreshToken(authHeader);
-    }
-
-    @Test(expected = UsernameNotFoundException.class)
-    public void testRefreshToken_UserNotFound() {
-        // Given
-        String authHeader = "Bearer " + refreshToken;
-        when(jwtService.extractUsername(refreshToken)).thenReturn("noexiste@example.com");
-        when(usuarioRepository.findByEmail("noexiste@example.com"))
-                .thenReturn(Optional.empty());
-
-        // When - Then (debe lanzar excepción)
-        authService.refreshToken(authHeader);
-    }
-
     @Test(expected = IllegalArgumentException.class)
     public void testRefreshToken_InvalidToken() {
         // Given
         String authHeader = "Bearer " + refreshToken;
-        when(jwtService.extractUsername(refreshToken)).thenReturn("juan.perez@example.com");
-        when(usuarioRepository.findByEmail("juan.perez@example.com"))
-                .thenReturn(Optional.of(usuario));
-        when(jwtService.isTokenValid(refreshToken, usuario)).thenReturn(false);
+        when(refreshTokenService.rotar(refreshToken))
+                .thenThrow(new IllegalArgumentException("El refresh token no es válido"));
 
         // When - Then (debe lanzar excepción)
-        authService.refreshToken(authHeader);
+        try {
+            authService.refreshToken(authHeader);
+        } finally {
+            verify(jwtService, never()).generateToken(any(Usuario.class));
+            verify(tokenRepository, never()).save(any(Token.class));
+        }
     }
 
     @Test
@@ -293,10 +278,10 @@ public class AuthServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(passwordHashingService.encode("password123")).thenReturn("encodedPassword");
         when(usuarioService.crear(any(Usuario.class))).thenReturn(usuarioGuardado);
         when(jwtService.generateToken(any(Usuario.class))).thenReturn(jwtToken);
-        when(jwtService.generateRefreshToken(any(Usuario.class))).thenReturn(refreshToken);
+        when(refreshTokenService.emitir(any(Usuario.class))).thenReturn(refreshToken);
         when(tokenRepository.save(any(Token.class))).thenReturn(new Token());
 
         // When
@@ -327,4 +312,112 @@ public class AuthServiceTest {
                 !token.isExpired() &&
                 !token.isRevoked()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLogin_StatelessNoPersisteAcceso() {
+        // Given
+        when(jwtService.isStateless()).thenReturn(true);
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
+                .thenReturn(Optional.of(usuario));
+        when(jwtService.generateToken(usuario)).thenReturn(jwtToken);
+        when(refreshTokenService.emitir(usuario)).thenReturn(refreshToken);
+
+        // When
+        TokenResponse response = authService.login(loginRequest);
+
+        // Then
+        assertEquals(jwtToken, response.accessToken());
+        assertEquals(refreshToken, response.refreshToken());
+        verify(tokenRepository, never()).save(any(Token.class));
+        verify(tokenRepository, never()).revokeAllByUsuarioId(any());
+        verify(refreshTokenService, times(1)).revocarTodos(1L);
+        verify(tokenDenyList, times(1)).revocarEmitidosAntesDe(eq("juan.perez@example.com"), any());
+        verify(tokenStatusStore, never()).registrar(any(), any(), any());
+    }
+
+    @Test
+    public void testRefreshToken_StatelessNoPersisteAcceso() {
+        // Given
+        String authHeader = "Bearer " + refreshToken;
+        when(jwtService.isStateless()).thenReturn(true);
+        when(refreshTokenService.rotar(refreshToken))
+                .thenReturn(new RefreshTokenService.Rotacion(usuario, "rotated.refresh.token"));
+        when(jwtService.generateToken(usuario)).thenReturn("new.jwt.token");
+
+        // When
+        TokenResponse response = authService.refreshToken(authHeader);
+
+        // Then
+        assertEquals("new.jwt.token", response.accessToken());
+        assertEquals("rotated.refresh.token", response.refreshToken());
+        verify(tokenRepository, never()).save(any(Token.class));
+        verify(tokenRepository, never()).revokeAllByUsuarioId(any());
+        verify(tokenDenyList, times(1)).revocarEmitidosAntesDe(eq("juan.perez@example.com"), any());
+    }
+
+    @Test
+    public void testLogin_UserNotFound_ComparaContraHashFicticio() {
+        // Given
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com")).thenReturn(Optional.empty());
+
+        // When
+        try {
+            authService.login(loginRequest);
+            fail("Debe lanzar BadCredentialsException");
+        } catch (BadCredentialsException e) {
+            // Then
+            verify(passwordHashingService, times(1)).matches("password123", null);
+            verify(jwtService, never()).generateToken(any(Usuario.class));
+        }
+    }
+
+    @Test
+    public void testLogin_RehashCuandoSubeElCoste() {
+        // Given
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
+                .thenReturn(Optional.of(usuario));
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
+        when(passwordHashingService.upgradeEncoding("encodedPassword")).thenReturn(true);
+        when(passwordHashingService.encode("password123")).thenReturn("rehashedPassword");
+        when(jwtService.generateToken(usuario)).thenReturn(jwtToken);
+        when(refreshTokenService.emitir(usuario)).thenReturn(refreshToken);
+
+        // When
+        authService.login(loginRequest);
+
+        // Then
+        verify(usuarioRepository, times(1)).save(argThat(u -> "rehashedPassword".equals(u.getPassword())));
+    }
+
+    @Test(expected = ServicioSaturadoException.class)
+    public void testLogin_HashingSaturado() {
+        // Given
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
+                .thenReturn(Optional.of(usuario));
+        when(passwordHashingService.matches("password123", "encodedPassword"))
+                .thenThrow(new ServicioSaturadoException("Saturado", 1));
+
+        // When - Then (debe lanzar excepción)
+        authService.login(loginRequest);
+    }
+
+    @Test
+    public void testLogin_EmiteBajoElLockDelUsuario() {
+        // Given
+        when(usuarioService.obtenerPorEmail("juan.perez@example.com"))
+                .thenReturn(Optional.of(usuario));
+        when(passwordHashingService.matches("password123", "encodedPassword")).thenReturn(true);
+        doReturn(new TokenResponse(jwtToken, refreshToken)).when(usuarioLocks).conLock(eq(1L), any());
+
+        // When
+        TokenResponse response = authService.login(loginRequest);
+
+        // Then - fuera del lock no se revoca ni se emite nada
+        assertEquals(jwtToken, response.accessToken());
+        verify(usuarioLocks, times(1)).conLock(eq(1L), any());
+        verify(jwtService, never()).generateToken(any(Usuario.class));
+        verify(tokenRepository, never()).revokeAllByUsuarioId(any());
+        verify(refreshTokenService, never()).emitir(any(Usuario.class));
+    }
+}
@@ -10,10 +10,12 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import com.tienda.electronica.entity.Cliente;
 import com.tienda.electronica.repository.ClienteRepository;
+import com.tienda.electronica.request.PaginaRequest;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class ClienteServiceTest {
+    private static final PaginaRequest PRIMERA_PAGINA = new PaginaRequest(null, null, null);
 
     @Autowired
     private ClienteService clienteService;
@@ -42,7 +44,7 @@ public class ClienteServiceTest {
 
     @Test
     public void testObtenerTodos() {
-        List<Cliente> clientes = clienteService.obtenerTodos();
+        List<Cliente> clientes = clienteService.obtenerTodos(PRIMERA_PAGINA).elementos();
         assertFalse(clientes.isEmpty());
         assertEquals(1, clientes.size());
     }
@@ -114,7 +116,7 @@ public class ClienteServiceTest {
 
     @Test
     public void testObtenerActivos() {
-        List<Cliente> activos = clienteService.obtenerActivos();
+        List<Cliente> activos = clienteService.obtenerActivos(PRIMERA_PAGINA).elementos();
         assertEquals(1, activos.size());
     }
 
@@ -123,7 +125,7 @@ public class ClienteServiceTest {
         clienteBase.setClientePremium(true);
         clienteRepository.save(clienteBase);
 
-        List<Cliente> premium = clienteService.obtenerClientesPremium();
+        List<Cliente> premium = clienteService.obtenerClientesPremium(PRIMERA_PAGINA).elementos();
         assertEquals(1, premium.size());
     }
 
@@ -136,13 +138,34 @@ public class ClienteServiceTest {
 
     @Test
     public void testBuscarPorNombre() {
-        List<Cliente> resultado = clienteService.buscarPorNombre("Juan");
+        List<Cliente> resultado = clienteService.buscarPorNombre("Juan", PRIMERA_PAGINA).elementos();
         assertFalse(resultado.isEmpty());
     }
 
     @Test
     public void testObtenerPorCiudad() {
-        List<Cliente> resultado = clienteService.obtenerPorCiudad("Guatemala");
+        List<Cliente> resultado = clienteService.obtenerPorCiudad("Guatemala", PRIMERA_PAGINA).elementos();
         assertEquals(1, resultado.size());
     }
+
+    @Test
+    public void testBuscarPorNombre_ConCampos() {
+        List<Cliente> resultado = clienteService.buscarPorNombre("pér", PRIMERA_PAGINA, "email").elementos();
+        assertEquals(1, resultado.size());
+        assertEquals(clienteBase.getId(), resultado.get(0).getId());
+        assertEquals("juan@example.com", resultado.get(0).getEmail());
+        assertNull(resultado.get(0).getNombre());
+
+        // Los comodines del texto se buscan literalmente
+        assertTrue(clienteService.buscarPorNombre("%", PRIMERA_PAGINA, "email").elementos().isEmpty());
+    }
+
+    @Test
+    public void testObtenerPorCiudad_ConCampos() {
+        List<Cliente> resultado = clienteService.obtenerPorCiudad("guatemala", PRIMERA_PAGINA, "ciudad").elementos();
+        assertEquals(1, resultado.size());
+        assertEquals("Guatemala", resultado.get(0).getCiudad());
+        assertNull(resultado.get(0).getEmail());
+        assertTrue(clienteService.obtenerPorCiudad("Quetzaltenango", PRIMERA_PAGINA, "ciudad").elementos().isEmpty());
+    }
 }
@@ -0,0 +1,148 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.response.FacetasResponse;
+
+public class IndiceFacetasTest {
+    private static final ExplorarRequest SIN_FILTROS = new ExplorarRequest(null, null, null);
+
+    private IndiceFacetas indice;
+    private ProductoRepository productoRepository;
+
+    @Before
+    public void setUp() {
+        indice = new IndiceFacetas(1000, new BigDecimal[] { new BigDecimal("100"), new BigDecimal("1000") });
+        productoRepository = mock(ProductoRepository.class);
+        ReflectionTestUtils.setField(indice, "productoRepository", productoRepository);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(
+                        producto(1, "Computadoras", "1500.00", 3),
+                        producto(2, "Computadoras", "800.00", 0),
+                        producto(3, "Audio", "50.00", 10),
+                        producto(4, "audio", "100.00", 0),
+                        producto(5, "Telefonía", "999.99", 7)));
+        indice.reconstruir();
+    }
+
+    private static Producto producto(long id, String categoria, String precio, int stock) {
+        return Producto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .categoria(categoria)
+                .precio(new BigDecimal(precio))
+                .stock(stock)
+                .version(0L)
+                .build();
+    }
+
+    @Test
+    public void testSinFiltrosDevuelveTodosEnOrden() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), indice.ids(SIN_FILTROS, 0, 10));
+        assertEquals(5, indice.contar(SIN_FILTROS));
+    }
+
+    @Test
+    public void testOEnUnaDimensionEYEntreDimensiones() {
+        ExplorarRequest filtro = new ExplorarRequest(List.of("audio", "TELEFONÍA"), true, null);
+
+        assertEquals(List.of(3L, 5L), indice.ids(filtro, 0, 10));
+
+        filtro = new ExplorarRequest(null, false, List.of("100-1000", "1000+"));
+        assertEquals(List.of(2L, 4L), indice.ids(filtro, 0, 10));
+    }
+
+    @Test
+    public void testPaginaDesdeElUltimoId() {
+        assertEquals(List.of(3L, 4L), indice.ids(SIN_FILTROS, 2, 2));
+        assertEquals(List.of(), indice.ids(SIN_FILTROS, Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void testFacetasSinElFiltroDeSuPropiaDimension() {
+        FacetasResponse facetas = indice.facetas(new ExplorarRequest(List.of("audio"), true, null));
+
+        assertEquals(1, facetas.total());
+        assertEquals(1, facetas.conStock());
+        assertEquals(Map.of("audio", 1L, "computadoras", 1L, "telefonía", 1L), facetas.categorias());
+        assertEquals(List.of("0-100", "100-1000", "1000+"), List.copyOf(facetas.precios().keySet()));
+        assertEquals(List.of(1L, 0L, 0L), List.copyOf(facetas.precios().values()));
+    }
+
+    @Test
+    public void testActualizarMueveElProductoDeMapas() {
+        Producto cambiado = producto(3, "Computadoras", "2000.00", 0);
+        cambiado.setVersion(1L);
+        indice.indexar(cambiado);
+
+        assertEquals(List.of(1L, 2L, 3L), indice.ids(new ExplorarRequest(List.of("computadoras"), null, null), 0, 10));
+        assertEquals(Map.of("audio", 1L, "computadoras", 3L, "telefonía", 1L),
+                indice.facetas(SIN_FILTROS).categorias());
+        assertEquals(List.of(1L, 3L), indice.ids(new ExplorarRequest(null, null, List.of("1000+")), 0, 10));
+    }
+
+    @Test
+    public void testReconstruirNoRevierteCambiosMasRecientes() {
+        Producto cambiado = producto(1, "Audio", "10.00", 1);
+        cambiado.setVersion(2L);
+        indice.indexar(cambiado);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            // El borrado se confirma después de leer el lote
+            indice.eliminar(5L);
+            return List.of(
+                    producto(1, "Computadoras", "1500.00", 3),
+                    producto(2, "Computadoras", "800.00", 0),
+                    producto(3, "Audio", "50.00", 10),
+                    producto(4, "audio", "100.00", 0),
+                    producto(5, "Telefonía", "999.99", 7));
+        });
+
+        indice.reconstruir();
+
+        assertEquals(List.of(1L, 3L, 4L), indice.ids(new ExplorarRequest(List.of("audio"), null, null), 0, 10));
+        assertEquals(4, indice.contar(SIN_FILTROS));
+    }
+
+    @Test
+    public void testConstruyeEnLaPrimeraConsulta() {
+        IndiceFacetas nuevo = new IndiceFacetas(2, new BigDecimal[] { new BigDecimal("100") });
+        ReflectionTestUtils.setField(nuevo, "productoRepository", productoRepository);
+
+        assertEquals(5, nuevo.contar(SIN_FILTROS));
+        assertEquals(5, nuevo.contar(SIN_FILTROS));
+        verify(productoRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test(expected = FiltroInvalidoException.class)
+    public void testTramoDesconocido() {
+        indice.ids(new ExplorarRequest(null, null, List.of("10-20")), 0, 10);
+    }
+
+    @Test
+    public void testIdFueraDeRangoNoSeIndexa() {
+        indice.indexar(producto(Integer.MAX_VALUE + 1L, "Audio", "50.00", 1));
+
+        assertEquals(5, indice.contar(SIN_FILTROS));
+        assertEquals(Map.of("audio", 2L, "computadoras", 2L, "telefonía", 1L),
+                indice.facetas(SIN_FILTROS).categorias());
+    }
+}
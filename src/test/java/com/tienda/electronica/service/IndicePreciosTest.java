@@ -0,0 +1,178 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.service.Paginacion.PosicionPrecio;
+
+public class IndicePreciosTest {
+    private static final PosicionPrecio INICIO = new PosicionPrecio(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final PosicionPrecio FIN = new PosicionPrecio(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private IndicePrecios indice;
+    private ProductoRepository productoRepository;
+
+    @Before
+    public void setUp() {
+        indice = new IndicePrecios(1000);
+        productoRepository = mock(ProductoRepository.class);
+        ReflectionTestUtils.setField(indice, "productoRepository", productoRepository);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(
+                        producto(1, "1299.99"),
+                        producto(2, "499.99"),
+                        producto(3, "299.99"),
+                        producto(4, "299.99"),
+                        producto(5, "19.90")));
+    }
+
+    private static Producto producto(long id, String precio) {
+        return Producto.builder()
+                .id(id)
+                .nombre("Producto " + id)
+                .precio(new BigDecimal(precio))
+                .stock(1)
+                .version(0L)
+                .build();
+    }
+
+    private List<Long> ids(long minimo, long maximo, boolean descendente, PosicionPrecio desde, int limite) {
+        return indice.posiciones(minimo, maximo, descendente, desde, limite).orElseThrow().stream()
+                .map(PosicionPrecio::id)
+                .toList();
+    }
+
+    @Test
+    public void testVacioHastaConstruir() {
+        assertFalse(indice.estaListo());
+        assertEquals(Optional.empty(), indice.posiciones(0, Long.MAX_VALUE, false, INICIO, 10));
+        assertEquals(Optional.empty(), indice.contar(0, Long.MAX_VALUE));
+
+        indice.reconstruir();
+
+        assertTrue(indice.estaListo());
+    }
+
+    @Test
+    public void testOrdenPorPrecioYDespuesPorId() {
+        indice.reconstruir();
+
+        assertEquals(List.of(5L, 3L, 4L, 2L, 1L), ids(Long.MIN_VALUE, Long.MAX_VALUE, false, INICIO, 10));
+        assertEquals(List.of(1L, 2L, 4L, 3L, 5L), ids(Long.MIN_VALUE, Long.MAX_VALUE, true, FIN, 10));
+    }
+
+    @Test
+    public void testRangoIncluyeLosExtremos() {
+        indice.reconstruir();
+
+        assertEquals(List.of(3L, 4L, 2L), ids(29999, 49999, false, INICIO, 10));
+        assertEquals(List.of(2L, 4L, 3L), ids(29999, 49999, true, FIN, 10));
+        assertEquals(Optional.of(3L), indice.contar(29999, 49999));
+    }
+
+    @Test
+    public void testContinuaDespuesDelCursor() {
+        indice.reconstruir();
+
+        assertEquals(List.of(4L, 2L), ids(Long.MIN_VALUE, Long.MAX_VALUE, false, new PosicionPrecio(29999, 3), 2));
+        assertEquals(List.of(3L, 5L), ids(Long.MIN_VALUE, Long.MAX_VALUE, true, new PosicionPrecio(29999, 4), 5));
+    }
+
+    @Test
+    public void testCambioDePrecioYEliminacion() {
+        indice.reconstruir();
+        Producto rebajado = producto(1, "9.99");
+        rebajado.setVersion(1L);
+
+        indice.indexar(rebajado);
+        indice.eliminar(2L);
+
+        assertEquals(List.of(1L, 5L, 3L, 4L), ids(Long.MIN_VALUE, Long.MAX_VALUE, false, INICIO, 10));
+
+        // Una reconstrucción que lee el borrado antes de confirmarse no lo vuelve a añadir
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            indice.eliminar(3L);
+            return List.of(producto(1, "1299.99"), producto(3, "299.99"), producto(4, "299.99"),
+                    producto(5, "19.90"));
+        });
+        indice.reconstruir();
+        assertEquals(List.of(1L, 5L, 4L), ids(Long.MIN_VALUE, Long.MAX_VALUE, false, INICIO, 10));
+    }
+
+    @Test
+    public void testContarTrasCambiosDePrecio() {
+        indice.reconstruir();
+        assertEquals(Optional.of(5L), indice.contar(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Optional.of(0L), indice.contar(50000, 40000));
+
+        Producto rebajado = producto(1, "9.99");
+        rebajado.setVersion(1L);
+        indice.indexar(rebajado);
+        indice.eliminar(2L);
+
+        assertEquals(Optional.of(4L), indice.contar(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Optional.of(2L), indice.contar(999, 1990));
+        assertEquals(Optional.of(0L), indice.contar(30000, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testContarCoincideConElRecorridoCompleto() {
+        List<Producto> productos = new ArrayList<>();
+        Random aleatorio = new Random(42);
+        for (long id = 1; id <= 3000; id++) {
+            productos.add(producto(id, BigDecimal.valueOf(1 + aleatorio.nextInt(200000), 2).toPlainString()));
+        }
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(productos);
+        indice.reconstruir();
+
+        for (int i = 0; i < 200; i++) {
+            long a = aleatorio.nextInt(200001);
+            long b = aleatorio.nextInt(200001);
+            long minimo = Math.min(a, b);
+            long maximo = Math.max(a, b);
+            long esperado = productos.stream()
+                    .mapToLong(p -> IndicePrecios.centimos(p.getPrecio()))
+                    .filter(c -> c >= minimo && c <= maximo)
+                    .count();
+            assertEquals(Optional.of(esperado), indice.contar(minimo, maximo));
+        }
+    }
+
+    @Test
+    public void testTramosCubrenTodosLosPrecios() {
+        for (long centimos : new long[] { 1, 15, 16, 17, 31, 32, 1023, 1024, 129999, Long.MAX_VALUE }) {
+            int tramo = IndicePrecios.tramo(centimos);
+            assertTrue(IndicePrecios.inicioTramo(tramo) <= centimos);
+            assertTrue(IndicePrecios.finTramo(tramo) >= centimos);
+            if (tramo > 0) {
+                assertEquals(IndicePrecios.finTramo(tramo - 1) + 1, IndicePrecios.inicioTramo(tramo));
+            }
+        }
+    }
+
+    @Test
+    public void testCentimos() {
+        assertEquals(129999, IndicePrecios.centimos(new BigDecimal("1299.99")));
+        assertEquals(1990, IndicePrecios.centimos(new BigDecimal("19.9")));
+        assertEquals(500, IndicePrecios.centimos(new BigDecimal("5")));
+    }
+}
@@ -0,0 +1,166 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.ProductoRepository;
+
+public class IndiceProductosTest {
+    private IndiceProductos indice;
+
+    @Before
+    public void setUp() {
+        indice = new IndiceProductos(1000, 1000);
+        ReflectionTestUtils.setField(indice, "productoRepository", mock(ProductoRepository.class));
+        indice.reconstruir();
+    }
+
+    private static Producto producto(long id, String nombre, String categoria, String descripcion) {
+        return Producto.builder()
+                .id(id)
+                .nombre(nombre)
+                .categoria(categoria)
+                .descripcion(descripcion)
+                .precio(new BigDecimal("10.00"))
+                .stock(1)
+                .version(0L)
+                .build();
+    }
+
+    private List<Long> buscar(String texto) {
+        return indice.buscar(texto, 0, 10).orElseThrow().ids();
+    }
+
+    @Test
+    public void testIgnoraTildesYMayusculas() {
+        indice.indexar(producto(1, "Teléfono Ñandú", "Telefonía", null));
+
+        assertEquals(List.of(1L), buscar("TELEFONO"));
+        assertEquals(List.of(1L), buscar("nandu"));
+    }
+
+    @Test
+    public void testNormalizaSinDependerDelLocale() {
+        Locale anterior = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertEquals(List.of("impresora", "hdmi"), IndiceProductos.tokens("IMPRESORA HDMI"));
+        } finally {
+            Locale.setDefault(anterior);
+        }
+    }
+
+    @Test
+    public void testNombrePesaMasQueDescripcion() {
+        indice.indexar(producto(1, "Funda", "Accesorios", "Funda para laptop de 15 pulgadas"));
+        indice.indexar(producto(2, "Laptop Gaming", "Computadoras", "Equipo de alto rendimiento"));
+
+        assertEquals(List.of(2L, 1L), buscar("laptop"));
+    }
+
+    @Test
+    public void testMasTerminosCoincidentesPuntuanMas() {
+        indice.indexar(producto(1, "Laptop", "Computadoras", null));
+        indice.indexar(producto(2, "Laptop Gaming", "Computadoras", null));
+
+        assertEquals(List.of(2L, 1L), buscar("laptop gaming"));
+    }
+
+    @Test
+    public void testToleraErroresDeEscritura() {
+        indice.indexar(producto(1, "Auriculares inalámbricos", "Audio", null));
+        indice.indexar(producto(2, "Monitor", "Pantallas", null));
+
+        assertEquals(List.of(1L), buscar("auriculraes"));
+        assertEquals(List.of(1L), buscar("inalambricso"));
+        // Con menos de 4 letras no se corrige
+        assertTrue(buscar("mon").isEmpty());
+    }
+
+    @Test
+    public void testActualizarYEliminar() {
+        indice.indexar(producto(1, "Mouse", "Accesorios", null));
+        Producto renombrado = producto(1, "Ratón", "Accesorios", null);
+        renombrado.setVersion(1L);
+        indice.indexar(renombrado);
+
+        assertTrue(buscar("mouse").isEmpty());
+        assertEquals(List.of(1L), buscar("raton"));
+
+        indice.eliminar(1L);
+        assertTrue(buscar("raton").isEmpty());
+    }
+
+    @Test
+    public void testBorradoDuranteReconstruccionNoVuelve() {
+        ProductoRepository productoRepository = mock(ProductoRepository.class);
+        ReflectionTestUtils.setField(indice, "productoRepository", productoRepository);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            // El borrado se confirma después de leer el lote
+            indice.eliminar(2L);
+            return List.of(producto(1, "Mouse", "Accesorios", null), producto(2, "Monitor", "Pantallas", null));
+        });
+
+        indice.reconstruir();
+
+        assertEquals(List.of(1L), buscar("mouse"));
+        assertTrue(buscar("monitor").isEmpty());
+
+        // Terminada la reconstrucción no se conservan los ids borrados
+        indice.indexar(producto(2, "Monitor", "Pantallas", null));
+        assertEquals(List.of(2L), buscar("monitor"));
+    }
+
+    @Test
+    public void testVersionAnteriorNoSobrescribe() {
+        Producto nuevo = producto(1, "Tablet", "Tablets", null);
+        nuevo.setVersion(2L);
+        indice.indexar(nuevo);
+        indice.indexar(producto(1, "Tableta vieja", "Tablets", null));
+
+        assertTrue(buscar("vieja").isEmpty());
+        assertEquals(List.of(1L), buscar("tablet"));
+    }
+
+    @Test
+    public void testPaginacionYTotal() {
+        for (long id = 1; id <= 5; id++) {
+            indice.indexar(producto(id, "Cable " + id, "Accesorios", null));
+        }
+
+        IndiceProductos.Resultado primera = indice.buscar("cable", 0, 2).orElseThrow();
+        IndiceProductos.Resultado tercera = indice.buscar("cable", 4, 2).orElseThrow();
+
+        assertEquals(List.of(1L, 2L), primera.ids());
+        assertEquals(List.of(5L), tercera.ids());
+        assertEquals(5, primera.total());
+    }
+
+    @Test
+    public void testSinConstruirDevuelveVacio() {
+        IndiceProductos nuevo = new IndiceProductos(1000, 1000);
+        assertFalse(nuevo.buscar("laptop", 0, 10).isPresent());
+    }
+
+    @Test
+    public void testDistancia() {
+        assertEquals(1, IndiceProductos.distancia("laptop", "lapto", 2));
+        assertEquals(2, IndiceProductos.distancia("auriculares", "auriculraes", 2));
+        assertEquals(2, IndiceProductos.distancia("abc", "xyz", 1));
+    }
+}
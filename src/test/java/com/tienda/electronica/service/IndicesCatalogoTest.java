@@ -0,0 +1,47 @@
+package com.tienda.electronica.service;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tienda.electronica.entity.Producto;
+
+public class IndicesCatalogoTest {
+    private IndiceCatalogo primero;
+    private IndiceCatalogo segundo;
+    private IndicesCatalogo indices;
+
+    @Before
+    public void setUp() {
+        primero = mock(IndiceCatalogo.class);
+        segundo = mock(IndiceCatalogo.class);
+        indices = new IndicesCatalogo(List.of(primero, segundo));
+    }
+
+    @Test
+    public void testReparteElProductoGuardado() {
+        Producto producto = Producto.builder().id(1L).nombre("Mouse").precio(new BigDecimal("10.00")).build();
+
+        indices.alCambiarProducto(ProductoCambiadoEvent.guardado(producto));
+
+        verify(primero).indexar(producto);
+        verify(segundo).indexar(producto);
+        verify(primero, never()).eliminar(1L);
+    }
+
+    @Test
+    public void testUnFalloNoImpideActualizarLosDemas() {
+        doThrow(new IllegalStateException("roto")).when(primero).eliminar(1L);
+
+        indices.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+
+        verify(segundo).eliminar(1L);
+    }
+}
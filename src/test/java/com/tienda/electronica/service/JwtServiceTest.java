@@ -4,21 +4,32 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import java.security.KeyPair;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.tienda.electronica.entity.Usuario;
 
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+
 @RunWith(MockitoJUnitRunner.class)
 public class JwtServiceTest {
 
+    @Mock
+    private SigningKeyService signingKeyService;
+
     @InjectMocks
     private JwtService jwtService;
 
@@ -26,7 +37,6 @@ public class JwtServiceTest {
 
     private final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
     private final long JWT_EXPIRATION = 86400000L; // 24 horas
-    private final long REFRESH_EXPIRATION = 604800000L; // 7 días
 
     @Before
     public void setUp() {
@@ -35,7 +45,6 @@ public class JwtServiceTest {
         // Configurar propiedades usando ReflectionTestUtils
         ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
         ReflectionTestUtils.setField(jwtService, "jwtExpiration", JWT_EXPIRATION);
-        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", REFRESH_EXPIRATION);
 
         // Crear usuario de prueba
         usuario = new Usuario();
@@ -54,16 +63,6 @@ public class JwtServiceTest {
         assertFalse("El token no debe estar vacío", token.isEmpty());
     }
 
-    @Test
-    public void testGenerateRefreshToken() {
-        // When
-        String refreshToken = jwtService.generateRefreshToken(usuario);
-
-        // Then
-        assertNotNull("El refresh token no debe ser nulo", refreshToken);
-        assertFalse("El refresh token no debe estar vacío", refreshToken.isEmpty());
-    }
-
     @Test
     public void testExtractUsername() {
         // Given
@@ -171,4 +170,114 @@ public class JwtServiceTest {
         assertEquals("El token2 debe contener el email del usuario2",
                 usuario2.getEmail(), jwtService.extractUsername(token2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testVerify_ReturnsClaims() {
+        // Given
+        String token = jwtService.generateToken(usuario);
+
+        // When
+        VerifiedClaims claims = jwtService.verify(token);
+
+        // Then
+        assertEquals("El subject debe ser el email", usuario.getEmail(), claims.subject());
+        assertEquals("El nombre debe coincidir", usuario.getNombre(), claims.name());
+        assertFalse("El token no debe estar expirado", claims.isExpired());
+    }
+
+    @Test
+    public void testVerify_CachesVerifiedToken() {
+        // Given
+        String token = jwtService.generateToken(usuario);
+
+        // When
+        VerifiedClaims primera = jwtService.verify(token);
+        VerifiedClaims segunda = jwtService.verify(token);
+
+        // Then
+        assertSame("La segunda verificación debe salir de la caché", primera, segunda);
+    }
+
+    @Test(expected = Exception.class)
+    public void testVerify_WithTamperedToken() {
+        // Given
+        String token = jwtService.generateToken(usuario);
+        String alterado = token.substring(0, token.length() - 2) + "xx";
+
+        // When - Then (debe lanzar excepción)
+        jwtService.verify(alterado);
+    }
+
+    @Test
+    public void testIsTokenValid_WithVerifiedClaims() {
+        // Given
+        VerifiedClaims claims = jwtService.verify(jwtService.generateToken(usuario));
+
+        // When - Then
+        assertTrue("Los claims deben ser válidos para el usuario", jwtService.isTokenValid(claims, usuario));
+    }
+
+    @Test
+    public void testGenerateToken_JtiUnicoYTipoAcceso() {
+        // When
+        VerifiedClaims primero = jwtService.verify(jwtService.generateToken(usuario));
+        VerifiedClaims segundo = jwtService.verify(jwtService.generateToken(usuario));
+
+        // Then
+        assertNotNull("El token debe llevar jti", primero.id());
+        assertNotEquals("Cada token debe tener su propio jti", primero.id(), segundo.id());
+        assertTrue("Debe marcarse como token de acceso", primero.isAccessToken());
+    }
+
+    @Test
+    public void testGenerateToken_Es256ConKid() {
+        // Given
+        KeyPair par = Jwts.SIG.ES256.keyPair().build();
+        when(signingKeyService.isAsymmetric()).thenReturn(true);
+        when(signingKeyService.claveDeFirma())
+                .thenReturn(new SigningKeyService.ClaveFirma("kid-1", par.getPrivate()));
+        when(signingKeyService.clavePublica("kid-1")).thenReturn(par.getPublic());
+
+        // When
+        String token = jwtService.generateToken(usuario);
+
+        // Then - cualquiera con la clave pública lo verifica por su cuenta
+        String kid = Jwts.parser().verifyWith(par.getPublic()).build()
+                .parseSignedClaims(token).getHeader().getKeyId();
+        assertEquals("kid-1", kid);
+        assertEquals("juan.perez@example.com", jwtService.verify(token).subject());
+    }
+
+    @Test
+    public void testVerify_Es256TrasRotarSigueAceptandoLaClaveAnterior() {
+        // Given
+        KeyPair anterior = Jwts.SIG.ES256.keyPair().build();
+        KeyPair nueva = Jwts.SIG.ES256.keyPair().build();
+        when(signingKeyService.isAsymmetric()).thenReturn(true);
+        when(signingKeyService.claveDeFirma()).thenReturn(
+                new SigningKeyService.ClaveFirma("kid-anterior", anterior.getPrivate()),
+                new SigningKeyService.ClaveFirma("kid-nueva", nueva.getPrivate()));
+        when(signingKeyService.clavePublica("kid-anterior")).thenReturn(anterior.getPublic());
+        when(signingKeyService.clavePublica("kid-nueva")).thenReturn(nueva.getPublic());
+
+        // When
+        String firmadoAntes = jwtService.generateToken(usuario);
+        String firmadoDespues = jwtService.generateToken(usuario);
+
+        // Then
+        assertEquals("juan.perez@example.com", jwtService.verify(firmadoAntes).subject());
+        assertEquals("juan.perez@example.com", jwtService.verify(firmadoDespues).subject());
+    }
+
+    @Test(expected = SignatureException.class)
+    public void testVerify_Es256RechazaTokenHs256() {
+        // Given - un token firmado con el secreto compartido
+        String hs256 = jwtService.generateToken(usuario);
+        ReflectionTestUtils.setField(jwtService, "signer", null);
+        when(signingKeyService.isAsymmetric()).thenReturn(true);
+        when(signingKeyService.clavePublica(null)).thenThrow(new SignatureException("Clave de firma desconocida"));
+
+        // When - Then (debe lanzar excepción)
+        jwtService.verify(hs256);
+    }
+}
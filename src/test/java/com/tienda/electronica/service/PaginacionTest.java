@@ -0,0 +1,152 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
+import com.tienda.electronica.request.PaginaRequest;
+
+public class PaginacionTest {
+    private static final List<Long> IDS = LongStream.rangeClosed(1, 7).boxed().toList();
+
+    private Paginacion paginacion;
+
+    @Before
+    public void setUp() {
+        paginacion = new Paginacion(3, 5, Duration.ofMinutes(1));
+    }
+
+    private Pagina<Long> pagina(final String cursor, final Integer tamano) {
+        return paginacion.porId(new PaginaRequest(cursor, tamano, null),
+                (desde, limite) -> IDS.stream().filter(id -> id > desde).limit(limite.max()).toList(),
+                id -> id, "ids", IDS::size);
+    }
+
+    @Test
+    public void testRecorreTodasLasPaginasSinRepetir() {
+        Pagina<Long> primera = pagina(null, null);
+        assertEquals(List.of(1L, 2L, 3L), primera.elementos());
+        assertNotNull(primera.siguienteCursor());
+
+        Pagina<Long> segunda = pagina(primera.siguienteCursor(), null);
+        assertEquals(List.of(4L, 5L, 6L), segunda.elementos());
+
+        Pagina<Long> ultima = pagina(segunda.siguienteCursor(), null);
+        assertEquals(List.of(7L), ultima.elementos());
+        assertNull(ultima.siguienteCursor());
+    }
+
+    @Test
+    public void testLimiteSeRecortaAlMaximo() {
+        assertEquals(5, pagina(null, 1000).elementos().size());
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testLimiteCeroEsInvalido() {
+        pagina(null, 0);
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testCursorMalFormado() {
+        pagina("no es un cursor", null);
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testCursorDeOtroOrdenEsInvalido() {
+        Pagina<Paginacion.Posicion> porFecha = paginacion.porFechaDescendente(new PaginaRequest(null, 1, null),
+                (desde, limite) -> List.of(
+                        new Paginacion.Posicion(LocalDateTime.of(2026, 1, 2, 0, 0), 2L),
+                        new Paginacion.Posicion(LocalDateTime.of(2026, 1, 1, 0, 0), 1L)),
+                posicion -> posicion, "fechas", () -> 2);
+
+        pagina(porFecha.siguienteCursor(), null);
+    }
+
+    @Test
+    public void testCursorPorFechaConservaLaPosicion() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 2, 10, 30, 15, 123_000_000);
+        Pagina<Paginacion.Posicion> primera = paginacion.porFechaDescendente(new PaginaRequest(null, 1, null),
+                (desde, limite) -> List.of(new Paginacion.Posicion(fecha, 9L), new Paginacion.Posicion(fecha, 8L)),
+                posicion -> posicion, "fechas", () -> 2);
+
+        Paginacion.Posicion[] recibida = new Paginacion.Posicion[1];
+        paginacion.<Paginacion.Posicion>porFechaDescendente(new PaginaRequest(primera.siguienteCursor(), 1, null),
+                (desde, limite) -> {
+                    recibida[0] = desde;
+                    return List.of();
+                },
+                posicion -> posicion, "fechas", () -> 2);
+
+        assertEquals(new Paginacion.Posicion(fecha, 9L), recibida[0]);
+    }
+
+    @Test
+    public void testTotalSoloSiSePideYSeReutiliza() {
+        AtomicInteger conteos = new AtomicInteger();
+        PaginaRequest conTotal = new PaginaRequest(null, null, true);
+
+        assertNull(pagina(null, null).total());
+        for (int i = 0; i < 3; i++) {
+            Pagina<Long> resultado = paginacion.porId(conTotal,
+                    (desde, limite) -> List.of(),
+                    id -> id, "ids", () -> {
+                        conteos.incrementAndGet();
+                        return 7;
+                    });
+            assertEquals(Long.valueOf(7), resultado.total());
+        }
+        assertEquals(1, conteos.get());
+    }
+
+    private Pagina<Long> porPosicion(final String cursor) {
+        return paginacion.porDesplazamiento(new PaginaRequest(cursor, null, null),
+                (desde, limite) -> IDS.stream().skip(desde).limit(limite.max()).toList(), "posiciones", IDS::size);
+    }
+
+    @Test
+    public void testPorDesplazamientoRecorreTodo() {
+        Pagina<Long> primera = porPosicion(null);
+        Pagina<Long> segunda = porPosicion(primera.siguienteCursor());
+        Pagina<Long> ultima = porPosicion(segunda.siguienteCursor());
+
+        assertEquals(List.of(1L, 2L, 3L), primera.elementos());
+        assertEquals(List.of(4L, 5L, 6L), segunda.elementos());
+        assertEquals(List.of(7L), ultima.elementos());
+        assertNull(ultima.siguienteCursor());
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testCursorDeOtraPaginacion() {
+        porPosicion(pagina(null, null).siguienteCursor());
+    }
+
+    @Test
+    public void testCursorPorPrecioConservaLaPosicion() {
+        Pagina<Paginacion.PosicionPrecio> primera = paginacion.porPrecioDescendente(new PaginaRequest(null, 1, null),
+                (desde, limite) -> {
+                    assertEquals(new Paginacion.PosicionPrecio(Long.MAX_VALUE, Long.MAX_VALUE), desde);
+                    return List.of(new Paginacion.PosicionPrecio(129999, 4L), new Paginacion.PosicionPrecio(999, 2L));
+                },
+                posicion -> posicion, "precios", () -> 2);
+
+        Paginacion.PosicionPrecio[] recibida = new Paginacion.PosicionPrecio[1];
+        paginacion.<Paginacion.PosicionPrecio>porPrecioDescendente(new PaginaRequest(primera.siguienteCursor(), 1, null),
+                (desde, limite) -> {
+                    recibida[0] = desde;
+                    return List.of();
+                },
+                posicion -> posicion, "precios", () -> 2);
+
+        assertEquals(new Paginacion.PosicionPrecio(129999, 4L), recibida[0]);
+    }
+}
@@ -0,0 +1,99 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService passwordHashingService;
+
+    @After
+    public void tearDown() {
+        passwordHashingService.cerrar();
+    }
+
+    @Test
+    public void testEncodeYMatches() {
+        // Given
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 2, 4, 1);
+
+        // When
+        String hash = passwordHashingService.encode("password123");
+
+        // Then
+        assertTrue(passwordHashingService.matches("password123", hash));
+        assertFalse(passwordHashingService.matches("otra", hash));
+        assertFalse("Sin hash guardado nunca coincide", passwordHashingService.matches("password123", null));
+    }
+
+    @Test
+    public void testUpgradeEncoding_CuandoSubeElCoste() {
+        // Given
+        String hashCoste4 = new BCryptPasswordEncoder(4).encode("password123");
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 1, 1, 1);
+
+        // When - Then
+        assertTrue(passwordHashingService.upgradeEncoding(hashCoste4));
+        assertFalse(passwordHashingService.upgradeEncoding(passwordHashingService.encode("password123")));
+        assertFalse("Un coste mayor no se rebaja",
+                passwordHashingService.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123")));
+    }
+
+    @Test
+    public void testEncode_ColaLlenaRechaza() throws Exception {
+        // Given - un hilo ocupado y la única plaza de la cola tomada
+        CountDownLatch enEjecucion = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder bloqueante = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("bloquear".contentEquals(rawPassword)) {
+                    enEjecucion.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHashingService = new PasswordHashingService(bloqueante, meterRegistry, 1, 1, 3);
+        CompletableFuture<String> ocupado = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("bloquear"));
+        assertTrue(enEjecucion.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> encolado = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("otra"));
+        while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        try {
+            passwordHashingService.encode("rechazada");
+            fail("Debe rechazar con la cola llena");
+        } catch (ServicioSaturadoException e) {
+            // Then
+            assertEquals(3, e.getRetryAfterSegundos());
+            assertEquals(1.0, meterRegistry.counter("auth.password.hashing.rejected").count(), 0.0);
+        } finally {
+            liberar.countDown();
+        }
+        ocupado.get(5, TimeUnit.SECONDS);
+        encolado.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -4,10 +4,13 @@ import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,10 +28,17 @@ import com.tienda.electronica.exceptions.PedidoNotFoundException;
 import com.tienda.electronica.repository.ClienteRepository;
 import com.tienda.electronica.repository.PedidoRepository;
 import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.repository.VersionFila;
+import com.tienda.electronica.request.PaginaRequest;
+import com.tienda.electronica.response.PedidoDetalleResponse;
+import com.tienda.electronica.response.PedidoResumenResponse;
+
+import jakarta.persistence.EntityManagerFactory;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 public class PedidoServiceTest {
+    private static final PaginaRequest PRIMERA_PAGINA = new PaginaRequest(null, null, null);
 
     @Autowired
     private PedidoService pedidoService;
@@ -42,6 +52,9 @@ public class PedidoServiceTest {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Cliente cliente;
 
     @Before
@@ -173,47 +186,174 @@ public class PedidoServiceTest {
     @Test
     public void testObtenerPorCliente() {
         Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
-        List<Pedido> pedidos = pedidoService.obtenerPorCliente(cliente.getId());
+        List<PedidoResumenResponse> pedidos = pedidoService.obtenerPorCliente(cliente.getId(), PRIMERA_PAGINA)
+                .elementos();
         assertEquals(1, pedidos.size());
-        assertEquals(pedido.getId(), pedidos.get(0).getId());
-    }
-
-    @Test
-    public void testObtenerPorEstado() {
-        Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
-        List<Pedido> pedidos = pedidoService.obtenerPorEstado(EstadoPedido.PENDIENTE);
-        assertTrue(pedidos.stream().anyMatch(p -> p.getId().equals(pedido.getId())));
+        assertEquals(pedido.getId(), pedidos.get(0).id());
+        assertEquals(cliente.getEmail(), pedidos.get(0).cliente().email());
     }
 
     @Test
-    public void testObtenerPorMetodoPago() {
-        Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
-        List<Pedido> pedidos = pedidoService.obtenerPorMetodoPago(MetodoPago.TARJETA_DEBITO);
-        assertEquals(1, pedidos.size());
+    public void testObtenerPorClientePaginado() {
+        Pedido primero = pedidoService.crear(crearPedidoBase(new BigDecimal("10000"), 1));
+        Pedido segundo = pedidoService.crear(crearPedidoBase(new BigDecimal("20000"), 1));
+        Pedido tercero = pedidoService.crear(crearPedidoBase(new BigDecimal("30000"), 1));
+
+        Pagina<PedidoResumenResponse> pagina1 = pedidoService.obtenerPorCliente(cliente.getId(), new PaginaRequest(null, 2, true));
+        assertEquals(Arrays.asList(tercero.getId(), segundo.getId()),
+                pagina1.elementos().stream().map(PedidoResumenResponse::id).toList());
+        assertEquals(Long.valueOf(3), pagina1.total());
+        assertNotNull(pagina1.siguienteCursor());
+
+        Pagina<PedidoResumenResponse> pagina2 = pedidoService.obtenerPorCliente(cliente.getId(),
+                new PaginaRequest(pagina1.siguienteCursor(), 2, null));
+        assertEquals(Arrays.asList(primero.getId()),
+                pagina2.elementos().stream().map(PedidoResumenResponse::id).toList());
+        assertNull(pagina2.siguienteCursor());
     }
 
     @Test
-    public void testObtenerPorRangoFechas() {
+    public void testObtenerPorEstado() {
         Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
-        LocalDateTime inicio = LocalDateTime.now().minusDays(1);
-        LocalDateTime fin = LocalDateTime.now().plusDays(1);
-        List<Pedido> pedidos = pedidoService.obtenerPorRangoFechas(inicio, fin);
-        assertTrue(pedidos.stream().anyMatch(p -> p.getId().equals(pedido.getId())));
+        List<PedidoResumenResponse> pedidos = pedidoService.obtenerPorEstado(EstadoPedido.PENDIENTE, PRIMERA_PAGINA)
+                .elementos();
+        assertTrue(pedidos.stream().anyMatch(p -> p.id().equals(pedido.getId())));
     }
 
     @Test
     public void testObtenerTodos() {
         pedidoService.crear(crearPedidoBase(new BigDecimal("10000"), 1));
         pedidoService.crear(crearPedidoBase(new BigDecimal("20000"), 1));
-        List<Pedido> pedidos = pedidoService.obtenerTodos();
+        List<PedidoResumenResponse> pedidos = pedidoService.obtenerTodos(PRIMERA_PAGINA).elementos();
         assertEquals(2, pedidos.size());
     }
 
     @Test
     public void testObtenerPorId() {
         Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
-        Optional<Pedido> resultado = pedidoService.obtenerPorId(pedido.getId());
+        Optional<PedidoDetalleResponse> resultado = pedidoService.obtenerPorId(pedido.getId());
         assertTrue(resultado.isPresent());
-        assertEquals(pedido.getId(), resultado.get().getId());
+        assertEquals(pedido.getId(), resultado.get().id());
+        assertEquals(1, resultado.get().detalles().size());
+        assertEquals("Test", resultado.get().detalles().get(0).productoNombre());
+    }
+
+    @Test
+    public void testCrearDetalle_ProductoSoloConId() {
+        Pedido pedido = crearPedidoBase(new BigDecimal("50000"), 1);
+        Long productoId = pedido.getDetalles().get(0).getProducto().getId();
+        Pedido nuevo = Pedido.builder()
+                .cliente(Cliente.builder().id(cliente.getId()).build())
+                .estado(EstadoPedido.PENDIENTE)
+                .metodoPago(MetodoPago.EFECTIVO_CONTRAENTREGA)
+                .direccionEnvio("Zona 7")
+                .detalles(new ArrayList<>(List.of(DetallePedido.builder()
+                        .precioUnitario(new BigDecimal("100"))
+                        .cantidad(2)
+                        .subtotal(new BigDecimal("200"))
+                        .producto(Producto.builder().id(productoId).build())
+                        .build())))
+                .build();
+
+        PedidoDetalleResponse creado = pedidoService.crearDetalle(nuevo);
+
+        assertNotNull(creado.id());
+        assertEquals("Daniela", creado.cliente().nombre());
+        assertEquals("Test", creado.detalles().get(0).productoNombre());
+    }
+
+    @Test
+    public void testActualizarDetalle() {
+        Pedido pedido = pedidoService.crear(crearPedidoBase(new BigDecimal("50000"), 1));
+        pedido.setEstado(EstadoPedido.ENVIADO);
+
+        PedidoDetalleResponse actualizado = pedidoService.actualizarDetalle(pedido.getId(), pedido);
+
+        assertEquals(EstadoPedido.ENVIADO, actualizado.estado());
+        assertEquals("Test", actualizado.detalles().get(0).productoNombre());
+    }
+
+    private Statistics estadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        return estadisticas;
+    }
+
+    @Test
+    public void testListadosDePedidosEnUnaSolaConsulta() {
+        for (int i = 0; i < 5; i++) {
+            crearPedidoBase(new BigDecimal("100"), 2);
+        }
+
+        Statistics estadisticas = estadisticas();
+        assertEquals(5, pedidoService.obtenerTodos(PRIMERA_PAGINA).elementos().size());
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+
+        estadisticas = estadisticas();
+        pedidoService.obtenerPorEstado(EstadoPedido.PENDIENTE, PRIMERA_PAGINA).elementos()
+                .forEach(p -> assertEquals(cliente.getEmail(), p.cliente().email()));
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+
+        estadisticas = estadisticas();
+        assertEquals(5, pedidoService.obtenerPorCliente(cliente.getId(), PRIMERA_PAGINA).elementos().size());
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testDetalleDePedidoEnUnaSolaConsulta() {
+        Pedido pedido = crearPedidoBase(new BigDecimal("100"), 2);
+        DetallePedido segunda = DetallePedido.builder()
+                .precioUnitario(new BigDecimal("30"))
+                .cantidad(1)
+                .subtotal(new BigDecimal("30"))
+                .producto(pedido.getDetalles().get(0).getProducto())
+                .pedido(pedido)
+                .build();
+        pedido.setDetalles(new ArrayList<>(List.of(pedido.getDetalles().get(0), segunda)));
+        pedidoRepository.save(pedido);
+
+        Statistics estadisticas = estadisticas();
+        PedidoDetalleResponse detalle = pedidoService.obtenerPorId(pedido.getId()).orElseThrow();
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(2, detalle.detalles().size());
+        assertEquals(cliente.getEmail(), detalle.cliente().email());
+        detalle.detalles().forEach(linea -> assertEquals("Test", linea.productoNombre()));
+    }
+
+    @Test
+    public void testObtenerVariosEnUnaSolaConsulta() {
+        Pedido primero = crearPedidoBase(new BigDecimal("100"), 1);
+        Pedido segundo = crearPedidoBase(new BigDecimal("50"), 2);
+
+        Statistics estadisticas = estadisticas();
+        Lote<PedidoDetalleResponse> lote = pedidoService.obtenerVarios(
+                List.of(segundo.getId(), 999_999L, primero.getId(), segundo.getId()));
+
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+        assertEquals(List.of(segundo.getId(), primero.getId()),
+                lote.encontrados().stream().map(PedidoDetalleResponse::id).toList());
+        assertEquals(List.of(999_999L), lote.faltantes());
+        assertEquals(1, lote.encontrados().get(0).detalles().size());
+    }
+
+    @Test
+    public void testVersionCambiaConClienteYProductos() {
+        Pedido pedido = crearPedidoBase(new BigDecimal("100"), 1);
+        VersionFila inicial = pedidoService.obtenerVersion(pedido.getId()).orElseThrow();
+
+        Producto producto = productoRepository.findById(pedido.getDetalles().get(0).getProducto().getId()).orElseThrow();
+        producto.setNombre("Renombrado");
+        productoRepository.save(producto);
+        VersionFila trasProducto = pedidoService.obtenerVersion(pedido.getId()).orElseThrow();
+
+        Cliente actual = clienteRepository.findById(cliente.getId()).orElseThrow();
+        actual.setNombre("Dana");
+        clienteRepository.save(actual);
+        VersionFila trasCliente = pedidoService.obtenerVersion(pedido.getId()).orElseThrow();
+
+        assertEquals(inicial.version(), trasCliente.version());
+        assertNotEquals(inicial.dependencias(), trasProducto.dependencias());
+        assertNotEquals(trasProducto.dependencias(), trasCliente.dependencias());
     }
 }
@@ -0,0 +1,100 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.repository.UsuarioRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PrincipalCacheTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private PrincipalCache principalCache;
+    private Usuario usuario;
+
+    @Before
+    public void setUp() {
+        principalCache = new PrincipalCache(usuarioRepository, 100, Duration.ofMinutes(5));
+
+        usuario = Usuario.builder()
+                .id(1L)
+                .nombre("Juan Pérez")
+                .email("juan.perez@example.com")
+                .password("encodedPassword")
+                .build();
+    }
+
+    @Test
+    public void testObtener_ConsultaUnaSolaVez() {
+        // Given
+        when(usuarioRepository.findByEmail("juan.perez@example.com")).thenReturn(Optional.of(usuario));
+
+        // When
+        Optional<AuthenticatedPrincipal> primera = principalCache.obtener("juan.perez@example.com");
+        Optional<AuthenticatedPrincipal> segunda = principalCache.obtener("juan.perez@example.com");
+
+        // Then
+        assertTrue(primera.isPresent());
+        assertTrue(segunda.isPresent());
+        assertEquals("El username debe ser el email", "juan.perez@example.com",
+                primera.get().userDetails().getUsername());
+        assertEquals("Debe contener el usuario", usuario, segunda.get().usuario());
+        verify(usuarioRepository, times(1)).findByEmail("juan.perez@example.com");
+    }
+
+    @Test
+    public void testObtener_UsuarioInexistente() {
+        // Given
+        when(usuarioRepository.findByEmail("noexiste@example.com")).thenReturn(Optional.empty());
+
+        // When
+        Optional<AuthenticatedPrincipal> resultado = principalCache.obtener("noexiste@example.com");
+
+        // Then
+        assertFalse("No debe encontrar el usuario", resultado.isPresent());
+    }
+
+    @Test
+    public void testEvict_RecargaElUsuario() {
+        // Given
+        when(usuarioRepository.findByEmail("juan.perez@example.com")).thenReturn(Optional.of(usuario));
+        principalCache.obtener("juan.perez@example.com");
+
+        // When
+        principalCache.evict("juan.perez@example.com");
+        principalCache.obtener("juan.perez@example.com");
+
+        // Then
+        verify(usuarioRepository, times(2)).findByEmail("juan.perez@example.com");
+    }
+
+    @Test
+    public void testEvictUsuario_PorId() {
+        // Given
+        when(usuarioRepository.findByEmail("juan.perez@example.com")).thenReturn(Optional.of(usuario));
+        principalCache.obtener("juan.perez@example.com");
+
+        // When
+        principalCache.evictUsuario(1L);
+        principalCache.obtener("juan.perez@example.com");
+
+        // Then
+        verify(usuarioRepository, times(2)).findByEmail("juan.perez@example.com");
+    }
+}
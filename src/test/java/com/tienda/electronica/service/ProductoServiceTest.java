@@ -5,20 +5,36 @@ import static org.junit.Assert.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.exceptions.CamposInvalidosException;
+import com.tienda.electronica.exceptions.FiltroInvalidoException;
+import com.tienda.electronica.exceptions.LoteInvalidoException;
+import com.tienda.electronica.exceptions.PaginacionInvalidaException;
 import com.tienda.electronica.exceptions.ProductoNotFoundException;
+import com.tienda.electronica.repository.CambioProductoRepository;
 import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.request.ExplorarRequest;
+import com.tienda.electronica.request.PaginaRequest;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class ProductoServiceTest {
+    private static final PaginaRequest PRIMERA_PAGINA = new PaginaRequest(null, null, null);
 
     @Autowired
     private ProductoService productoService;
@@ -26,6 +42,18 @@ public class ProductoServiceTest {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private CambioProductoRepository cambioProductoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IndiceProductos indiceProductos;
+
+    @Autowired
+    private IndicePrecios indicePrecios;
+
     private Producto productoBase;
 
     @Before
@@ -98,9 +126,301 @@ public class ProductoServiceTest {
 
     @Test
     public void testObtenerConStock() {
-        List<Producto> resultado = productoService.obtenerConStock();
+        List<Producto> resultado = productoService.obtenerConStock(PRIMERA_PAGINA).elementos();
         assertFalse(resultado.isEmpty());
         assertTrue(resultado.stream().allMatch(p -> p.getStock() > 0));
     }
 
+    private long ultimaSecuencia() {
+        return cambioProductoRepository.findUltimaSecuencia().orElse(0L);
+    }
+
+    @Test
+    public void testCambiosDesdeSecuencia() {
+        long inicio = ultimaSecuencia();
+        Producto creado = productoService.crear(Producto.builder()
+                .nombre("Mouse").precio(new BigDecimal("80.00")).stock(3).categoria("Accesorios").build());
+        productoService.actualizar(productoBase.getId(), Producto.builder()
+                .nombre("Laptop Pro").precio(new BigDecimal("6000.00")).stock(8).categoria("Computadoras").build());
+        productoService.actualizar(productoBase.getId(), Producto.builder()
+                .nombre("Laptop Pro 2").precio(new BigDecimal("6500.00")).stock(8).categoria("Computadoras").build());
+        productoService.eliminar(creado.getId());
+
+        CambiosProductos cambios = productoService.obtenerCambios(inicio, null);
+
+        assertEquals(1, cambios.productos().size());
+        assertEquals("Laptop Pro 2", cambios.productos().get(0).getNombre());
+        assertEquals(List.of(creado.getId()), cambios.eliminados());
+        assertEquals(inicio + 4, cambios.hasta());
+        assertFalse(cambios.hayMas());
+
+        CambiosProductos siguientes = productoService.obtenerCambios(cambios.hasta(), null);
+        assertTrue(siguientes.productos().isEmpty());
+        assertTrue(siguientes.eliminados().isEmpty());
+        assertEquals(cambios.hasta(), siguientes.hasta());
+    }
+
+    @Test
+    public void testCambiosPorTramos() {
+        long inicio = ultimaSecuencia();
+        for (int i = 0; i < 3; i++) {
+            productoService.crear(Producto.builder()
+                    .nombre("Cable " + i).precio(new BigDecimal("10.00")).stock(1).categoria("Accesorios").build());
+        }
+
+        CambiosProductos primero = productoService.obtenerCambios(inicio, 2);
+        CambiosProductos segundo = productoService.obtenerCambios(primero.hasta(), 2);
+
+        assertTrue(primero.hayMas());
+        assertEquals(2, primero.productos().size());
+        assertFalse(segundo.hayMas());
+        assertEquals("Cable 2", segundo.productos().get(0).getNombre());
+    }
+
+    @Test
+    public void testCambiosNoPasanDeUnaTransaccionPendiente() throws Exception {
+        long inicio = ultimaSecuencia();
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> pendiente = executor.submit(() -> transactionTemplate.executeWithoutResult(estado -> {
+                productoService.actualizar(productoBase.getId(), Producto.builder()
+                        .nombre("Laptop Lenta").precio(new BigDecimal("5000.00")).stock(10).categoria("Computadoras").build());
+                registrado.countDown();
+                try {
+                    confirmar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(registrado.await(5, TimeUnit.SECONDS));
+            // Un cambio posterior ya confirmado no debe adelantar el horizonte
+            Producto otro = productoService.crear(Producto.builder()
+                    .nombre("Monitor").precio(new BigDecimal("900.00")).stock(2).categoria("Monitores").build());
+
+            CambiosProductos durante = productoService.obtenerCambios(inicio, null);
+            assertEquals(inicio, durante.hasta());
+            assertTrue(durante.productos().isEmpty());
+
+            confirmar.countDown();
+            pendiente.get(5, TimeUnit.SECONDS);
+
+            CambiosProductos despues = productoService.obtenerCambios(inicio, null);
+            assertEquals(List.of(productoBase.getId(), otro.getId()),
+                    despues.productos().stream().map(Producto::getId).toList());
+        } finally {
+            confirmar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testCambiosSecuenciaNegativa() {
+        productoService.obtenerCambios(-1, null);
+    }
+
+    @Test
+    public void testObtenerVarios() {
+        Producto otro = productoRepository.save(Producto.builder()
+                .nombre("Parlante").precio(new BigDecimal("120.00")).stock(4).categoria("Audio").build());
+
+        Lote<Producto> lote = productoService.obtenerVarios(List.of(otro.getId(), 999_999L, productoBase.getId()));
+
+        assertEquals(List.of("Parlante", "Laptop"), lote.encontrados().stream().map(Producto::getNombre).toList());
+        assertEquals(List.of(999_999L), lote.faltantes());
+    }
+
+    @Test(expected = LoteInvalidoException.class)
+    public void testObtenerVariosSuperaElMaximo() {
+        productoService.obtenerVarios(LongStream.rangeClosed(1, 101).boxed().toList());
+    }
+
+    @Test
+    public void testObtenerTodosConCamposLeeSoloEsasColumnas() {
+        List<Producto> resultado = productoService.obtenerTodos(new PaginaRequest(null, 200, null), "nombre,stock")
+                .elementos();
+
+        Producto laptop = resultado.stream()
+                .filter(p -> p.getId().equals(productoBase.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Laptop", laptop.getNombre());
+        assertEquals(Integer.valueOf(10), laptop.getStock());
+        assertNotNull(laptop.getVersion());
+        assertNull(laptop.getDescripcion());
+        assertNull(laptop.getPrecio());
+    }
+
+    @Test
+    public void testObtenerPorCategoriaConCampos() {
+        List<Producto> resultado = productoService.obtenerPorCategoria("computadoras", PRIMERA_PAGINA, "precio")
+                .elementos();
+
+        assertFalse(resultado.isEmpty());
+        assertTrue(resultado.stream().allMatch(p -> p.getPrecio() != null && p.getNombre() == null));
+    }
+
+    @Test
+    public void testObtenerPorIdConCampos() {
+        Producto producto = productoService.obtenerPorId(productoBase.getId(), "precio").orElseThrow();
+
+        assertEquals(new BigDecimal("5000.00"), producto.getPrecio());
+        assertNull(producto.getNombre());
+    }
+
+    @Test(expected = CamposInvalidosException.class)
+    public void testCampoDesconocido() {
+        productoService.obtenerTodos(PRIMERA_PAGINA, "nombre,clave");
+    }
+
+    @Test
+    public void testBuscarPorRelevanciaConIndice() {
+        indiceProductos.reconstruir();
+        Producto auriculares = productoService.crear(Producto.builder()
+                .nombre("Auriculares Bluetooth").descripcion("Cancelación de ruido").precio(new BigDecimal("300.00"))
+                .stock(5).categoria("Audio").build());
+
+        List<Producto> resultado = productoService.buscar("auriculares cancelacion", PRIMERA_PAGINA).elementos();
+        assertEquals(auriculares.getId(), resultado.get(0).getId());
+
+        productoService.eliminar(auriculares.getId());
+        assertTrue(productoService.buscar("auriculares", PRIMERA_PAGINA).elementos().stream()
+                .noneMatch(p -> p.getId().equals(auriculares.getId())));
+    }
+
+    @Test
+    public void testBuscarSinIndicePaginaEnBaseDeDatos() {
+        for (int i = 1; i <= 3; i++) {
+            productoRepository.save(Producto.builder().nombre("Cargador_" + i).precio(new BigDecimal("10.00"))
+                    .stock(1).categoria("Accesorios").build());
+        }
+        productoRepository.save(Producto.builder().nombre("CargadorX").precio(new BigDecimal("10.00"))
+                .stock(1).categoria("Accesorios").build());
+        ReflectionTestUtils.setField(indiceProductos, "listo", false);
+        try {
+            Pagina<Producto> primera = productoService.buscar("cargador_", new PaginaRequest(null, 2, true));
+            assertEquals(List.of("Cargador_1", "Cargador_2"),
+                    primera.elementos().stream().map(Producto::getNombre).toList());
+            assertEquals(Long.valueOf(3), primera.total());
+
+            Pagina<Producto> segunda = productoService.buscar("cargador_",
+                    new PaginaRequest(primera.siguienteCursor(), 2, null));
+            assertEquals(List.of("Cargador_3"), segunda.elementos().stream().map(Producto::getNombre).toList());
+            assertNull(segunda.siguienteCursor());
+        } finally {
+            ReflectionTestUtils.setField(indiceProductos, "listo", true);
+        }
+    }
+
+    @Test
+    public void testSugerirReflejaLasEscrituras() {
+        Producto creado = productoService.crear(Producto.builder()
+                .nombre("Proyector Zenital")
+                .precio(new BigDecimal("900.00"))
+                .stock(3)
+                .categoria("Video")
+                .build());
+
+        assertEquals(List.of(creado.getId()),
+                productoService.sugerir("zenit", null).stream().map(s -> s.id()).toList());
+
+        productoService.eliminar(creado.getId());
+        assertTrue(productoService.sugerir("zenit", null).isEmpty());
+    }
+
+    @Test(expected = PaginacionInvalidaException.class)
+    public void testSugerirLimiteInvalido() {
+        productoService.sugerir("lap", 0);
+    }
+
+    @Test
+    public void testExplorarReflejaLasEscrituras() {
+        ExplorarRequest filtro = new ExplorarRequest(List.of("Drones"), true, List.of("1000-2500"));
+        Producto creado = productoService.crear(Producto.builder()
+                .nombre("Dron Plegable")
+                .precio(new BigDecimal("1200.00"))
+                .stock(2)
+                .categoria("Drones")
+                .build());
+
+        Pagina<Producto> pagina = productoService.explorar(filtro, new PaginaRequest(null, null, true));
+        assertEquals(List.of(creado.getId()), pagina.elementos().stream().map(Producto::getId).toList());
+        assertEquals(Long.valueOf(1), pagina.total());
+        assertEquals(Long.valueOf(1), productoService.obtenerFacetas(filtro).precios().get("1000-2500"));
+
+        creado.setStock(0);
+        productoService.actualizar(creado.getId(), creado);
+        assertTrue(productoService.explorar(filtro, PRIMERA_PAGINA).elementos().isEmpty());
+        assertEquals(0, productoService.obtenerFacetas(filtro).conStock());
+    }
+
+    @Test
+    public void testObtenerPorPrecioPaginaPorPrecioEId() {
+        indicePrecios.reconstruir();
+        List<Long> ids = LongStream.rangeClosed(1, 3)
+                .mapToObj(i -> productoService.crear(Producto.builder()
+                        .nombre("Cable " + i)
+                        .precio(new BigDecimal(i == 3 ? "0.77" : "0.75"))
+                        .stock(1)
+                        .categoria("Cables")
+                        .build()).getId())
+                .toList();
+        BigDecimal minimo = new BigDecimal("0.75");
+        BigDecimal maximo = new BigDecimal("0.77");
+
+        Pagina<Producto> primera = productoService.obtenerPorPrecio(minimo, maximo, false,
+                new PaginaRequest(null, 2, true));
+        Pagina<Producto> segunda = productoService.obtenerPorPrecio(minimo, maximo, false,
+                new PaginaRequest(primera.siguienteCursor(), 2, null));
+
+        assertEquals(ids.subList(0, 2), primera.elementos().stream().map(Producto::getId).toList());
+        assertEquals(Long.valueOf(3), primera.total());
+        assertEquals(ids.subList(2, 3), segunda.elementos().stream().map(Producto::getId).toList());
+        assertNull(segunda.siguienteCursor());
+
+        Producto encarecido = productoRepository.findById(ids.get(0)).orElseThrow();
+        encarecido.setPrecio(new BigDecimal("0.80"));
+        productoService.actualizar(encarecido.getId(), encarecido);
+        assertEquals(List.of(ids.get(2), ids.get(1)), productoService
+                .obtenerPorPrecio(minimo, maximo, true, PRIMERA_PAGINA).elementos().stream()
+                .map(Producto::getId).toList());
+    }
+
+    @Test
+    public void testObtenerPorPrecioCursorSigueAlIndice() {
+        indicePrecios.reconstruir();
+        List<Long> ids = LongStream.rangeClosed(1, 3)
+                .mapToObj(i -> productoService.crear(Producto.builder()
+                        .nombre("Adaptador " + i)
+                        .precio(new BigDecimal(i == 3 ? "0.67" : "0.65"))
+                        .stock(1)
+                        .categoria("Cables")
+                        .build()).getId())
+                .toList();
+        // Cambio que el índice aún no ha recibido
+        Producto rebajado = productoRepository.findById(ids.get(1)).orElseThrow();
+        rebajado.setPrecio(new BigDecimal("0.60"));
+        productoRepository.save(rebajado);
+        BigDecimal minimo = new BigDecimal("0.65");
+        BigDecimal maximo = new BigDecimal("0.67");
+
+        Pagina<Producto> primera = productoService.obtenerPorPrecio(minimo, maximo, false,
+                new PaginaRequest(null, 2, null));
+        Pagina<Producto> segunda = productoService.obtenerPorPrecio(minimo, maximo, false,
+                new PaginaRequest(primera.siguienteCursor(), 2, null));
+
+        assertEquals(ids.subList(0, 2), primera.elementos().stream().map(Producto::getId).toList());
+        assertEquals(ids.subList(2, 3), segunda.elementos().stream().map(Producto::getId).toList());
+    }
+
+    @Test(expected = FiltroInvalidoException.class)
+    public void testObtenerPorPrecioFueraDeRango() {
+        productoService.obtenerPorPrecio(new BigDecimal("1e30"), null, false, PRIMERA_PAGINA);
+    }
+
+    @Test(expected = FiltroInvalidoException.class)
+    public void testObtenerPorPrecioRangoInvalido() {
+        productoService.obtenerPorPrecio(BigDecimal.TEN, BigDecimal.ONE, false, PRIMERA_PAGINA);
+    }
 }
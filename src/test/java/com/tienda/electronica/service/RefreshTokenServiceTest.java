@@ -0,0 +1,168 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.tienda.electronica.entity.RefreshToken;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.repository.RefreshTokenRepository;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenService refreshTokenService;
+    private Usuario usuario;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, meterRegistry, 604800000L);
+        usuario = Usuario.builder()
+                .id(1L)
+                .email("juan.perez@example.com")
+                .build();
+    }
+
+    private RefreshToken sesion(String tokenHash, String previousHash) {
+        return RefreshToken.builder()
+                .id(10L)
+                .tokenHash(tokenHash)
+                .previousHash(previousHash)
+                .usuario(usuario)
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    private double reutilizados() {
+        return meterRegistry.get("auth.refresh.reuse").counter().count();
+    }
+
+    @Test
+    public void testEmitir_SoloGuardaElHash() {
+        // When
+        String token = refreshTokenService.emitir(usuario);
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(1)).save(captor.capture());
+        RefreshToken guardado = captor.getValue();
+        assertEquals("256 bits en base64url", 43, token.length());
+        assertEquals(TokenHasher.hash(token), guardado.getTokenHash());
+        assertNotEquals(token, guardado.getTokenHash());
+        assertEquals(usuario, guardado.getUsuario());
+        assertTrue(guardado.getExpiresAt().isAfter(Instant.now().plusSeconds(604000)));
+    }
+
+    @Test
+    public void testRotar_EmiteUnTokenNuevo() {
+        // Given
+        String hash = TokenHasher.hash("actual");
+        when(refreshTokenRepository.findVigenteOAnterior(hash)).thenReturn(Optional.of(sesion(hash, null)));
+        when(refreshTokenRepository.rotar(eq(10L), eq(hash), anyString(), any(Instant.class))).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotacion rotacion = refreshTokenService.rotar("actual");
+
+        // Then
+        assertEquals(usuario, rotacion.usuario());
+        assertNotEquals("actual", rotacion.refreshToken());
+        verify(refreshTokenRepository, times(1))
+                .rotar(eq(10L), eq(hash), eq(TokenHasher.hash(rotacion.refreshToken())), any(Instant.class));
+        verify(refreshTokenRepository, never()).revocar(anyLong());
+        assertEquals(0.0, reutilizados(), 0.0);
+    }
+
+    @Test
+    public void testRotar_TokenAnteriorRevocaLaSesion() {
+        // Given
+        String anterior = TokenHasher.hash("anterior");
+        when(refreshTokenRepository.findVigenteOAnterior(anterior))
+                .thenReturn(Optional.of(sesion(TokenHasher.hash("actual"), anterior)));
+
+        // When
+        try {
+            refreshTokenService.rotar("anterior");
+            fail("Debe lanzar IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Then
+            verify(refreshTokenRepository, times(1)).revocar(10L);
+            verify(refreshTokenRepository, never()).rotar(anyLong(), anyString(), anyString(), any(Instant.class));
+            assertEquals(1.0, reutilizados(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRotar_CarreraConOtraRotacionRevocaLaSesion() {
+        // Given
+        String hash = TokenHasher.hash("actual");
+        when(refreshTokenRepository.findVigenteOAnterior(hash)).thenReturn(Optional.of(sesion(hash, null)));
+        when(refreshTokenRepository.rotar(eq(10L), eq(hash), anyString(), any(Instant.class))).thenReturn(0);
+
+        // When
+        try {
+            refreshTokenService.rotar("actual");
+            fail("Debe lanzar IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Then
+            verify(refreshTokenRepository, times(1)).revocar(10L);
+            assertEquals(1.0, reutilizados(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRotar_SesionRevocadaNoCuentaComoReutilizacion() {
+        // Given
+        String hash = TokenHasher.hash("actual");
+        RefreshToken revocada = sesion(hash, null);
+        revocada.setRevoked(true);
+        when(refreshTokenRepository.findVigenteOAnterior(hash)).thenReturn(Optional.of(revocada));
+        when(refreshTokenRepository.rotar(eq(10L), eq(hash), anyString(), any(Instant.class))).thenReturn(0);
+
+        // When
+        try {
+            refreshTokenService.rotar("actual");
+            fail("Debe lanzar IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Then
+            verify(refreshTokenRepository, never()).revocar(anyLong());
+            assertEquals(0.0, reutilizados(), 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRotar_TokenDesconocido() {
+        // Given
+        when(refreshTokenRepository.findVigenteOAnterior(TokenHasher.hash("desconocido")))
+                .thenReturn(Optional.empty());
+
+        // When - Then (debe lanzar excepción)
+        refreshTokenService.rotar("desconocido");
+    }
+}
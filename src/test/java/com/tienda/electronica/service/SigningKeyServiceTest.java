@@ -0,0 +1,202 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.tienda.electronica.entity.SigningKey;
+import com.tienda.electronica.repository.SigningKeyRepository;
+
+import io.jsonwebtoken.security.SignatureException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SigningKeyServiceTest {
+
+    private static final Duration ROTACION = Duration.ofDays(30);
+    private static final Duration ANTELACION = Duration.ofHours(1);
+    private static final Duration SOLAPE = Duration.ofHours(2);
+
+    @Mock
+    private SigningKeyRepository signingKeyRepository;
+
+    private final List<SigningKey> filas = new ArrayList<>();
+    private AtomicLong reloj;
+
+    @Before
+    public void setUp() {
+        reloj = new AtomicLong(1_700_000_000_000L);
+        lenient().when(signingKeyRepository.findAllByOrderByActiveFromAsc()).thenAnswer(invocation -> filas.stream()
+                .sorted(Comparator.comparing(SigningKey::getActiveFrom))
+                .toList());
+        lenient().when(signingKeyRepository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+            SigningKey clave = invocation.getArgument(0);
+            filas.add(clave);
+            return clave;
+        });
+        lenient().doAnswer(invocation -> {
+            Iterable<String> kids = invocation.getArgument(0);
+            kids.forEach(kid -> filas.removeIf(fila -> fila.getKid().equals(kid)));
+            return null;
+        }).when(signingKeyRepository).deleteAllByIdInBatch(any());
+    }
+
+    private SigningKeyService crear(String algoritmo) {
+        SigningKeyService service = new SigningKeyService(signingKeyRepository, algoritmo,
+                ROTACION, ANTELACION, SOLAPE, reloj::get);
+        service.init();
+        return service;
+    }
+
+    private void avanzar(Duration duracion) {
+        reloj.addAndGet(duracion.toMillis());
+    }
+
+    @Test
+    public void testInit_Hs256NoCreaClaves() {
+        // When
+        SigningKeyService service = crear(SigningKeyService.HS256);
+
+        // Then
+        assertFalse(service.isAsymmetric());
+        verifyNoInteractions(signingKeyRepository);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAlgoritmoNoSoportado() {
+        crear("RS1");
+    }
+
+    @Test
+    public void testInit_CreaUnaClaveActivaYLaPublica() {
+        // When
+        SigningKeyService service = crear("ES256");
+
+        // Then
+        assertEquals(1, filas.size());
+        String kid = service.claveDeFirma().kid();
+        assertEquals(kid, filas.get(0).getKid());
+        String jwks = service.jwks();
+        assertTrue(jwks.startsWith("{\"keys\":["));
+        assertTrue(jwks.contains("\"kid\":\"" + kid + "\""));
+        assertTrue(jwks.contains("\"kty\":\"EC\""));
+        assertTrue(jwks.contains("\"alg\":\"ES256\""));
+        assertTrue(jwks.contains("\"use\":\"sig\""));
+        assertFalse("Nunca se publica la parte privada", jwks.contains("\"d\""));
+        assertEquals(Duration.ofMinutes(30), service.maxAgeJwks());
+    }
+
+    @Test
+    public void testInit_ReutilizaLaClaveDeOtroNodo() {
+        // Given
+        String kid = crear("ES256").claveDeFirma().kid();
+
+        // When
+        SigningKeyService otroNodo = crear("ES256");
+
+        // Then
+        assertEquals(1, filas.size());
+        assertEquals(kid, otroNodo.claveDeFirma().kid());
+    }
+
+    @Test
+    public void testRotar_PublicaAntesDeFirmarYRetiraTrasElSolape() {
+        // Given
+        SigningKeyService service = crear("ES256");
+        String anterior = service.claveDeFirma().kid();
+        String etagInicial = service.etag();
+
+        // When - se acerca el fin de la rotación
+        avanzar(ROTACION.minus(ANTELACION));
+        service.rotarSiCorresponde();
+
+        // Then - la nueva clave se publica pero aún no firma
+        assertEquals(2, filas.size());
+        assertEquals(anterior, service.claveDeFirma().kid());
+        assertNotEquals(etagInicial, service.etag());
+        String nueva = filas.stream().map(SigningKey::getKid).filter(kid -> !kid.equals(anterior)).findFirst()
+                .orElseThrow();
+        assertTrue(service.jwks().contains(nueva));
+
+        // When - llega su momento
+        avanzar(ANTELACION);
+
+        // Then - firma la nueva y la anterior sigue verificando
+        assertEquals(nueva, service.claveDeFirma().kid());
+        service.clavePublica(anterior);
+
+        // When - pasa el solape
+        avanzar(SOLAPE);
+        service.rotarSiCorresponde();
+
+        // Then
+        assertEquals(1, filas.size());
+        assertFalse(service.jwks().contains(anterior));
+        verify(signingKeyRepository, times(1)).deleteAllByIdInBatch(List.of(anterior));
+    }
+
+    @Test
+    public void testClavePublica_KidDesconocidoRecargaComoMuchoUnaVez() {
+        // Given
+        SigningKeyService service = crear("ES256");
+        avanzar(Duration.ofMinutes(1));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            try {
+                service.clavePublica("desconocido");
+                fail("Debe lanzar SignatureException");
+            } catch (SignatureException e) {
+                // Then
+            }
+        }
+
+        // Then - init, rotación inicial y una sola recarga
+        verify(signingKeyRepository, times(3)).findAllByOrderByActiveFromAsc();
+    }
+
+    @Test
+    public void testClavePublica_EncuentraLaClaveCreadaPorOtroNodo() {
+        // Given
+        SigningKeyService service = crear("ES256");
+        avanzar(ROTACION);
+        SigningKeyService otroNodo = crear("ES256");
+        String nueva = otroNodo.claveDeFirma().kid();
+
+        // When
+        service.clavePublica(nueva);
+
+        // Then
+        assertTrue(service.jwks().contains(nueva));
+    }
+
+    @Test
+    public void testEdDSA() {
+        // When
+        SigningKeyService service = crear("EdDSA");
+
+        // Then
+        assertTrue(service.jwks().contains("\"kty\":\"OKP\""));
+        assertTrue(service.jwks().contains("\"crv\":\"Ed25519\""));
+        service.clavePublica(service.claveDeFirma().kid());
+    }
+}
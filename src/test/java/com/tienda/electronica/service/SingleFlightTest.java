@@ -0,0 +1,153 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tienda.electronica.exceptions.ServicioSaturadoException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+    private static final int HILOS = 8;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(HILOS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Lanza HILOS lecturas de la misma clave mientras la primera está bloqueada
+    private List<Future<Object>> lanzar(final SingleFlight singleFlight, final String clave,
+            final CountDownLatch liberar, final AtomicInteger consultas, final Object resultado)
+            throws InterruptedException {
+        final CountDownLatch dentro = new CountDownLatch(1);
+        final List<Future<Object>> llamadas = new ArrayList<>();
+        llamadas.add(executor.submit(() -> singleFlight.ejecutar(clave, () -> {
+            consultas.incrementAndGet();
+            dentro.countDown();
+            esperar(liberar);
+            return resultado;
+        })));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < HILOS; i++) {
+            llamadas.add(executor.submit(() -> singleFlight.ejecutar(clave, () -> {
+                consultas.incrementAndGet();
+                return new Object();
+            })));
+        }
+        return llamadas;
+    }
+
+    private static void esperar(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testLecturasConcurrentesCompartenUnaConsulta() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), 100, Duration.ofSeconds(5));
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        Object resultado = new Object();
+
+        List<Future<Object>> llamadas = lanzar(singleFlight, "producto:1", liberar, consultas, resultado);
+        // Da tiempo a que los demás hilos se queden esperando la llamada en curso
+        Thread.sleep(100);
+        liberar.countDown();
+
+        for (Future<Object> llamada : llamadas) {
+            assertSame(resultado, llamada.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, consultas.get());
+
+        // Terminada la llamada, la siguiente vuelve a consultar
+        singleFlight.ejecutar("producto:1", consultas::incrementAndGet);
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    public void testErrorSePropagaATodos() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), 100, Duration.ofSeconds(5));
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<Object> primera = executor.submit(() -> singleFlight.ejecutar("pedido:1", () -> {
+            dentro.countDown();
+            esperar(liberar);
+            throw new IllegalStateException("fallo");
+        }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+        Future<Object> segunda = executor.submit(() -> singleFlight.ejecutar("pedido:1", Object::new));
+        Thread.sleep(100);
+        liberar.countDown();
+
+        for (Future<Object> llamada : List.of(primera, segunda)) {
+            try {
+                llamada.get(5, TimeUnit.SECONDS);
+                fail("Se esperaba el error de la consulta");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testEsperaConTimeout() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), 100, Duration.ofMillis(50));
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<Object>> llamadas = lanzar(singleFlight, "producto:2", liberar, consultas, "ok");
+        try {
+            llamadas.get(1).get(5, TimeUnit.SECONDS);
+            fail("Se esperaba el timeout");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServicioSaturadoException);
+        } finally {
+            liberar.countDown();
+        }
+        assertEquals("ok", llamadas.get(0).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTablaLlenaNoAgrupa() throws Exception {
+        SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), 1, Duration.ofSeconds(5));
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        List<Future<Object>> llamadas = lanzar(singleFlight, "producto:3", liberar, consultas, "ok");
+        for (int i = 1; i < llamadas.size(); i++) {
+            llamadas.get(i).get(5, TimeUnit.SECONDS);
+        }
+        liberar.countDown();
+        llamadas.get(0).get(5, TimeUnit.SECONDS);
+
+        assertEquals(HILOS, consultas.get());
+    }
+}
@@ -0,0 +1,139 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tienda.electronica.entity.Producto;
+import com.tienda.electronica.repository.PedidoRepository;
+import com.tienda.electronica.repository.ProductoRepository;
+import com.tienda.electronica.repository.VentasProducto;
+import com.tienda.electronica.response.SugerenciaResponse;
+
+public class SugerenciasProductosTest {
+    private SugerenciasProductos sugerencias;
+    private ProductoRepository productoRepository;
+    private PedidoRepository pedidoRepository;
+
+    @Before
+    public void setUp() {
+        sugerencias = new SugerenciasProductos(3, 1000);
+        productoRepository = mock(ProductoRepository.class);
+        pedidoRepository = mock(PedidoRepository.class);
+        ReflectionTestUtils.setField(sugerencias, "productoRepository", productoRepository);
+        ReflectionTestUtils.setField(sugerencias, "pedidoRepository", pedidoRepository);
+    }
+
+    private static Producto producto(long id, String nombre, int stock) {
+        return Producto.builder()
+                .id(id)
+                .nombre(nombre)
+                .precio(new BigDecimal("10.00"))
+                .stock(stock)
+                .build();
+    }
+
+    private List<Long> sugerir(String prefijo) {
+        return sugerencias.sugerir(prefijo, 10).stream().map(SugerenciaResponse::id).toList();
+    }
+
+    @Test
+    public void testVacioAntesDeConstruir() {
+        assertFalse(sugerencias.estaListo());
+        assertEquals(List.of(), sugerir("lap"));
+    }
+
+    @Test
+    public void testPrefijoDeCualquierPalabraSinTildes() {
+        sugerencias.indexar(producto(1, "Teléfono Móvil", 5));
+        sugerencias.indexar(producto(2, "Laptop Gaming", 5));
+
+        assertEquals(List.of(1L), sugerir("TELE"));
+        assertEquals(List.of(1L), sugerir("movi"));
+        assertEquals(List.of(2L), sugerir("laptop-gam"));
+        assertEquals(List.of(), sugerir("gaminx"));
+    }
+
+    @Test
+    public void testConStockPrimeroYDespuesMasVendidos() {
+        when(pedidoRepository.findVentasPorProducto())
+                .thenReturn(List.of(new VentasProducto(1L, 50L), new VentasProducto(3L, 7L)));
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(
+                        producto(1, "Laptop Agotada", 0),
+                        producto(2, "Laptop Basica", 4),
+                        producto(3, "Laptop Pro", 2)));
+
+        sugerencias.reconstruir();
+
+        assertTrue(sugerencias.estaListo());
+        assertEquals(List.of(3L, 2L, 1L), sugerir("lap"));
+    }
+
+    @Test
+    public void testLimitaAlTopKDelNodo() {
+        for (long id = 1; id <= 5; id++) {
+            sugerencias.indexar(producto(id, "Cable " + id, 1));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), sugerir("cab"));
+        assertEquals(List.of(5L), sugerir("cable 5"));
+    }
+
+    @Test
+    public void testActualizarYEliminarCambianLasSugerencias() {
+        sugerencias.indexar(producto(1, "Mouse", 1));
+        sugerencias.indexar(producto(2, "Monitor", 1));
+        sugerencias.indexar(producto(1, "Teclado", 1));
+
+        assertEquals(List.of(2L), sugerir("mo"));
+        assertEquals(List.of(1L), sugerir("tec"));
+
+        sugerencias.eliminar(2L);
+        assertEquals(List.of(), sugerir("mo"));
+    }
+
+    @Test
+    public void testAlActualizarConservaLasVentas() {
+        when(pedidoRepository.findVentasPorProducto()).thenReturn(List.of(new VentasProducto(2L, 10L)));
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(producto(1, "Audifonos A", 1), producto(2, "Audifonos B", 1)));
+        sugerencias.reconstruir();
+
+        sugerencias.indexar(producto(2, "Audifonos B2", 1));
+
+        assertEquals(List.of(2L, 1L), sugerir("audi"));
+    }
+
+    @Test
+    public void testCambiosDuranteReconstruccionSeAplicanSinReleer() {
+        when(pedidoRepository.findVentasPorProducto()).thenReturn(List.of(new VentasProducto(1L, 4L)));
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            // Llegan mientras se lee el catálogo
+            sugerencias.indexar(producto(1, "Router Nuevo", 1));
+            sugerencias.eliminar(2L);
+            return List.of(producto(1, "Router Viejo", 1), producto(2, "Router Mesh", 1));
+        });
+
+        sugerencias.reconstruir();
+
+        assertEquals(List.of(1L), sugerir("router"));
+        assertEquals(List.of(1L), sugerir("nuevo"));
+        assertEquals(List.of(), sugerir("viejo"));
+        verify(productoRepository, never()).findById(anyLong());
+    }
+}
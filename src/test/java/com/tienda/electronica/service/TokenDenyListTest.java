@@ -0,0 +1,83 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TokenDenyListTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenDenyList tokenDenyList;
+    private Instant ahora;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenDenyList = new TokenDenyList(meterRegistry, 3600000L);
+        ahora = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private VerifiedClaims claims(String jti, Instant emitido, Instant expira) {
+        return new VerifiedClaims(jti, "juan.perez@example.com", "Juan Pérez",
+                VerifiedClaims.ACCESS_TOKEN, emitido, expira);
+    }
+
+    @Test
+    public void testRevocar_JtiRevocado() {
+        // Given
+        VerifiedClaims revocado = claims("jti-1", ahora, ahora.plusSeconds(3600));
+        VerifiedClaims otro = claims("jti-2", ahora, ahora.plusSeconds(3600));
+
+        // When
+        tokenDenyList.revocar(revocado);
+
+        // Then
+        assertTrue(tokenDenyList.isRevoked(revocado));
+        assertFalse(tokenDenyList.isRevoked(otro));
+        assertEquals(1.0, meterRegistry.get("auth.token.denylist.size").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void testRevocar_TokenExpiradoNoOcupaEspacio() {
+        // When
+        tokenDenyList.revocar(claims("jti-viejo", ahora.minusSeconds(7200), ahora.minusSeconds(3600)));
+
+        // Then
+        assertEquals(0.0, meterRegistry.get("auth.token.denylist.size").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void testRevocarEmitidosAntesDe_RespetaElTokenDelMismoSegundo() {
+        // Given
+        VerifiedClaims anterior = claims("jti-anterior", ahora.minusSeconds(60), ahora.plusSeconds(3000));
+        VerifiedClaims nuevo = claims("jti-nuevo", ahora, ahora.plusSeconds(3600));
+
+        // When
+        tokenDenyList.revocarEmitidosAntesDe("juan.perez@example.com", ahora.plusMillis(500));
+
+        // Then
+        assertTrue("Los tokens emitidos antes deben quedar revocados", tokenDenyList.isRevoked(anterior));
+        assertFalse("El token emitido en el mismo login sigue válido", tokenDenyList.isRevoked(nuevo));
+    }
+
+    @Test
+    public void testRevocar_NoDesalojaRevocacionesVigentes() {
+        // Given
+        for (int i = 0; i < 5000; i++) {
+            tokenDenyList.revocar(claims("jti-" + i, ahora, ahora.plusSeconds(3600)));
+        }
+
+        // Then
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(tokenDenyList.isRevoked(claims("jti-" + i, ahora, ahora.plusSeconds(3600))));
+        }
+    }
+}
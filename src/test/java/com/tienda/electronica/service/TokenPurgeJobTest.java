@@ -0,0 +1,94 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Limit;
+
+import com.tienda.electronica.repository.RefreshTokenRepository;
+import com.tienda.electronica.repository.TokenRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenPurgeJobTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenPurgeJob tokenPurgeJob;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenPurgeJob = new TokenPurgeJob(tokenRepository, refreshTokenRepository, meterRegistry, Duration.ofDays(7), 2);
+    }
+
+    @Test
+    public void testPurgar_BorraPorLotesHastaAgotar() {
+        // Given
+        Instant limite = Instant.now();
+        when(tokenRepository.findIdsExpiradosAntesDe(eq(limite), any(Limit.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        // When
+        long eliminados = tokenPurgeJob.purgarAntesDe(limite);
+
+        // Then
+        assertEquals(5, eliminados);
+        verify(tokenRepository, times(3)).deleteAllByIdInBatch(anyList());
+        assertEquals(5.0, meterRegistry.counter("auth.token.purge.deleted").count(), 0.0);
+        assertEquals(3.0, meterRegistry.counter("auth.token.purge.batches").count(), 0.0);
+        assertEquals(5.0, meterRegistry.get("auth.token.purge.last.deleted").gauge().value(), 0.0);
+    }
+
+    @Test
+    public void testPurgar_SinTokensExpiradosNoBorra() {
+        // Given
+        when(tokenRepository.findIdsExpiradosAntesDe(any(Instant.class), any(Limit.class)))
+                .thenReturn(List.of());
+
+        // When
+        long eliminados = tokenPurgeJob.purgar();
+
+        // Then
+        assertEquals(0, eliminados);
+        verify(tokenRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    public void testPurgar_IncluyeSesionesDeRefresh() {
+        // Given
+        Instant limite = Instant.now();
+        when(tokenRepository.findIdsExpiradosAntesDe(eq(limite), any(Limit.class))).thenReturn(List.of(1L));
+        when(refreshTokenRepository.findIdsExpiradosAntesDe(eq(limite), any(Limit.class)))
+                .thenReturn(List.of(7L, 8L), List.of());
+
+        // When
+        long eliminados = tokenPurgeJob.purgarAntesDe(limite);
+
+        // Then
+        assertEquals(3, eliminados);
+        verify(refreshTokenRepository, times(1)).deleteAllByIdInBatch(List.of(7L, 8L));
+        assertEquals(3.0, meterRegistry.get("auth.token.purge.last.deleted").gauge().value(), 0.0);
+    }
+}
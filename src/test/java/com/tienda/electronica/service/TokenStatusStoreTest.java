@@ -0,0 +1,162 @@
+package com.tienda.electronica.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.tienda.electronica.entity.Token;
+import com.tienda.electronica.entity.Usuario;
+import com.tienda.electronica.repository.TokenEstado;
+import com.tienda.electronica.repository.TokenRepository;
+import com.tienda.electronica.security.TokenHasher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenStatusStoreTest {
+
+    @Mock
+    private TokenRepository tokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenStatusStore tokenStatusStore;
+    private Instant expiracion;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenStatusStore = new TokenStatusStore(tokenRepository, meterRegistry, 3600000L, 1000L, 1000L, 0.001);
+        expiracion = Instant.now().plusSeconds(3600);
+    }
+
+    private double lookups(String resultado) {
+        return meterRegistry.counter("auth.token.store.lookups", "result", resultado).count();
+    }
+
+    @Test
+    public void testIsActive_TokenRegistradoNoConsultaBaseDeDatos() {
+        // Given
+        tokenStatusStore.registrar(TokenHasher.hash("token-valido"), 1L, expiracion);
+
+        // When
+        boolean activo = tokenStatusStore.isActive("token-valido");
+
+        // Then
+        assertTrue("El token registrado debe estar activo", activo);
+        assertEquals("Debe contar un hit", 1.0, lookups("hit"), 0.0);
+        verify(tokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    public void testIsActive_TokenRevocadoNoConsultaBaseDeDatos() {
+        // Given
+        tokenStatusStore.registrar(TokenHasher.hash("token-revocado"), 1L, expiracion);
+        tokenStatusStore.revocar(TokenHasher.hash("token-revocado"));
+
+        // When
+        boolean activo = tokenStatusStore.isActive("token-revocado");
+
+        // Then
+        assertFalse("El token revocado no debe estar activo", activo);
+        assertEquals("Debe contar un rechazo por el filtro", 1.0, lookups("revoked"), 0.0);
+        verify(tokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    public void testIsActive_TokenDesconocidoSeCargaDesdeBaseDeDatos() {
+        // Given
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Token token = Token.builder().token("token-otro-nodo").usuario(usuario).expiresAt(expiracion).build();
+        when(tokenRepository.findByTokenHash(TokenHasher.hash("token-otro-nodo"))).thenReturn(Optional.of(token));
+
+        // When
+        boolean primera = tokenStatusStore.isActive("token-otro-nodo");
+        boolean segunda = tokenStatusStore.isActive("token-otro-nodo");
+
+        // Then
+        assertTrue(primera);
+        assertTrue(segunda);
+        assertEquals("Solo la primera consulta debe ser un miss", 1.0, lookups("miss"), 0.0);
+        verify(tokenRepository, times(1)).findByTokenHash(TokenHasher.hash("token-otro-nodo"));
+    }
+
+    @Test
+    public void testIsActive_TokenSinRegistroSeRechazaUnaSolaVez() {
+        // Given
+        when(tokenRepository.findByTokenHash(TokenHasher.hash("token-inexistente"))).thenReturn(Optional.empty());
+
+        // When
+        assertFalse(tokenStatusStore.isActive("token-inexistente"));
+        assertFalse(tokenStatusStore.isActive("token-inexistente"));
+
+        // Then
+        verify(tokenRepository, times(1)).findByTokenHash(TokenHasher.hash("token-inexistente"));
+    }
+
+    @Test
+    public void testReconstruir_CargaVigentesYRevocados() {
+        // Given
+        when(tokenRepository.streamVigentes(any(Instant.class), eq(Token.TokenType.BEARER)))
+                .thenReturn(Stream.of(
+                        new TokenEstado(TokenHasher.hash("token-a"), 1L, false, false, expiracion),
+                        new TokenEstado(TokenHasher.hash("token-b"), 1L, true, true, expiracion)));
+
+        // When
+        tokenStatusStore.reconstruir();
+
+        // Then
+        assertTrue(tokenStatusStore.isActive("token-a"));
+        assertFalse(tokenStatusStore.isActive("token-b"));
+        verify(tokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    public void testRevocarTodos_RevocaLosTokensDelUsuario() {
+        // Given
+        tokenStatusStore.registrar(TokenHasher.hash("token-1"), 1L, expiracion);
+        tokenStatusStore.registrar(TokenHasher.hash("token-2"), 1L, expiracion);
+        tokenStatusStore.registrar(TokenHasher.hash("token-3"), 2L, expiracion);
+
+        // When
+        tokenStatusStore.revocarTodos(1L);
+
+        // Then
+        assertFalse(tokenStatusStore.isActive("token-1"));
+        assertFalse(tokenStatusStore.isActive("token-2"));
+        assertTrue("Los tokens de otros usuarios no se tocan", tokenStatusStore.isActive("token-3"));
+        verify(tokenRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    public void testIsActive_FalsoPositivoDelFiltroNoRechazaTokenValido() {
+        // Given - un filtro saturado en el que cualquier hash es un acierto
+        TokenStatusStore saturado = new TokenStatusStore(tokenRepository, meterRegistry, 3600000L, 1000L, 1L, 0.5);
+        for (int i = 0; i < 200; i++) {
+            saturado.revocar(TokenHasher.hash("revocado-" + i));
+        }
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Token token = Token.builder().token("token-valido").usuario(usuario).expiresAt(expiracion).build();
+        when(tokenRepository.findByTokenHash(TokenHasher.hash("token-valido"))).thenReturn(Optional.of(token));
+
+        // When & Then
+        assertTrue("Un acierto del filtro sin revocación real no debe rechazar", saturado.isActive("token-valido"));
+        assertFalse(saturado.isActive("revocado-7"));
+    }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -19,18 +20,28 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Limit;
 
 import com.tienda.electronica.entity.Usuario;
 import com.tienda.electronica.exceptions.UsuarioNotFoundException;
 import com.tienda.electronica.repository.UsuarioRepository;
+import com.tienda.electronica.request.PaginaRequest;
 
 @RunWith(MockitoJUnitRunner.class)
 public class UsuarioServiceTest {
+    private static final PaginaRequest PRIMERA_PAGINA = new PaginaRequest(null, null, null);
 
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Spy
+    private Paginacion paginacion = new Paginacion(50, 200, Duration.ofMinutes(1));
+
     @InjectMocks
     private UsuarioService usuarioService;
 
@@ -67,15 +78,15 @@ public class UsuarioServiceTest {
     public void testObtenerTodos() {
         // Given
         List<Usuario> usuarios = Arrays.asList(usuario1, usuario2);
-        when(usuarioRepository.findAll()).thenReturn(usuarios);
+        when(usuarioRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(usuarios);
 
         // When
-        List<Usuario> resultado = usuarioService.obtenerTodos();
+        List<Usuario> resultado = usuarioService.obtenerTodos(PRIMERA_PAGINA).elementos();
 
         // Then
         assertNotNull("La lista no debe ser nula", resultado);
         assertEquals("Debe retornar 2 usuarios", 2, resultado.size());
-        verify(usuarioRepository, times(1)).findAll();
+        verify(usuarioRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51));
     }
 
     @Test
@@ -158,6 +169,8 @@ public class UsuarioServiceTest {
         assertEquals("El email debe estar actualizado", "juan.actualizado@example.com", resultado.getEmail());
         verify(usuarioRepository, times(1)).findById(1L);
         verify(usuarioRepository, times(1)).save(any(Usuario.class));
+        verify(principalCache, times(1)).evict("juan.perez@example.com");
+        verify(principalCache, times(1)).evict("juan.actualizado@example.com");
     }
 
     @Test(expected = UsuarioNotFoundException.class)
@@ -178,23 +191,25 @@ public class UsuarioServiceTest {
 
         // Then
         verify(usuarioRepository, times(1)).deleteById(1L);
+        verify(principalCache, times(1)).evictUsuario(1L);
     }
 
     @Test
     public void testObtenerActivos() {
         // Given
         List<Usuario> usuariosActivos = Arrays.asList(usuario1, usuario2);
-        when(usuarioRepository.findByActivoTrue()).thenReturn(usuariosActivos);
+        when(usuarioRepository.findByActivoTrueAndIdGreaterThanOrderByIdAsc(0L, Limit.of(51)))
+                .thenReturn(usuariosActivos);
 
         // When
-        List<Usuario> resultado = usuarioService.obtenerActivos();
+        List<Usuario> resultado = usuarioService.obtenerActivos(PRIMERA_PAGINA).elementos();
 
         // Then
         assertNotNull("La lista no debe ser nula", resultado);
         assertEquals("Debe retornar 2 usuarios activos", 2, resultado.size());
         assertTrue("Todos deben estar activos",
                 resultado.stream().allMatch(Usuario::getActivo));
-        verify(usuarioRepository, times(1)).findByActivoTrue();
+        verify(usuarioRepository, times(1)).findByActivoTrueAndIdGreaterThanOrderByIdAsc(0L, Limit.of(51));
     }
 
     @Test